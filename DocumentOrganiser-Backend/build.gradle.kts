@@ -35,7 +35,9 @@ val versions = mapOf(
     "jjwt" to "0.13.0",
     "googleApiClient" to "2.8.0",
     "awsSdk" to "2.31.74",
+    "awsCrt" to "0.38.1",
     "tika" to "3.2.3",
+    "pdfbox" to "3.0.5",
     "springdocOpenapi" to "2.8.16",
     "lombok" to "1.18.42",
     "mapstruct" to "1.6.3",
@@ -83,11 +85,15 @@ dependencies {
     // =========================================================================
     implementation("software.amazon.awssdk:s3")
     implementation("software.amazon.awssdk:sts")
+    // Native transfer client used by the async storage service when present (parallel parts, native checksums)
+    runtimeOnly("software.amazon.awssdk.crt:aws-crt:${versions["awsCrt"]}")
 
     // =========================================================================
     // File Processing
     // =========================================================================
     implementation("org.apache.tika:tika-core:${versions["tika"]}")
+    implementation("org.apache.tika:tika-parsers-standard-package:${versions["tika"]}")
+    implementation("org.apache.pdfbox:pdfbox:${versions["pdfbox"]}")
 
     // =========================================================================
     // API Documentation
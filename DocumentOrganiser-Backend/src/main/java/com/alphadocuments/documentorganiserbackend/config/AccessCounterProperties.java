@@ -0,0 +1,19 @@
+package com.alphadocuments.documentorganiserbackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for write-behind download and share link access counters.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "access-counters")
+public class AccessCounterProperties {
+
+    /** How often pending counts are written; also the most that a crash can lose. */
+    private long flushIntervalMs = 5_000;
+    /** Independently locked maps the pending counts are spread over. */
+    private int stripes = 16;
+}
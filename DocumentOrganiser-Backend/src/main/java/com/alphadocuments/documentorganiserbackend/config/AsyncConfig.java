@@ -7,6 +7,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Async configuration for background tasks and scheduled jobs.
@@ -26,4 +27,118 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Executor for multipart upload parts. Shared by all uploads; each upload caps its own
+     * in-flight parts, and a full queue makes the uploading thread send the part itself.
+     */
+    @Bean(name = "storageTransferExecutor")
+    public Executor storageTransferExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(32);
+        executor.setThreadNamePrefix("StorageTransfer-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for streaming the files of batch uploads into storage. Each batch caps its own
+     * in-flight files; a full queue makes the request thread ingest the file itself.
+     */
+    @Bean(name = "uploadIngestExecutor")
+    public Executor uploadIngestExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(64);
+        executor.setThreadNamePrefix("UploadIngest-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for background text and metadata extraction. Bounded so a burst of uploads queues
+     * up instead of competing with request threads; documents it rejects stay PENDING and are
+     * picked up by the next sweep.
+     */
+    @Bean(name = "documentProcessingExecutor")
+    public Executor documentProcessingExecutor(ProcessingProperties processingProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(processingProperties.getThreads());
+        executor.setMaxPoolSize(processingProperties.getThreads());
+        executor.setQueueCapacity(processingProperties.getQueueCapacity());
+        executor.setThreadNamePrefix("DocumentProcessing-");
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for rendering thumbnails. Image decoding is CPU-bound, so the pool is sized to
+     * the processors and excess work waits in a bounded queue.
+     */
+    @Bean(name = "thumbnailExecutor")
+    public Executor thumbnailExecutor(ProcessingProperties processingProperties) {
+        ProcessingProperties.Thumbnails thumbnails = processingProperties.getThumbnails();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(thumbnails.getThreadCount());
+        executor.setMaxPoolSize(thumbnails.getThreadCount());
+        executor.setQueueCapacity(thumbnails.getQueueCapacity());
+        executor.setThreadNamePrefix("Thumbnail-");
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for background export jobs. Small and low priority so exports cannot starve request
+     * handling; jobs it rejects stay QUEUED and are picked up by the next sweep.
+     */
+    @Bean(name = "exportExecutor")
+    public Executor exportExecutor(ExportJobProperties exportJobProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(exportJobProperties.getMaxConcurrentJobs());
+        executor.setMaxPoolSize(exportJobProperties.getMaxConcurrentJobs());
+        executor.setQueueCapacity(exportJobProperties.getQueueCapacity());
+        executor.setThreadNamePrefix("Export-");
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for trash purge workers. Each runs chunks one after another, so the pool size is the
+     * purge concurrency; purges it rejects are left for the next sweep.
+     */
+    @Bean(name = "trashPurgeExecutor")
+    public Executor trashPurgeExecutor(TrashPurgeProperties trashPurgeProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(trashPurgeProperties.getConcurrency());
+        executor.setMaxPoolSize(trashPurgeProperties.getConcurrency());
+        executor.setQueueCapacity(trashPurgeProperties.getConcurrency() * 16);
+        executor.setThreadNamePrefix("TrashPurge-");
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for the storage tiering job, which waits on each page of storage class copies. One thread,
+     * so the job never holds the shared scheduler thread and runs never overlap.
+     */
+    @Bean(name = "storageTieringExecutor")
+    public Executor storageTieringExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("StorageTiering-");
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.initialize();
+        return executor;
+    }
 }
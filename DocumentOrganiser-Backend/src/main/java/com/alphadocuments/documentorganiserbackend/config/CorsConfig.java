@@ -40,6 +40,9 @@ public class CorsConfig {
         configuration.setExposedHeaders(Arrays.asList(
                 "Authorization",
                 "Content-Disposition",
+                "Content-Range",
+                "Accept-Ranges",
+                "ETag",
                 "X-Total-Count",
                 "X-Page-Number",
                 "X-Page-Size"
@@ -0,0 +1,22 @@
+package com.alphadocuments.documentorganiserbackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for background export jobs.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "export-jobs")
+public class ExportJobProperties {
+
+    private int maxConcurrentJobs = 2; // Across all users; each job reads and uploads one object at a time
+    private int queueCapacity = 50; // Jobs beyond this stay QUEUED until the next sweep
+    private int maxAttempts = 3;
+    private long staleAfterSeconds = 300; // A running job without a heartbeat this long is taken over
+    private long sweepIntervalMs = 60_000;
+    private long retentionHours = 72; // How long a finished archive can be downloaded
+    private long downloadUrlExpiryMinutes = 60;
+}
@@ -0,0 +1,58 @@
+package com.alphadocuments.documentorganiserbackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Configuration properties for background content processing (text and metadata extraction).
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "processing")
+public class ProcessingProperties {
+
+    private boolean enabled = true;
+    private int threads = 2;
+    private int queueCapacity = 100; // Documents beyond this stay PENDING until the next sweep
+    private long timeoutSeconds = 120; // Per extraction attempt
+    private int maxAttempts = 3; // Per stage
+    private long retryBackoffMs = 2_000; // Doubled after every failed attempt
+    private long maxFileSizeMb = 200; // Larger files are marked SKIPPED
+    private long largeFileThresholdMb = 20;
+    private int largeFileConcurrency = 1; // Large files processed at the same time
+    private int maxTextLength = 1_000_000; // Characters of extracted text kept
+    private Thumbnails thumbnails = new Thumbnails();
+
+    public long getMaxFileSizeBytes() {
+        return maxFileSizeMb * 1024 * 1024;
+    }
+
+    public long getLargeFileThresholdBytes() {
+        return largeFileThresholdMb * 1024 * 1024;
+    }
+
+    /**
+     * Settings for thumbnails of images and first PDF pages.
+     */
+    @Data
+    public static class Thumbnails {
+
+        private boolean enabled = true;
+        private List<Integer> sizes = List.of(128, 256, 512); // Longest edge in pixels
+        private int threads = 0; // 0 uses half the available processors
+        private int queueCapacity = 200;
+        private long maxSourceSizeMb = 50; // Larger files get no thumbnail
+        private long maxPixels = 100_000_000; // Guards against decompression bombs
+
+        public long getMaxSourceSizeBytes() {
+            return maxSourceSizeMb * 1024 * 1024;
+        }
+
+        public int getThreadCount() {
+            return threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.alphadocuments.documentorganiserbackend.security.oauth2.CustomOAuth2U
 import com.alphadocuments.documentorganiserbackend.security.oauth2.OAuth2AuthenticationFailureHandler;
 import com.alphadocuments.documentorganiserbackend.security.oauth2.OAuth2AuthenticationSuccessHandler;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -40,6 +41,7 @@ public class SecurityConfig {
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final RateLimitFilter rateLimitFilter;
+    private final UploadAdmissionFilter uploadAdmissionFilter;
     private final CorsConfigurationSource corsConfigurationSource;
 
     @Bean
@@ -68,11 +70,23 @@ public class SecurityConfig {
                 .successHandler(oAuth2AuthenticationSuccessHandler)
                 .failureHandler(oAuth2AuthenticationFailureHandler))
             .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(uploadAdmissionFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * Upload admission needs the authenticated user, so it only runs inside the security chain
+     * and is not registered with the servlet container on its own.
+     */
+    @Bean
+    public FilterRegistrationBean<UploadAdmissionFilter> uploadAdmissionFilterRegistration() {
+        FilterRegistrationBean<UploadAdmissionFilter> registration = new FilterRegistrationBean<>(uploadAdmissionFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
         return authConfig.getAuthenticationManager();
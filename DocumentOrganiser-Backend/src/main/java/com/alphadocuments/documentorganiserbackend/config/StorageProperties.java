@@ -12,7 +12,7 @@ import org.springframework.context.annotation.Configuration;
 @ConfigurationProperties(prefix = "storage")
 public class StorageProperties {
 
-    private String type = "minio"; // minio or s3
+    private String type = "minio"; // minio, s3 or local
     private String endpoint;
     private String accessKey;
     private String secretKey;
@@ -20,8 +20,194 @@ public class StorageProperties {
     private String region = "ap-south-1";
     private long defaultQuotaMb = 100; // Default storage quota in MB
     private boolean failFast = true;
+    private Multipart multipart = new Multipart();
+    private UploadSessions uploadSessions = new UploadSessions();
+    private Batch batch = new Batch();
+    private Versions versions = new Versions();
+    private Downloads downloads = new Downloads();
+    private PresignedUrls presignedUrls = new PresignedUrls();
+    private BlobCache blobCache = new BlobCache();
+    private Archives archives = new Archives();
+    private Async async = new Async();
+    private Local local = new Local();
+    private Tiering tiering = new Tiering();
 
     public long getDefaultQuotaBytes() {
         return defaultQuotaMb * 1024 * 1024;
     }
+
+    /**
+     * Settings for parallel S3 multipart uploads of large files.
+     */
+    @Data
+    public static class Multipart {
+
+        private boolean enabled = true;
+        private long thresholdMb = 16; // Files at or above this size use multipart upload
+        private long partSizeMb = 8; // S3 requires at least 5 MB per part (except the last)
+        private int concurrency = 4; // Parts in flight per upload
+        private int maxPartRetries = 3;
+        private int maxBufferedMb = 256; // Part data held in memory across all uploads; caps concurrency x part size x uploads
+
+        public long getThresholdBytes() {
+            return thresholdMb * 1024 * 1024;
+        }
+
+        public long getPartSizeBytes() {
+            return Math.max(partSizeMb, 5) * 1024 * 1024;
+        }
+    }
+
+    /**
+     * Settings for resumable chunked and direct upload sessions.
+     */
+    @Data
+    public static class UploadSessions {
+
+        private long chunkSizeMb = 8; // Each chunk becomes one multipart part, so at least 5 MB
+        private long expiryHours = 24; // Extended every time a chunk arrives
+        private long directUrlExpiryMinutes = 60; // Lifetime of pre-signed URLs for direct uploads
+
+        public long getChunkSizeBytes() {
+            return Math.max(chunkSizeMb, 5) * 1024 * 1024;
+        }
+    }
+
+    /**
+     * Settings for multi-file batch uploads.
+     */
+    @Data
+    public static class Batch {
+
+        private int maxFiles = 500;
+        private int concurrency = 4; // Files of one batch streamed to storage at the same time
+    }
+
+    /**
+     * Content-defined chunking of superseded document versions.
+     */
+    @Data
+    public static class Versions {
+
+        private int minChunkKb = 64;
+        private int averageChunkKb = 256; // Must be a power of two
+        private int maxChunkKb = 1024;
+
+        public int getMinChunkBytes() {
+            return minChunkKb * 1024;
+        }
+
+        public int getAverageChunkBytes() {
+            return averageChunkKb * 1024;
+        }
+
+        public int getMaxChunkBytes() {
+            return maxChunkKb * 1024;
+        }
+    }
+
+    /**
+     * How file downloads reach the client.
+     */
+    @Data
+    public static class Downloads {
+
+        private Mode mode = Mode.REDIRECT;
+        private long redirectUrlExpirySeconds = 300; // Only needs to outlive the redirect being followed
+
+        public enum Mode {
+            /** Stream the bytes through the application; for storage the client cannot reach. */
+            PROXY,
+            /** Answer with 302 to a short-lived pre-signed URL so the client fetches from storage directly. */
+            REDIRECT
+        }
+    }
+
+    /**
+     * Settings for pre-signed preview URLs and their in-memory cache.
+     */
+    @Data
+    public static class PresignedUrls {
+
+        private long expirySeconds = 3600;
+        private long refreshMarginSeconds = 900; // Cached URLs are handed out with at least this much validity left
+        private boolean cacheEnabled = true;
+        private int cacheMaxEntries = 10_000;
+    }
+
+    /**
+     * Settings for the local disk cache of frequently read blobs.
+     */
+    @Data
+    public static class BlobCache {
+
+        private boolean enabled = false;
+        private String directory = System.getProperty("java.io.tmpdir") + "/document-blob-cache";
+        private long maxSizeMb = 2048;
+        private long maxBlobMb = 100; // Larger blobs are always read from storage
+        private int warmTopDocuments = 20; // Most downloaded documents loaded at startup
+
+        public long getMaxSizeBytes() {
+            return maxSizeMb * 1024 * 1024;
+        }
+
+        public long getMaxBlobBytes() {
+            return maxBlobMb * 1024 * 1024;
+        }
+    }
+
+    /**
+     * Settings for streaming ZIP archives of stored files.
+     */
+    @Data
+    public static class Archives {
+
+        private int prefetchCount = 4; // Objects fetched ahead of the one being written
+        private long maxBufferedObjectMb = 8; // Larger objects are streamed instead of prefetched
+        private long maxFolderDownloadMb = 2048; // Largest folder that can be downloaded as one archive
+
+        public long getMaxBufferedObjectBytes() {
+            return maxBufferedObjectMb * 1024 * 1024;
+        }
+
+        public long getMaxFolderDownloadBytes() {
+            return maxFolderDownloadMb * 1024 * 1024;
+        }
+    }
+
+    /**
+     * Settings for the non-blocking S3 client.
+     */
+    @Data
+    public static class Async {
+
+        private boolean enabled = true; // Stream proxied downloads without holding a request thread
+        private boolean crtEnabled = true; // Use the native CRT client when aws-crt is on the classpath
+        private double targetThroughputGbps = 10.0; // CRT sizes its connection pool to reach this
+        private int maxConcurrency = 64; // Requests in flight across all transfers
+        private long responseTimeoutMinutes = 60; // Longest a streamed download may take
+    }
+
+    /**
+     * Settings for the local filesystem backend ({@code storage.type=local}).
+     */
+    @Data
+    public static class Local {
+
+        private String directory = "./data/storage";
+        private boolean fsync = true; // Force content to disk before it becomes visible under its key
+    }
+
+    /**
+     * Settings for moving content that has not been read in a while to cheaper storage.
+     */
+    @Data
+    public static class Tiering {
+
+        private boolean enabled = false;
+        private String cron = "0 0 4 * * ?";
+        private int coldAfterDays = 30; // Since the last read, or upload if never read
+        private String coldStorageClass = "STANDARD_IA"; // S3 class for cold objects; must be readable without a restore
+        private int batchSize = 100; // Documents per page, and objects moved in parallel
+    }
 }
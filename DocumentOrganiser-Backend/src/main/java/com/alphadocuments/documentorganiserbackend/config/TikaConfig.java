@@ -0,0 +1,28 @@
+package com.alphadocuments.documentorganiserbackend.config;
+
+import org.apache.tika.Tika;
+import org.apache.tika.parser.AutoDetectParser;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Apache Tika configuration.
+ * Tika loads its MIME type registry and parsers on construction and both are thread-safe,
+ * so one instance of each is shared.
+ */
+@Configuration
+public class TikaConfig {
+
+    @Bean
+    public Tika tika() {
+        return new Tika();
+    }
+
+    /**
+     * Parser for text and metadata extraction; delegates to the parsers on the classpath by detected type.
+     */
+    @Bean
+    public AutoDetectParser autoDetectParser() {
+        return new AutoDetectParser();
+    }
+}
@@ -0,0 +1,34 @@
+package com.alphadocuments.documentorganiserbackend.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for purging trash and deleting the storage objects it frees.
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "trash-purge")
+public class TrashPurgeProperties {
+
+    @Positive
+    private int chunkSize = 100; // Trash items purged per transaction
+    @Positive
+    private int concurrency = 4; // Chunks purged in parallel
+    @Positive
+    private double maxChunksPerSecond = 10; // Across all workers on this instance
+    private long retryDelayMinutes = 60; // An item that fails to purge is tried again after this
+    private long sweepIntervalMs = 900_000;
+
+    @Positive
+    @Max(1000)
+    private int deleteBatchSize = 1000; // Storage keys per delete request; S3 allows at most 1000
+    private long deleteIntervalMs = 10_000;
+    @Positive
+    private int maxDeleteAttempts = 10; // Keys still failing after this are dropped from the queue and logged
+}
@@ -0,0 +1,239 @@
+package com.alphadocuments.documentorganiserbackend.config;
+
+import com.alphadocuments.documentorganiserbackend.security.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for requests that stream file content through the API.
+ * <p>
+ * Each upload reserves one slot and its Content-Length against a global budget and a per-user budget.
+ * When either budget is exhausted the request waits briefly for capacity and is otherwise rejected
+ * with 503 and a Retry-After header, before any of the body has been read.
+ * <p>
+ * Registered in the security filter chain after authentication so uploads can be attributed to a user.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private static final String[] POST_UPLOAD_PATHS = {
+            "/documents", "/documents/batch", "/documents/workspace/*", "/documents/*/versions"};
+    private static final String CHUNK_UPLOAD_PATH = "/uploads/sessions/*/chunks/*";
+
+    private final UploadAdmissionProperties admissionProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition capacityReleased = lock.newCondition();
+    private final Map<String, Usage> usageByUser = new HashMap<>();
+    private int activeUploads;
+    private long activeBytes;
+    private int queued;
+
+    @PostConstruct
+    void registerGauges() {
+        meterRegistry.gauge("upload.admission.active", this, filter -> filter.activeUploads);
+        meterRegistry.gauge("upload.admission.active.bytes", this, filter -> filter.activeBytes);
+        meterRegistry.gauge("upload.admission.queue.depth", this, filter -> filter.queued);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!admissionProperties.isEnabled()) {
+            return true;
+        }
+        String path = getApplicationPath(request);
+        if ("PUT".equalsIgnoreCase(request.getMethod())) {
+            return !pathMatcher.match(CHUNK_UPLOAD_PATH, path);
+        }
+        if ("POST".equalsIgnoreCase(request.getMethod())) {
+            for (String pattern : POST_UPLOAD_PATHS) {
+                if (pathMatcher.match(pattern, path)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                     HttpServletResponse response,
+                                     FilterChain filterChain) throws ServletException, IOException {
+        String userKey = getUserKey(request);
+        long contentLength = request.getContentLengthLong();
+        long bytes = contentLength >= 0 ? contentLength : admissionProperties.getUnknownLengthBytes();
+
+        Rejection rejection = admit(userKey, bytes);
+        if (rejection != null) {
+            reject(response, userKey, rejection);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            release(userKey, bytes);
+        }
+    }
+
+    /**
+     * Reserve capacity for an upload, waiting up to the queue timeout.
+     * @return null when admitted, otherwise the limit that could not be satisfied
+     */
+    private Rejection admit(String userKey, long bytes) throws ServletException {
+        long waitNanos = TimeUnit.MILLISECONDS.toNanos(admissionProperties.getQueueTimeoutMs());
+        lock.lock();
+        try {
+            Rejection blocked = check(userKey, bytes);
+            if (blocked != null) {
+                if (queued >= admissionProperties.getMaxQueueDepth()) {
+                    return Rejection.QUEUE_FULL;
+                }
+                long started = System.nanoTime();
+                queued++;
+                try {
+                    while (blocked != null && waitNanos > 0) {
+                        waitNanos = capacityReleased.awaitNanos(waitNanos);
+                        blocked = check(userKey, bytes);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ServletException("Interrupted while waiting for upload capacity", e);
+                } finally {
+                    queued--;
+                    meterRegistry.timer("upload.admission.queue.wait")
+                            .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+                if (blocked != null) {
+                    return blocked;
+                }
+            }
+
+            Usage usage = usageByUser.computeIfAbsent(userKey, key -> new Usage());
+            usage.uploads++;
+            usage.bytes += bytes;
+            activeUploads++;
+            activeBytes += bytes;
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A single request larger than a byte budget is still admitted once nothing else holds that budget,
+     * so the limits cannot starve it; the multipart size limits reject oversized bodies separately.
+     */
+    private Rejection check(String userKey, long bytes) {
+        Usage usage = usageByUser.getOrDefault(userKey, Usage.IDLE);
+        if (usage.uploads >= admissionProperties.getMaxConcurrentUploadsPerUser()
+                || (usage.bytes > 0 && usage.bytes + bytes > admissionProperties.getMaxInFlightBytesPerUser())) {
+            return Rejection.USER_LIMIT;
+        }
+        if (activeUploads >= admissionProperties.getMaxConcurrentUploads()
+                || (activeBytes > 0 && activeBytes + bytes > admissionProperties.getMaxInFlightBytes())) {
+            return Rejection.GLOBAL_LIMIT;
+        }
+        return null;
+    }
+
+    private void release(String userKey, long bytes) {
+        lock.lock();
+        try {
+            Usage usage = usageByUser.get(userKey);
+            if (usage != null) {
+                usage.uploads--;
+                usage.bytes -= bytes;
+                if (usage.uploads == 0) {
+                    usageByUser.remove(userKey);
+                }
+            }
+            activeUploads--;
+            activeBytes -= bytes;
+            capacityReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reject(HttpServletResponse response, String userKey, Rejection rejection) throws IOException {
+        meterRegistry.counter("upload.admission.rejected", "reason", rejection.tag).increment();
+        log.warn("Upload rejected for {}: {}", userKey, rejection.tag);
+
+        int retryAfter = admissionProperties.getRetryAfterSeconds();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        // The body has not been read; closing the connection stops the client from sending the rest of it
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.setContentType("application/json");
+        response.getWriter().write(
+                "{\"success\":false,\"message\":\"" + rejection.message + "\","
+                        + "\"error\":{\"code\":\"UPLOAD_CAPACITY_EXCEEDED\","
+                        + "\"message\":\"Upload capacity exceeded. Try again in "
+                        + retryAfter
+                        + " seconds.\"}}"
+        );
+    }
+
+    private String getUserKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId().toString();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private String getApplicationPath(HttpServletRequest request) {
+        String contextPath = request.getContextPath();
+        String requestUri = request.getRequestURI();
+        if (contextPath != null && !contextPath.isEmpty() && requestUri.startsWith(contextPath)) {
+            return requestUri.substring(contextPath.length());
+        }
+        return request.getServletPath();
+    }
+
+    private static final class Usage {
+        private static final Usage IDLE = new Usage();
+
+        private int uploads;
+        private long bytes;
+    }
+
+    private enum Rejection {
+        USER_LIMIT("user", "Too many uploads in progress. Please wait for them to finish."),
+        GLOBAL_LIMIT("global", "The server is busy. Please try again later."),
+        QUEUE_FULL("queue_full", "The server is busy. Please try again later.");
+
+        private final String tag;
+        private final String message;
+
+        Rejection(String tag, String message) {
+            this.tag = tag;
+            this.message = message;
+        }
+    }
+}
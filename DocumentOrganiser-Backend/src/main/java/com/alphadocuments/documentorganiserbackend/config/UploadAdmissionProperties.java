@@ -0,0 +1,40 @@
+package com.alphadocuments.documentorganiserbackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for upload admission control.
+ * Limits apply to requests that carry file content through the API; direct-to-bucket uploads are not counted.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "upload-admission")
+public class UploadAdmissionProperties {
+
+    private boolean enabled = true;
+    private int maxConcurrentUploads = 32;
+    private long maxInFlightMb = 1024;
+    private int maxConcurrentUploadsPerUser = 4;
+    private long maxInFlightMbPerUser = 256;
+    /** Size assumed for requests without a Content-Length (chunked transfer encoding). */
+    private long unknownLengthMb = 100;
+    /** How long a request may wait for capacity before it is rejected. */
+    private long queueTimeoutMs = 2_000;
+    /** Requests beyond this many waiters are rejected immediately. */
+    private int maxQueueDepth = 64;
+    private int retryAfterSeconds = 5;
+
+    public long getMaxInFlightBytes() {
+        return maxInFlightMb * 1024 * 1024;
+    }
+
+    public long getMaxInFlightBytesPerUser() {
+        return maxInFlightMbPerUser * 1024 * 1024;
+    }
+
+    public long getUnknownLengthBytes() {
+        return unknownLengthMb * 1024 * 1024;
+    }
+}
@@ -0,0 +1,85 @@
+package com.alphadocuments.documentorganiserbackend.controller;
+
+import com.alphadocuments.documentorganiserbackend.dto.request.CreateUploadSessionRequest;
+import com.alphadocuments.documentorganiserbackend.dto.response.ApiResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.DirectUploadResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.DocumentResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.InstantUploadResponse;
+import com.alphadocuments.documentorganiserbackend.security.CurrentUser;
+import com.alphadocuments.documentorganiserbackend.security.UserPrincipal;
+import com.alphadocuments.documentorganiserbackend.service.UploadSessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * REST controller for uploads that go straight to the storage bucket.
+ */
+@RestController
+@RequestMapping("/uploads/direct")
+@RequiredArgsConstructor
+@Tag(name = "Direct Uploads", description = "Direct-to-bucket upload APIs")
+public class DirectUploadController {
+
+    private final UploadSessionService uploadSessionService;
+
+    @PostMapping("/initiate")
+    @Operation(summary = "Initiate direct upload",
+            description = "Reserve quota and get pre-signed URLs. PUT the file to uploadUrl with the returned "
+                    + "headers, or each part to its URL for large files, then call complete. "
+                    + "Passing the SHA-256 checksum lets storage verify a single PUT.")
+    public ResponseEntity<ApiResponse<DirectUploadResponse>> initiateUpload(
+            @CurrentUser UserPrincipal userPrincipal,
+            @Valid @RequestBody CreateUploadSessionRequest request) {
+
+        DirectUploadResponse upload = uploadSessionService.initiateDirectUpload(userPrincipal.getId(), request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(upload, "Direct upload initiated"));
+    }
+
+    @PostMapping("/instant")
+    @Operation(summary = "Instant upload",
+            description = "Send the name, size and SHA-256 checksum first. If you or the workspace already "
+                    + "store this content, the document is created without uploading it (contentReused). "
+                    + "Otherwise a direct upload is initiated and returned as the upload target.")
+    public ResponseEntity<ApiResponse<InstantUploadResponse>> instantUpload(
+            @CurrentUser UserPrincipal userPrincipal,
+            @Valid @RequestBody CreateUploadSessionRequest request) {
+
+        InstantUploadResponse upload = uploadSessionService.initiateInstantUpload(userPrincipal.getId(), request);
+        String message = upload.isContentReused() ? "Document uploaded successfully" : "Direct upload initiated";
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(upload, message));
+    }
+
+    @PostMapping("/{sessionId}/complete")
+    @Operation(summary = "Complete direct upload",
+            description = "Verify the uploaded object and create the document. conflictResolution overrides "
+                    + "the value given when the upload was initiated.")
+    public ResponseEntity<ApiResponse<DocumentResponse>> completeUpload(
+            @CurrentUser UserPrincipal userPrincipal,
+            @PathVariable UUID sessionId,
+            @RequestParam(value = "conflictResolution", required = false) String conflictResolution) {
+
+        DocumentResponse document = uploadSessionService.completeDirectUpload(
+                userPrincipal.getId(), sessionId, conflictResolution);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(document, "Document uploaded successfully"));
+    }
+
+    @DeleteMapping("/{sessionId}")
+    @Operation(summary = "Abort direct upload", description = "Release the reserved quota and discard uploaded data")
+    public ResponseEntity<ApiResponse<Void>> abortUpload(
+            @CurrentUser UserPrincipal userPrincipal,
+            @PathVariable UUID sessionId) {
+
+        uploadSessionService.abortSession(userPrincipal.getId(), sessionId);
+        return ResponseEntity.ok(ApiResponse.success(null, "Direct upload aborted"));
+    }
+}
@@ -3,29 +3,41 @@ package com.alphadocuments.documentorganiserbackend.controller;
 import com.alphadocuments.documentorganiserbackend.dto.request.MoveDocumentRequest;
 import com.alphadocuments.documentorganiserbackend.dto.request.RenameDocumentRequest;
 import com.alphadocuments.documentorganiserbackend.dto.response.ApiResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.BatchUploadResponse;
 import com.alphadocuments.documentorganiserbackend.dto.response.DocumentResponse;
 import com.alphadocuments.documentorganiserbackend.dto.response.DocumentVersionResponse;
 import com.alphadocuments.documentorganiserbackend.dto.response.PagedResponse;
 import com.alphadocuments.documentorganiserbackend.entity.enums.DocumentCategory;
 import com.alphadocuments.documentorganiserbackend.security.CurrentUser;
 import com.alphadocuments.documentorganiserbackend.security.UserPrincipal;
+import com.alphadocuments.documentorganiserbackend.service.BatchUploadService;
 import com.alphadocuments.documentorganiserbackend.service.DocumentService;
+import com.alphadocuments.documentorganiserbackend.service.DownloadContent;
+import com.alphadocuments.documentorganiserbackend.service.ThumbnailService;
+import com.alphadocuments.documentorganiserbackend.util.DownloadResponseWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -39,6 +51,9 @@ import java.util.UUID;
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final BatchUploadService batchUploadService;
+    private final ThumbnailService thumbnailService;
+    private final DownloadResponseWriter downloadResponseWriter;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Upload document",
@@ -58,6 +73,24 @@ public class DocumentController {
                 .body(ApiResponse.success(document, "Document uploaded successfully"));
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Upload documents in batch",
+            description = "Upload many files into one folder in a single request. Files are stored concurrently "
+                    + "and the response reports the outcome of each file; conflictResolution applies to all of them.")
+    public ResponseEntity<ApiResponse<BatchUploadResponse>> uploadDocuments(
+            @CurrentUser UserPrincipal userPrincipal,
+            @RequestParam(value = "folderId", required = false) UUID folderId,
+            @RequestParam(value = "workspaceId", required = false) UUID workspaceId,
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "conflictResolution", required = false, defaultValue = "error")
+                    String conflictResolution) {
+
+        BatchUploadResponse result = batchUploadService.uploadDocuments(
+                userPrincipal.getId(), workspaceId, folderId, files, conflictResolution);
+        String message = result.getSucceeded() + " of " + result.getTotal() + " documents uploaded";
+        return ResponseEntity.ok(ApiResponse.success(result, message));
+    }
+
     @GetMapping("/{documentId}")
     @Operation(summary = "Get document", description = "Get document metadata by ID")
     public ResponseEntity<ApiResponse<DocumentResponse>> getDocument(
@@ -69,19 +102,20 @@ public class DocumentController {
     }
 
     @GetMapping("/{documentId}/download")
-    @Operation(summary = "Download document", description = "Download a document file")
-    public ResponseEntity<Resource> downloadDocument(
+    @Operation(summary = "Download document",
+            description = "Download a document file. Supports Range and If-Range requests for partial content, "
+                    + "and If-None-Match / If-Modified-Since for 304 responses.")
+    public void downloadDocument(
             @CurrentUser UserPrincipal userPrincipal,
-            @PathVariable UUID documentId) {
-
-        DocumentResponse document = documentService.getDocument(userPrincipal.getId(), documentId);
-        Resource resource = documentService.downloadDocument(userPrincipal.getId(), documentId);
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(document.getMimeType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + document.getOriginalName() + "\"")
-                .body(resource);
+            @PathVariable UUID documentId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        DownloadContent content = documentService.downloadDocument(userPrincipal.getId(), documentId);
+        boolean sent = downloadResponseWriter.write(request, response, content, "document");
+        if (sent && DownloadResponseWriter.isInitialRequest(request)) {
+            documentService.recordDownload(userPrincipal.getId(), documentId);
+        }
     }
 
     @GetMapping("/{documentId}/preview")
@@ -94,6 +128,37 @@ public class DocumentController {
         return ResponseEntity.ok(ApiResponse.success(url));
     }
 
+    @GetMapping("/{documentId}/thumbnail")
+    @Operation(summary = "Get thumbnail",
+            description = "Get a JPEG thumbnail of an image or the first page of a PDF, no smaller than the "
+                    + "requested size where possible. Returns 404 while the thumbnail is still being rendered. "
+                    + "URLs from thumbnailUrl carry a version and may be cached indefinitely.")
+    public ResponseEntity<Resource> getThumbnail(
+            @CurrentUser UserPrincipal userPrincipal,
+            @PathVariable UUID documentId,
+            @RequestParam(value = "size", defaultValue = "256") int size,
+            @RequestParam(value = "v", required = false) String version,
+            WebRequest webRequest) {
+
+        ThumbnailService.Thumbnail thumbnail = thumbnailService.getThumbnail(userPrincipal.getId(), documentId, size);
+        if (webRequest.checkNotModified(thumbnail.eTag(), thumbnail.lastModified().toEpochMilli())) {
+            // 304 is already set; don't open the image at all
+            return null;
+        }
+
+        // Versioned URLs never change content; unversioned ones must be revalidated
+        CacheControl cacheControl = thumbnail.generation().equals(version)
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .cacheControl(cacheControl)
+                .eTag(thumbnail.eTag())
+                .lastModified(thumbnail.lastModified())
+                .body(new InputStreamResource(thumbnailService.openThumbnail(thumbnail)));
+    }
+
     @PutMapping("/{documentId}")
     @Operation(summary = "Rename document", description = "Rename a document")
     public ResponseEntity<ApiResponse<DocumentResponse>> renameDocument(
@@ -257,6 +322,39 @@ public class DocumentController {
         return ResponseEntity.ok(ApiResponse.success(versions));
     }
 
+    @PostMapping(value = "/{documentId}/versions", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Upload new version",
+            description = "Replace the document's content with a new version. Earlier versions stay in the "
+                    + "history and are stored as deltas, so only the changed blocks take up space.")
+    public ResponseEntity<ApiResponse<DocumentResponse>> uploadVersion(
+            @CurrentUser UserPrincipal userPrincipal,
+            @PathVariable UUID documentId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "changeDescription", required = false) String changeDescription) {
+
+        DocumentResponse document = documentService.uploadVersion(
+                userPrincipal.getId(), documentId, file, changeDescription);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(document, "Version uploaded successfully"));
+    }
+
+    @GetMapping("/{documentId}/versions/{versionNumber}/download")
+    @Operation(summary = "Download version", description = "Download the content of a document version")
+    public ResponseEntity<Resource> downloadVersion(
+            @CurrentUser UserPrincipal userPrincipal,
+            @PathVariable UUID documentId,
+            @PathVariable Integer versionNumber) {
+
+        DocumentResponse document = documentService.getDocument(userPrincipal.getId(), documentId);
+        Resource resource = documentService.downloadVersion(userPrincipal.getId(), documentId, versionNumber);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"v" + versionNumber + "-" + document.getOriginalName() + "\"")
+                .body(resource);
+    }
+
     @PostMapping("/{documentId}/versions/{versionNumber}/restore")
     @Operation(summary = "Restore version", description = "Restore a document to a previous version")
     public ResponseEntity<ApiResponse<DocumentResponse>> restoreVersion(
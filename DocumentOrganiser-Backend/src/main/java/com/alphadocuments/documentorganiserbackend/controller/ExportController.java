@@ -1,30 +1,32 @@
 package com.alphadocuments.documentorganiserbackend.controller;
 
+import com.alphadocuments.documentorganiserbackend.dto.response.ApiResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.ExportJobResponse;
 import com.alphadocuments.documentorganiserbackend.entity.Document;
-import com.alphadocuments.documentorganiserbackend.exception.ResourceNotFoundException;
 import com.alphadocuments.documentorganiserbackend.repository.DocumentRepository;
 import com.alphadocuments.documentorganiserbackend.security.CurrentUser;
 import com.alphadocuments.documentorganiserbackend.security.UserPrincipal;
-import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.service.ArchiveEntry;
+import com.alphadocuments.documentorganiserbackend.service.ArchiveService;
+import com.alphadocuments.documentorganiserbackend.service.ExportJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.*;
+import java.net.URI;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 /**
  * REST controller for data export endpoints.
  */
-@Slf4j
 @RestController
 @RequestMapping("/export")
 @RequiredArgsConstructor
@@ -32,40 +34,52 @@ import java.util.zip.ZipOutputStream;
 public class ExportController {
 
     private final DocumentRepository documentRepository;
-    private final StorageService storageService;
+    private final ArchiveService archiveService;
+    private final ExportJobService exportJobService;
 
     @GetMapping("/documents")
     @Operation(summary = "Export all documents", description = "Download a ZIP archive of all user documents (GDPR export)")
-    public ResponseEntity<byte[]> exportAllDocuments(@CurrentUser UserPrincipal userPrincipal) {
-        List<Document> documents = documentRepository.findByUserIdAndIsDeletedFalse(userPrincipal.getId());
+    public ResponseEntity<StreamingResponseBody> exportAllDocuments(@CurrentUser UserPrincipal userPrincipal) {
+        // Oldest first, so duplicate names get the same suffixes in every export
+        List<ArchiveEntry> entries = documentRepository.findByUserIdAndIsDeletedFalse(userPrincipal.getId()).stream()
+                .sorted(Comparator.comparing(Document::getCreatedAt).thenComparing(Document::getId))
+                .map(ArchiveEntry::of)
+                .toList();
 
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ZipOutputStream zos = new ZipOutputStream(baos);
+        StreamingResponseBody body = out -> archiveService.writeZip(entries, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"document-export.zip\"")
+                .body(body);
+    }
 
-            for (Document doc : documents) {
-                try {
-                    InputStream input = storageService.downloadFile(doc.getStorageKey());
-                    ZipEntry entry = new ZipEntry(doc.getOriginalName());
-                    zos.putNextEntry(entry);
-                    input.transferTo(zos);
-                    zos.closeEntry();
-                    input.close();
-                } catch (Exception e) {
-                    log.warn("Skipping file {} during export: {}", doc.getOriginalName(), e.getMessage());
-                }
-            }
+    @PostMapping("/jobs")
+    @Operation(summary = "Start export job",
+            description = "Build the ZIP archive in the background; returns the user's active job if one is already queued or running")
+    public ResponseEntity<ApiResponse<ExportJobResponse>> createExportJob(@CurrentUser UserPrincipal userPrincipal) {
+        ExportJobResponse job = exportJobService.createJob(userPrincipal.getId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(job, "Export queued"));
+    }
 
-            zos.finish();
-            zos.close();
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Get export job", description = "Get the progress of an export job, with a download URL once it completes")
+    public ResponseEntity<ApiResponse<ExportJobResponse>> getExportJob(
+            @CurrentUser UserPrincipal userPrincipal,
+            @PathVariable UUID jobId) {
+        ExportJobResponse job = exportJobService.getJob(userPrincipal.getId(), jobId);
+        return ResponseEntity.ok(ApiResponse.success(job));
+    }
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"document-export.zip\"")
-                    .body(baos.toByteArray());
-        } catch (IOException e) {
-            log.error("Export failed", e);
-            return ResponseEntity.internalServerError().build();
-        }
+    @GetMapping("/jobs/{jobId}/download")
+    @Operation(summary = "Download export archive", description = "Redirect to a pre-signed URL of the completed archive")
+    public ResponseEntity<Void> downloadExport(
+            @CurrentUser UserPrincipal userPrincipal,
+            @PathVariable UUID jobId) {
+        String url = exportJobService.getDownloadUrl(userPrincipal.getId(), jobId);
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(URI.create(url))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .build();
     }
 }
@@ -9,6 +9,8 @@ import com.alphadocuments.documentorganiserbackend.dto.response.FolderTreeRespon
 import com.alphadocuments.documentorganiserbackend.dto.response.PagedResponse;
 import com.alphadocuments.documentorganiserbackend.security.CurrentUser;
 import com.alphadocuments.documentorganiserbackend.security.UserPrincipal;
+import com.alphadocuments.documentorganiserbackend.service.ArchiveService;
+import com.alphadocuments.documentorganiserbackend.service.FolderArchive;
 import com.alphadocuments.documentorganiserbackend.service.FolderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -18,10 +20,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
@@ -35,6 +42,7 @@ import java.util.UUID;
 public class FolderController {
 
     private final FolderService folderService;
+    private final ArchiveService archiveService;
 
     @PostMapping
     @Operation(summary = "Create folder", description = "Create a new folder. Pass workspaceId in request body to create within a workspace.")
@@ -57,6 +65,24 @@ public class FolderController {
         return ResponseEntity.ok(ApiResponse.success(folder));
     }
 
+    @GetMapping("/{folderId}/download")
+    @Operation(summary = "Download folder",
+            description = "Download the folder and its subfolders as a ZIP archive, keeping the folder layout")
+    public ResponseEntity<StreamingResponseBody> downloadFolder(
+            @CurrentUser UserPrincipal userPrincipal,
+            @PathVariable UUID folderId) {
+
+        FolderArchive archive = folderService.getFolderArchive(userPrincipal.getId(), folderId);
+        StreamingResponseBody body = out -> archiveService.writeZip(archive.entries(), out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(archive.fileName(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     @PutMapping("/{folderId}")
     @Operation(summary = "Update folder", description = "Update folder details")
     public ResponseEntity<ApiResponse<FolderResponse>> updateFolder(
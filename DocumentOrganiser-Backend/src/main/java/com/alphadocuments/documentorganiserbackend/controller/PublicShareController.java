@@ -3,16 +3,25 @@ package com.alphadocuments.documentorganiserbackend.controller;
 import com.alphadocuments.documentorganiserbackend.dto.response.ApiResponse;
 import com.alphadocuments.documentorganiserbackend.dto.response.DocumentResponse;
 import com.alphadocuments.documentorganiserbackend.dto.response.FolderResponse;
+import com.alphadocuments.documentorganiserbackend.service.ArchiveService;
+import com.alphadocuments.documentorganiserbackend.service.DownloadContent;
+import com.alphadocuments.documentorganiserbackend.service.FolderArchive;
 import com.alphadocuments.documentorganiserbackend.service.SharingService;
+import com.alphadocuments.documentorganiserbackend.util.DownloadResponseWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +35,8 @@ import java.util.Map;
 public class PublicShareController {
 
     private final SharingService sharingService;
+    private final DownloadResponseWriter downloadResponseWriter;
+    private final ArchiveService archiveService;
 
     @GetMapping("/{token}")
     @Operation(summary = "Get shared document info", description = "Get document information via share link")
@@ -38,22 +49,21 @@ public class PublicShareController {
     }
 
     @GetMapping("/{token}/download")
-    @Operation(summary = "Download shared document", description = "Download document via share link")
-    public ResponseEntity<Resource> downloadSharedDocument(
+    @Operation(summary = "Download shared document",
+            description = "Download document via share link. Supports Range and If-Range requests for partial "
+                    + "content, and If-None-Match / If-Modified-Since for 304 responses.")
+    public void downloadSharedDocument(
             @PathVariable String token,
-            @RequestParam(required = false) String password) {
-
-        // downloadDocumentByShareLink validates the link, returns the file
-        // resource, and provides metadata — without incrementing the access
-        // count (the GET /{token} metadata endpoint already handles that).
-        DocumentResponse metadata = sharingService.getDownloadMetadata(token, password);
-        Resource resource = sharingService.downloadDocumentByShareLink(token, password);
+            @RequestParam(required = false) String password,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(metadata.getMimeType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + metadata.getOriginalName() + "\"")
-                .body(resource);
+        // The access count is not incremented here; the GET /{token} metadata endpoint already handles that
+        DownloadContent content = sharingService.downloadDocumentByShareLink(token, password);
+        boolean sent = downloadResponseWriter.write(request, response, content, "share");
+        if (sent && DownloadResponseWriter.isInitialRequest(request)) {
+            sharingService.recordDownloadByShareLink(token);
+        }
     }
 
     @GetMapping("/{token}/type")
@@ -85,4 +95,22 @@ public class PublicShareController {
         List<DocumentResponse> documents = sharingService.getFolderDocumentsByShareLink(token, password);
         return ResponseEntity.ok(ApiResponse.success(documents));
     }
+
+    @GetMapping("/{token}/folder/download")
+    @Operation(summary = "Download shared folder",
+            description = "Download a shared folder and its subfolders as a ZIP archive via share link")
+    public ResponseEntity<StreamingResponseBody> downloadSharedFolder(
+            @PathVariable String token,
+            @RequestParam(required = false) String password) {
+
+        FolderArchive archive = sharingService.getFolderArchiveByShareLink(token, password);
+        StreamingResponseBody body = out -> archiveService.writeZip(archive.entries(), out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(archive.fileName(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .body(body);
+    }
 }
@@ -13,6 +13,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -73,9 +74,10 @@ public class TrashController {
     }
 
     @DeleteMapping("/empty")
-    @Operation(summary = "Empty trash", description = "Permanently delete all items in trash")
+    @Operation(summary = "Empty trash", description = "Permanently delete all items in trash. Items are purged in the background")
     public ResponseEntity<ApiResponse<Void>> emptyTrash(@CurrentUser UserPrincipal userPrincipal) {
         trashService.emptyTrash(userPrincipal.getId());
-        return ResponseEntity.ok(ApiResponse.success("Trash emptied successfully"));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Trash is being emptied"));
     }
 }
@@ -0,0 +1,107 @@
+package com.alphadocuments.documentorganiserbackend.controller;
+
+import com.alphadocuments.documentorganiserbackend.dto.request.CreateUploadSessionRequest;
+import com.alphadocuments.documentorganiserbackend.dto.response.ApiResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.DocumentResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.UploadSessionResponse;
+import com.alphadocuments.documentorganiserbackend.exception.FileOperationException;
+import com.alphadocuments.documentorganiserbackend.exception.ValidationException;
+import com.alphadocuments.documentorganiserbackend.security.CurrentUser;
+import com.alphadocuments.documentorganiserbackend.security.UserPrincipal;
+import com.alphadocuments.documentorganiserbackend.service.UploadSessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * REST controller for resumable chunked uploads.
+ */
+@RestController
+@RequestMapping("/uploads/sessions")
+@RequiredArgsConstructor
+@Tag(name = "Upload Sessions", description = "Resumable chunked upload APIs")
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+
+    @PostMapping
+    @Operation(summary = "Create upload session",
+            description = "Start a resumable upload. The response gives the chunk size; chunk N covers bytes "
+                    + "[N * chunkSize, (N + 1) * chunkSize) of the file.")
+    public ResponseEntity<ApiResponse<UploadSessionResponse>> createSession(
+            @CurrentUser UserPrincipal userPrincipal,
+            @Valid @RequestBody CreateUploadSessionRequest request) {
+
+        UploadSessionResponse session = uploadSessionService.createSession(userPrincipal.getId(), request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(session, "Upload session created"));
+    }
+
+    @PutMapping("/{sessionId}/chunks/{chunkIndex}")
+    @Operation(summary = "Upload chunk",
+            description = "Upload one chunk as the raw request body. Chunks may be sent in any order and re-sent.")
+    public ResponseEntity<ApiResponse<UploadSessionResponse>> uploadChunk(
+            @CurrentUser UserPrincipal userPrincipal,
+            @PathVariable UUID sessionId,
+            @PathVariable int chunkIndex,
+            HttpServletRequest request) {
+
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            throw new ValidationException("Content-Length header is required");
+        }
+
+        try (InputStream content = request.getInputStream()) {
+            UploadSessionResponse session = uploadSessionService.uploadChunk(
+                    userPrincipal.getId(), sessionId, chunkIndex, content, contentLength);
+            return ResponseEntity.ok(ApiResponse.success(session));
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to read chunk", e);
+        }
+    }
+
+    @GetMapping("/{sessionId}")
+    @Operation(summary = "Get upload session",
+            description = "Get the received chunks, the missing byte ranges and the next offset to send")
+    public ResponseEntity<ApiResponse<UploadSessionResponse>> getSession(
+            @CurrentUser UserPrincipal userPrincipal,
+            @PathVariable UUID sessionId) {
+
+        UploadSessionResponse session = uploadSessionService.getSession(userPrincipal.getId(), sessionId);
+        return ResponseEntity.ok(ApiResponse.success(session));
+    }
+
+    @PostMapping("/{sessionId}/complete")
+    @Operation(summary = "Complete upload session",
+            description = "Assemble all chunks into a document. conflictResolution overrides the value "
+                    + "given when the session was created.")
+    public ResponseEntity<ApiResponse<DocumentResponse>> completeSession(
+            @CurrentUser UserPrincipal userPrincipal,
+            @PathVariable UUID sessionId,
+            @RequestParam(value = "conflictResolution", required = false) String conflictResolution) {
+
+        DocumentResponse document = uploadSessionService.completeSession(
+                userPrincipal.getId(), sessionId, conflictResolution);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(document, "Document uploaded successfully"));
+    }
+
+    @DeleteMapping("/{sessionId}")
+    @Operation(summary = "Abort upload session", description = "Cancel the upload and discard received chunks")
+    public ResponseEntity<ApiResponse<Void>> abortSession(
+            @CurrentUser UserPrincipal userPrincipal,
+            @PathVariable UUID sessionId) {
+
+        uploadSessionService.abortSession(userPrincipal.getId(), sessionId);
+        return ResponseEntity.ok(ApiResponse.success(null, "Upload session aborted"));
+    }
+}
@@ -0,0 +1,40 @@
+package com.alphadocuments.documentorganiserbackend.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Request DTO for starting a resumable upload session.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateUploadSessionRequest {
+
+    @NotBlank(message = "File name is required")
+    private String fileName;
+
+    @NotNull(message = "File size is required")
+    @Positive(message = "File size must be positive")
+    private Long fileSize;
+
+    private String contentType;
+
+    private UUID folderId;
+
+    private UUID workspaceId; // Null for personal storage
+
+    private String conflictResolution; // error (default), replace or keepBoth
+
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "Checksum must be a hex-encoded SHA-256")
+    private String checksum; // Optional; verified when the session is completed
+}
@@ -0,0 +1,39 @@
+package com.alphadocuments.documentorganiserbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for the outcome of one file in a batch upload.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadItemResponse {
+
+    private String fileName;
+    private boolean success;
+    private DocumentResponse document; // Set when the file was uploaded
+    private String error;
+    private String errorCode;
+
+    public static BatchUploadItemResponse success(String fileName, DocumentResponse document) {
+        return BatchUploadItemResponse.builder()
+                .fileName(fileName)
+                .success(true)
+                .document(document)
+                .build();
+    }
+
+    public static BatchUploadItemResponse failure(String fileName, String error, String errorCode) {
+        return BatchUploadItemResponse.builder()
+                .fileName(fileName)
+                .success(false)
+                .error(error)
+                .errorCode(errorCode)
+                .build();
+    }
+}
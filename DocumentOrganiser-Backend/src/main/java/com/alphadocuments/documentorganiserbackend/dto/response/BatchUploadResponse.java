@@ -0,0 +1,23 @@
+package com.alphadocuments.documentorganiserbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for a batch upload, with one result per file in request order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadResponse {
+
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BatchUploadItemResponse> results;
+}
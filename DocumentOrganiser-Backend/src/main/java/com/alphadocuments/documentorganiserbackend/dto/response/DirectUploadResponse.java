@@ -0,0 +1,44 @@
+package com.alphadocuments.documentorganiserbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Response DTO with the pre-signed URLs for a direct-to-bucket upload.
+ * Either uploadUrl (single PUT) or parts (multipart) is set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DirectUploadResponse {
+
+    private UUID id;
+    private Long fileSize;
+    private Long partSize;
+    private String uploadUrl;
+    private Map<String, String> headers; // Headers that must be sent with the single PUT
+    private List<PresignedPart> parts;
+    private Instant urlExpiresAt;
+    private Instant expiresAt; // When the reservation lapses if the upload is not completed
+
+    /**
+     * Pre-signed URL for one part; the part covers [offset, offset + length) of the file.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PresignedPart {
+        private int partNumber;
+        private String url;
+        private long offset;
+        private long length;
+    }
+}
@@ -1,6 +1,7 @@
 package com.alphadocuments.documentorganiserbackend.dto.response;
 
 import com.alphadocuments.documentorganiserbackend.entity.enums.DocumentCategory;
+import com.alphadocuments.documentorganiserbackend.entity.enums.ProcessingStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -35,6 +36,7 @@ public class DocumentResponse {
     private Instant createdAt;
     private Instant updatedAt;
     private Instant lastAccessedAt;
+    private ProcessingStatus processingStatus; // Progress of text and metadata extraction
 
     @Builder.Default
     private List<String> tags = new ArrayList<>();
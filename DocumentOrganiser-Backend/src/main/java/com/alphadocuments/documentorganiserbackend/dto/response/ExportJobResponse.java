@@ -0,0 +1,34 @@
+package com.alphadocuments.documentorganiserbackend.dto.response;
+
+import com.alphadocuments.documentorganiserbackend.entity.enums.ExportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Response DTO describing the progress of a background export job.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportJobResponse {
+
+    private UUID id;
+    private ExportJobStatus status;
+    private Long totalEntries;
+    private Long entriesWritten;
+    private Long totalBytes;
+    private Long bytesProcessed;
+    private Integer progressPercent; // By bytes, as of the last checkpoint
+    private Long archiveSize;
+    private String downloadUrl; // Short-lived pre-signed URL, once completed
+    private String errorMessage;
+    private Instant createdAt;
+    private Instant completedAt;
+    private Instant expiresAt;
+}
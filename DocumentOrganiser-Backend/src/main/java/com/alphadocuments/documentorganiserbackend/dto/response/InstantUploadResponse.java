@@ -0,0 +1,21 @@
+package com.alphadocuments.documentorganiserbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a hash-first upload. Either document (the content was already stored and
+ * nothing needs to be sent) or upload (where to send the bytes) is set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstantUploadResponse {
+
+    private boolean contentReused;
+    private DocumentResponse document;
+    private DirectUploadResponse upload;
+}
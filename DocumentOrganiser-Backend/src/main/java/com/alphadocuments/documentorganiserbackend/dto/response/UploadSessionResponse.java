@@ -0,0 +1,45 @@
+package com.alphadocuments.documentorganiserbackend.dto.response;
+
+import com.alphadocuments.documentorganiserbackend.entity.enums.UploadSessionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO describing the progress of a resumable upload session.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+
+    private UUID id;
+    private String fileName;
+    private Long fileSize;
+    private Long chunkSize;
+    private Integer totalChunks;
+    private UploadSessionStatus status;
+    private List<Integer> receivedChunks;
+    private List<ByteRange> missingRanges;
+    private Long bytesReceived;
+    private Long nextOffset; // First byte not yet received, or fileSize when all chunks are in
+    private Instant expiresAt;
+    private UUID documentId;
+
+    /**
+     * Inclusive byte range of the file.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ByteRange {
+        private long start;
+        private long end;
+    }
+}
@@ -1,6 +1,8 @@
 package com.alphadocuments.documentorganiserbackend.entity;
 
 import com.alphadocuments.documentorganiserbackend.entity.enums.DocumentCategory;
+import com.alphadocuments.documentorganiserbackend.entity.enums.ProcessingStatus;
+import com.alphadocuments.documentorganiserbackend.entity.enums.StorageTier;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -18,7 +20,9 @@ import java.util.Set;
     @Index(name = "idx_documents_category", columnList = "category"),
     @Index(name = "idx_documents_deleted", columnList = "is_deleted"),
     @Index(name = "idx_documents_name", columnList = "name"),
-    @Index(name = "idx_documents_workspace_id", columnList = "workspace_id")
+    @Index(name = "idx_documents_workspace_id", columnList = "workspace_id"),
+    @Index(name = "idx_documents_storage_key", columnList = "storage_key"),
+    @Index(name = "idx_documents_checksum", columnList = "checksum")
 })
 @Getter
 @Setter
@@ -42,11 +46,12 @@ public class Document extends BaseEntity {
     @Column(name = "mime_type", nullable = false)
     private String mimeType;
 
-    @Column(name = "storage_key", nullable = false, unique = true)
-    private String storageKey; // Key/path in S3/MinIO
+    @Column(name = "storage_key", nullable = false)
+    private String storageKey; // Key/path in S3/MinIO, shared by documents with the same content
 
-    @Column(name = "thumbnail_key")
-    private String thumbnailKey; // Key for thumbnail in storage
+    // Key prefix of the generated thumbnails; only changed with DocumentRepository#updateThumbnailKey
+    @Column(name = "thumbnail_key", updatable = false)
+    private String thumbnailKey;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "category", nullable = false, length = 50)
@@ -73,10 +78,28 @@ public class Document extends BaseEntity {
     @Column(name = "last_accessed_at")
     private Instant lastAccessedAt;
 
+    @Column(name = "content_updated_at")
+    private Instant contentUpdatedAt; // Last-Modified of the content; unlike updatedAt, not moved by renames
+
     @Column(name = "download_count")
     @Builder.Default
     private Long downloadCount = 0L;
 
+    // Only written on insert; workers change it with DocumentRepository#transitionProcessingStatus
+    // so saving a stale entity cannot overwrite their progress
+    @Enumerated(EnumType.STRING)
+    @Column(name = "processing_status", length = 20, updatable = false)
+    private ProcessingStatus processingStatus;
+
+    // Only written on insert; the tiering job changes it with DocumentRepository#updateStorageTier
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_tier", length = 20, nullable = false, updatable = false)
+    @Builder.Default
+    private StorageTier storageTier = StorageTier.STANDARD;
+
+    @Column(name = "tier_changed_at", updatable = false)
+    private Instant tierChangedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -3,8 +3,13 @@ package com.alphadocuments.documentorganiserbackend.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Document version entity for tracking version history.
+ * The document's current version is kept whole under storageKey; once it is superseded it is
+ * converted to content-defined chunks, so older versions only add the blocks they changed.
  */
 @Entity
 @Table(name = "document_versions", indexes = {
@@ -24,8 +29,8 @@ public class DocumentVersion extends BaseEntity {
     @Column(name = "version_number", nullable = false)
     private Integer versionNumber;
 
-    @Column(name = "storage_key", nullable = false)
-    private String storageKey;
+    @Column(name = "storage_key")
+    private String storageKey; // Null when the version is stored as chunks
 
     @Column(name = "file_size", nullable = false)
     private Long fileSize;
@@ -38,4 +43,16 @@ public class DocumentVersion extends BaseEntity {
 
     @Column(name = "uploaded_by")
     private String uploadedBy; // User email or name
+
+    @Column(name = "mime_type")
+    private String mimeType;
+
+    @Column(name = "chunked", nullable = false)
+    @Builder.Default
+    private Boolean chunked = false;
+
+    @OneToMany(mappedBy = "version", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("chunkIndex ASC")
+    @Builder.Default
+    private List<DocumentVersionChunk> chunks = new ArrayList<>();
 }
@@ -0,0 +1,33 @@
+package com.alphadocuments.documentorganiserbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One content-defined chunk of a version stored as chunks. The chunk's blob may be shared with
+ * other versions and documents.
+ */
+@Entity
+@Table(name = "document_version_chunks", indexes = {
+    @Index(name = "idx_document_version_chunks_version_id", columnList = "version_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentVersionChunk extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "version_id", nullable = false)
+    private DocumentVersion version;
+
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex;
+
+    @Column(name = "storage_key", nullable = false, length = 1024)
+    private String storageKey;
+
+    @Column(name = "chunk_size", nullable = false)
+    private Long chunkSize;
+}
@@ -0,0 +1,93 @@
+package com.alphadocuments.documentorganiserbackend.entity;
+
+import com.alphadocuments.documentorganiserbackend.entity.enums.ExportJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Background export of a user's documents into a ZIP archive staged in storage.
+ * The archive is written as an S3 multipart upload. After entries that end on a part boundary the
+ * job records a checkpoint: the parts uploaded, the archive offset reached and the last document
+ * written, with the entries' central directory records in {@link ExportJobEntry}. A worker that
+ * takes over the job continues from there.
+ */
+@Entity
+@Table(name = "export_jobs", indexes = {
+    @Index(name = "idx_export_jobs_user_status", columnList = "user_id, status"),
+    @Index(name = "idx_export_jobs_status_heartbeat", columnList = "status, heartbeat_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExportJob extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private ExportJobStatus status = ExportJobStatus.QUEUED;
+
+    @Column(name = "total_entries", nullable = false)
+    private Long totalEntries; // Documents when the job was created
+
+    @Column(name = "total_bytes", nullable = false)
+    private Long totalBytes;
+
+    @Column(name = "entries_written", nullable = false)
+    @Builder.Default
+    private Long entriesWritten = 0L;
+
+    @Column(name = "bytes_processed", nullable = false)
+    @Builder.Default
+    private Long bytesProcessed = 0L;
+
+    @Column(name = "storage_key", length = 1024)
+    private String storageKey;
+
+    @Column(name = "storage_upload_id", length = 1024)
+    private String storageUploadId;
+
+    @Column(name = "uploaded_parts", nullable = false)
+    @Builder.Default
+    private Integer uploadedParts = 0; // Parts covering the archive up to the checkpoint
+
+    @Column(name = "archive_offset", nullable = false)
+    @Builder.Default
+    private Long archiveOffset = 0L;
+
+    @Column(name = "cursor_created_at")
+    private Instant cursorCreatedAt; // Last document written, in (created_at, id) order
+
+    @Column(name = "cursor_document_id")
+    private UUID cursorDocumentId;
+
+    @Column(name = "archive_size")
+    private Long archiveSize;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "lease_id")
+    private UUID leaseId; // Worker currently allowed to write the archive
+
+    @Column(name = "heartbeat_at")
+    private Instant heartbeatAt;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt; // When the completed archive is deleted
+}
@@ -0,0 +1,48 @@
+package com.alphadocuments.documentorganiserbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Central directory record of an entry an export job has written and checkpointed. Kept until the
+ * archive is complete, so a resumed job can write the full central directory.
+ */
+@Entity
+@Table(name = "export_job_entries", indexes = {
+    @Index(name = "idx_export_job_entries_job_id", columnList = "job_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExportJobEntry extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "job_id", nullable = false)
+    private ExportJob job;
+
+    @Column(name = "path", nullable = false, length = 1024)
+    private String path;
+
+    @Column(name = "method", nullable = false)
+    private Integer method;
+
+    @Column(name = "crc", nullable = false)
+    private Long crc;
+
+    @Column(name = "compressed_size", nullable = false)
+    private Long compressedSize;
+
+    @Column(name = "size", nullable = false)
+    private Long size;
+
+    @Column(name = "dos_time", nullable = false)
+    private Long dosTime;
+
+    @Column(name = "data_descriptor", nullable = false)
+    private Boolean dataDescriptor;
+
+    @Column(name = "header_offset", nullable = false)
+    private Long headerOffset;
+}
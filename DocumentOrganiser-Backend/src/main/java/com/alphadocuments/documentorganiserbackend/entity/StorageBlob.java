@@ -0,0 +1,32 @@
+package com.alphadocuments.documentorganiserbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A stored object shared by every document, version and copy with the same content.
+ * The object is deleted from storage when its reference count drops to zero.
+ */
+@Entity
+@Table(name = "storage_blobs", indexes = {
+    @Index(name = "idx_storage_blobs_checksum", columnList = "checksum")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageBlob extends BaseEntity {
+
+    @Column(name = "checksum", length = 128)
+    private String checksum; // SHA-256; null for legacy objects that duplicate another blob's content
+
+    @Column(name = "storage_key", nullable = false, unique = true, length = 1024)
+    private String storageKey;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+}
@@ -0,0 +1,32 @@
+package com.alphadocuments.documentorganiserbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A storage object waiting to be deleted. Rows are written in the same transaction that stops
+ * referencing the object, so the delete survives a crash and never happens after a rollback.
+ */
+@Entity
+@Table(name = "storage_deletions", indexes = {
+    @Index(name = "idx_storage_deletions_next_attempt_at", columnList = "next_attempt_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageDeletion extends BaseEntity {
+
+    @Column(name = "storage_key", nullable = false, length = 1024)
+    private String storageKey;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+}
@@ -0,0 +1,96 @@
+package com.alphadocuments.documentorganiserbackend.entity;
+
+import com.alphadocuments.documentorganiserbackend.entity.enums.UploadSessionStatus;
+import com.alphadocuments.documentorganiserbackend.entity.enums.UploadType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Upload session. Chunked sessions store each chunk as a part of an S3 multipart upload;
+ * direct sessions track an upload the client sends straight to the bucket. Either way the
+ * file size stays reserved against the user's quota while the session is active or being completed.
+ */
+@Entity
+@Table(name = "upload_sessions", indexes = {
+    @Index(name = "idx_upload_sessions_user_id", columnList = "user_id"),
+    @Index(name = "idx_upload_sessions_status_expires", columnList = "status, expires_at"),
+    @Index(name = "idx_upload_sessions_user_status", columnList = "user_id, status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "workspace_id")
+    private UUID workspaceId;
+
+    @Column(name = "folder_id")
+    private UUID folderId;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "content_type")
+    private String contentType; // Client-declared MIME type
+
+    @Column(name = "detected_mime_type")
+    private String detectedMimeType; // Sniffed from the first chunk
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "chunk_size", nullable = false)
+    private Long chunkSize;
+
+    @Column(name = "total_chunks", nullable = false)
+    private Integer totalChunks;
+
+    @Column(name = "conflict_resolution", length = 20)
+    private String conflictResolution;
+
+    @Column(name = "expected_checksum", length = 64)
+    private String expectedChecksum; // Optional client-declared SHA-256
+
+    @Column(name = "storage_key", nullable = false)
+    private String storageKey;
+
+    @Column(name = "storage_upload_id", length = 1024)
+    private String storageUploadId; // S3 multipart upload ID; null for a single direct PUT
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "upload_type", nullable = false, length = 20)
+    @Builder.Default
+    private UploadType uploadType = UploadType.CHUNKED;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private UploadSessionStatus status = UploadSessionStatus.ACTIVE;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "document_id")
+    private UUID documentId; // Set once the session is completed
+
+    public boolean isExpired() {
+        return Instant.now().isAfter(expiresAt);
+    }
+
+    /**
+     * Byte length of the given chunk; every chunk is chunkSize long except possibly the last.
+     */
+    public long getChunkLength(int chunkIndex) {
+        long start = chunkIndex * chunkSize;
+        return Math.min(chunkSize, fileSize - start);
+    }
+}
@@ -0,0 +1,32 @@
+package com.alphadocuments.documentorganiserbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A chunk received for an upload session, stored as one multipart upload part.
+ */
+@Entity
+@Table(name = "upload_session_chunks",
+    uniqueConstraints = @UniqueConstraint(name = "uk_upload_session_chunk", columnNames = {"session_id", "chunk_index"}),
+    indexes = @Index(name = "idx_upload_session_chunks_session_id", columnList = "session_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSessionChunk extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "session_id", nullable = false)
+    private UploadSession session;
+
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex; // Zero-based; part number is chunkIndex + 1
+
+    @Column(name = "chunk_size", nullable = false)
+    private Long chunkSize;
+
+    @Column(name = "etag", nullable = false)
+    private String eTag;
+}
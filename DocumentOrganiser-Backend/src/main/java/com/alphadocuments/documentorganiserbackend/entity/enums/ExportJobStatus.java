@@ -0,0 +1,12 @@
+package com.alphadocuments.documentorganiserbackend.entity.enums;
+
+/**
+ * Lifecycle states of a background export job.
+ */
+public enum ExportJobStatus {
+    QUEUED,     // Waiting for a worker, or for a retry from its last checkpoint
+    RUNNING,    // Archive being written by the worker holding the lease
+    COMPLETED,  // Archive ready to download until the job expires
+    FAILED,     // Gave up after the maximum number of attempts
+    EXPIRED     // Archive deleted after the retention period
+}
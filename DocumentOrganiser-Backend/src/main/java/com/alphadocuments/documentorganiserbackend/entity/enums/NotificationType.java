@@ -11,5 +11,7 @@ public enum NotificationType {
     STORAGE_WARNING,
     STORAGE_FULL,
     DOCUMENT_COMMENT,
+    EXPORT_READY,
+    EXPORT_FAILED,
     SYSTEM_ANNOUNCEMENT
 }
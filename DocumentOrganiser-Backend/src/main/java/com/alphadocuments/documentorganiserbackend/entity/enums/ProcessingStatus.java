@@ -0,0 +1,12 @@
+package com.alphadocuments.documentorganiserbackend.entity.enums;
+
+/**
+ * Progress of the background content processing run after a document's content changes.
+ */
+public enum ProcessingStatus {
+    PENDING,     // Waiting for a worker
+    PROCESSING,  // Text and metadata are being extracted
+    COMPLETED,
+    FAILED,      // Gave up after the configured attempts, or content did not match its declared checksum
+    SKIPPED      // Too large to process
+}
@@ -0,0 +1,9 @@
+package com.alphadocuments.documentorganiserbackend.entity.enums;
+
+/**
+ * Storage tier a document's content is kept in.
+ */
+public enum StorageTier {
+    STANDARD,  // Frequently read content
+    COLD       // Not read in a while; still readable, and moved back to STANDARD when it is
+}
@@ -0,0 +1,13 @@
+package com.alphadocuments.documentorganiserbackend.entity.enums;
+
+/**
+ * Lifecycle states of a resumable upload session.
+ */
+public enum UploadSessionStatus {
+    ACTIVE,      // Accepting chunks
+    COMPLETING,  // Parts are being assembled into the final object
+    COMPLETED,   // Document created
+    ABORTED,     // Cancelled by the client
+    EXPIRED,     // Abandoned and cleaned up
+    FAILED       // Assembly or verification failed
+}
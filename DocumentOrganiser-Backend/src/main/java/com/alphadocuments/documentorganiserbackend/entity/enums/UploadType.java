@@ -0,0 +1,9 @@
+package com.alphadocuments.documentorganiserbackend.entity.enums;
+
+/**
+ * How the bytes of an upload session reach storage.
+ */
+public enum UploadType {
+    CHUNKED,  // Chunks are proxied through the API into multipart parts
+    DIRECT    // The client uploads straight to the bucket with pre-signed URLs
+}
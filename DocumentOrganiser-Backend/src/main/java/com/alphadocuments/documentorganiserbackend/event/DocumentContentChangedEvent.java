@@ -0,0 +1,12 @@
+package com.alphadocuments.documentorganiserbackend.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a document gets new content, i.e. on upload or when an older version is restored.
+ * Listeners that act on stored content should run after the publishing transaction commits.
+ *
+ * @param documentId the document whose content changed
+ */
+public record DocumentContentChangedEvent(UUID documentId) {
+}
@@ -0,0 +1,12 @@
+package com.alphadocuments.documentorganiserbackend.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a document version stops being the current one, i.e. on a new upload or a restore.
+ * The version is still stored whole; listeners convert it to chunks after the publishing transaction commits.
+ *
+ * @param versionId the superseded version
+ */
+public record DocumentVersionSupersededEvent(UUID versionId) {
+}
@@ -28,6 +28,33 @@ public interface DeletedItemRepository extends JpaRepository<DeletedItem, UUID>
 
     List<DeletedItem> findByExpiresAtBefore(Instant now);
 
+    /**
+     * Lock up to {@code limit} items due for purging. Items locked by another purge worker are skipped,
+     * so concurrent workers take disjoint chunks.
+     */
+    @Query(value = "SELECT * FROM deleted_items WHERE expires_at <= :cutoff " +
+                   "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<DeletedItem> lockExpired(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM deleted_items WHERE user_id = :userId AND expires_at <= :cutoff " +
+                   "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<DeletedItem> lockExpiredForUser(@Param("userId") UUID userId, @Param("cutoff") Instant cutoff,
+                                         @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM deleted_items WHERE id = :id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<DeletedItem> lockById(@Param("id") UUID id);
+
+    /**
+     * Make all of a user's trash due for purging.
+     */
+    @Modifying
+    @Query("UPDATE DeletedItem d SET d.expiresAt = :now WHERE d.user.id = :userId AND d.expiresAt > :now")
+    int expireAllByUserId(@Param("userId") UUID userId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE DeletedItem d SET d.expiresAt = :retryAt WHERE d.id = :id")
+    void postpone(@Param("id") UUID id, @Param("retryAt") Instant retryAt);
+
     @Modifying
     @Query("DELETE FROM DeletedItem d WHERE d.user.id = :userId")
     void deleteAllByUserId(@Param("userId") UUID userId);
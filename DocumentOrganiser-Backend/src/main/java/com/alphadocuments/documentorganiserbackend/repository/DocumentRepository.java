@@ -2,10 +2,13 @@ package com.alphadocuments.documentorganiserbackend.repository;
 
 import com.alphadocuments.documentorganiserbackend.entity.Document;
 import com.alphadocuments.documentorganiserbackend.entity.enums.DocumentCategory;
+import com.alphadocuments.documentorganiserbackend.entity.enums.ProcessingStatus;
+import com.alphadocuments.documentorganiserbackend.entity.enums.StorageTier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -72,10 +75,23 @@ public interface DocumentRepository extends JpaRepository<Document, UUID>, JpaSp
 
     Optional<Document> findFirstByUserIdAndFolderIsNullAndNameAndIsDeletedFalse(UUID userId, String name);
 
+    @Query("SELECT d.name FROM Document d WHERE d.user.id = :userId AND d.folder.id = :folderId AND d.isDeleted = false")
+    List<String> findNamesByUserIdAndFolderId(@Param("userId") UUID userId, @Param("folderId") UUID folderId);
+
+    @Query("SELECT d.name FROM Document d WHERE d.user.id = :userId AND d.folder IS NULL AND d.isDeleted = false")
+    List<String> findNamesByUserIdAndFolderIsNull(@Param("userId") UUID userId);
+
+    /**
+     * Find a document of the user's with the same content, for instant uploads.
+     */
+    Optional<Document> findFirstByUserIdAndChecksumAndFileSizeAndIsDeletedFalse(UUID userId, String checksum,
+                                                                               Long fileSize);
+
     /**
-     * Find existing document with same checksum for deduplication.
+     * Find a document in the workspace with the same content, for instant uploads.
      */
-    Optional<Document> findFirstByUserIdAndChecksumAndIsDeletedFalse(UUID userId, String checksum);
+    Optional<Document> findFirstByWorkspaceIdAndChecksumAndFileSizeAndIsDeletedFalse(UUID workspaceId,
+                                                                                    String checksum, Long fileSize);
 
     // ── Workspace documents ──────────────────────────────────────────────
 
@@ -111,6 +127,18 @@ public interface DocumentRepository extends JpaRepository<Document, UUID>, JpaSp
            "WHERE d.workspace.id = :workspaceId AND d.folder IS NULL AND d.name = :name AND d.isDeleted = false")
     boolean existsByWorkspaceIdAndRootAndName(@Param("workspaceId") UUID workspaceId, @Param("name") String name);
 
+    /**
+     * Names of the documents in a workspace folder (for batch conflict resolution).
+     */
+    @Query("SELECT d.name FROM Document d WHERE d.workspace.id = :workspaceId AND d.folder.id = :folderId AND d.isDeleted = false")
+    List<String> findNamesByWorkspaceIdAndFolderId(@Param("workspaceId") UUID workspaceId, @Param("folderId") UUID folderId);
+
+    /**
+     * Names of the root-level documents in a workspace (for batch conflict resolution).
+     */
+    @Query("SELECT d.name FROM Document d WHERE d.workspace.id = :workspaceId AND d.folder IS NULL AND d.isDeleted = false")
+    List<String> findNamesByWorkspaceIdAndRoot(@Param("workspaceId") UUID workspaceId);
+
     /**
      * Find a document by ID within a workspace.
      */
@@ -135,4 +163,107 @@ public interface DocumentRepository extends JpaRepository<Document, UUID>, JpaSp
     @Query("SELECT d FROM Document d WHERE d.workspace.id = :workspaceId AND d.isDeleted = false AND " +
            "(LOWER(d.name) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(d.originalName) LIKE LOWER(CONCAT('%', :query, '%')))")
     Page<Document> searchByWorkspaceAndName(@Param("workspaceId") UUID workspaceId, @Param("query") String query, Pageable pageable);
+
+    // ── Content processing ───────────────────────────────────────────────
+
+    /**
+     * Move a document between processing states only if it is still in the expected state.
+     * Returns the number of rows updated, so a worker can tell whether it claimed the document.
+     */
+    @Modifying
+    @Query("UPDATE Document d SET d.processingStatus = :to, d.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE d.id = :id AND d.processingStatus = :from")
+    int transitionProcessingStatus(@Param("id") UUID id,
+                                   @Param("from") ProcessingStatus from,
+                                   @Param("to") ProcessingStatus to);
+
+    @Modifying
+    @Query("UPDATE Document d SET d.processingStatus = :status, d.updatedAt = CURRENT_TIMESTAMP WHERE d.id = :id")
+    void updateProcessingStatus(@Param("id") UUID id, @Param("status") ProcessingStatus status);
+
+    /**
+     * Record the checksum of content stored without one, on every document sharing it.
+     */
+    @Modifying
+    @Query("UPDATE Document d SET d.checksum = :checksum WHERE d.storageKey = :storageKey AND d.checksum IS NULL")
+    int recordChecksum(@Param("storageKey") String storageKey, @Param("checksum") String checksum);
+
+    @Modifying
+    @Query("UPDATE Document d SET d.thumbnailKey = :thumbnailKey WHERE d.id = :id")
+    void updateThumbnailKey(@Param("id") UUID id, @Param("thumbnailKey") String thumbnailKey);
+
+    /**
+     * Documents left in a processing state since before the cutoff, oldest first.
+     */
+    @Query("SELECT d.id FROM Document d WHERE d.processingStatus = :status AND d.updatedAt < :before " +
+           "AND d.isDeleted = false ORDER BY d.updatedAt")
+    List<UUID> findIdsByProcessingStatusBefore(@Param("status") ProcessingStatus status,
+                                               @Param("before") Instant before,
+                                               Pageable pageable);
+
+    // ── Export jobs ──────────────────────────────────────────────────────
+
+    /**
+     * The user's documents after the given one in (created_at, id) order, so an export can resume
+     * from the last document it wrote.
+     */
+    @Query("SELECT d FROM Document d WHERE d.user.id = :userId AND d.isDeleted = false AND " +
+           "(d.createdAt > :createdAt OR (d.createdAt = :createdAt AND d.id > :documentId)) ORDER BY d.createdAt, d.id")
+    List<Document> findExportPage(@Param("userId") UUID userId, @Param("createdAt") Instant createdAt,
+                                  @Param("documentId") UUID documentId, Pageable pageable);
+
+    // ── Folder downloads ─────────────────────────────────────────────────
+
+    /**
+     * Documents in a personal folder and all its subfolders, found by path prefix in one query.
+     * The prefix must have LIKE wildcards escaped with a backslash.
+     */
+    @Query("SELECT d FROM Document d JOIN FETCH d.folder f " +
+           "WHERE f.user.id = :userId AND f.workspace IS NULL AND f.isDeleted = false AND d.isDeleted = false " +
+           "AND (f.id = :folderId OR f.path LIKE :pathPrefix ESCAPE '\\') ORDER BY f.path, d.createdAt, d.id")
+    List<Document> findInFolderSubtree(@Param("userId") UUID userId, @Param("folderId") UUID folderId,
+                                       @Param("pathPrefix") String pathPrefix);
+
+    /**
+     * Documents in a workspace folder and all its subfolders, whoever created them.
+     */
+    @Query("SELECT d FROM Document d JOIN FETCH d.folder f " +
+           "WHERE f.workspace.id = :workspaceId AND f.isDeleted = false AND d.isDeleted = false " +
+           "AND (f.id = :folderId OR f.path LIKE :pathPrefix ESCAPE '\\') ORDER BY f.path, d.createdAt, d.id")
+    List<Document> findInWorkspaceFolderSubtree(@Param("workspaceId") UUID workspaceId, @Param("folderId") UUID folderId,
+                                                @Param("pathPrefix") String pathPrefix);
+
+    // ── Blob cache ───────────────────────────────────────────────────────
+
+    /**
+     * Documents with known content, most downloaded first, for warming the local blob cache.
+     */
+    @Query("SELECT d FROM Document d WHERE d.isDeleted = false AND d.checksum IS NOT NULL ORDER BY d.downloadCount DESC")
+    List<Document> findMostDownloaded(Pageable pageable);
+
+    // ── Storage tiering ──────────────────────────────────────────────────
+
+    /**
+     * Documents in a tier last read (or uploaded, if never read) before the cutoff, after the given one
+     * in (access time, id) order, so the tiering job can page through them without OFFSET. Documents whose
+     * content is shared with a document read since the cutoff are left out, since the object is still in use.
+     */
+    @Query("SELECT d FROM Document d WHERE d.storageTier = :tier AND d.storageKey IS NOT NULL " +
+           "AND COALESCE(d.lastAccessedAt, d.createdAt) < :cutoff " +
+           "AND (COALESCE(d.lastAccessedAt, d.createdAt) > :accessedAt " +
+           "OR (COALESCE(d.lastAccessedAt, d.createdAt) = :accessedAt AND d.id > :documentId)) " +
+           "AND NOT EXISTS (SELECT o.id FROM Document o WHERE o.storageKey = d.storageKey " +
+           "AND COALESCE(o.lastAccessedAt, o.createdAt) >= :cutoff) " +
+           "ORDER BY COALESCE(d.lastAccessedAt, d.createdAt), d.id")
+    List<Document> findTieringPage(@Param("tier") StorageTier tier, @Param("cutoff") Instant cutoff,
+                                   @Param("accessedAt") Instant accessedAt, @Param("documentId") UUID documentId,
+                                   Pageable pageable);
+
+    /**
+     * Record the tier of a stored object on every document sharing it.
+     */
+    @Modifying
+    @Query("UPDATE Document d SET d.storageTier = :tier, d.tierChangedAt = :changedAt WHERE d.storageKey = :storageKey")
+    int updateStorageTier(@Param("storageKey") String storageKey, @Param("tier") StorageTier tier,
+                          @Param("changedAt") Instant changedAt);
 }
@@ -1,9 +1,14 @@
 package com.alphadocuments.documentorganiserbackend.repository;
 
 import com.alphadocuments.documentorganiserbackend.entity.DocumentVersion;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,4 +24,19 @@ public interface DocumentVersionRepository extends JpaRepository<DocumentVersion
     Optional<DocumentVersion> findByDocumentIdAndVersionNumber(UUID documentId, Integer versionNumber);
 
     Optional<DocumentVersion> findTopByDocumentIdOrderByVersionNumberDesc(UUID documentId);
+
+    /**
+     * Superseded versions of live documents that are still stored whole and were created before the cutoff.
+     */
+    @Query("SELECT v.id FROM DocumentVersion v WHERE v.chunked = false AND v.createdAt < :before " +
+           "AND v.versionNumber <> v.document.version AND v.document.isDeleted = false ORDER BY v.createdAt")
+    List<UUID> findIdsToChunk(@Param("before") Instant before, Pageable pageable);
+
+    /**
+     * Mark a whole version as stored in chunks. Returns 0 if another worker converted it first.
+     */
+    @Modifying
+    @Query("UPDATE DocumentVersion v SET v.chunked = true, v.storageKey = null, v.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE v.id = :id AND v.chunked = false")
+    int markChunked(@Param("id") UUID id);
 }
@@ -0,0 +1,24 @@
+package com.alphadocuments.documentorganiserbackend.repository;
+
+import com.alphadocuments.documentorganiserbackend.entity.ExportJobEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for ExportJobEntry entity.
+ */
+@Repository
+public interface ExportJobEntryRepository extends JpaRepository<ExportJobEntry, UUID> {
+
+    List<ExportJobEntry> findByJobIdOrderByHeaderOffset(UUID jobId);
+
+    @Modifying
+    @Query("DELETE FROM ExportJobEntry e WHERE e.job.id = :jobId")
+    void deleteByJobId(@Param("jobId") UUID jobId);
+}
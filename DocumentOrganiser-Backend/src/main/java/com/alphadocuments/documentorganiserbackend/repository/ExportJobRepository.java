@@ -0,0 +1,89 @@
+package com.alphadocuments.documentorganiserbackend.repository;
+
+import com.alphadocuments.documentorganiserbackend.entity.ExportJob;
+import com.alphadocuments.documentorganiserbackend.entity.enums.ExportJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for ExportJob entity.
+ * Workers change a job only while they hold its lease, so updates from a worker that lost the job
+ * to another instance match no rows.
+ */
+@Repository
+public interface ExportJobRepository extends JpaRepository<ExportJob, UUID> {
+
+    Optional<ExportJob> findByIdAndUserId(UUID id, UUID userId);
+
+    Optional<ExportJob> findFirstByUserIdAndStatusIn(UUID userId, List<ExportJobStatus> statuses);
+
+    List<ExportJob> findTop100ByStatusAndExpiresAtBefore(ExportJobStatus status, Instant now);
+
+    /**
+     * Jobs waiting for a worker, and running jobs whose worker has stopped sending heartbeats.
+     */
+    @Query("SELECT j.id FROM ExportJob j WHERE j.status = com.alphadocuments.documentorganiserbackend.entity.enums.ExportJobStatus.QUEUED " +
+           "OR (j.status = com.alphadocuments.documentorganiserbackend.entity.enums.ExportJobStatus.RUNNING AND j.heartbeatAt < :staleBefore) " +
+           "ORDER BY j.createdAt")
+    List<UUID> findIdsToRun(@Param("staleBefore") Instant staleBefore, Pageable pageable);
+
+    /**
+     * Take the lease on a queued job, or on a running job whose worker has gone quiet.
+     * Returns the number of rows updated, so a worker can tell whether it claimed the job.
+     */
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.status = com.alphadocuments.documentorganiserbackend.entity.enums.ExportJobStatus.RUNNING, " +
+           "j.leaseId = :leaseId, j.heartbeatAt = :now, j.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE j.id = :id AND (j.status = com.alphadocuments.documentorganiserbackend.entity.enums.ExportJobStatus.QUEUED " +
+           "OR (j.status = com.alphadocuments.documentorganiserbackend.entity.enums.ExportJobStatus.RUNNING AND j.heartbeatAt < :staleBefore))")
+    int claim(@Param("id") UUID id, @Param("leaseId") UUID leaseId, @Param("now") Instant now,
+              @Param("staleBefore") Instant staleBefore);
+
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.heartbeatAt = :now WHERE j.id = :id AND j.leaseId = :leaseId")
+    int heartbeat(@Param("id") UUID id, @Param("leaseId") UUID leaseId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.storageKey = :storageKey, j.storageUploadId = :uploadId, j.heartbeatAt = :now " +
+           "WHERE j.id = :id AND j.leaseId = :leaseId")
+    int startUpload(@Param("id") UUID id, @Param("leaseId") UUID leaseId, @Param("storageKey") String storageKey,
+                    @Param("uploadId") String uploadId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.uploadedParts = :uploadedParts, j.archiveOffset = :archiveOffset, " +
+           "j.cursorCreatedAt = :cursorCreatedAt, j.cursorDocumentId = :cursorDocumentId, " +
+           "j.entriesWritten = :entriesWritten, j.bytesProcessed = :bytesProcessed, j.heartbeatAt = :now, " +
+           "j.updatedAt = CURRENT_TIMESTAMP WHERE j.id = :id AND j.leaseId = :leaseId")
+    int checkpoint(@Param("id") UUID id, @Param("leaseId") UUID leaseId,
+                   @Param("uploadedParts") int uploadedParts, @Param("archiveOffset") long archiveOffset,
+                   @Param("cursorCreatedAt") Instant cursorCreatedAt, @Param("cursorDocumentId") UUID cursorDocumentId,
+                   @Param("entriesWritten") long entriesWritten, @Param("bytesProcessed") long bytesProcessed,
+                   @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.status = com.alphadocuments.documentorganiserbackend.entity.enums.ExportJobStatus.COMPLETED, " +
+           "j.archiveSize = :archiveSize, j.entriesWritten = :entriesWritten, j.bytesProcessed = :bytesProcessed, " +
+           "j.completedAt = :now, j.expiresAt = :expiresAt, j.leaseId = NULL, j.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE j.id = :id AND j.leaseId = :leaseId")
+    int complete(@Param("id") UUID id, @Param("leaseId") UUID leaseId, @Param("archiveSize") long archiveSize,
+                 @Param("entriesWritten") long entriesWritten, @Param("bytesProcessed") long bytesProcessed,
+                 @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Give up the lease after a failed attempt, queueing the job for a retry or marking it failed.
+     */
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.status = :status, j.attempts = j.attempts + 1, j.errorMessage = :errorMessage, " +
+           "j.leaseId = NULL, j.updatedAt = CURRENT_TIMESTAMP WHERE j.id = :id AND j.leaseId = :leaseId")
+    int releaseAfterFailure(@Param("id") UUID id, @Param("leaseId") UUID leaseId,
+                            @Param("status") ExportJobStatus status, @Param("errorMessage") String errorMessage);
+}
@@ -33,6 +33,6 @@ public interface ShareLinkRepository extends JpaRepository<ShareLink, UUID> {
     void deactivateExpiredLinks(@Param("now") Instant now);
 
     @Modifying
-    @Query("UPDATE ShareLink s SET s.accessCount = s.accessCount + 1 WHERE s.id = :id")
-    void incrementAccessCount(@Param("id") UUID id);
+    @Query("UPDATE ShareLink s SET s.accessCount = s.accessCount + 1, s.lastAccessedAt = :accessedAt WHERE s.id = :id")
+    void incrementAccessCount(@Param("id") UUID id, @Param("accessedAt") Instant accessedAt);
 }
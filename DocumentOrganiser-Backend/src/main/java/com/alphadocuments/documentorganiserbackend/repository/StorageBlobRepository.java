@@ -0,0 +1,71 @@
+package com.alphadocuments.documentorganiserbackend.repository;
+
+import com.alphadocuments.documentorganiserbackend.entity.StorageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for StorageBlob entity.
+ * Reference counts are only changed with single-statement updates so concurrent uploads,
+ * copies and deletes of the same content never lose an increment.
+ */
+@Repository
+public interface StorageBlobRepository extends JpaRepository<StorageBlob, UUID> {
+
+    /**
+     * Add a reference to the blob with this checksum, creating it at {@code storageKey} if there is none.
+     * Returns the storage key of the blob that now holds the reference.
+     */
+    @Query(value = "INSERT INTO storage_blobs (id, checksum, storage_key, file_size, ref_count, created_at, updated_at) " +
+                   "VALUES (gen_random_uuid(), :checksum, :storageKey, :fileSize, 1, NOW(), NOW()) " +
+                   "ON CONFLICT (checksum) WHERE checksum IS NOT NULL " +
+                   "DO UPDATE SET ref_count = storage_blobs.ref_count + 1, updated_at = NOW() " +
+                   "RETURNING storage_key", nativeQuery = true)
+    String addReference(@Param("checksum") String checksum,
+                        @Param("storageKey") String storageKey,
+                        @Param("fileSize") long fileSize);
+
+    /**
+     * Add a reference to the blob with this checksum if there is one, returning its storage key.
+     */
+    @Query(value = "UPDATE storage_blobs SET ref_count = ref_count + 1, updated_at = NOW() " +
+                   "WHERE checksum = :checksum RETURNING storage_key", nativeQuery = true)
+    Optional<String> addReferenceIfExists(@Param("checksum") String checksum);
+
+    @Modifying
+    @Query("UPDATE StorageBlob b SET b.refCount = b.refCount + 1, b.updatedAt = CURRENT_TIMESTAMP WHERE b.storageKey = :storageKey")
+    int incrementReferences(@Param("storageKey") String storageKey);
+
+    /**
+     * Drop one reference and return the remaining count, or empty if the key is not a tracked blob.
+     */
+    @Query(value = "UPDATE storage_blobs SET ref_count = ref_count - 1, updated_at = NOW() " +
+                   "WHERE storage_key = :storageKey RETURNING ref_count", nativeQuery = true)
+    Optional<Integer> removeReference(@Param("storageKey") String storageKey);
+
+    /**
+     * Record the checksum of a blob stored without one, so later uploads of the same content can share it.
+     * Left unset if another blob already holds that checksum; both stay valid, just not deduplicated.
+     */
+    @Modifying
+    @Query(value = "UPDATE storage_blobs SET checksum = :checksum, updated_at = NOW() " +
+                   "WHERE storage_key = :storageKey AND checksum IS NULL " +
+                   "AND NOT EXISTS (SELECT 1 FROM storage_blobs o WHERE o.checksum = :checksum)", nativeQuery = true)
+    int recordChecksum(@Param("storageKey") String storageKey, @Param("checksum") String checksum);
+
+    /**
+     * Delete the blob row if nothing references it any more. Returns 0 if a concurrent upload
+     * picked the blob up again in the meantime.
+     */
+    @Modifying
+    @Query("DELETE FROM StorageBlob b WHERE b.storageKey = :storageKey AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("storageKey") String storageKey);
+
+    boolean existsByStorageKey(String storageKey);
+}
@@ -0,0 +1,26 @@
+package com.alphadocuments.documentorganiserbackend.repository;
+
+import com.alphadocuments.documentorganiserbackend.entity.StorageDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for StorageDeletion entity.
+ */
+@Repository
+public interface StorageDeletionRepository extends JpaRepository<StorageDeletion, UUID> {
+
+    /**
+     * Lock up to {@code limit} deletions that are due. Rows locked by another instance are skipped,
+     * so instances draining the queue at the same time never take the same keys.
+     */
+    @Query(value = "SELECT * FROM storage_deletions WHERE next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<StorageDeletion> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+}
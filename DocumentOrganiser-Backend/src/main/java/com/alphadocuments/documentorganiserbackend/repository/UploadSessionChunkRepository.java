@@ -0,0 +1,22 @@
+package com.alphadocuments.documentorganiserbackend.repository;
+
+import com.alphadocuments.documentorganiserbackend.entity.UploadSessionChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for UploadSessionChunk entity.
+ */
+@Repository
+public interface UploadSessionChunkRepository extends JpaRepository<UploadSessionChunk, UUID> {
+
+    List<UploadSessionChunk> findBySessionIdOrderByChunkIndexAsc(UUID sessionId);
+
+    Optional<UploadSessionChunk> findBySessionIdAndChunkIndex(UUID sessionId, Integer chunkIndex);
+
+    void deleteBySessionId(UUID sessionId);
+}
@@ -0,0 +1,59 @@
+package com.alphadocuments.documentorganiserbackend.repository;
+
+import com.alphadocuments.documentorganiserbackend.entity.UploadSession;
+import com.alphadocuments.documentorganiserbackend.entity.enums.UploadSessionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for UploadSession entity.
+ */
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+
+    Optional<UploadSession> findByIdAndUserId(UUID id, UUID userId);
+
+    /**
+     * Total size of a user's unexpired sessions in any of the given states.
+     */
+    @Query("SELECT COALESCE(SUM(s.fileSize), 0) FROM UploadSession s " +
+           "WHERE s.user.id = :userId AND s.status IN :statuses AND s.expiresAt > :now")
+    long sumFileSizeByUserIdAndStatusIn(@Param("userId") UUID userId,
+                                        @Param("statuses") Collection<UploadSessionStatus> statuses,
+                                        @Param("now") Instant now);
+
+    List<UploadSession> findTop100ByStatusInAndExpiresAtBefore(List<UploadSessionStatus> statuses, Instant now);
+
+    /**
+     * Move a session between states only if it is still in the expected state.
+     * Returns the number of rows updated, so callers can detect a concurrent transition.
+     */
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.status = :to, s.updatedAt = CURRENT_TIMESTAMP WHERE s.id = :id AND s.status = :from")
+    int transitionStatus(@Param("id") UUID id,
+                         @Param("from") UploadSessionStatus from,
+                         @Param("to") UploadSessionStatus to);
+
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.expiresAt = :expiresAt, s.updatedAt = CURRENT_TIMESTAMP WHERE s.id = :id")
+    void extendExpiry(@Param("id") UUID id, @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * SHA-256 the client declared for the upload that created a document, if any.
+     */
+    @Query("SELECT s.expectedChecksum FROM UploadSession s WHERE s.documentId = :documentId")
+    Optional<String> findExpectedChecksumByDocumentId(@Param("documentId") UUID documentId);
+
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.detectedMimeType = :mimeType WHERE s.id = :id")
+    void updateDetectedMimeType(@Param("id") UUID id, @Param("mimeType") String mimeType);
+}
@@ -2,6 +2,7 @@ package com.alphadocuments.documentorganiserbackend.repository;
 
 import com.alphadocuments.documentorganiserbackend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -28,4 +29,13 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.userSettings WHERE u.email = :email")
     Optional<User> findByEmailWithSettings(@Param("email") String email);
+
+    /**
+     * Subtract freed bytes from a user's storage usage in place, never going below zero. Unlike
+     * reading and saving the user, concurrent releases cannot overwrite each other.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.storageUsedBytes = CASE WHEN u.storageUsedBytes > :bytes " +
+           "THEN u.storageUsedBytes - :bytes ELSE 0 END WHERE u.id = :userId")
+    int releaseStorage(@Param("userId") UUID userId, @Param("bytes") long bytes);
 }
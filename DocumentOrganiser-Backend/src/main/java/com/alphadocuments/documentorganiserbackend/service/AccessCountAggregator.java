@@ -0,0 +1,31 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import java.util.UUID;
+
+/**
+ * Service interface for write-behind document download counts and share link access counts.
+ * Accesses are coalesced in memory per row and written periodically, so busy rows are not
+ * updated once per access.
+ */
+public interface AccessCountAggregator {
+
+    /**
+     * Count a download of the document and note when it was read.
+     */
+    void recordDocumentDownload(UUID documentId);
+
+    /**
+     * Note when the document was read, without counting a download.
+     */
+    void recordDocumentAccess(UUID documentId);
+
+    /**
+     * Count an access through the share link and note when it happened.
+     */
+    void recordShareLinkAccess(UUID shareLinkId);
+
+    /**
+     * Write the pending counts. Counts that fail to be written are kept for the next flush.
+     */
+    void flush();
+}
@@ -5,6 +5,7 @@ import com.alphadocuments.documentorganiserbackend.entity.enums.ActivityType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -17,9 +18,21 @@ public interface ActivityService {
                     String resourceName, String description, Map<String, Object> metadata,
                     String ipAddress, String userAgent);
 
+    /**
+     * Log several activities for one user in a single batched insert.
+     */
+    void logActivities(UUID userId, List<ActivityEntry> entries);
+
     Page<ActivityResponse> getActivities(UUID userId, Pageable pageable);
 
     Page<ActivityResponse> getActivitiesByType(UUID userId, ActivityType type, Pageable pageable);
 
     Page<ActivityResponse> getActivitiesForResource(String resourceType, UUID resourceId, Pageable pageable);
+
+    /**
+     * One activity to record with {@link #logActivities(UUID, List)}.
+     */
+    record ActivityEntry(ActivityType type, String resourceType, UUID resourceId, String resourceName,
+                         String description, Map<String, Object> metadata) {
+    }
 }
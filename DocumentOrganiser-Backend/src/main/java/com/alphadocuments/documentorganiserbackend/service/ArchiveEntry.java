@@ -0,0 +1,22 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import com.alphadocuments.documentorganiserbackend.entity.Document;
+
+/**
+ * A stored file to be written into an archive.
+ *
+ * @param path       path of the entry inside the archive, with '/' between folders
+ * @param storageKey key of the content in storage
+ * @param size       size of the content in bytes
+ * @param mimeType   content type, used to decide whether compressing is worthwhile
+ */
+public record ArchiveEntry(String path, String storageKey, long size, String mimeType) {
+
+    /**
+     * Entry for a document at the archive root, named after the uploaded file.
+     */
+    public static ArchiveEntry of(Document document) {
+        return new ArchiveEntry(document.getOriginalName(), document.getStorageKey(), document.getFileSize(),
+                document.getMimeType());
+    }
+}
@@ -0,0 +1,27 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import com.alphadocuments.documentorganiserbackend.entity.Folder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Service interface for streaming archives of stored files.
+ */
+public interface ArchiveService {
+
+    /**
+     * Write the entries, in order, as a ZIP archive to the stream. Bytes are sent as soon as each entry
+     * is available, so the archive is never held in memory. Entries whose content cannot be fetched are
+     * skipped; duplicate paths get a " (n)" suffix.
+     */
+    void writeZip(List<ArchiveEntry> entries, OutputStream out) throws IOException;
+
+    /**
+     * Collect the documents in the folder and all its subfolders as entries under a directory named
+     * after the folder, keeping the folder layout. Throws before anything is streamed if the total size
+     * is over {@code storage.archives.max-folder-download-mb}. Access to the folder must already be checked.
+     */
+    FolderArchive collectFolder(Folder folder);
+}
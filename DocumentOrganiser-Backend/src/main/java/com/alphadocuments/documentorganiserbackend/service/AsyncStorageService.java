@@ -0,0 +1,75 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import com.alphadocuments.documentorganiserbackend.entity.enums.StorageTier;
+import org.reactivestreams.Publisher;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link StorageService}. Every call returns at once; the future completes
+ * on a client thread when storage answers, so no caller thread waits on the round trip. Failures complete
+ * the future exceptionally with a {@link com.alphadocuments.documentorganiserbackend.exception.FileOperationException}.
+ */
+public interface AsyncStorageService {
+
+    /**
+     * Upload a local file. Large files are split into parts that are sent in parallel.
+     */
+    CompletableFuture<String> uploadFile(String key, Path source, String contentType);
+
+    /**
+     * Upload content published as byte buffers. The publisher must produce exactly {@code contentLength} bytes.
+     */
+    CompletableFuture<String> uploadFile(String key, Publisher<ByteBuffer> content, long contentLength,
+                                         String contentType);
+
+    /**
+     * Start downloading a file. The future completes once storage has answered with the object's
+     * headers; the content is then read from the publisher at the subscriber's pace.
+     */
+    CompletableFuture<ObjectStream> downloadFile(String key);
+
+    /**
+     * Start downloading the inclusive byte range [start, end] of a file.
+     */
+    CompletableFuture<ObjectStream> downloadFileRange(String key, long start, long end);
+
+    /**
+     * Download a file to a local path, fetching large objects in parallel ranges.
+     */
+    CompletableFuture<Void> downloadToFile(String key, Path destination);
+
+    /**
+     * Get an object's metadata without reading its content, or empty if it does not exist.
+     */
+    CompletableFuture<Optional<StorageService.ObjectInfo>> getObjectInfo(String key);
+
+    /**
+     * Delete a file from storage.
+     */
+    CompletableFuture<Void> deleteFile(String key);
+
+    /**
+     * Copy a file within storage. Large objects are copied part by part on the storage side.
+     */
+    CompletableFuture<String> copyFile(String sourceKey, String destinationKey);
+
+    /**
+     * Move a file to another storage tier. Reads keep working in either tier; does nothing if the
+     * file is already there.
+     */
+    CompletableFuture<Void> changeTier(String key, StorageTier tier);
+
+    /**
+     * An object being downloaded.
+     *
+     * @param contentLength length of the content being sent
+     * @param contentType   stored content type
+     * @param content       the content; it can be subscribed to once
+     */
+    record ObjectStream(long contentLength, String contentType, Publisher<ByteBuffer> content) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import com.alphadocuments.documentorganiserbackend.dto.response.BatchUploadResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service interface for uploading many files in one request.
+ */
+public interface BatchUploadService {
+
+    /**
+     * Upload files into one location. Files are validated and stored independently, so one bad
+     * file does not fail the batch; the response reports the outcome of each file.
+     * Pass a null workspace ID for personal storage.
+     */
+    BatchUploadResponse uploadDocuments(UUID userId, UUID workspaceId, UUID folderId,
+                                        List<MultipartFile> files, String conflictResolution);
+}
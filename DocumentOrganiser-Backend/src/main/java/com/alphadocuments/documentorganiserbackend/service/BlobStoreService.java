@@ -0,0 +1,43 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import java.util.Optional;
+
+/**
+ * Service interface for content-addressed, reference-counted blob storage.
+ * Each document, version and copy holds one reference to the blob its storage key points at.
+ */
+public interface BlobStoreService {
+
+    /**
+     * Take a reference to freshly uploaded content and return the storage key to record.
+     * If a blob with the same checksum already exists, its key is returned and the new object
+     * is deleted once the transaction commits; otherwise the new object becomes the blob.
+     */
+    String register(StoredContent content);
+
+    /**
+     * Take another reference to an existing blob, e.g. for a copy.
+     */
+    void retain(String storageKey);
+
+    /**
+     * Take a reference to the blob with this checksum if one is stored, so the content does not
+     * have to be uploaded again. Returns its storage key, or empty if there is none.
+     */
+    Optional<String> retainByChecksum(String checksum);
+
+    /**
+     * Record the checksum of content that was registered without one.
+     */
+    void recordChecksum(String storageKey, String checksum);
+
+    /**
+     * Whether a blob row exists for this key, i.e. whether some committed content owns the object.
+     */
+    boolean isTracked(String storageKey);
+
+    /**
+     * Drop a reference. The object is deleted from storage after commit when none remain.
+     */
+    void release(String storageKey);
+}
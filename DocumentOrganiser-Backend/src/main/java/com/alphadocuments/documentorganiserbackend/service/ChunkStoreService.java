@@ -0,0 +1,33 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Service interface for storing content as content-defined chunks.
+ * Chunks are content-addressed blobs, so a chunk shared by several versions is stored once.
+ */
+public interface ChunkStoreService {
+
+    /**
+     * Split content into chunks, upload the ones that are not stored yet and take a reference to each.
+     * Returns the chunks in order.
+     */
+    List<StoredChunk> storeChunks(InputStream content);
+
+    /**
+     * Stream stored chunks back as one file. Each chunk is fetched only when the previous one is used up.
+     */
+    InputStream openChunks(List<String> storageKeys);
+
+    /**
+     * Drop the references taken by {@link #storeChunks(InputStream)}.
+     */
+    void releaseChunks(List<String> storageKeys);
+
+    /**
+     * A stored chunk and its size in bytes.
+     */
+    record StoredChunk(String storageKey, long size) {
+    }
+}
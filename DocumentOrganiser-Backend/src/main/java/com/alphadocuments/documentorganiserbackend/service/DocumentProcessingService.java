@@ -0,0 +1,20 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import java.util.UUID;
+
+/**
+ * Service interface for background text and metadata extraction from document content.
+ */
+public interface DocumentProcessingService {
+
+    /**
+     * Queue a PENDING document for processing. Does nothing if the queue is full;
+     * the document is then picked up by {@link #resubmitStalled()}.
+     */
+    void submit(UUID documentId);
+
+    /**
+     * Re-queue documents that were never picked up or whose worker stopped mid-run.
+     */
+    void resubmitStalled();
+}
@@ -2,6 +2,7 @@ package com.alphadocuments.documentorganiserbackend.service;
 
 import com.alphadocuments.documentorganiserbackend.dto.request.MoveDocumentRequest;
 import com.alphadocuments.documentorganiserbackend.dto.request.RenameDocumentRequest;
+import com.alphadocuments.documentorganiserbackend.dto.response.BatchUploadItemResponse;
 import com.alphadocuments.documentorganiserbackend.dto.response.DocumentResponse;
 import com.alphadocuments.documentorganiserbackend.dto.response.PagedResponse;
 import com.alphadocuments.documentorganiserbackend.entity.enums.DocumentCategory;
@@ -12,6 +13,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -23,7 +25,16 @@ public interface DocumentService {
 
     DocumentResponse getDocument(UUID userId, UUID documentId);
 
-    Resource downloadDocument(UUID userId, UUID documentId);
+    /**
+     * Open a document's content for download. Nothing is read from storage until the content's reader is used.
+     */
+    DownloadContent downloadDocument(UUID userId, UUID documentId);
+
+    /**
+     * Count a download and update the document's last access time. Both are written behind in batches,
+     * so they show up in responses after the next flush. Content in the cold storage tier is moved back.
+     */
+    void recordDownload(UUID userId, UUID documentId);
 
     DocumentResponse renameDocument(UUID userId, UUID documentId, RenameDocumentRequest request);
 
@@ -60,6 +71,17 @@ public interface DocumentService {
 
     DocumentResponse restoreVersion(UUID userId, UUID documentId, Integer versionNumber);
 
+    /**
+     * Replace the document's content with a new version. The previous version is kept as
+     * content-defined chunks, so only the blocks that changed take up new storage.
+     */
+    DocumentResponse uploadVersion(UUID userId, UUID documentId, MultipartFile file, String changeDescription);
+
+    /**
+     * Download a version's content, reassembled from its chunks if it is stored as chunks.
+     */
+    Resource downloadVersion(UUID userId, UUID documentId, Integer versionNumber);
+
     // ── Workspace document operations ──────────────────────────
 
     /**
@@ -71,4 +93,48 @@ public interface DocumentService {
      * Get documents in a workspace folder.
      */
     Page<DocumentResponse> getWorkspaceDocuments(UUID userId, UUID workspaceId, UUID folderId, Pageable pageable);
+
+    // ── Uploads that bypass multipart form handling ────────────
+
+    /**
+     * Check that an upload to the given location would be accepted: workspace membership, folder,
+     * storage quota, and — when the conflict resolution is "error" — name conflicts.
+     * Pass a null workspace ID for personal storage, and a null name to skip the name check.
+     */
+    void validateUploadTarget(UUID userId, UUID workspaceId, UUID folderId, String originalName,
+                              long fileSize, String conflictResolution);
+
+    /**
+     * Register content that is already in storage as a new document.
+     * Pass a null workspace ID for personal storage.
+     */
+    DocumentResponse createDocumentFromStorage(UUID userId, UUID workspaceId, UUID folderId,
+                                               StoredContent content, String conflictResolution);
+
+    /**
+     * Register several stored objects as documents in one transaction, with batched inserts and a
+     * single quota update. Returns one result per content, in order; failed items are not persisted.
+     */
+    List<BatchUploadItemResponse> createDocumentsFromStorage(UUID userId, UUID workspaceId, UUID folderId,
+                                                             List<StoredContent> contents, String conflictResolution);
+
+    /**
+     * Create a document from content the user already has, without any bytes being sent.
+     * Only the user's own documents and, for workspace uploads, the workspace's documents are
+     * matched, so a hash alone never grants access to someone else's content.
+     * Returns empty when no document with this SHA-256 and size is found.
+     */
+    Optional<DocumentResponse> createDocumentFromExistingContent(UUID userId, UUID workspaceId, UUID folderId,
+                                                                 String originalName, long fileSize,
+                                                                 String checksum, String conflictResolution);
+
+    /**
+     * Validate a file and stream it into storage without creating a document.
+     */
+    StoredContent storeContent(UUID userId, MultipartFile file);
+
+    /**
+     * Generate a fresh storage key for a new document object.
+     */
+    String generateStorageKey(UUID userId, String originalName);
 }
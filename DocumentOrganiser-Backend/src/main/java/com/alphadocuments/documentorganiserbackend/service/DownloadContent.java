@@ -0,0 +1,69 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import org.reactivestreams.Publisher;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Content to be sent to a client, with the validators used for conditional and range requests.
+ *
+ * @param fileName      name to offer in the Content-Disposition header
+ * @param mimeType      content type of the file
+ * @param contentLength size of the content in bytes
+ * @param checksum      hex-encoded SHA-256 of the content, or null if unknown
+ * @param lastModified  when the content last changed
+ * @param reader        opens the inclusive byte range [start, end] of the content
+ * @param urlSigner     creates a pre-signed URL the client can fetch the content from, or null if there is none
+ * @param asyncReader   starts a non-blocking read of the whole content, or null if it can only be read blocking
+ */
+public record DownloadContent(String fileName, String mimeType, long contentLength, String checksum,
+                              Instant lastModified, RangeReader reader, UrlSigner urlSigner,
+                              AsyncReader asyncReader) {
+
+    /**
+     * Opens a byte range of stored content. A range covering the whole content reads the object in one request.
+     */
+    @FunctionalInterface
+    public interface RangeReader {
+        InputStream open(long start, long end);
+    }
+
+    /**
+     * Starts reading the whole content without blocking; the future completes when the first bytes can be read.
+     */
+    @FunctionalInterface
+    public interface AsyncReader {
+        CompletableFuture<? extends Publisher<ByteBuffer>> open();
+    }
+
+    /**
+     * Creates a pre-signed download URL whose response uses the given headers.
+     */
+    @FunctionalInterface
+    public interface UrlSigner {
+        String sign(Duration expiration, String contentDisposition, String contentType);
+    }
+
+    /**
+     * Content of the object stored under a key, read through the local blob cache and with ranged GETs
+     * for partial reads. Content the cache does not hold can also be streamed from storage without blocking.
+     */
+    public static DownloadContent fromStorage(StorageService storageService, AsyncStorageService asyncStorageService,
+                                              LocalBlobCache blobCache, String storageKey, String fileName,
+                                              String mimeType, long contentLength, String checksum,
+                                              Instant lastModified) {
+        RangeReader reader = blobCache.reader(storageKey, checksum, contentLength);
+        UrlSigner urlSigner = !storageService.supportsPresignedUrls() ? null
+                : (expiration, contentDisposition, contentType) ->
+                        storageService.generatePresignedDownloadUrl(storageKey, expiration, contentDisposition, contentType);
+        // Cached content is read from local disk, and misses must fill the cache, so those keep the blocking reader
+        AsyncReader asyncReader = blobCache.isCacheable(checksum, contentLength) ? null
+                : () -> asyncStorageService.downloadFile(storageKey).thenApply(AsyncStorageService.ObjectStream::content);
+        return new DownloadContent(fileName, mimeType, contentLength, checksum, lastModified, reader, urlSigner,
+                asyncReader);
+    }
+}
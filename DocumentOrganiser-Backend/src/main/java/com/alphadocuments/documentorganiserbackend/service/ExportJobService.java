@@ -0,0 +1,31 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import com.alphadocuments.documentorganiserbackend.dto.response.ExportJobResponse;
+
+import java.util.UUID;
+
+/**
+ * Service interface for background exports of all of a user's documents.
+ */
+public interface ExportJobService {
+
+    /**
+     * Queue an export, or return the user's export that is already queued or running.
+     */
+    ExportJobResponse createJob(UUID userId);
+
+    /**
+     * Get the job's progress, with a download URL once the archive is ready.
+     */
+    ExportJobResponse getJob(UUID userId, UUID jobId);
+
+    /**
+     * Get a short-lived pre-signed URL for the finished archive.
+     */
+    String getDownloadUrl(UUID userId, UUID jobId);
+
+    /**
+     * Start queued jobs, take over jobs whose worker has died and delete expired archives.
+     */
+    void sweep();
+}
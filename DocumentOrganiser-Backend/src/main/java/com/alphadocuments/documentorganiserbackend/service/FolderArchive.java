@@ -0,0 +1,13 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import java.util.List;
+
+/**
+ * The contents of a folder subtree, ready to be written by {@link ArchiveService#writeZip}.
+ *
+ * @param fileName   name to offer for the downloaded archive
+ * @param entries    documents in the subtree, with paths relative to the folder's parent
+ * @param totalBytes combined size of the entries
+ */
+public record FolderArchive(String fileName, List<ArchiveEntry> entries, long totalBytes) {
+}
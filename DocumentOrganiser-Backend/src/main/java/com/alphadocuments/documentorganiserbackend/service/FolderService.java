@@ -19,6 +19,11 @@ public interface FolderService {
 
     FolderResponse getFolder(UUID userId, UUID folderId);
 
+    /**
+     * Collect the folder and its subfolders for download as one ZIP archive.
+     */
+    FolderArchive getFolderArchive(UUID userId, UUID folderId);
+
     FolderResponse updateFolder(UUID userId, UUID folderId, UpdateFolderRequest request);
 
     void deleteFolder(UUID userId, UUID folderId);
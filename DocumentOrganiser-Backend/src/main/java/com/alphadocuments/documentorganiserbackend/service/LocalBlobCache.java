@@ -0,0 +1,23 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+/**
+ * Service interface for a read-through cache of whole blobs on local disk, in front of object storage.
+ * Entries are keyed by the content's SHA-256, so they can never go stale.
+ */
+public interface LocalBlobCache {
+
+    /**
+     * Reader for the content stored under a key, going through the cache when the checksum is known.
+     */
+    DownloadContent.RangeReader reader(String storageKey, String checksum, long size);
+
+    /**
+     * Load the blob into the cache if it is cacheable and not cached yet.
+     */
+    void warm(String storageKey, String checksum, long size);
+
+    /**
+     * Whether content with this checksum and size is read through the cache rather than straight from storage.
+     */
+    boolean isCacheable(String checksum, long size);
+}
@@ -0,0 +1,22 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+/**
+ * Service interface for caching pre-signed download URLs.
+ * Handing out the same URL while it is still comfortably valid saves re-signing on every gallery
+ * render and lets browsers cache what the URL points at.
+ */
+public interface PresignedUrlCache {
+
+    /**
+     * Get a pre-signed download URL for the object, signing a new one only if there is no cached URL
+     * with enough validity left.
+     * @param contentDisposition response Content-Disposition, or null for the stored object's
+     * @param contentType        response Content-Type, or null for the stored object's
+     */
+    String getDownloadUrl(String storageKey, String contentDisposition, String contentType);
+
+    /**
+     * Drop every cached URL for the object, e.g. once it has been deleted from storage.
+     */
+    void invalidate(String storageKey);
+}
@@ -7,7 +7,6 @@ import com.alphadocuments.documentorganiserbackend.dto.response.DocumentResponse
 import com.alphadocuments.documentorganiserbackend.dto.response.FolderResponse;
 import com.alphadocuments.documentorganiserbackend.dto.response.ShareLinkResponse;
 import com.alphadocuments.documentorganiserbackend.dto.response.SharedItemResponse;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -51,10 +50,14 @@ public interface SharingService {
     // Public access via share link — documents
     DocumentResponse getDocumentByShareLink(String token, String password);
 
-    /** Returns document metadata for a share link without incrementing access count. */
-    DocumentResponse getDownloadMetadata(String token, String password);
+    /** Opens the shared document's content without incrementing the access count. */
+    DownloadContent downloadDocumentByShareLink(String token, String password);
 
-    Resource downloadDocumentByShareLink(String token, String password);
+    /**
+     * Note a download through the share link on its document: updates the last access time and moves
+     * cold content back to the standard tier. The share link's access count is left alone.
+     */
+    void recordDownloadByShareLink(String token);
 
     // Public access via share link — folders
     /** Returns the share link type ("DOCUMENT" or "FOLDER") for a given token. */
@@ -63,4 +66,7 @@ public interface SharingService {
     FolderResponse getFolderByShareLink(String token, String password);
 
     List<DocumentResponse> getFolderDocumentsByShareLink(String token, String password);
+
+    /** Collects the shared folder and its subfolders for download as one ZIP archive. */
+    FolderArchive getFolderArchiveByShareLink(String token, String password);
 }
@@ -0,0 +1,25 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import java.util.Collection;
+
+/**
+ * Service interface for a transactional outbox of storage object deletes.
+ * Keys are queued in the caller's transaction and deleted in batches once it has committed.
+ */
+public interface StorageDeletionQueue {
+
+    /**
+     * Queue objects for deletion. Joins the caller's transaction, so nothing is deleted if it rolls back.
+     */
+    void enqueue(Collection<String> storageKeys);
+
+    /**
+     * Queue one object for deletion.
+     */
+    void enqueue(String storageKey);
+
+    /**
+     * Delete the queued objects that are due, in batches.
+     */
+    void drain();
+}
@@ -2,6 +2,10 @@ package com.alphadocuments.documentorganiserbackend.service;
 
 import java.io.InputStream;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Service interface for file storage operations (S3/MinIO).
@@ -18,11 +22,27 @@ public interface StorageService {
      */
     InputStream downloadFile(String key);
 
+    /**
+     * Download the inclusive byte range [start, end] of a file.
+     */
+    InputStream downloadFileRange(String key, long start, long end);
+
+    /**
+     * Get an object's metadata without reading its content, or empty if it does not exist.
+     */
+    Optional<ObjectInfo> getObjectInfo(String key);
+
     /**
      * Delete a file from storage.
      */
     void deleteFile(String key);
 
+    /**
+     * Delete several files, as few requests as possible. Missing files count as deleted.
+     * @return the keys that could not be deleted
+     */
+    List<String> deleteFiles(List<String> keys);
+
     /**
      * Copy a file within storage.
      */
@@ -38,13 +58,84 @@ public interface StorageService {
      */
     String generatePresignedDownloadUrl(String key, Duration expiration);
 
+    /**
+     * Generate a pre-signed URL for downloading whose response carries the given Content-Disposition
+     * and Content-Type instead of the stored object's.
+     */
+    String generatePresignedDownloadUrl(String key, Duration expiration, String contentDisposition,
+                                        String contentType);
+
     /**
      * Generate a pre-signed URL for uploading.
      */
     String generatePresignedUploadUrl(String key, String contentType, Duration expiration);
 
+    /**
+     * Generate a pre-signed PUT whose length and, if given, hex-encoded SHA-256 are part of the
+     * signature, so storage rejects a body that does not match.
+     */
+    PresignedRequest generatePresignedUploadUrl(String key, String contentType, long contentLength,
+                                                String checksumSha256, Duration expiration);
+
+    /**
+     * Generate a pre-signed URL for uploading one part of a multipart upload.
+     */
+    String generatePresignedUploadPartUrl(String key, String uploadId, int partNumber, Duration expiration);
+
+    /**
+     * Start a multipart upload and return its upload ID.
+     */
+    String initiateMultipartUpload(String key, String contentType);
+
+    /**
+     * Upload one part of a multipart upload and return its ETag.
+     */
+    String uploadPart(String key, String uploadId, int partNumber, InputStream inputStream, long contentLength);
+
+    /**
+     * Assemble the uploaded parts into the final object.
+     */
+    void completeMultipartUpload(String key, String uploadId, List<UploadedPart> parts);
+
+    /**
+     * Abort a multipart upload and discard its parts.
+     */
+    void abortMultipartUpload(String key, String uploadId);
+
+    /**
+     * List the parts uploaded so far for a multipart upload, in part number order.
+     */
+    List<UploadedPart> listParts(String key, String uploadId);
+
     /**
      * Initialize the storage bucket if it doesn't exist.
      */
     void initializeBucket();
+
+    /**
+     * Whether this storage can issue pre-signed URLs. Without them, content must be proxied through the app.
+     */
+    default boolean supportsPresignedUrls() {
+        return true;
+    }
+
+    /**
+     * A part of a multipart upload, identified by its number and the ETag returned for it.
+     */
+    record UploadedPart(int partNumber, String eTag) {
+    }
+
+    /**
+     * Object metadata from a HEAD request. The SHA-256 is hex-encoded and only present when the
+     * object was uploaded in one piece with a SHA-256 checksum.
+     */
+    record ObjectInfo(long contentLength, String contentType, String eTag, String checksumSha256,
+                      Instant lastModified) {
+    }
+
+    /**
+     * A pre-signed URL and the headers the client must send with it.
+     */
+    record PresignedRequest(String url, Map<String, String> signedHeaders) {
+    }
 }
@@ -0,0 +1,22 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import com.alphadocuments.documentorganiserbackend.entity.Document;
+
+/**
+ * Service interface for moving document content that has not been read for
+ * {@code storage.tiering.cold-after-days} to a cheaper storage tier, and back again when it is read.
+ */
+public interface StorageTieringService {
+
+    /**
+     * Start moving content none of whose documents has been read since the cutoff to the cold tier.
+     * Returns without waiting for the run, which is skipped if the previous one is still in progress.
+     */
+    void tierColdDocuments();
+
+    /**
+     * Note that a document's content is being read. Content in the cold tier is moved back to the
+     * standard tier in the background; the read itself does not wait for it.
+     */
+    void recordAccess(Document document);
+}
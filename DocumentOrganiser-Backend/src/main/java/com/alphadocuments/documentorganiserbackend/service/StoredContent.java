@@ -0,0 +1,13 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+/**
+ * Content that has already been written to object storage and is ready to be registered as a document.
+ *
+ * @param originalName file name as supplied by the client
+ * @param storageKey   key of the stored object
+ * @param fileSize     size of the stored object in bytes
+ * @param mimeType     MIME type resolved from the client-declared and detected types
+ * @param checksum     hex-encoded SHA-256 of the stored object
+ */
+public record StoredContent(String originalName, String storageKey, long fileSize, String mimeType, String checksum) {
+}
@@ -0,0 +1,52 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import com.alphadocuments.documentorganiserbackend.entity.Document;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Service interface for rendering and serving document thumbnails.
+ * Each render is stored under a new generation key, so a thumbnail URL never changes content
+ * and can be cached for a long time.
+ */
+public interface ThumbnailService {
+
+    /**
+     * Queue thumbnail rendering for a document. Unsupported types are ignored.
+     */
+    void submit(UUID documentId);
+
+    /**
+     * Find the stored thumbnail closest to the requested size. If the document has none yet,
+     * rendering is queued and a ResourceNotFoundException is thrown.
+     */
+    Thumbnail getThumbnail(UUID userId, UUID documentId, int size);
+
+    /**
+     * Open the image bytes of a thumbnail; the caller closes the stream.
+     */
+    InputStream openThumbnail(Thumbnail thumbnail);
+
+    /**
+     * URL of the document's thumbnail, or null if it has none.
+     */
+    String getThumbnailUrl(Document document);
+
+    /**
+     * Queue every stored size of a thumbnail generation for deletion. Does nothing for null.
+     */
+    void deleteThumbnails(String thumbnailKey);
+
+    /**
+     * A stored JPEG thumbnail.
+     *
+     * @param storageKey key of the image in storage
+     * @param generation generation the image belongs to, as used in thumbnail URLs
+     * @param eTag       identifies this generation and size
+     * @param lastModified when the document's content, and so the thumbnail's source, last changed
+     */
+    record Thumbnail(String storageKey, String generation, String eTag, Instant lastModified) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import com.alphadocuments.documentorganiserbackend.dto.request.CreateUploadSessionRequest;
+import com.alphadocuments.documentorganiserbackend.dto.response.DirectUploadResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.DocumentResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.InstantUploadResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.UploadSessionResponse;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Service interface for resumable chunked uploads and direct-to-bucket uploads.
+ */
+public interface UploadSessionService {
+
+    /**
+     * Start a session. The response tells the client the chunk size to use.
+     */
+    UploadSessionResponse createSession(UUID userId, CreateUploadSessionRequest request);
+
+    /**
+     * Store one chunk. Chunks may arrive in any order and may be re-sent.
+     */
+    UploadSessionResponse uploadChunk(UUID userId, UUID sessionId, int chunkIndex, InputStream content, long contentLength);
+
+    /**
+     * Get the session progress, including the byte ranges still missing.
+     */
+    UploadSessionResponse getSession(UUID userId, UUID sessionId);
+
+    /**
+     * Assemble the received chunks into a document. A non-null conflict resolution overrides
+     * the one given when the session was created.
+     */
+    DocumentResponse completeSession(UUID userId, UUID sessionId, String conflictResolution);
+
+    /**
+     * Reserve quota and return pre-signed URLs the client uploads the file to directly.
+     * Files at or above the multipart threshold get one URL per part.
+     */
+    DirectUploadResponse initiateDirectUpload(UUID userId, CreateUploadSessionRequest request);
+
+    /**
+     * Create the document straight away if the user or workspace already has content with the request's
+     * SHA-256 and size; otherwise initiate a direct upload and return its target.
+     */
+    InstantUploadResponse initiateInstantUpload(UUID userId, CreateUploadSessionRequest request);
+
+    /**
+     * Verify a direct upload's size, content type and checksum in storage and create its document.
+     */
+    DocumentResponse completeDirectUpload(UUID userId, UUID sessionId, String conflictResolution);
+
+    /**
+     * Cancel the session and discard the data uploaded so far.
+     */
+    void abortSession(UUID userId, UUID sessionId);
+
+    /**
+     * Abort the storage uploads of abandoned sessions.
+     */
+    void cleanupExpiredSessions();
+}
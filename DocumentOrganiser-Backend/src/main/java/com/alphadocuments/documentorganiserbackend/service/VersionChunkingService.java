@@ -0,0 +1,22 @@
+package com.alphadocuments.documentorganiserbackend.service;
+
+import java.util.UUID;
+
+/**
+ * Service interface for converting superseded document versions to content-defined chunks.
+ * Versions are chunked in the background, so uploading a new version never waits for the
+ * previous one to be read back and split.
+ */
+public interface VersionChunkingService {
+
+    /**
+     * Queue a superseded version for chunking. Does nothing if the queue is full;
+     * the version is then picked up by {@link #chunkStalledVersions()}.
+     */
+    void submit(UUID versionId);
+
+    /**
+     * Queue superseded versions that are still stored whole, e.g. because their instance stopped.
+     */
+    void chunkStalledVersions();
+}
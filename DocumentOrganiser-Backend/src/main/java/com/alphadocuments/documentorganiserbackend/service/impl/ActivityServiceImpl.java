@@ -16,6 +16,7 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -59,6 +60,35 @@ public class ActivityServiceImpl implements ActivityService {
         }
     }
 
+    @Override
+    @Async
+    @Transactional
+    public void logActivities(UUID userId, List<ActivityEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            User user = userRepository.getReferenceById(userId);
+
+            List<ActivityLog> activityLogs = entries.stream()
+                    .map(entry -> ActivityLog.builder()
+                            .user(user)
+                            .activityType(entry.type())
+                            .resourceType(entry.resourceType())
+                            .resourceId(entry.resourceId())
+                            .resourceName(entry.resourceName())
+                            .description(entry.description())
+                            .metadata(entry.metadata() != null ? entry.metadata() : Map.of())
+                            .build())
+                    .toList();
+
+            activityLogRepository.saveAll(activityLogs);
+            log.debug("Logged {} activities for user {}", entries.size(), userId);
+        } catch (Exception e) {
+            log.error("Failed to log {} activities for user {}", entries.size(), userId, e);
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<ActivityResponse> getActivities(UUID userId, Pageable pageable) {
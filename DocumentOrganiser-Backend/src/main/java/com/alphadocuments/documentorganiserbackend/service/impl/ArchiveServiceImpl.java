@@ -0,0 +1,185 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.entity.Document;
+import com.alphadocuments.documentorganiserbackend.entity.Folder;
+import com.alphadocuments.documentorganiserbackend.exception.FileOperationException;
+import com.alphadocuments.documentorganiserbackend.exception.ValidationException;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentRepository;
+import com.alphadocuments.documentorganiserbackend.service.ArchiveEntry;
+import com.alphadocuments.documentorganiserbackend.service.ArchiveService;
+import com.alphadocuments.documentorganiserbackend.service.FolderArchive;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.util.ArchiveNaming;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Implementation of ArchiveService.
+ * While one entry is being written, the next {@code storage.archives.prefetch-count} objects are fetched
+ * concurrently. Objects up to {@code storage.archives.max-buffered-object-mb} are buffered whole, which
+ * bounds the memory one archive can hold; larger objects are streamed from storage when their turn
+ * comes. Content that is already compressed is stored rather than deflated again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ArchiveServiceImpl implements ArchiveService {
+
+    private final StorageService storageService;
+    private final DocumentRepository documentRepository;
+    private final StorageProperties storageProperties;
+    private final Executor storageTransferExecutor;
+
+    @Override
+    public void writeZip(List<ArchiveEntry> entries, OutputStream out) throws IOException {
+        StorageProperties.Archives settings = storageProperties.getArchives();
+        Iterator<ArchiveEntry> pending = entries.iterator();
+        Deque<Prefetch> window = new ArrayDeque<>();
+        Set<String> usedPaths = new HashSet<>();
+        int skipped = 0;
+
+        // Not closed: closing would close the caller's stream
+        ZipOutputStream zip = new ZipOutputStream(out);
+        try {
+            fillWindow(window, pending, settings);
+            while (!window.isEmpty()) {
+                Prefetch next = window.poll();
+                fillWindow(window, pending, settings);
+                if (!writeEntry(zip, ArchiveNaming.uniquePath(next.entry().path(), usedPaths), next)) {
+                    skipped++;
+                }
+            }
+            zip.finish();
+        } finally {
+            window.forEach(prefetch -> {
+                if (prefetch.content() != null) {
+                    prefetch.content().cancel(false);
+                }
+            });
+        }
+        log.info("Wrote ZIP archive with {} entries ({} skipped)", entries.size() - skipped, skipped);
+    }
+
+    @Override
+    public FolderArchive collectFolder(Folder folder) {
+        String folderPath = folder.getPath().endsWith("/") ? folder.getPath() : folder.getPath() + "/";
+        String pathPrefix = folderPath
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+        // Paths are only unique within one user's folders or one workspace
+        List<Document> documents = folder.getWorkspace() != null
+                ? documentRepository.findInWorkspaceFolderSubtree(folder.getWorkspace().getId(), folder.getId(), pathPrefix)
+                : documentRepository.findInFolderSubtree(folder.getUser().getId(), folder.getId(), pathPrefix);
+
+        long totalBytes = documents.stream().mapToLong(Document::getFileSize).sum();
+        long maxBytes = storageProperties.getArchives().getMaxFolderDownloadBytes();
+        if (totalBytes > maxBytes) {
+            throw new ValidationException(String.format(
+                    "Folder is too large to download as one archive: %d MB, limit %d MB. Download its subfolders separately.",
+                    totalBytes / (1024 * 1024), maxBytes / (1024 * 1024)));
+        }
+
+        // Entry paths start with the folder's own name, then the path below it
+        List<ArchiveEntry> entries = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            Folder parent = document.getFolder();
+            String below = parent.getId().equals(folder.getId()) ? "" : parent.getPath().substring(folderPath.length()) + "/";
+            entries.add(new ArchiveEntry(folder.getName() + "/" + below + document.getOriginalName(),
+                    document.getStorageKey(), document.getFileSize(), document.getMimeType()));
+        }
+        return new FolderArchive(folder.getName() + ".zip", entries, totalBytes);
+    }
+
+    private void fillWindow(Deque<Prefetch> window, Iterator<ArchiveEntry> pending, StorageProperties.Archives settings) {
+        while (window.size() < Math.max(settings.getPrefetchCount(), 1) && pending.hasNext()) {
+            ArchiveEntry entry = pending.next();
+            CompletableFuture<byte[]> content = entry.size() <= settings.getMaxBufferedObjectBytes()
+                    ? CompletableFuture.supplyAsync(() -> readFully(entry), storageTransferExecutor)
+                    : null;
+            window.add(new Prefetch(entry, content));
+        }
+    }
+
+    /**
+     * Write one entry. Content that cannot be fetched is skipped, but a failure once the entry has
+     * started aborts the archive rather than leave a truncated file in it.
+     * @return false if the entry was skipped
+     */
+    private boolean writeEntry(ZipOutputStream zip, String path, Prefetch prefetch) throws IOException {
+        ArchiveEntry entry = prefetch.entry();
+        boolean compressed = ArchiveNaming.isCompressed(entry.mimeType());
+        ZipEntry zipEntry = new ZipEntry(path);
+
+        if (prefetch.content() != null) {
+            byte[] content;
+            try {
+                content = prefetch.content().join();
+            } catch (CompletionException e) {
+                log.warn("Skipping {} in archive: {}", path, e.getCause().getMessage());
+                return false;
+            }
+            if (compressed) {
+                CRC32 crc = new CRC32();
+                crc.update(content);
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(content.length);
+                zipEntry.setCompressedSize(content.length);
+                zipEntry.setCrc(crc.getValue());
+            } else {
+                zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+            }
+            zip.putNextEntry(zipEntry);
+            zip.write(content);
+            zip.closeEntry();
+            return true;
+        }
+
+        InputStream in;
+        try {
+            in = storageService.downloadFile(entry.storageKey());
+        } catch (RuntimeException e) {
+            log.warn("Skipping {} in archive: {}", path, e.getMessage());
+            return false;
+        }
+        try (in) {
+            // STORED needs the CRC before the data, so unbuffered compressed content is deflated at level 0
+            zip.setLevel(compressed ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+            zip.putNextEntry(zipEntry);
+            in.transferTo(zip);
+            zip.closeEntry();
+        }
+        return true;
+    }
+
+    private byte[] readFully(ArchiveEntry entry) {
+        try (InputStream in = storageService.downloadFile(entry.storageKey())) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to read " + entry.storageKey(), e);
+        }
+    }
+
+    private record Prefetch(ArchiveEntry entry, CompletableFuture<byte[]> content) {
+    }
+}
@@ -0,0 +1,328 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.entity.enums.StorageTier;
+import com.alphadocuments.documentorganiserbackend.exception.FileOperationException;
+import com.alphadocuments.documentorganiserbackend.service.AsyncStorageService;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.FileTransformerConfiguration;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.ResponsePublisher;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.checksums.ResponseChecksumValidation;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Implementation of AsyncStorageService using {@link S3AsyncClient}.
+ * <p>
+ * When aws-crt is on the classpath the client is the CRT one: transfers above the multipart part size
+ * are split into parallel part uploads and ranged GETs, and CRC32 checksums are computed and verified
+ * in native code. Without it, the SDK's Java multipart client splits uploads and copies the same way
+ * and the SDK computes the checksums. Neither ever blocks the calling thread.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnExpression("'${storage.type:minio}' != 'local'")
+public class AsyncStorageServiceImpl implements AsyncStorageService {
+
+    private static final String CRT_CLASS = "software.amazon.awssdk.crt.CRT";
+
+    private final StorageProperties storageProperties;
+    private final MeterRegistry meterRegistry;
+    private S3AsyncClient s3AsyncClient;
+
+    @PostConstruct
+    public void init() {
+        AwsCredentialsProvider credentialsProvider = StorageServiceImpl.resolveCredentialsProvider(storageProperties);
+        StorageProperties.Async settings = storageProperties.getAsync();
+        long partSize = storageProperties.getMultipart().getPartSizeBytes();
+        URI endpoint = storageProperties.getEndpoint() != null && !storageProperties.getEndpoint().isBlank()
+                ? URI.create(storageProperties.getEndpoint())
+                : null;
+
+        if (settings.isCrtEnabled() && ClassUtils.isPresent(CRT_CLASS, getClass().getClassLoader())) {
+            var builder = S3AsyncClient.crtBuilder()
+                    .credentialsProvider(credentialsProvider)
+                    .region(Region.of(storageProperties.getRegion()))
+                    .targetThroughputInGbps(settings.getTargetThroughputGbps())
+                    .maxConcurrency(settings.getMaxConcurrency())
+                    .minimumPartSizeInBytes(partSize)
+                    .thresholdInBytes(storageProperties.getMultipart().getThresholdBytes())
+                    .checksumValidationEnabled(true);
+            if (endpoint != null) {
+                builder.endpointOverride(endpoint).forcePathStyle(true);
+            }
+            this.s3AsyncClient = builder.build();
+            log.info("Using CRT-based async S3 client (target {} Gbps)", settings.getTargetThroughputGbps());
+        } else {
+            var builder = S3AsyncClient.builder()
+                    .credentialsProvider(credentialsProvider)
+                    .region(Region.of(storageProperties.getRegion()))
+                    .requestChecksumCalculation(RequestChecksumCalculation.WHEN_SUPPORTED)
+                    .responseChecksumValidation(ResponseChecksumValidation.WHEN_SUPPORTED)
+                    .multipartEnabled(true)
+                    .multipartConfiguration(MultipartConfiguration.builder()
+                            .thresholdInBytes(storageProperties.getMultipart().getThresholdBytes())
+                            .minimumPartSizeInBytes(partSize)
+                            .build());
+            if (endpoint != null) {
+                builder.endpointOverride(endpoint).forcePathStyle(true);
+            }
+            this.s3AsyncClient = builder.build();
+            log.info("Using Java async S3 client with multipart transfers");
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (s3AsyncClient != null) {
+            s3AsyncClient.close();
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> uploadFile(String key, Path source, String contentType) {
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(storageProperties.getBucketName())
+                .key(key)
+                .contentType(contentType)
+                .checksumAlgorithm(ChecksumAlgorithm.CRC32)
+                .build();
+
+        return track("upload", s3AsyncClient.putObject(request, AsyncRequestBody.fromFile(source)))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        throw failure("Failed to upload file", key, error);
+                    }
+                    log.info("Uploaded file: {}", key);
+                    return key;
+                });
+    }
+
+    @Override
+    public CompletableFuture<String> uploadFile(String key, Publisher<ByteBuffer> content, long contentLength,
+                                                String contentType) {
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(storageProperties.getBucketName())
+                .key(key)
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .checksumAlgorithm(ChecksumAlgorithm.CRC32)
+                .build();
+
+        return track("upload", s3AsyncClient.putObject(request, AsyncRequestBody.fromPublisher(content)))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        throw failure("Failed to upload file", key, error);
+                    }
+                    log.info("Uploaded file: {} ({} bytes)", key, contentLength);
+                    return key;
+                });
+    }
+
+    @Override
+    public CompletableFuture<ObjectStream> downloadFile(String key) {
+        return download(GetObjectRequest.builder()
+                .bucket(storageProperties.getBucketName())
+                .key(key)
+                .build());
+    }
+
+    @Override
+    public CompletableFuture<ObjectStream> downloadFileRange(String key, long start, long end) {
+        return download(GetObjectRequest.builder()
+                .bucket(storageProperties.getBucketName())
+                .key(key)
+                .range("bytes=" + start + "-" + end)
+                .build());
+    }
+
+    private CompletableFuture<ObjectStream> download(GetObjectRequest request) {
+        CompletableFuture<ResponsePublisher<GetObjectResponse>> response =
+                s3AsyncClient.getObject(request, AsyncResponseTransformer.toPublisher());
+        return track("download", response)
+                .handle((publisher, error) -> {
+                    if (error != null) {
+                        throw failure("Failed to download file", request.key(), error);
+                    }
+                    GetObjectResponse headers = publisher.response();
+                    return new ObjectStream(headers.contentLength(), headers.contentType(), publisher);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> downloadToFile(String key, Path destination) {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(storageProperties.getBucketName())
+                .key(key)
+                .build();
+
+        return track("download", s3AsyncClient.getObject(request, AsyncResponseTransformer.toFile(destination,
+                        FileTransformerConfiguration.defaultCreateOrReplaceExisting())))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        throw failure("Failed to download file", key, error);
+                    }
+                    return null;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Optional<StorageService.ObjectInfo>> getObjectInfo(String key) {
+        HeadObjectRequest request = HeadObjectRequest.builder()
+                .bucket(storageProperties.getBucketName())
+                .key(key)
+                .checksumMode(ChecksumMode.ENABLED)
+                .build();
+
+        return track("head", s3AsyncClient.headObject(request))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        if (unwrap(error) instanceof NoSuchKeyException) {
+                            return Optional.empty();
+                        }
+                        throw failure("Failed to read file metadata", key, error);
+                    }
+                    return Optional.of(new StorageService.ObjectInfo(
+                            response.contentLength(),
+                            response.contentType(),
+                            response.eTag(),
+                            toHexChecksum(response.checksumSHA256()),
+                            response.lastModified()));
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteFile(String key) {
+        DeleteObjectRequest request = DeleteObjectRequest.builder()
+                .bucket(storageProperties.getBucketName())
+                .key(key)
+                .build();
+
+        return track("delete", s3AsyncClient.deleteObject(request))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        throw failure("Failed to delete file", key, error);
+                    }
+                    log.info("Deleted file: {}", key);
+                    return null;
+                });
+    }
+
+    @Override
+    public CompletableFuture<String> copyFile(String sourceKey, String destinationKey) {
+        CopyObjectRequest request = CopyObjectRequest.builder()
+                .sourceBucket(storageProperties.getBucketName())
+                .sourceKey(sourceKey)
+                .destinationBucket(storageProperties.getBucketName())
+                .destinationKey(destinationKey)
+                .build();
+
+        return track("copy", s3AsyncClient.copyObject(request))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        throw failure("Failed to copy file", sourceKey, error);
+                    }
+                    log.info("Copied file from {} to {}", sourceKey, destinationKey);
+                    return destinationKey;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> changeTier(String key, StorageTier tier) {
+        StorageClass target = tier == StorageTier.COLD
+                ? StorageClass.fromValue(storageProperties.getTiering().getColdStorageClass())
+                : StorageClass.STANDARD;
+        HeadObjectRequest head = HeadObjectRequest.builder()
+                .bucket(storageProperties.getBucketName())
+                .key(key)
+                .build();
+
+        // An object copied onto itself must change something, so check the current class first
+        return track("head", s3AsyncClient.headObject(head))
+                .thenCompose(info -> {
+                    // HEAD reports no class for STANDARD objects
+                    StorageClass current = info.storageClass() != null ? info.storageClass() : StorageClass.STANDARD;
+                    if (current == target) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    CopyObjectRequest request = CopyObjectRequest.builder()
+                            .sourceBucket(storageProperties.getBucketName())
+                            .sourceKey(key)
+                            .destinationBucket(storageProperties.getBucketName())
+                            .destinationKey(key)
+                            .storageClass(target)
+                            .metadataDirective(MetadataDirective.COPY)
+                            .build();
+                    return track("copy", s3AsyncClient.copyObject(request)).<Void>thenApply(response -> null);
+                })
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        throw failure("Failed to change storage tier", key, error);
+                    }
+                    log.info("Moved file {} to {} storage ({})", key, tier, target);
+                    return null;
+                });
+    }
+
+    /**
+     * Time the request from the call until storage answers, tagged with the operation and outcome.
+     */
+    private <T> CompletableFuture<T> track(String operation, CompletableFuture<T> request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return request.whenComplete((result, error) -> sample.stop(meterRegistry.timer(
+                "storage.async.requests", "operation", operation, "outcome", error == null ? "success" : "failure")));
+    }
+
+    private FileOperationException failure(String message, String key, Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof FileOperationException e) {
+            return e;
+        }
+        if (cause instanceof NoSuchKeyException) {
+            log.error("File not found: {}", key);
+            return new FileOperationException("File not found: " + key);
+        }
+        log.error("{}: {}", message, key, cause);
+        return new FileOperationException(message, cause);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Convert a base64 S3 SHA-256 checksum to hex; composite multipart checksums are ignored.
+     */
+    private static String toHexChecksum(String base64Checksum) {
+        if (base64Checksum == null || base64Checksum.contains("-")) {
+            return null;
+        }
+        return HexFormat.of().formatHex(Base64.getDecoder().decode(base64Checksum));
+    }
+}
@@ -0,0 +1,143 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.dto.response.BatchUploadItemResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.BatchUploadResponse;
+import com.alphadocuments.documentorganiserbackend.exception.BaseException;
+import com.alphadocuments.documentorganiserbackend.exception.ValidationException;
+import com.alphadocuments.documentorganiserbackend.service.BatchUploadService;
+import com.alphadocuments.documentorganiserbackend.service.DocumentService;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.service.StoredContent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Implementation of BatchUploadService.
+ * Files are streamed to storage concurrently on a bounded pool, with no transaction open, and then
+ * registered together in one transaction with batched inserts and a single quota update.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchUploadServiceImpl implements BatchUploadService {
+
+    private final DocumentService documentService;
+    private final StorageService storageService;
+    private final StorageProperties storageProperties;
+    private final Executor uploadIngestExecutor;
+
+    @Override
+    public BatchUploadResponse uploadDocuments(UUID userId, UUID workspaceId, UUID folderId,
+                                               List<MultipartFile> files, String conflictResolution) {
+        StorageProperties.Batch settings = storageProperties.getBatch();
+        if (files == null || files.isEmpty()) {
+            throw new ValidationException("No files to upload");
+        }
+        if (files.size() > settings.getMaxFiles()) {
+            throw new ValidationException("A batch can contain at most " + settings.getMaxFiles() + " files");
+        }
+
+        // Check the target and the quota for the whole batch once, before any bytes are stored
+        long totalBytes = files.stream().mapToLong(MultipartFile::getSize).sum();
+        documentService.validateUploadTarget(userId, workspaceId, folderId, null, totalBytes, conflictResolution);
+
+        BatchUploadItemResponse[] results = new BatchUploadItemResponse[files.size()];
+        StoredContent[] stored = ingestAll(userId, files, results, Math.max(1, settings.getConcurrency()));
+
+        List<StoredContent> contents = new ArrayList<>();
+        List<Integer> contentIndexes = new ArrayList<>();
+        for (int i = 0; i < stored.length; i++) {
+            if (stored[i] != null) {
+                contents.add(stored[i]);
+                contentIndexes.add(i);
+            }
+        }
+
+        if (!contents.isEmpty()) {
+            List<BatchUploadItemResponse> registered;
+            try {
+                registered = documentService.createDocumentsFromStorage(
+                        userId, workspaceId, folderId, contents, conflictResolution);
+            } catch (RuntimeException e) {
+                contents.forEach(content -> deleteQuietly(content.storageKey()));
+                throw e;
+            }
+
+            for (int j = 0; j < registered.size(); j++) {
+                BatchUploadItemResponse result = registered.get(j);
+                if (!result.isSuccess()) {
+                    deleteQuietly(contents.get(j).storageKey());
+                }
+                results[contentIndexes.get(j)] = result;
+            }
+        }
+
+        int succeeded = (int) Arrays.stream(results).filter(BatchUploadItemResponse::isSuccess).count();
+        log.info("Batch upload for user {}: {} of {} files uploaded", userId, succeeded, files.size());
+
+        return BatchUploadResponse.builder()
+                .total(files.size())
+                .succeeded(succeeded)
+                .failed(files.size() - succeeded)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    /**
+     * Validate and stream every file into storage, at most {@code concurrency} at a time.
+     * Returns the stored content per file, or null where the file failed and its result was recorded.
+     */
+    private StoredContent[] ingestAll(UUID userId, List<MultipartFile> files,
+                                      BatchUploadItemResponse[] results, int concurrency) {
+        StoredContent[] stored = new StoredContent[files.size()];
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(files.size());
+
+        for (int i = 0; i < files.size(); i++) {
+            int index = i;
+            MultipartFile file = files.get(i);
+            inFlight.acquireUninterruptibly();
+            futures.add(CompletableFuture
+                    .runAsync(() -> stored[index] = documentService.storeContent(userId, file), uploadIngestExecutor)
+                    .handle((ignored, error) -> {
+                        inFlight.release();
+                        if (error != null) {
+                            results[index] = toFailure(file.getOriginalFilename(), error);
+                        }
+                        return null;
+                    }));
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        return stored;
+    }
+
+    private BatchUploadItemResponse toFailure(String fileName, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof BaseException baseException) {
+            return BatchUploadItemResponse.failure(fileName, baseException.getMessage(), baseException.getErrorCode());
+        }
+        log.error("Failed to upload '{}' in batch", fileName, cause);
+        return BatchUploadItemResponse.failure(fileName, "Failed to upload document", "FILE_OPERATION_FAILED");
+    }
+
+    private void deleteQuietly(String storageKey) {
+        try {
+            storageService.deleteFile(storageKey);
+        } catch (Exception e) {
+            log.warn("Failed to delete stored object {} of a rejected batch file: {}", storageKey, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.exception.FileOperationException;
+import com.alphadocuments.documentorganiserbackend.repository.StorageBlobRepository;
+import com.alphadocuments.documentorganiserbackend.service.BlobStoreService;
+import com.alphadocuments.documentorganiserbackend.service.StorageDeletionQueue;
+import com.alphadocuments.documentorganiserbackend.service.StoredContent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Implementation of BlobStoreService.
+ * Reference counts live in the storage_blobs table and move with the caller's transaction;
+ * unreferenced objects are queued for deletion in that same transaction, so a rollback never leaves
+ * a document pointing at a deleted object and a crash after commit never leaves the object behind.
+ * A redundant upload of content that is already stored is unreferenced however the caller's transaction
+ * ends, so it is queued once that transaction has finished, in a transaction of its own.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BlobStoreServiceImpl implements BlobStoreService {
+
+    private final StorageBlobRepository storageBlobRepository;
+    private final StorageDeletionQueue storageDeletionQueue;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    @Transactional
+    public String register(StoredContent content) {
+        String blobKey = storageBlobRepository.addReference(
+                content.checksum(), content.storageKey(), content.fileSize());
+
+        if (!blobKey.equals(content.storageKey())) {
+            // Same bytes are already stored; the fresh upload is redundant
+            log.info("Deduplicated '{}' onto existing blob {}", content.originalName(), blobKey);
+            enqueueAfterCompletion(content.storageKey());
+        }
+        return blobKey;
+    }
+
+    @Override
+    @Transactional
+    public void retain(String storageKey) {
+        if (storageBlobRepository.incrementReferences(storageKey) == 0) {
+            throw new FileOperationException("No blob is stored under key " + storageKey);
+        }
+    }
+
+    @Override
+    @Transactional
+    public Optional<String> retainByChecksum(String checksum) {
+        return storageBlobRepository.addReferenceIfExists(checksum);
+    }
+
+    @Override
+    @Transactional
+    public void recordChecksum(String storageKey, String checksum) {
+        storageBlobRepository.recordChecksum(storageKey, checksum);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isTracked(String storageKey) {
+        return storageBlobRepository.existsByStorageKey(storageKey);
+    }
+
+    @Override
+    @Transactional
+    public void release(String storageKey) {
+        Optional<Integer> remaining = storageBlobRepository.removeReference(storageKey);
+        if (remaining.isEmpty()) {
+            // Not a tracked blob; leave the object alone rather than risk deleting shared content
+            log.warn("Released untracked storage key {}", storageKey);
+            return;
+        }
+
+        if (remaining.get() <= 0 && storageBlobRepository.deleteIfUnreferenced(storageKey) > 0) {
+            storageDeletionQueue.enqueue(storageKey);
+        }
+    }
+
+    /**
+     * Queue an object for deletion once the current transaction has committed or rolled back. Queued in the
+     * caller's transaction, the entry would disappear on rollback and leave the object in the bucket.
+     */
+    private void enqueueAfterCompletion(String storageKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            storageDeletionQueue.enqueue(storageKey);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // The finished transaction's resources are still bound here, so the insert needs its own
+                TransactionTemplate requiresNew = new TransactionTemplate(transactionTemplate.getTransactionManager());
+                requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                try {
+                    requiresNew.executeWithoutResult(tx -> storageDeletionQueue.enqueue(storageKey));
+                } catch (RuntimeException e) {
+                    log.error("Failed to queue redundant upload {} for deletion", storageKey, e);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,179 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.exception.FileOperationException;
+import com.alphadocuments.documentorganiserbackend.service.BlobStoreService;
+import com.alphadocuments.documentorganiserbackend.service.ChunkStoreService;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.service.StoredContent;
+import com.alphadocuments.documentorganiserbackend.util.ContentDefinedChunker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Chunk store backed by the blob store. A chunk's key is derived from its SHA-256, so identical
+ * blocks from different versions resolve to the same object.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChunkStoreServiceImpl implements ChunkStoreService {
+
+    private static final String CHUNK_CONTENT_TYPE = "application/octet-stream";
+
+    private final StorageService storageService;
+    private final BlobStoreService blobStoreService;
+    private final StorageProperties storageProperties;
+
+    @Override
+    @Transactional
+    public List<StoredChunk> storeChunks(InputStream content) {
+        StorageProperties.Versions settings = storageProperties.getVersions();
+        ContentDefinedChunker chunker = new ContentDefinedChunker(content, settings.getMinChunkBytes(),
+                settings.getAverageChunkBytes(), settings.getMaxChunkBytes());
+
+        List<StoredChunk> chunks = new ArrayList<>();
+        List<String> uploadedKeys = new ArrayList<>();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Chunk objects are uploaded before their blob rows commit; drop them if the rows never do
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        deleteUncommittedChunks(uploadedKeys);
+                    }
+                }
+            });
+        }
+        long uploadedBytes = 0;
+        long totalBytes = 0;
+        try {
+            byte[] chunk;
+            while ((chunk = chunker.nextChunk()) != null) {
+                String checksum = sha256(chunk);
+                totalBytes += chunk.length;
+
+                Optional<String> existingKey = blobStoreService.retainByChecksum(checksum);
+                if (existingKey.isPresent()) {
+                    chunks.add(new StoredChunk(existingKey.get(), chunk.length));
+                    continue;
+                }
+
+                String storageKey = "chunks/" + checksum.substring(0, 2) + "/" + checksum;
+                storageService.uploadFile(storageKey, new ByteArrayInputStream(chunk), chunk.length, CHUNK_CONTENT_TYPE);
+                uploadedKeys.add(storageKey);
+                String blobKey = blobStoreService.register(
+                        new StoredContent(checksum, storageKey, chunk.length, CHUNK_CONTENT_TYPE, checksum));
+                chunks.add(new StoredChunk(blobKey, chunk.length));
+                uploadedBytes += chunk.length;
+            }
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to read content for chunking", e);
+        }
+
+        log.info("Stored {} chunks: {} of {} bytes were new", chunks.size(), uploadedBytes, totalBytes);
+        return chunks;
+    }
+
+    @Override
+    public InputStream openChunks(List<String> storageKeys) {
+        return new ChunkSequenceInputStream(storageKeys.iterator());
+    }
+
+    @Override
+    @Transactional
+    public void releaseChunks(List<String> storageKeys) {
+        for (String storageKey : storageKeys) {
+            blobStoreService.release(storageKey);
+        }
+    }
+
+    /**
+     * Remove chunk objects uploaded by a transaction that rolled back. Chunk keys are derived from the
+     * content, so an object another transaction registered in the meantime is left alone.
+     */
+    private void deleteUncommittedChunks(List<String> storageKeys) {
+        for (String storageKey : storageKeys) {
+            try {
+                if (!blobStoreService.isTracked(storageKey)) {
+                    storageService.deleteFile(storageKey);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to delete uncommitted chunk {}: {}", storageKey, e.getMessage());
+            }
+        }
+    }
+
+    private String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Concatenates chunk downloads, opening each only when it is reached.
+     * Unlike {@link java.io.SequenceInputStream}, closing it does not open the chunks not yet read.
+     */
+    private class ChunkSequenceInputStream extends InputStream {
+
+        private final Iterator<String> remainingKeys;
+        private InputStream current;
+
+        ChunkSequenceInputStream(Iterator<String> remainingKeys) {
+            this.remainingKeys = remainingKeys;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int n = read(single, 0, 1);
+            return n == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                if (current == null) {
+                    if (!remainingKeys.hasNext()) {
+                        return -1;
+                    }
+                    current = storageService.downloadFile(remainingKeys.next());
+                }
+                int n = current.read(b, off, len);
+                if (n != -1) {
+                    return n;
+                }
+                current.close();
+                current = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.ProcessingProperties;
+import com.alphadocuments.documentorganiserbackend.entity.Document;
+import com.alphadocuments.documentorganiserbackend.entity.DocumentMetadata;
+import com.alphadocuments.documentorganiserbackend.entity.enums.ProcessingStatus;
+import com.alphadocuments.documentorganiserbackend.event.DocumentContentChangedEvent;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentMetadataRepository;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentRepository;
+import com.alphadocuments.documentorganiserbackend.repository.UploadSessionRepository;
+import com.alphadocuments.documentorganiserbackend.service.BlobStoreService;
+import com.alphadocuments.documentorganiserbackend.service.DocumentProcessingService;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.util.ChecksumInputStream;
+import com.alphadocuments.documentorganiserbackend.util.ContentExtractor;
+import com.alphadocuments.documentorganiserbackend.util.ExtractedContent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.exception.TikaException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of DocumentProcessingService.
+ * Documents are queued once their upload commits and processed on a dedicated, bounded pool:
+ * the content is streamed from storage through the Tika parsers under a timeout, and the result
+ * is written to document_metadata. Each stage is retried with backoff; large files share a
+ * small number of permits so a burst of big PDFs cannot occupy every worker.
+ * <p>
+ * Content registered without a checksum (uploads assembled from parts, which storage cannot hash as a whole)
+ * is hashed here first, off the request path, and checked against the checksum the client declared.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DocumentProcessingServiceImpl implements DocumentProcessingService {
+
+    private static final Duration PENDING_GRACE = Duration.ofMinutes(5);
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    private final DocumentRepository documentRepository;
+    private final DocumentMetadataRepository documentMetadataRepository;
+    private final UploadSessionRepository uploadSessionRepository;
+    private final BlobStoreService blobStoreService;
+    private final StorageService storageService;
+    private final ContentExtractor contentExtractor;
+    private final ProcessingProperties processingProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor documentProcessingExecutor;
+    private Semaphore largeFilePermits;
+
+    @PostConstruct
+    public void init() {
+        largeFilePermits = new Semaphore(Math.max(1, processingProperties.getLargeFileConcurrency()));
+    }
+
+    /**
+     * Queue processing only after the upload commits, so workers never see a missing document.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContentChanged(DocumentContentChangedEvent event) {
+        submit(event.documentId());
+    }
+
+    @Override
+    public void submit(UUID documentId) {
+        if (!processingProperties.isEnabled()) {
+            return;
+        }
+        try {
+            documentProcessingExecutor.execute(() -> process(documentId));
+        } catch (RejectedExecutionException e) {
+            log.info("Processing queue is full; document {} stays pending until the next sweep", documentId);
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "0 */5 * * * ?")
+    public void resubmitStalled() {
+        if (!processingProperties.isEnabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<UUID> documentIds = new ArrayList<>(documentRepository.findIdsByProcessingStatusBefore(
+                ProcessingStatus.PENDING, now.minus(PENDING_GRACE), PageRequest.of(0, SWEEP_BATCH_SIZE)));
+
+        // A worker that outlived every attempt's timeout has died with the instance
+        Duration stallTimeout = Duration.ofSeconds(processingProperties.getTimeoutSeconds()
+                * processingProperties.getMaxAttempts() * 2);
+        for (UUID documentId : documentRepository.findIdsByProcessingStatusBefore(
+                ProcessingStatus.PROCESSING, now.minus(stallTimeout), PageRequest.of(0, SWEEP_BATCH_SIZE))) {
+            if (transition(documentId, ProcessingStatus.PROCESSING, ProcessingStatus.PENDING)) {
+                documentIds.add(documentId);
+            }
+        }
+
+        if (!documentIds.isEmpty()) {
+            log.info("Re-queuing {} documents for content processing", documentIds.size());
+            documentIds.forEach(this::submit);
+        }
+    }
+
+    private void process(UUID documentId) {
+        // Claiming the document makes duplicate submissions and concurrent instances harmless
+        if (!transition(documentId, ProcessingStatus.PENDING, ProcessingStatus.PROCESSING)) {
+            return;
+        }
+
+        Document document = documentRepository.findById(documentId).orElse(null);
+        if (document == null) {
+            return;
+        }
+        if (document.getChecksum() == null && !verifyChecksum(document)) {
+            transition(documentId, ProcessingStatus.PROCESSING, ProcessingStatus.FAILED);
+            return;
+        }
+        if (document.getFileSize() > processingProperties.getMaxFileSizeBytes()) {
+            transition(documentId, ProcessingStatus.PROCESSING, ProcessingStatus.SKIPPED);
+            return;
+        }
+
+        boolean largeFile = document.getFileSize() >= processingProperties.getLargeFileThresholdBytes();
+        if (largeFile && !largeFilePermits.tryAcquire()) {
+            // Another large file is being parsed; leave this one for the next sweep
+            transition(documentId, ProcessingStatus.PROCESSING, ProcessingStatus.PENDING);
+            return;
+        }
+
+        try {
+            String storageKey = document.getStorageKey();
+            ExtractedContent content = withRetries("extract", documentId,
+                    () -> extract(storageKey, document.getMimeType()));
+            boolean saved = withRetries("save", documentId, () -> saveMetadata(documentId, storageKey, content));
+            if (saved) {
+                log.debug("Processed content of document {}", documentId);
+            }
+        } catch (Exception e) {
+            log.warn("Content processing failed for document {}: {}", documentId, e.getMessage());
+            transition(documentId, ProcessingStatus.PROCESSING, ProcessingStatus.FAILED);
+        } finally {
+            if (largeFile) {
+                largeFilePermits.release();
+            }
+        }
+    }
+
+    /**
+     * Hash content that was registered without a checksum and record the result on its documents and blob.
+     * Returns false if it does not match the checksum the client declared for the upload; a failure to
+     * read it is only logged, leaving the checksum for the next time the content is processed.
+     */
+    private boolean verifyChecksum(Document document) {
+        UUID documentId = document.getId();
+        String storageKey = document.getStorageKey();
+        String checksum;
+        try {
+            checksum = withRetries("checksum", documentId, () -> computeChecksum(storageKey));
+        } catch (Exception e) {
+            log.warn("Failed to compute checksum of document {}: {}", documentId, e.getMessage());
+            return true;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            documentRepository.recordChecksum(storageKey, checksum);
+            blobStoreService.recordChecksum(storageKey, checksum);
+        });
+
+        Optional<String> expected = uploadSessionRepository.findExpectedChecksumByDocumentId(documentId);
+        if (expected.isPresent() && !expected.get().equals(checksum)) {
+            log.warn("Content of document {} does not match the checksum declared on upload: expected {}, got {}",
+                    documentId, expected.get(), checksum);
+            return false;
+        }
+        return true;
+    }
+
+    private String computeChecksum(String storageKey) throws IOException {
+        try (ChecksumInputStream content = new ChecksumInputStream(storageService.downloadFile(storageKey))) {
+            content.transferTo(OutputStream.nullOutputStream());
+            return content.getChecksum();
+        }
+    }
+
+    /**
+     * Stream the object through the parsers. If the timeout passes first the stream is closed,
+     * which makes the parser fail on its next read.
+     */
+    private ExtractedContent extract(String storageKey, String mimeType) throws Exception {
+        AtomicBoolean timedOut = new AtomicBoolean();
+        try (InputStream content = storageService.downloadFile(storageKey)) {
+            CompletableFuture<Void> deadline = new CompletableFuture<>();
+            deadline.orTimeout(processingProperties.getTimeoutSeconds(), TimeUnit.SECONDS)
+                    .whenComplete((ignored, error) -> {
+                        if (error instanceof TimeoutException) {
+                            timedOut.set(true);
+                            closeQuietly(content);
+                        }
+                    });
+            try {
+                return contentExtractor.extract(content, mimeType, processingProperties.getMaxTextLength());
+            } catch (Exception e) {
+                if (timedOut.get()) {
+                    throw new TimeoutException("Extraction did not finish within "
+                            + processingProperties.getTimeoutSeconds() + "s");
+                }
+                throw e;
+            } finally {
+                deadline.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Store the extracted content and mark the document processed, in one transaction. Returns false
+     * if the document's content changed while it was being processed; the newer run takes over.
+     */
+    private boolean saveMetadata(UUID documentId, String storageKey, ExtractedContent content) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Document document = documentRepository.findById(documentId).orElse(null);
+            if (document == null || !storageKey.equals(document.getStorageKey())) {
+                return false;
+            }
+
+            DocumentMetadata metadata = documentMetadataRepository.findByDocumentId(documentId)
+                    .orElseGet(() -> DocumentMetadata.builder().document(document).build());
+            metadata.setExtractedText(content.text());
+            metadata.setPageCount(content.pageCount());
+            metadata.setWidth(content.width());
+            metadata.setHeight(content.height());
+            metadata.setDurationSeconds(content.durationSeconds());
+            metadata.setAuthor(content.author());
+            metadata.setTitle(content.title());
+            metadata.setMetadata(content.properties());
+            documentMetadataRepository.save(metadata);
+
+            if (documentRepository.transitionProcessingStatus(
+                    documentId, ProcessingStatus.PROCESSING, ProcessingStatus.COMPLETED) == 0) {
+                status.setRollbackOnly();
+                return false;
+            }
+            return true;
+        }));
+    }
+
+    /**
+     * Run a stage, retrying with exponential backoff. Unparseable content and timeouts are not retried.
+     */
+    private <T> T withRetries(String stage, UUID documentId, Callable<T> action) throws Exception {
+        long backoffMs = processingProperties.getRetryBackoffMs();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.call();
+            } catch (TikaException | TimeoutException e) {
+                throw e;
+            } catch (Exception e) {
+                if (attempt >= processingProperties.getMaxAttempts()) {
+                    throw e;
+                }
+                log.warn("Processing stage '{}' failed for document {} (attempt {}/{}), retrying in {} ms",
+                        stage, documentId, attempt, processingProperties.getMaxAttempts(), backoffMs, e);
+                Thread.sleep(backoffMs);
+                backoffMs *= 2;
+            }
+        }
+    }
+
+    private boolean transition(UUID documentId, ProcessingStatus from, ProcessingStatus to) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                documentRepository.transitionProcessingStatus(documentId, from, to) > 0));
+    }
+
+    private void closeQuietly(InputStream content) {
+        try {
+            content.close();
+        } catch (Exception e) {
+            log.debug("Failed to close timed-out content stream", e);
+        }
+    }
+}
@@ -2,16 +2,22 @@ package com.alphadocuments.documentorganiserbackend.service.impl;
 
 import com.alphadocuments.documentorganiserbackend.dto.request.MoveDocumentRequest;
 import com.alphadocuments.documentorganiserbackend.dto.request.RenameDocumentRequest;
+import com.alphadocuments.documentorganiserbackend.dto.response.BatchUploadItemResponse;
 import com.alphadocuments.documentorganiserbackend.dto.response.DocumentResponse;
 import com.alphadocuments.documentorganiserbackend.dto.response.DocumentVersionResponse;
 import com.alphadocuments.documentorganiserbackend.entity.Document;
 import com.alphadocuments.documentorganiserbackend.entity.DeletedItem;
+import com.alphadocuments.documentorganiserbackend.entity.DocumentMetadata;
 import com.alphadocuments.documentorganiserbackend.entity.DocumentTag;
 import com.alphadocuments.documentorganiserbackend.entity.DocumentVersion;
+import com.alphadocuments.documentorganiserbackend.entity.DocumentVersionChunk;
 import com.alphadocuments.documentorganiserbackend.entity.Folder;
 import com.alphadocuments.documentorganiserbackend.entity.User;
 import com.alphadocuments.documentorganiserbackend.entity.Workspace;
 import com.alphadocuments.documentorganiserbackend.entity.enums.DocumentCategory;
+import com.alphadocuments.documentorganiserbackend.entity.enums.ProcessingStatus;
+import com.alphadocuments.documentorganiserbackend.event.DocumentContentChangedEvent;
+import com.alphadocuments.documentorganiserbackend.event.DocumentVersionSupersededEvent;
 import com.alphadocuments.documentorganiserbackend.exception.*;
 import org.springframework.security.access.AccessDeniedException;
 import com.alphadocuments.documentorganiserbackend.repository.DeletedItemRepository;
@@ -22,15 +28,29 @@ import com.alphadocuments.documentorganiserbackend.repository.FolderRepository;
 import com.alphadocuments.documentorganiserbackend.repository.UserRepository;
 import com.alphadocuments.documentorganiserbackend.repository.WorkspaceMemberRepository;
 import com.alphadocuments.documentorganiserbackend.repository.WorkspaceRepository;
+import com.alphadocuments.documentorganiserbackend.service.AccessCountAggregator;
 import com.alphadocuments.documentorganiserbackend.service.ActivityService;
+import com.alphadocuments.documentorganiserbackend.service.AsyncStorageService;
+import com.alphadocuments.documentorganiserbackend.service.BlobStoreService;
+import com.alphadocuments.documentorganiserbackend.service.ChunkStoreService;
 import com.alphadocuments.documentorganiserbackend.service.DocumentService;
+import com.alphadocuments.documentorganiserbackend.service.DownloadContent;
+import com.alphadocuments.documentorganiserbackend.service.LocalBlobCache;
+import com.alphadocuments.documentorganiserbackend.service.PresignedUrlCache;
 import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.service.StorageTieringService;
+import com.alphadocuments.documentorganiserbackend.service.StoredContent;
+import com.alphadocuments.documentorganiserbackend.service.ThumbnailService;
 import com.alphadocuments.documentorganiserbackend.service.UserService;
 import com.alphadocuments.documentorganiserbackend.entity.enums.ActivityType;
+import com.alphadocuments.documentorganiserbackend.util.ChecksumInputStream;
+import com.alphadocuments.documentorganiserbackend.util.FileInspection;
+import com.alphadocuments.documentorganiserbackend.util.FileInspector;
 import com.alphadocuments.documentorganiserbackend.util.FileTypeUtil;
 import com.alphadocuments.documentorganiserbackend.util.FileSecurityValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
@@ -41,13 +61,16 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.security.MessageDigest;
-import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.HexFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -66,126 +89,47 @@ public class DocumentServiceImpl implements DocumentService {
     private final DocumentVersionRepository documentVersionRepository;
     private final DeletedItemRepository deletedItemRepository;
     private final StorageService storageService;
+    private final AsyncStorageService asyncStorageService;
+    private final LocalBlobCache localBlobCache;
+    private final BlobStoreService blobStoreService;
+    private final ChunkStoreService chunkStoreService;
     private final UserService userService;
     private final ActivityService activityService;
     private final FileTypeUtil fileTypeUtil;
     private final FileSecurityValidator fileSecurityValidator;
+    private final FileInspector fileInspector;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThumbnailService thumbnailService;
     private final WorkspaceRepository workspaceRepository;
     private final WorkspaceMemberRepository workspaceMemberRepository;
+    private final PresignedUrlCache presignedUrlCache;
+    private final AccessCountAggregator accessCountAggregator;
+    private final StorageTieringService storageTieringService;
 
     @Override
     @Transactional
     public DocumentResponse uploadDocument(UUID userId, UUID folderId, MultipartFile file, String conflictResolution) {
-        // Security validation - check for malicious files using magic bytes
+        // Security validation - check file name and size before touching the content
         fileSecurityValidator.validateFile(file);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", userId.toString()));
-
-        // Check storage quota
-        if (!userService.hasEnoughStorage(userId, file.getSize())) {
-            throw new StorageQuotaExceededException(
-                    userService.getAvailableStorage(userId), file.getSize());
-        }
+        UploadTarget target = resolveUploadTarget(userId, null, folderId, file.getSize());
 
-        Folder folder = null;
-        if (folderId != null) {
-            folder = folderRepository.findByIdAndUserIdAndIsDeletedFalse(folderId, userId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Folder", folderId.toString()));
-        }
-
-        try {
+        // The content stream is opened once: the header is sniffed for magic bytes, then the
+        // rest is piped to storage while the checksum is computed.
+        try (InputStream content = openContentStream(file)) {
             String originalName = file.getOriginalFilename();
-            String mimeType = fileTypeUtil.detectMimeType(file);
-            String extension = fileTypeUtil.getFileExtension(originalName);
-            DocumentCategory category = fileTypeUtil.categorizeDocument(originalName, mimeType);
-            String baseName = fileTypeUtil.getFileNameWithoutExtension(originalName);
-
-            // ── Conflict detection ─────────────────────────────────────
-            boolean nameConflict = (folderId != null)
-                    ? documentRepository.existsByUserIdAndFolderIdAndNameAndIsDeletedFalse(userId, folderId, baseName)
-                    : documentRepository.existsByUserIdAndFolderIsNullAndNameAndIsDeletedFalse(userId, baseName);
-
-            if (nameConflict) {
-                String resolution = conflictResolution == null ? "error" : conflictResolution.toLowerCase();
-                switch (resolution) {
-                    case "replace" -> {
-                        // Soft-delete the existing document
-                        java.util.Optional<Document> existing = (folderId != null)
-                                ? documentRepository.findFirstByUserIdAndFolderIdAndNameAndIsDeletedFalse(userId, folderId, baseName)
-                                : documentRepository.findFirstByUserIdAndFolderIsNullAndNameAndIsDeletedFalse(userId, baseName);
-                        existing.ifPresent(doc -> {
-                            doc.setIsDeleted(true);
-                            doc.setDeletedAt(Instant.now());
-                            documentRepository.save(doc);
-                        });
-                    }
-                    case "keepboth" -> {
-                        // Rename the new file with a numeric suffix
-                        int counter = 1;
-                        String candidate = baseName + " (" + counter + ")";
-                        while ((folderId != null)
-                                ? documentRepository.existsByUserIdAndFolderIdAndNameAndIsDeletedFalse(userId, folderId, candidate)
-                                : documentRepository.existsByUserIdAndFolderIsNullAndNameAndIsDeletedFalse(userId, candidate)) {
-                            counter++;
-                            candidate = baseName + " (" + counter + ")";
-                        }
-                        baseName = candidate;
-                    }
-                    default -> throw new DuplicateResourceException(
-                            "A file named '" + baseName + "' already exists in this location");
-                }
-            }
+            String mimeType = inspectContent(content, originalName, file.getContentType());
+            String name = resolveNameConflict(userId, null, folderId,
+                    fileTypeUtil.getFileNameWithoutExtension(originalName), conflictResolution);
 
             // Generate unique storage key
             String storageKey = generateStorageKey(userId, originalName);
 
-            // Read file bytes once — avoids double-consuming the InputStream
-            byte[] fileBytes = file.getBytes();
-
-            // Calculate checksum
-            String checksum = calculateChecksumFromBytes(fileBytes);
+            // Stream to storage, hashing in the same pass
+            String checksum = streamToStorage(storageKey, content, file.getSize(), mimeType);
 
-            // Check for duplicate files (same content, different name/location)
-            if (checksum != null) {
-                documentRepository.findFirstByUserIdAndChecksumAndIsDeletedFalse(userId, checksum)
-                        .ifPresent(existing -> log.info(
-                                "Duplicate file detected: '{}' has same checksum as existing '{}' (id={})",
-                                originalName, existing.getOriginalName(), existing.getId()));
-            }
-
-            // Upload to storage using the already-buffered bytes
-            storageService.uploadFile(storageKey, new java.io.ByteArrayInputStream(fileBytes), fileBytes.length, mimeType);
-            final String resolvedName = baseName;
-
-            // Create document entity
-            Document document = Document.builder()
-                    .name(resolvedName)
-                    .originalName(originalName)
-                    .fileSize(file.getSize())
-                    .fileType(extension)
-                    .mimeType(mimeType)
-                    .storageKey(storageKey)
-                    .category(category)
-                    .version(1)
-                    .checksum(checksum)
-                    .user(user)
-                    .folder(folder)
-                    .isDeleted(false)
-                    .isFavorite(false)
-                    .downloadCount(0L)
-                    .build();
-
-            document = documentRepository.save(document);
-
-            // Update user storage
-            userService.updateStorageUsed(userId, file.getSize());
-
-            // Log activity
-            activityService.logActivity(userId, ActivityType.DOCUMENT_UPLOADED, "DOCUMENT",
-                    document.getId(), originalName, "Uploaded document: " + originalName,
-                    Map.of("fileSize", file.getSize(), "category", category.name()),
-                    null, null);
+            Document document = saveNewDocument(target, buildDocument(target, name,
+                    new StoredContent(originalName, storageKey, file.getSize(), mimeType, checksum)));
 
             log.info("Uploaded document '{}' for user {}", originalName, userId);
             return mapToDocumentResponse(document);
@@ -204,17 +148,21 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     @Override
-    @Transactional
-    public Resource downloadDocument(UUID userId, UUID documentId) {
+    @Transactional(readOnly = true)
+    public DownloadContent downloadDocument(UUID userId, UUID documentId) {
         Document document = getDocumentForUser(userId, documentId);
+        return DownloadContent.fromStorage(storageService, asyncStorageService, localBlobCache,
+                document.getStorageKey(), document.getOriginalName(), document.getMimeType(), document.getFileSize(),
+                document.getChecksum(), document.getContentUpdatedAt());
+    }
 
-        // Update access tracking
-        document.setLastAccessedAt(Instant.now());
-        document.setDownloadCount(document.getDownloadCount() + 1);
-        documentRepository.save(document);
-
-        InputStream inputStream = storageService.downloadFile(document.getStorageKey());
-        return new InputStreamResource(inputStream);
+    @Override
+    @Transactional(readOnly = true)
+    public void recordDownload(UUID userId, UUID documentId) {
+        Document document = getDocumentForUser(userId, documentId);
+        storageTieringService.recordAccess(document);
+        // Written behind, so busy documents do not serialize on their row
+        accessCountAggregator.recordDocumentDownload(documentId);
     }
 
     @Override
@@ -321,9 +269,8 @@ public class DocumentServiceImpl implements DocumentService {
                     .orElseThrow(() -> new ResourceNotFoundException("Target folder", targetFolderId.toString()));
         }
 
-        // Generate new storage key and copy file
-        String newStorageKey = generateStorageKey(userId, original.getOriginalName());
-        storageService.copyFile(original.getStorageKey(), newStorageKey);
+        // The copy shares the original's blob; no bytes are duplicated in storage
+        blobStoreService.retain(original.getStorageKey());
 
         // Create copy document
         Document copy = Document.builder()
@@ -332,7 +279,7 @@ public class DocumentServiceImpl implements DocumentService {
                 .fileSize(original.getFileSize())
                 .fileType(original.getFileType())
                 .mimeType(original.getMimeType())
-                .storageKey(newStorageKey)
+                .storageKey(original.getStorageKey())
                 .category(original.getCategory())
                 .version(1)
                 .checksum(original.getChecksum())
@@ -341,9 +288,14 @@ public class DocumentServiceImpl implements DocumentService {
                 .isDeleted(false)
                 .isFavorite(false)
                 .downloadCount(0L)
+                .processingStatus(ProcessingStatus.PENDING)
+                .contentUpdatedAt(Instant.now())
                 .build();
+        reuseMetadata(original, copy);
 
         copy = documentRepository.save(copy);
+        // Processing skips a copy whose metadata was reused; thumbnails are per document
+        eventPublisher.publishEvent(new DocumentContentChangedEvent(copy.getId()));
 
         // Update user storage
         userService.updateStorageUsed(userId, original.getFileSize());
@@ -439,7 +391,9 @@ public class DocumentServiceImpl implements DocumentService {
     @Transactional(readOnly = true)
     public String getPreviewUrl(UUID userId, UUID documentId) {
         Document document = getDocumentForUser(userId, documentId);
-        return storageService.generatePresignedDownloadUrl(document.getStorageKey(), Duration.ofHours(1));
+        storageTieringService.recordAccess(document);
+        accessCountAggregator.recordDocumentAccess(documentId);
+        return presignedUrlCache.getDownloadUrl(document.getStorageKey(), null, null);
     }
 
     @Override
@@ -476,36 +430,44 @@ public class DocumentServiceImpl implements DocumentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Document", documentId.toString()));
     }
 
-    private String generateStorageKey(UUID userId, String originalName) {
+    @Override
+    public String generateStorageKey(UUID userId, String originalName) {
         String extension = fileTypeUtil.getFileExtension(originalName);
         String uuid = UUID.randomUUID().toString();
         return String.format("users/%s/documents/%s.%s", userId, uuid, extension);
     }
 
-    private String calculateChecksum(InputStream inputStream) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                digest.update(buffer, 0, bytesRead);
-            }
-            return HexFormat.of().formatHex(digest.digest());
-        } catch (Exception e) {
-            log.warn("Failed to calculate checksum", e);
-            return null;
-        }
+    /**
+     * Open the upload content with a bounded mark buffer, so the header can be
+     * sniffed and rewound without holding the whole file in memory.
+     */
+    private InputStream openContentStream(MultipartFile file) throws IOException {
+        return fileInspector.buffer(file.getInputStream());
+    }
+
+    /**
+     * Detect the content type from the stream header, reject blocked types and
+     * return the MIME type to store. The stream is rewound afterwards.
+     */
+    private String inspectContent(InputStream content, String originalName, String claimedMimeType) throws IOException {
+        FileInspection inspection = fileInspector.inspect(originalName, claimedMimeType, content);
+        fileSecurityValidator.validateContent(inspection);
+        return inspection.mimeType();
     }
 
-    private String calculateChecksumFromBytes(byte[] bytes) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            digest.update(bytes);
-            return HexFormat.of().formatHex(digest.digest());
-        } catch (Exception e) {
-            log.warn("Failed to calculate checksum", e);
-            return null;
+    /**
+     * Pipe the content into storage and return its SHA-256 checksum, computed on the way through.
+     */
+    private String streamToStorage(String storageKey, InputStream content, long contentLength, String mimeType) {
+        ChecksumInputStream hashingStream = new ChecksumInputStream(content);
+        storageService.uploadFile(storageKey, hashingStream, contentLength, mimeType);
+
+        if (hashingStream.getBytesRead() != contentLength) {
+            storageService.deleteFile(storageKey);
+            throw new FileOperationException("Upload size mismatch: expected " + contentLength
+                    + " bytes but received " + hashingStream.getBytesRead());
         }
+        return hashingStream.getChecksum();
     }
 
     private DocumentResponse mapToDocumentResponse(Document document) {
@@ -531,7 +493,9 @@ public class DocumentServiceImpl implements DocumentService {
                 .createdAt(document.getCreatedAt())
                 .updatedAt(document.getUpdatedAt())
                 .lastAccessedAt(document.getLastAccessedAt())
+                .processingStatus(document.getProcessingStatus())
                 .tags(tags)
+                .thumbnailUrl(thumbnailService.getThumbnailUrl(document))
                 .build();
     }
 
@@ -562,13 +526,34 @@ public class DocumentServiceImpl implements DocumentService {
         DocumentVersion version = documentVersionRepository
                 .findByDocumentIdAndVersionNumber(documentId, versionNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("DocumentVersion", "versionNumber", versionNumber));
+        if (versionNumber.equals(document.getVersion())) {
+            return mapToDocumentResponse(document);
+        }
+
+        // Take a reference to the restored content before the current content is superseded
+        String restoredKey = retainWholeContent(document, version);
+        supersedeCurrentVersion(document);
+        blobStoreService.release(document.getStorageKey());
 
         // Update the main document to point to the restored version's storage
-        document.setStorageKey(version.getStorageKey());
+        long sizeDelta = version.getFileSize() - document.getFileSize();
+        document.setStorageKey(restoredKey);
         document.setFileSize(version.getFileSize());
         document.setChecksum(version.getChecksum());
+        if (version.getMimeType() != null) {
+            document.setMimeType(version.getMimeType());
+        }
         document.setVersion(version.getVersionNumber());
+        document.setContentUpdatedAt(Instant.now());
         documentRepository.save(document);
+        if (sizeDelta != 0) {
+            userService.updateStorageUsed(userId, sizeDelta);
+        }
+
+        // The restored content needs its text and metadata extracted again
+        documentRepository.updateProcessingStatus(documentId, ProcessingStatus.PENDING);
+        document.setProcessingStatus(ProcessingStatus.PENDING);
+        eventPublisher.publishEvent(new DocumentContentChangedEvent(documentId));
 
         activityService.logActivity(userId, ActivityType.DOCUMENT_UPDATED,
                 "DOCUMENT", documentId, document.getName(),
@@ -577,124 +562,186 @@ public class DocumentServiceImpl implements DocumentService {
         return mapToDocumentResponse(document);
     }
 
-    // ── Workspace document operations ────────────────────────────────────
-
     @Override
     @Transactional
-    public DocumentResponse uploadWorkspaceDocument(UUID userId, UUID workspaceId, UUID folderId,
-                                                     MultipartFile file, String conflictResolution) {
-        // Verify user is a member of the workspace
-        if (!workspaceMemberRepository.existsByWorkspaceIdAndUserId(workspaceId, userId)) {
-            throw new ForbiddenException("You are not a member of this workspace");
+    public DocumentResponse uploadVersion(UUID userId, UUID documentId, MultipartFile file, String changeDescription) {
+        fileSecurityValidator.validateFile(file);
+        Document document = getDocumentForUser(userId, documentId);
+
+        // Only growth is charged; old versions are not counted against the quota
+        long sizeDelta = file.getSize() - document.getFileSize();
+        if (sizeDelta > 0 && !userService.hasEnoughStorage(userId, sizeDelta)) {
+            throw new StorageQuotaExceededException(userService.getAvailableStorage(userId), sizeDelta);
         }
 
-        Workspace workspace = workspaceRepository.findById(workspaceId)
-                .orElseThrow(() -> new ResourceNotFoundException("Workspace", workspaceId.toString()));
+        try (InputStream content = openContentStream(file)) {
+            String originalName = file.getOriginalFilename();
+            String mimeType = inspectContent(content, originalName, file.getContentType());
+            String storageKey = generateStorageKey(userId, originalName);
+            String checksum = streamToStorage(storageKey, content, file.getSize(), mimeType);
 
-        // Security validation - check for malicious files using magic bytes
-        fileSecurityValidator.validateFile(file);
+            if (checksum.equals(document.getChecksum())) {
+                storageService.deleteFile(storageKey);
+                throw new ValidationException("The file is identical to the current version");
+            }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", userId.toString()));
+            // The current version stays whole so downloads and pre-signed URLs are served directly
+            String newKey = blobStoreService.register(
+                    new StoredContent(originalName, storageKey, file.getSize(), mimeType, checksum));
+            int versionNumber = nextVersionNumber(document);
+            supersedeCurrentVersion(document);
 
-        // Check storage quota
-        if (!userService.hasEnoughStorage(userId, file.getSize())) {
-            throw new StorageQuotaExceededException(
-                    userService.getAvailableStorage(userId), file.getSize());
+            // The version row holds its own reference, alongside the document's
+            blobStoreService.retain(newKey);
+            documentVersionRepository.save(DocumentVersion.builder()
+                    .document(document)
+                    .versionNumber(versionNumber)
+                    .storageKey(newKey)
+                    .fileSize(file.getSize())
+                    .checksum(checksum)
+                    .mimeType(mimeType)
+                    .changeDescription(changeDescription)
+                    .uploadedBy(document.getUser().getEmail())
+                    .build());
+
+            blobStoreService.release(document.getStorageKey());
+            document.setStorageKey(newKey);
+            document.setFileSize(file.getSize());
+            document.setChecksum(checksum);
+            document.setMimeType(mimeType);
+            document.setVersion(versionNumber);
+            document.setContentUpdatedAt(Instant.now());
+            documentRepository.save(document);
+            if (sizeDelta != 0) {
+                userService.updateStorageUsed(userId, sizeDelta);
+            }
+
+            documentRepository.updateProcessingStatus(documentId, ProcessingStatus.PENDING);
+            document.setProcessingStatus(ProcessingStatus.PENDING);
+            eventPublisher.publishEvent(new DocumentContentChangedEvent(documentId));
+
+            activityService.logActivity(userId, ActivityType.DOCUMENT_UPDATED,
+                    "DOCUMENT", documentId, document.getName(),
+                    "Uploaded version " + versionNumber, Map.of("fileSize", file.getSize()), null, null);
+
+            log.info("Uploaded version {} of document {} for user {}", versionNumber, documentId, userId);
+            return mapToDocumentResponse(document);
+
+        } catch (IOException e) {
+            log.error("Failed to upload new version of document {}", documentId, e);
+            throw new FileOperationException("Failed to upload document version", e);
         }
+    }
 
-        Folder folder = null;
-        if (folderId != null) {
-            folder = folderRepository.findByIdAndWorkspaceId(folderId, workspaceId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Folder", folderId.toString()));
+    @Override
+    @Transactional(readOnly = true)
+    public Resource downloadVersion(UUID userId, UUID documentId, Integer versionNumber) {
+        Document document = getDocumentForUser(userId, documentId);
+        DocumentVersion version = documentVersionRepository
+                .findByDocumentIdAndVersionNumber(document.getId(), versionNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("DocumentVersion", "versionNumber", versionNumber));
+
+        InputStream content = Boolean.TRUE.equals(version.getChunked())
+                ? chunkStoreService.openChunks(chunkKeys(version))
+                : storageService.downloadFile(version.getStorageKey());
+        return new InputStreamResource(content);
+    }
+
+    /**
+     * Keep the document's current version before its content is replaced. The version stays whole
+     * here and is converted to chunks in the background once this transaction commits. Documents
+     * uploaded before versions were kept get their version row, and its reference, here.
+     */
+    private void supersedeCurrentVersion(Document document) {
+        DocumentVersion current = documentVersionRepository
+                .findByDocumentIdAndVersionNumber(document.getId(), document.getVersion())
+                .orElseGet(() -> {
+                    blobStoreService.retain(document.getStorageKey());
+                    return documentVersionRepository.save(DocumentVersion.builder()
+                            .document(document)
+                            .versionNumber(document.getVersion())
+                            .storageKey(document.getStorageKey())
+                            .fileSize(document.getFileSize())
+                            .checksum(document.getChecksum())
+                            .mimeType(document.getMimeType())
+                            .build());
+                });
+        if (!Boolean.TRUE.equals(current.getChunked())) {
+            eventPublisher.publishEvent(new DocumentVersionSupersededEvent(current.getId()));
         }
+    }
 
-        try {
-            String originalName = file.getOriginalFilename();
-            String mimeType = fileTypeUtil.detectMimeType(file);
-            String extension = fileTypeUtil.getFileExtension(originalName);
-            DocumentCategory category = fileTypeUtil.categorizeDocument(originalName, mimeType);
-            String baseName = fileTypeUtil.getFileNameWithoutExtension(originalName);
-
-            // Conflict detection for workspace
-            boolean nameConflict = (folderId != null)
-                    ? documentRepository.existsByWorkspaceIdAndFolderIdAndName(workspaceId, folderId, baseName)
-                    : documentRepository.existsByWorkspaceIdAndRootAndName(workspaceId, baseName);
-
-            if (nameConflict) {
-                String resolution = conflictResolution == null ? "error" : conflictResolution.toLowerCase();
-                switch (resolution) {
-                    case "replace" -> {
-                        java.util.Optional<Document> existing = (folderId != null)
-                                ? documentRepository.findFirstByWorkspaceIdAndFolderIdAndName(workspaceId, folderId, baseName)
-                                : documentRepository.findFirstByWorkspaceIdAndRootAndName(workspaceId, baseName);
-                        existing.ifPresent(doc -> {
-                            doc.setIsDeleted(true);
-                            doc.setDeletedAt(Instant.now());
-                            documentRepository.save(doc);
-                        });
-                    }
-                    case "keepboth" -> {
-                        int counter = 1;
-                        String candidate = baseName + " (" + counter + ")";
-                        while ((folderId != null)
-                                ? documentRepository.existsByWorkspaceIdAndFolderIdAndName(workspaceId, folderId, candidate)
-                                : documentRepository.existsByWorkspaceIdAndRootAndName(workspaceId, candidate)) {
-                            counter++;
-                            candidate = baseName + " (" + counter + ")";
-                        }
-                        baseName = candidate;
-                    }
-                    default -> throw new DuplicateResourceException(
-                            "A file named '" + baseName + "' already exists in this location");
-                }
+    /**
+     * Take a reference to a whole object with the version's content. A chunked version reuses any
+     * stored blob with the same checksum and is reassembled from its chunks otherwise.
+     */
+    private String retainWholeContent(Document document, DocumentVersion version) {
+        if (!Boolean.TRUE.equals(version.getChunked())) {
+            blobStoreService.retain(version.getStorageKey());
+            return version.getStorageKey();
+        }
+        if (version.getChecksum() != null) {
+            Optional<String> existingKey = blobStoreService.retainByChecksum(version.getChecksum());
+            if (existingKey.isPresent()) {
+                return existingKey.get();
             }
+        }
 
-            // Generate unique storage key
-            String storageKey = generateStorageKey(userId, originalName);
+        String mimeType = version.getMimeType() != null ? version.getMimeType() : document.getMimeType();
+        String storageKey = generateStorageKey(document.getUser().getId(), document.getOriginalName());
+        try (InputStream content = chunkStoreService.openChunks(chunkKeys(version))) {
+            String checksum = streamToStorage(storageKey, content, version.getFileSize(), mimeType);
+            if (version.getChecksum() != null && !version.getChecksum().equals(checksum)) {
+                storageService.deleteFile(storageKey);
+                throw new FileOperationException("Version " + version.getVersionNumber()
+                        + " failed its checksum check when reassembled");
+            }
+            return blobStoreService.register(new StoredContent(document.getOriginalName(), storageKey,
+                    version.getFileSize(), mimeType, checksum));
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to reassemble version " + version.getVersionNumber(), e);
+        }
+    }
 
-            // Read file bytes once
-            byte[] fileBytes = file.getBytes();
+    private int nextVersionNumber(Document document) {
+        int latest = documentVersionRepository.findTopByDocumentIdOrderByVersionNumberDesc(document.getId())
+                .map(DocumentVersion::getVersionNumber)
+                .orElse(0);
+        return Math.max(latest, document.getVersion()) + 1;
+    }
 
-            // Calculate checksum
-            String checksum = calculateChecksumFromBytes(fileBytes);
+    private List<String> chunkKeys(DocumentVersion version) {
+        return version.getChunks().stream().map(DocumentVersionChunk::getStorageKey).toList();
+    }
 
-            // Upload to storage
-            storageService.uploadFile(storageKey, new java.io.ByteArrayInputStream(fileBytes), fileBytes.length, mimeType);
-            final String resolvedName = baseName;
+    // ── Workspace document operations ────────────────────────────────────
 
-            // Create document entity with workspace
-            Document document = Document.builder()
-                    .name(resolvedName)
-                    .originalName(originalName)
-                    .fileSize(file.getSize())
-                    .fileType(extension)
-                    .mimeType(mimeType)
-                    .storageKey(storageKey)
-                    .category(category)
-                    .version(1)
-                    .checksum(checksum)
-                    .user(user)
-                    .folder(folder)
-                    .workspace(workspace)
-                    .isDeleted(false)
-                    .isFavorite(false)
-                    .downloadCount(0L)
-                    .build();
+    @Override
+    @Transactional
+    public DocumentResponse uploadWorkspaceDocument(UUID userId, UUID workspaceId, UUID folderId,
+                                                     MultipartFile file, String conflictResolution) {
+        // Security validation - check file name and size before touching the content
+        fileSecurityValidator.validateFile(file);
 
-            document = documentRepository.save(document);
+        UploadTarget target = resolveUploadTarget(userId, workspaceId, folderId, file.getSize());
 
-            // Update user storage
-            userService.updateStorageUsed(userId, file.getSize());
+        try (InputStream content = openContentStream(file)) {
+            String originalName = file.getOriginalFilename();
+            String mimeType = inspectContent(content, originalName, file.getContentType());
+            String name = resolveNameConflict(userId, workspaceId, folderId,
+                    fileTypeUtil.getFileNameWithoutExtension(originalName), conflictResolution);
 
-            // Log activity
-            activityService.logActivity(userId, ActivityType.DOCUMENT_UPLOADED, "DOCUMENT",
-                    document.getId(), originalName,
-                    "Uploaded document: " + originalName + " to workspace: " + workspace.getName(),
-                    Map.of("fileSize", file.getSize(), "category", category.name(), "workspace", workspace.getName()),
-                    null, null);
+            // Generate unique storage key
+            String storageKey = generateStorageKey(userId, originalName);
+
+            // Stream to storage, hashing in the same pass
+            String checksum = streamToStorage(storageKey, content, file.getSize(), mimeType);
+
+            Document document = saveNewDocument(target, buildDocument(target, name,
+                    new StoredContent(originalName, storageKey, file.getSize(), mimeType, checksum)));
 
-            log.info("Uploaded document '{}' to workspace '{}' for user {}", originalName, workspace.getName(), userId);
+            log.info("Uploaded document '{}' to workspace '{}' for user {}",
+                    originalName, target.workspace().getName(), userId);
             return mapToDocumentResponse(document);
 
         } catch (IOException e) {
@@ -721,6 +768,368 @@ public class DocumentServiceImpl implements DocumentService {
         return documents.map(this::mapToDocumentResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void validateUploadTarget(UUID userId, UUID workspaceId, UUID folderId, String originalName,
+                                     long fileSize, String conflictResolution) {
+        resolveUploadTarget(userId, workspaceId, folderId, fileSize);
+        if (originalName == null) {
+            return;
+        }
+
+        String baseName = fileTypeUtil.getFileNameWithoutExtension(originalName);
+        if (isErrorResolution(conflictResolution) && nameExists(userId, workspaceId, folderId, baseName)) {
+            throw new DuplicateResourceException(
+                    "A file named '" + baseName + "' already exists in this location");
+        }
+    }
+
+    @Override
+    @Transactional
+    public DocumentResponse createDocumentFromStorage(UUID userId, UUID workspaceId, UUID folderId,
+                                                      StoredContent content, String conflictResolution) {
+        UploadTarget target = resolveUploadTarget(userId, workspaceId, folderId, content.fileSize());
+        String name = resolveNameConflict(userId, workspaceId, folderId,
+                fileTypeUtil.getFileNameWithoutExtension(content.originalName()), conflictResolution);
+
+        Document document = saveNewDocument(target, buildDocument(target, name, content));
+
+        log.info("Registered stored document '{}' for user {}", content.originalName(), userId);
+        return mapToDocumentResponse(document);
+    }
+
+    @Override
+    @Transactional
+    public List<BatchUploadItemResponse> createDocumentsFromStorage(UUID userId, UUID workspaceId, UUID folderId,
+                                                                    List<StoredContent> contents,
+                                                                    String conflictResolution) {
+        // One user, folder and quota lookup for the whole batch
+        long totalBytes = contents.stream().mapToLong(StoredContent::fileSize).sum();
+        UploadTarget target = resolveUploadTarget(userId, workspaceId, folderId, totalBytes);
+
+        // Load the names in the target location once instead of checking each file separately
+        Set<String> takenNames = new HashSet<>(findNamesInLocation(userId, workspaceId, folderId));
+        Set<String> batchNames = new HashSet<>();
+        String resolution = conflictResolution == null ? "error" : conflictResolution.toLowerCase();
+
+        BatchUploadItemResponse[] results = new BatchUploadItemResponse[contents.size()];
+        List<Document> documents = new ArrayList<>();
+        List<Integer> documentIndexes = new ArrayList<>();
+
+        for (int i = 0; i < contents.size(); i++) {
+            StoredContent content = contents.get(i);
+            String baseName = fileTypeUtil.getFileNameWithoutExtension(content.originalName());
+            String name = baseName;
+
+            if (takenNames.contains(baseName)) {
+                if (resolution.equals("keepboth")) {
+                    int counter = 1;
+                    do {
+                        name = baseName + " (" + counter++ + ")";
+                    } while (takenNames.contains(name));
+                } else if (resolution.equals("replace") && !batchNames.contains(baseName)) {
+                    findByName(userId, workspaceId, folderId, baseName).ifPresent(doc -> {
+                        doc.setIsDeleted(true);
+                        doc.setDeletedAt(Instant.now());
+                        documentRepository.save(doc);
+                    });
+                } else {
+                    String message = batchNames.contains(baseName)
+                            ? "A file named '" + baseName + "' appears more than once in this upload"
+                            : "A file named '" + baseName + "' already exists in this location";
+                    results[i] = BatchUploadItemResponse.failure(content.originalName(), message, "DUPLICATE_RESOURCE");
+                    continue;
+                }
+            }
+
+            takenNames.add(name);
+            batchNames.add(name);
+            documents.add(buildDocument(target, name, content));
+            documentIndexes.add(i);
+        }
+
+        // Inserted with JDBC batching (hibernate.jdbc.batch_size)
+        documentRepository.saveAll(documents);
+
+        long savedBytes = 0;
+        List<ActivityService.ActivityEntry> activities = new ArrayList<>(documents.size());
+        for (int j = 0; j < documents.size(); j++) {
+            Document document = documents.get(j);
+            savedBytes += document.getFileSize();
+            activities.add(uploadActivity(target, document));
+            eventPublisher.publishEvent(new DocumentContentChangedEvent(document.getId()));
+            results[documentIndexes.get(j)] = BatchUploadItemResponse.success(
+                    document.getOriginalName(), mapToDocumentResponse(document));
+        }
+
+        if (savedBytes > 0) {
+            userService.updateStorageUsed(userId, savedBytes);
+        }
+        activityService.logActivities(userId, activities);
+
+        log.info("Registered {} of {} batch-uploaded documents for user {}", documents.size(), contents.size(), userId);
+        return Arrays.asList(results);
+    }
+
+    @Override
+    @Transactional
+    public Optional<DocumentResponse> createDocumentFromExistingContent(UUID userId, UUID workspaceId, UUID folderId,
+                                                                        String originalName, long fileSize,
+                                                                        String checksum, String conflictResolution) {
+        UploadTarget target = resolveUploadTarget(userId, workspaceId, folderId, fileSize);
+
+        // Matching on size as well keeps a hash collision from ever producing a wrong-sized document
+        Optional<Document> existing = documentRepository
+                .findFirstByUserIdAndChecksumAndFileSizeAndIsDeletedFalse(userId, checksum, fileSize);
+        if (existing.isEmpty() && workspaceId != null) {
+            existing = documentRepository
+                    .findFirstByWorkspaceIdAndChecksumAndFileSizeAndIsDeletedFalse(workspaceId, checksum, fileSize);
+        }
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Document source = existing.get();
+        String name = resolveNameConflict(userId, workspaceId, folderId,
+                fileTypeUtil.getFileNameWithoutExtension(originalName), conflictResolution);
+
+        // Share the existing blob under its own key; registering by checksum could resolve elsewhere
+        blobStoreService.retain(source.getStorageKey());
+        StoredContent content = new StoredContent(originalName, source.getStorageKey(), fileSize,
+                source.getMimeType(), source.getChecksum());
+        Document document = buildDocument(target, name, content, source.getStorageKey());
+        reuseMetadata(source, document);
+        document = saveNewDocument(target, document);
+
+        log.info("Created '{}' for user {} from existing content of document {}", originalName, userId, source.getId());
+        return Optional.of(mapToDocumentResponse(document));
+    }
+
+    @Override
+    public StoredContent storeContent(UUID userId, MultipartFile file) {
+        fileSecurityValidator.validateFile(file);
+
+        try (InputStream content = openContentStream(file)) {
+            String originalName = file.getOriginalFilename();
+            String mimeType = inspectContent(content, originalName, file.getContentType());
+            String storageKey = generateStorageKey(userId, originalName);
+            String checksum = streamToStorage(storageKey, content, file.getSize(), mimeType);
+            return new StoredContent(originalName, storageKey, file.getSize(), mimeType, checksum);
+        } catch (IOException e) {
+            log.error("Failed to store upload '{}'", file.getOriginalFilename(), e);
+            throw new FileOperationException("Failed to upload document", e);
+        }
+    }
+
+    /**
+     * Identical content yields identical extracted metadata, so a document sharing another's blob
+     * takes a copy of it instead of being processed again.
+     */
+    private void reuseMetadata(Document source, Document target) {
+        DocumentMetadata sourceMetadata = source.getMetadata();
+        if (source.getProcessingStatus() != ProcessingStatus.COMPLETED || sourceMetadata == null) {
+            return;
+        }
+
+        target.setProcessingStatus(ProcessingStatus.COMPLETED);
+        target.setMetadata(DocumentMetadata.builder()
+                .document(target)
+                .metadata(new HashMap<>(sourceMetadata.getMetadata()))
+                .extractedText(sourceMetadata.getExtractedText())
+                .pageCount(sourceMetadata.getPageCount())
+                .width(sourceMetadata.getWidth())
+                .height(sourceMetadata.getHeight())
+                .durationSeconds(sourceMetadata.getDurationSeconds())
+                .author(sourceMetadata.getAuthor())
+                .title(sourceMetadata.getTitle())
+                .build());
+    }
+
+    /**
+     * Owner, optional workspace and optional folder a new document is written into.
+     */
+    private record UploadTarget(User user, Workspace workspace, Folder folder) {
+    }
+
+    /**
+     * Check workspace membership, storage quota and folder existence for an upload.
+     */
+    private UploadTarget resolveUploadTarget(UUID userId, UUID workspaceId, UUID folderId, long fileSize) {
+        Workspace workspace = null;
+        if (workspaceId != null) {
+            // Verify user is a member of the workspace
+            if (!workspaceMemberRepository.existsByWorkspaceIdAndUserId(workspaceId, userId)) {
+                throw new ForbiddenException("You are not a member of this workspace");
+            }
+            workspace = workspaceRepository.findById(workspaceId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Workspace", workspaceId.toString()));
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId.toString()));
+
+        // Check storage quota
+        if (!userService.hasEnoughStorage(userId, fileSize)) {
+            throw new StorageQuotaExceededException(
+                    userService.getAvailableStorage(userId), fileSize);
+        }
+
+        Folder folder = null;
+        if (folderId != null) {
+            folder = (workspaceId != null
+                    ? folderRepository.findByIdAndWorkspaceId(folderId, workspaceId)
+                    : folderRepository.findByIdAndUserIdAndIsDeletedFalse(folderId, userId))
+                    .orElseThrow(() -> new ResourceNotFoundException("Folder", folderId.toString()));
+        }
+
+        return new UploadTarget(user, workspace, folder);
+    }
+
+    /**
+     * Apply the conflict resolution strategy and return the name the new document should get.
+     * "replace" soft-deletes the existing document, "keepboth" appends a numeric suffix and
+     * anything else fails with a 409.
+     */
+    private String resolveNameConflict(UUID userId, UUID workspaceId, UUID folderId, String baseName,
+                                       String conflictResolution) {
+        if (!nameExists(userId, workspaceId, folderId, baseName)) {
+            return baseName;
+        }
+
+        String resolution = conflictResolution == null ? "error" : conflictResolution.toLowerCase();
+        switch (resolution) {
+            case "replace" -> {
+                // Soft-delete the existing document
+                findByName(userId, workspaceId, folderId, baseName).ifPresent(doc -> {
+                    doc.setIsDeleted(true);
+                    doc.setDeletedAt(Instant.now());
+                    documentRepository.save(doc);
+                });
+                return baseName;
+            }
+            case "keepboth" -> {
+                // Rename the new file with a numeric suffix
+                int counter = 1;
+                String candidate = baseName + " (" + counter + ")";
+                while (nameExists(userId, workspaceId, folderId, candidate)) {
+                    counter++;
+                    candidate = baseName + " (" + counter + ")";
+                }
+                return candidate;
+            }
+            default -> throw new DuplicateResourceException(
+                    "A file named '" + baseName + "' already exists in this location");
+        }
+    }
+
+    private boolean nameExists(UUID userId, UUID workspaceId, UUID folderId, String name) {
+        if (workspaceId != null) {
+            return folderId != null
+                    ? documentRepository.existsByWorkspaceIdAndFolderIdAndName(workspaceId, folderId, name)
+                    : documentRepository.existsByWorkspaceIdAndRootAndName(workspaceId, name);
+        }
+        return folderId != null
+                ? documentRepository.existsByUserIdAndFolderIdAndNameAndIsDeletedFalse(userId, folderId, name)
+                : documentRepository.existsByUserIdAndFolderIsNullAndNameAndIsDeletedFalse(userId, name);
+    }
+
+    private boolean isErrorResolution(String conflictResolution) {
+        return conflictResolution == null
+                || !(conflictResolution.equalsIgnoreCase("replace") || conflictResolution.equalsIgnoreCase("keepboth"));
+    }
+
+    /**
+     * Persist a new document for stored content, charge it to the user's quota and log the upload.
+     */
+    private Document saveNewDocument(UploadTarget target, Document newDocument) {
+        Document document = documentRepository.save(newDocument);
+        eventPublisher.publishEvent(new DocumentContentChangedEvent(document.getId()));
+
+        // Update user storage
+        UUID userId = target.user().getId();
+        userService.updateStorageUsed(userId, document.getFileSize());
+
+        // Log activity
+        ActivityService.ActivityEntry activity = uploadActivity(target, document);
+        activityService.logActivity(userId, activity.type(), activity.resourceType(), activity.resourceId(),
+                activity.resourceName(), activity.description(), activity.metadata(), null, null);
+
+        return document;
+    }
+
+    /**
+     * Build a new document for stored content. Takes a blob reference, so content that is
+     * already stored is shared instead of kept twice.
+     */
+    private Document buildDocument(UploadTarget target, String name, StoredContent content) {
+        return buildDocument(target, name, content, blobStoreService.register(content));
+    }
+
+    /**
+     * Build a new document whose blob reference has already been taken.
+     */
+    private Document buildDocument(UploadTarget target, String name, StoredContent content, String storageKey) {
+        String originalName = content.originalName();
+
+        return Document.builder()
+                .name(name)
+                .originalName(originalName)
+                .fileSize(content.fileSize())
+                .fileType(fileTypeUtil.getFileExtension(originalName))
+                .mimeType(content.mimeType())
+                .storageKey(storageKey)
+                .category(fileTypeUtil.categorizeDocument(originalName, content.mimeType()))
+                .version(1)
+                .checksum(content.checksum())
+                .user(target.user())
+                .folder(target.folder())
+                .workspace(target.workspace())
+                .isDeleted(false)
+                .isFavorite(false)
+                .downloadCount(0L)
+                .processingStatus(ProcessingStatus.PENDING)
+                .contentUpdatedAt(Instant.now())
+                .build();
+    }
+
+    private ActivityService.ActivityEntry uploadActivity(UploadTarget target, Document document) {
+        String originalName = document.getOriginalName();
+        String category = document.getCategory().name();
+
+        if (target.workspace() != null) {
+            String workspaceName = target.workspace().getName();
+            return new ActivityService.ActivityEntry(ActivityType.DOCUMENT_UPLOADED, "DOCUMENT",
+                    document.getId(), originalName,
+                    "Uploaded document: " + originalName + " to workspace: " + workspaceName,
+                    Map.of("fileSize", document.getFileSize(), "category", category, "workspace", workspaceName));
+        }
+        return new ActivityService.ActivityEntry(ActivityType.DOCUMENT_UPLOADED, "DOCUMENT",
+                document.getId(), originalName, "Uploaded document: " + originalName,
+                Map.of("fileSize", document.getFileSize(), "category", category));
+    }
+
+    private List<String> findNamesInLocation(UUID userId, UUID workspaceId, UUID folderId) {
+        if (workspaceId != null) {
+            return folderId != null
+                    ? documentRepository.findNamesByWorkspaceIdAndFolderId(workspaceId, folderId)
+                    : documentRepository.findNamesByWorkspaceIdAndRoot(workspaceId);
+        }
+        return folderId != null
+                ? documentRepository.findNamesByUserIdAndFolderId(userId, folderId)
+                : documentRepository.findNamesByUserIdAndFolderIsNull(userId);
+    }
+
+    private java.util.Optional<Document> findByName(UUID userId, UUID workspaceId, UUID folderId, String name) {
+        if (workspaceId != null) {
+            return folderId != null
+                    ? documentRepository.findFirstByWorkspaceIdAndFolderIdAndName(workspaceId, folderId, name)
+                    : documentRepository.findFirstByWorkspaceIdAndRootAndName(workspaceId, name);
+        }
+        return folderId != null
+                ? documentRepository.findFirstByUserIdAndFolderIdAndNameAndIsDeletedFalse(userId, folderId, name)
+                : documentRepository.findFirstByUserIdAndFolderIsNullAndNameAndIsDeletedFalse(userId, name);
+    }
+
     private DocumentVersionResponse mapToVersionResponse(DocumentVersion version) {
         return DocumentVersionResponse.builder()
                 .id(version.getId())
@@ -0,0 +1,502 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.ExportJobProperties;
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.dto.response.ExportJobResponse;
+import com.alphadocuments.documentorganiserbackend.entity.Document;
+import com.alphadocuments.documentorganiserbackend.entity.ExportJob;
+import com.alphadocuments.documentorganiserbackend.entity.ExportJobEntry;
+import com.alphadocuments.documentorganiserbackend.entity.User;
+import com.alphadocuments.documentorganiserbackend.entity.enums.ExportJobStatus;
+import com.alphadocuments.documentorganiserbackend.entity.enums.NotificationType;
+import com.alphadocuments.documentorganiserbackend.exception.FileOperationException;
+import com.alphadocuments.documentorganiserbackend.exception.ResourceNotFoundException;
+import com.alphadocuments.documentorganiserbackend.exception.ValidationException;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentRepository;
+import com.alphadocuments.documentorganiserbackend.repository.ExportJobEntryRepository;
+import com.alphadocuments.documentorganiserbackend.repository.ExportJobRepository;
+import com.alphadocuments.documentorganiserbackend.repository.UserRepository;
+import com.alphadocuments.documentorganiserbackend.service.ExportJobService;
+import com.alphadocuments.documentorganiserbackend.service.NotificationService;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.util.ArchiveNaming;
+import com.alphadocuments.documentorganiserbackend.util.ResumableZipWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+
+/**
+ * Implementation of ExportJobService.
+ * <p>
+ * A worker claims a job by taking its lease, then walks the user's documents in (created_at, id) order,
+ * writing the archive through {@link ResumableZipWriter} into an S3 multipart upload. Parts are uploaded
+ * as the buffer fills; whenever an entry ends with everything written so far uploaded, the job records a
+ * checkpoint. A worker that dies leaves the job RUNNING without heartbeats, and the sweep hands it to
+ * another worker, which re-uploads the parts after the checkpoint and carries on from the next document.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportJobServiceImpl implements ExportJobService {
+
+    private static final int PAGE_SIZE = 100;
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024; // S3 minimum for every part but the last
+    private static final List<ExportJobStatus> ACTIVE_STATUSES = List.of(ExportJobStatus.QUEUED, ExportJobStatus.RUNNING);
+
+    private final ExportJobRepository exportJobRepository;
+    private final ExportJobEntryRepository exportJobEntryRepository;
+    private final DocumentRepository documentRepository;
+    private final UserRepository userRepository;
+    private final StorageService storageService;
+    private final StorageProperties storageProperties;
+    private final ExportJobProperties exportJobProperties;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor exportExecutor;
+
+    // Jobs queued or running on this instance, so the sweep does not queue them twice
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public ExportJobResponse createJob(UUID userId) {
+        ExportJob active = exportJobRepository.findFirstByUserIdAndStatusIn(userId, ACTIVE_STATUSES).orElse(null);
+        if (active != null) {
+            return toResponse(active);
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId.toString()));
+        Long totalBytes = documentRepository.getTotalStorageUsed(userId);
+        ExportJob job;
+        try {
+            job = exportJobRepository.save(ExportJob.builder()
+                    .user(user)
+                    .totalEntries(documentRepository.countByUserIdAndNotDeleted(userId))
+                    .totalBytes(totalBytes != null ? totalBytes : 0L)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request created the user's active job first
+            return exportJobRepository.findFirstByUserIdAndStatusIn(userId, ACTIVE_STATUSES)
+                    .map(this::toResponse)
+                    .orElseThrow(() -> e);
+        }
+
+        log.info("Queued export job {} for user {}", job.getId(), userId);
+        submit(job.getId());
+        return toResponse(job);
+    }
+
+    @Override
+    public ExportJobResponse getJob(UUID userId, UUID jobId) {
+        return toResponse(findJob(userId, jobId));
+    }
+
+    @Override
+    public String getDownloadUrl(UUID userId, UUID jobId) {
+        ExportJob job = findJob(userId, jobId);
+        if (job.getStatus() != ExportJobStatus.COMPLETED) {
+            throw new ValidationException("Export is not ready for download");
+        }
+        return presign(job);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${export-jobs.sweep-interval-ms:60000}", initialDelay = 10_000)
+    public void sweep() {
+        Instant now = Instant.now();
+        List<UUID> runnable = exportJobRepository.findIdsToRun(
+                now.minusSeconds(exportJobProperties.getStaleAfterSeconds()),
+                PageRequest.of(0, Math.max(exportJobProperties.getQueueCapacity(), 1)));
+        runnable.forEach(this::submit);
+
+        for (ExportJob job : exportJobRepository.findTop100ByStatusAndExpiresAtBefore(ExportJobStatus.COMPLETED, now)) {
+            try {
+                storageService.deleteFile(job.getStorageKey());
+                job.setStatus(ExportJobStatus.EXPIRED);
+                exportJobRepository.save(job);
+            } catch (Exception e) {
+                log.warn("Failed to delete expired export archive {}", job.getStorageKey(), e);
+            }
+        }
+    }
+
+    private void submit(UUID jobId) {
+        if (!inFlight.add(jobId)) {
+            return;
+        }
+        try {
+            exportExecutor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    inFlight.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(jobId);
+            log.info("Export queue is full; job {} stays queued until the next sweep", jobId);
+        }
+    }
+
+    private void run(UUID jobId) {
+        UUID leaseId = UUID.randomUUID();
+        Instant now = Instant.now();
+        Integer claimed = transactionTemplate.execute(status -> exportJobRepository.claim(jobId, leaseId, now,
+                now.minusSeconds(exportJobProperties.getStaleAfterSeconds())));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        ExportJob job = exportJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        try {
+            write(job, leaseId);
+        } catch (LeaseLostException e) {
+            log.warn("Export job {} was taken over by another worker", jobId);
+        } catch (Exception e) {
+            fail(job, leaseId, e);
+        }
+    }
+
+    private void write(ExportJob job, UUID leaseId) throws IOException {
+        UUID userId = job.getUser().getId();
+        String storageKey = job.getStorageKey();
+        String uploadId = job.getStorageUploadId();
+        if (uploadId == null) {
+            String key = "exports/" + userId + "/" + job.getId() + ".zip";
+            String id = storageService.initiateMultipartUpload(key, "application/zip");
+            requireLease(transactionTemplate.execute(status ->
+                    exportJobRepository.startUpload(job.getId(), leaseId, key, id, Instant.now())));
+            storageKey = key;
+            uploadId = id;
+        } else {
+            log.info("Resuming export job {} after {} documents", job.getId(), job.getEntriesWritten());
+        }
+
+        // Parts past the checkpoint may be left by a worker that died; they are uploaded again
+        List<StorageService.UploadedPart> parts = storageService.listParts(storageKey, uploadId).stream()
+                .filter(part -> part.partNumber() <= job.getUploadedParts())
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (parts.size() != job.getUploadedParts()) {
+            throw new FileOperationException("Checkpointed parts of export " + job.getId() + " are missing");
+        }
+
+        List<ResumableZipWriter.Entry> written = exportJobEntryRepository.findByJobIdOrderByHeaderOffset(job.getId())
+                .stream()
+                .map(this::toZipEntry)
+                .toList();
+        Set<String> usedPaths = written.stream()
+                .map(entry -> entry.name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toCollection(HashSet::new));
+
+        PartUploader uploader = new PartUploader(job.getId(), leaseId, storageKey, uploadId, parts);
+        ResumableZipWriter zip = new ResumableZipWriter(uploader, job.getArchiveOffset(), written);
+        Progress progress = new Progress(job);
+        List<ResumableZipWriter.Entry> pending = new ArrayList<>();
+
+        List<Document> page;
+        do {
+            page = documentRepository.findExportPage(userId, progress.cursorCreatedAt, progress.cursorDocumentId,
+                    PageRequest.of(0, PAGE_SIZE));
+            for (Document document : page) {
+                ResumableZipWriter.Entry entry = writeDocument(zip,
+                        ArchiveNaming.uniquePath(document.getOriginalName(), usedPaths), document);
+                if (entry != null) {
+                    pending.add(entry);
+                }
+                progress.advance(document);
+
+                if (uploader.flushAtEntryBoundary()) {
+                    checkpoint(job, leaseId, uploader, zip, progress, pending);
+                    pending.clear();
+                }
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        zip.finish();
+        uploader.finish();
+        storageService.completeMultipartUpload(storageKey, uploadId, uploader.parts);
+
+        Instant completedAt = Instant.now();
+        Instant expiresAt = completedAt.plus(Duration.ofHours(exportJobProperties.getRetentionHours()));
+        long archiveSize = zip.getOffset();
+        transactionTemplate.executeWithoutResult(status -> {
+            requireLease(exportJobRepository.complete(job.getId(), leaseId, archiveSize, progress.entriesWritten,
+                    progress.bytesProcessed, completedAt, expiresAt));
+            exportJobEntryRepository.deleteByJobId(job.getId());
+        });
+        log.info("Export job {} completed: {} documents, {} bytes", job.getId(), progress.entriesWritten, archiveSize);
+
+        notificationService.createNotification(userId, NotificationType.EXPORT_READY,
+                "Your export is ready",
+                "Your archive of " + progress.entriesWritten + " documents can be downloaded for the next "
+                        + exportJobProperties.getRetentionHours() + " hours",
+                "EXPORT", job.getId(), "/export/jobs/" + job.getId(),
+                Map.<String, Object>of("archiveSize", archiveSize));
+    }
+
+    /**
+     * Write one document. Content that cannot be fetched is skipped; a failure once the entry has
+     * started fails the attempt, which is retried from the last checkpoint.
+     */
+    private ResumableZipWriter.Entry writeDocument(ResumableZipWriter zip, String path, Document document)
+            throws IOException {
+        InputStream in;
+        try {
+            in = storageService.downloadFile(document.getStorageKey());
+        } catch (RuntimeException e) {
+            log.warn("Skipping {} in export: {}", path, e.getMessage());
+            return null;
+        }
+        try (in) {
+            boolean compressed = ArchiveNaming.isCompressed(document.getMimeType());
+            if (compressed && document.getFileSize() <= storageProperties.getArchives().getMaxBufferedObjectBytes()) {
+                return zip.writeStored(path, document.getContentUpdatedAt(), in.readAllBytes());
+            }
+            // STORED needs the CRC before the data, so unbuffered compressed content is deflated at level 0
+            return zip.writeDeflated(path, document.getContentUpdatedAt(), in,
+                    compressed ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+        }
+    }
+
+    private void checkpoint(ExportJob job, UUID leaseId, PartUploader uploader, ResumableZipWriter zip,
+                            Progress progress, List<ResumableZipWriter.Entry> pending) {
+        transactionTemplate.executeWithoutResult(status -> {
+            requireLease(exportJobRepository.checkpoint(job.getId(), leaseId, uploader.parts.size(), zip.getOffset(),
+                    progress.cursorCreatedAt, progress.cursorDocumentId, progress.entriesWritten,
+                    progress.bytesProcessed, Instant.now()));
+            ExportJob reference = exportJobRepository.getReferenceById(job.getId());
+            exportJobEntryRepository.saveAll(pending.stream()
+                    .map(entry -> toJobEntry(reference, entry))
+                    .toList());
+        });
+    }
+
+    private void fail(ExportJob job, UUID leaseId, Exception cause) {
+        boolean retry = job.getAttempts() + 1 < exportJobProperties.getMaxAttempts();
+        log.warn("Export job {} failed (attempt {}){}", job.getId(), job.getAttempts() + 1,
+                retry ? "; retrying from its last checkpoint" : "", cause);
+
+        String message = cause.getMessage() != null && cause.getMessage().length() > 1000
+                ? cause.getMessage().substring(0, 1000) : cause.getMessage();
+        ExportJobStatus next = retry ? ExportJobStatus.QUEUED : ExportJobStatus.FAILED;
+        Integer released = transactionTemplate.execute(status ->
+                exportJobRepository.releaseAfterFailure(job.getId(), leaseId, next, message));
+        if (retry || released == null || released == 0) {
+            return;
+        }
+
+        ExportJob failed = exportJobRepository.findById(job.getId()).orElse(job);
+        if (failed.getStorageUploadId() != null) {
+            try {
+                storageService.abortMultipartUpload(failed.getStorageKey(), failed.getStorageUploadId());
+            } catch (Exception e) {
+                log.warn("Failed to abort upload of export job {}", job.getId(), e);
+            }
+        }
+        notificationService.createNotification(job.getUser().getId(), NotificationType.EXPORT_FAILED,
+                "Your export failed",
+                "We could not create your document archive. Please try again later.",
+                "EXPORT", job.getId(), "/export/jobs/" + job.getId(), null);
+    }
+
+    private ExportJob findJob(UUID userId, UUID jobId) {
+        return exportJobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Export job", jobId.toString()));
+    }
+
+    private String presign(ExportJob job) {
+        LocalDate date = job.getCompletedAt().atZone(ZoneOffset.UTC).toLocalDate();
+        String contentDisposition = ContentDisposition.attachment()
+                .filename("document-export-" + date + ".zip", StandardCharsets.UTF_8)
+                .build()
+                .toString();
+        return storageService.generatePresignedDownloadUrl(job.getStorageKey(),
+                Duration.ofMinutes(exportJobProperties.getDownloadUrlExpiryMinutes()), contentDisposition,
+                "application/zip");
+    }
+
+    private ExportJobResponse toResponse(ExportJob job) {
+        boolean completed = job.getStatus() == ExportJobStatus.COMPLETED;
+        int percent = job.getTotalBytes() > 0
+                ? (int) Math.min(100, job.getBytesProcessed() * 100 / job.getTotalBytes())
+                : 0;
+        return ExportJobResponse.builder()
+                .id(job.getId())
+                .status(job.getStatus())
+                .totalEntries(job.getTotalEntries())
+                .entriesWritten(job.getEntriesWritten())
+                .totalBytes(job.getTotalBytes())
+                .bytesProcessed(job.getBytesProcessed())
+                .progressPercent(completed ? 100 : percent)
+                .archiveSize(job.getArchiveSize())
+                .downloadUrl(completed && storageService.supportsPresignedUrls() ? presign(job) : null)
+                .errorMessage(job.getStatus() == ExportJobStatus.FAILED ? job.getErrorMessage() : null)
+                .createdAt(job.getCreatedAt())
+                .completedAt(job.getCompletedAt())
+                .expiresAt(job.getExpiresAt())
+                .build();
+    }
+
+    private ResumableZipWriter.Entry toZipEntry(ExportJobEntry entry) {
+        return new ResumableZipWriter.Entry(entry.getPath(), entry.getMethod(), entry.getCrc(),
+                entry.getCompressedSize(), entry.getSize(), entry.getDosTime(), entry.getDataDescriptor(),
+                entry.getHeaderOffset());
+    }
+
+    private ExportJobEntry toJobEntry(ExportJob job, ResumableZipWriter.Entry entry) {
+        return ExportJobEntry.builder()
+                .job(job)
+                .path(entry.name())
+                .method(entry.method())
+                .crc(entry.crc())
+                .compressedSize(entry.compressedSize())
+                .size(entry.size())
+                .dosTime(entry.dosTime())
+                .dataDescriptor(entry.dataDescriptor())
+                .headerOffset(entry.offset())
+                .build();
+    }
+
+    private static void requireLease(Integer updated) {
+        if (updated == null || updated == 0) {
+            throw new LeaseLostException();
+        }
+    }
+
+    /**
+     * Position of the job in the user's documents.
+     */
+    private static final class Progress {
+
+        private Instant cursorCreatedAt;
+        private UUID cursorDocumentId;
+        private long entriesWritten;
+        private long bytesProcessed;
+
+        private Progress(ExportJob job) {
+            // Before every document: created_at is never at the epoch and no UUID sorts below zero
+            cursorCreatedAt = job.getCursorCreatedAt() != null ? job.getCursorCreatedAt() : Instant.EPOCH;
+            cursorDocumentId = job.getCursorDocumentId() != null ? job.getCursorDocumentId() : new UUID(0L, 0L);
+            entriesWritten = job.getEntriesWritten();
+            bytesProcessed = job.getBytesProcessed();
+        }
+
+        private void advance(Document document) {
+            cursorCreatedAt = document.getCreatedAt();
+            cursorDocumentId = document.getId();
+            entriesWritten++;
+            bytesProcessed += document.getFileSize();
+        }
+    }
+
+    /**
+     * Buffers the archive into parts of {@code storage.multipart.part-size-mb} and uploads each as it
+     * fills. Before every upload the worker renews its heartbeat, which also confirms it still holds
+     * the lease.
+     */
+    private final class PartUploader extends OutputStream {
+
+        private final UUID jobId;
+        private final UUID leaseId;
+        private final String storageKey;
+        private final String uploadId;
+        private final List<StorageService.UploadedPart> parts;
+        private final byte[] buffer;
+        private int length;
+
+        private PartUploader(UUID jobId, UUID leaseId, String storageKey, String uploadId,
+                             List<StorageService.UploadedPart> parts) {
+            this.jobId = jobId;
+            this.leaseId = leaseId;
+            this.storageKey = storageKey;
+            this.uploadId = uploadId;
+            this.parts = parts;
+            this.buffer = new byte[(int) storageProperties.getMultipart().getPartSizeBytes()];
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int count) {
+            while (count > 0) {
+                int copied = Math.min(count, buffer.length - length);
+                System.arraycopy(bytes, offset, buffer, length, copied);
+                length += copied;
+                offset += copied;
+                count -= copied;
+                if (length == buffer.length) {
+                    uploadPart();
+                }
+            }
+        }
+
+        /**
+         * Called between entries: upload the buffer if it is large enough to be a part.
+         * @return true if everything written so far is in storage, so a checkpoint can be taken
+         */
+        private boolean flushAtEntryBoundary() {
+            if (length >= MIN_PART_SIZE) {
+                uploadPart();
+            }
+            return length == 0;
+        }
+
+        /**
+         * Upload the rest of the archive as the last part, which may be smaller than the minimum.
+         */
+        private void finish() {
+            if (length > 0 || parts.isEmpty()) {
+                uploadPart();
+            }
+        }
+
+        private void uploadPart() {
+            requireLease(transactionTemplate.execute(status ->
+                    exportJobRepository.heartbeat(jobId, leaseId, Instant.now())));
+            int partNumber = parts.size() + 1;
+            String eTag = storageService.uploadPart(storageKey, uploadId, partNumber,
+                    new ByteArrayInputStream(buffer, 0, length), length);
+            parts.add(new StorageService.UploadedPart(partNumber, eTag));
+            length = 0;
+        }
+    }
+
+    /**
+     * Another worker claimed the job after this one stopped sending heartbeats.
+     */
+    private static final class LeaseLostException extends RuntimeException {
+    }
+}
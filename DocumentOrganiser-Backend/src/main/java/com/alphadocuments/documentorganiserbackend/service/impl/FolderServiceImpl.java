@@ -20,6 +20,8 @@ import com.alphadocuments.documentorganiserbackend.repository.UserRepository;
 import com.alphadocuments.documentorganiserbackend.repository.WorkspaceMemberRepository;
 import com.alphadocuments.documentorganiserbackend.repository.WorkspaceRepository;
 import com.alphadocuments.documentorganiserbackend.service.ActivityService;
+import com.alphadocuments.documentorganiserbackend.service.ArchiveService;
+import com.alphadocuments.documentorganiserbackend.service.FolderArchive;
 import com.alphadocuments.documentorganiserbackend.service.FolderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -49,6 +51,7 @@ public class FolderServiceImpl implements FolderService {
     private final ActivityService activityService;
     private final WorkspaceRepository workspaceRepository;
     private final WorkspaceMemberRepository workspaceMemberRepository;
+    private final ArchiveService archiveService;
 
     @Override
     @Transactional
@@ -158,6 +161,25 @@ public class FolderServiceImpl implements FolderService {
         return mapToFolderResponse(folder);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public FolderArchive getFolderArchive(UUID userId, UUID folderId) {
+        Folder folder = folderRepository.findById(folderId)
+                .filter(candidate -> !Boolean.TRUE.equals(candidate.getIsDeleted()))
+                .orElseThrow(() -> new ResourceNotFoundException("Folder", folderId.toString()));
+
+        if (folder.getWorkspace() != null) {
+            // Verify user is a member of the workspace
+            if (!workspaceMemberRepository.existsByWorkspaceIdAndUserId(folder.getWorkspace().getId(), userId)) {
+                throw new ForbiddenException("You are not a member of this workspace");
+            }
+        } else if (!folder.getUser().getId().equals(userId)) {
+            throw new ResourceNotFoundException("Folder", folderId.toString());
+        }
+
+        return archiveService.collectFolder(folder);
+    }
+
     @Override
     @Transactional
     public FolderResponse updateFolder(UUID userId, UUID folderId, UpdateFolderRequest request) {
@@ -0,0 +1,246 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.entity.enums.StorageTier;
+import com.alphadocuments.documentorganiserbackend.exception.FileOperationException;
+import com.alphadocuments.documentorganiserbackend.service.AsyncStorageService;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.FileRequestBodyConfiguration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Implementation of AsyncStorageService over {@link LocalStorageServiceImpl}, selected with
+ * {@code storage.type=local}.
+ * <p>
+ * File system calls block, so they run on the storage transfer executor rather than the caller's thread.
+ * Downloads are published straight from the object file in chunks read at the subscriber's pace.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "local")
+public class LocalAsyncStorageServiceImpl implements AsyncStorageService {
+
+    private final LocalStorageServiceImpl localStorageService;
+    private final StorageProperties storageProperties;
+    private final Executor storageTransferExecutor;
+
+    @Override
+    public CompletableFuture<String> uploadFile(String key, Path source, String contentType) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream in = Files.newInputStream(source)) {
+                return localStorageService.uploadFile(key, in, Files.size(source), contentType);
+            } catch (IOException e) {
+                log.error("Failed to upload file: {}", key, e);
+                throw new FileOperationException("Failed to upload file", e);
+            }
+        }, storageTransferExecutor);
+    }
+
+    @Override
+    public CompletableFuture<String> uploadFile(String key, Publisher<ByteBuffer> content, long contentLength,
+                                                String contentType) {
+        Path temp;
+        try {
+            temp = localStorageService.newTempFile();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new FileOperationException("Failed to upload file", e));
+        }
+        FileWritingSubscriber subscriber = new FileWritingSubscriber(temp, storageProperties.getLocal().isFsync());
+        content.subscribe(subscriber);
+        return subscriber.done.thenApplyAsync(written -> {
+            try {
+                if (written != contentLength) {
+                    throw new FileOperationException("Unexpected end of stream while uploading " + key);
+                }
+                // Hashing would mean reading the file back; like a multipart upload it has no checksum
+                localStorageService.publish(temp, key, contentType, null);
+                log.info("Uploaded file: {} ({} bytes, local)", key, contentLength);
+                return key;
+            } catch (IOException e) {
+                log.error("Failed to upload file: {}", key, e);
+                throw new FileOperationException("Failed to upload file", e);
+            } finally {
+                deleteQuietly(temp);
+            }
+        }, storageTransferExecutor).whenComplete((result, error) -> {
+            if (error != null) {
+                deleteQuietly(temp);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<ObjectStream> downloadFile(String key) {
+        return CompletableFuture.supplyAsync(() -> {
+            Path path = localStorageService.readablePath(key);
+            long size = size(key, path);
+            return new ObjectStream(size, contentType(key), AsyncRequestBody.fromFile(path));
+        }, storageTransferExecutor);
+    }
+
+    @Override
+    public CompletableFuture<ObjectStream> downloadFileRange(String key, long start, long end) {
+        return CompletableFuture.supplyAsync(() -> {
+            Path path = localStorageService.readablePath(key);
+            long length = Math.max(0, Math.min(end, size(key, path) - 1) - start + 1);
+            return new ObjectStream(length, contentType(key), AsyncRequestBody.fromFile(FileRequestBodyConfiguration.builder()
+                    .path(path)
+                    .position(start)
+                    .numBytesToRead(length)
+                    .build()));
+        }, storageTransferExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> downloadToFile(String key, Path destination) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                Files.copy(localStorageService.readablePath(key), destination, StandardCopyOption.REPLACE_EXISTING);
+            } catch (NoSuchFileException e) {
+                throw new FileOperationException("File not found: " + key);
+            } catch (IOException e) {
+                log.error("Failed to download file: {}", key, e);
+                throw new FileOperationException("Failed to download file", e);
+            }
+        }, storageTransferExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Optional<StorageService.ObjectInfo>> getObjectInfo(String key) {
+        return CompletableFuture.supplyAsync(() -> localStorageService.getObjectInfo(key), storageTransferExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteFile(String key) {
+        return CompletableFuture.runAsync(() -> localStorageService.deleteFile(key), storageTransferExecutor);
+    }
+
+    @Override
+    public CompletableFuture<String> copyFile(String sourceKey, String destinationKey) {
+        return CompletableFuture.supplyAsync(() -> localStorageService.copyFile(sourceKey, destinationKey),
+                storageTransferExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> changeTier(String key, StorageTier tier) {
+        return CompletableFuture.runAsync(() -> localStorageService.changeTier(key, tier), storageTransferExecutor);
+    }
+
+    private static long size(String key, Path path) {
+        try {
+            return Files.size(path);
+        } catch (NoSuchFileException e) {
+            throw new FileOperationException("File not found: " + key);
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to download file", e);
+        }
+    }
+
+    private String contentType(String key) {
+        return localStorageService.getObjectInfo(key).map(StorageService.ObjectInfo::contentType).orElse(null);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes published buffers to a file one at a time, completing with the number of bytes written.
+     * Writes happen on the publisher's thread; local disk writes are short enough not to need handing off.
+     */
+    private static final class FileWritingSubscriber implements Subscriber<ByteBuffer> {
+
+        private final Path file;
+        private final boolean fsync;
+        private final CompletableFuture<Long> done = new CompletableFuture<>();
+        private FileChannel channel;
+        private Subscription subscription;
+        private long written;
+
+        private FileWritingSubscriber(Path file, boolean fsync) {
+            this.file = file;
+            this.fsync = fsync;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                subscription.cancel();
+                done.completeExceptionally(new FileOperationException("Failed to upload file", e));
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(ByteBuffer buffer) {
+            try {
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer);
+                }
+            } catch (IOException e) {
+                subscription.cancel();
+                fail(e);
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            fail(error);
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                if (fsync) {
+                    channel.force(true);
+                }
+                channel.close();
+                done.complete(written);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        private void fail(Throwable error) {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                error.addSuppressed(e);
+            }
+            done.completeExceptionally(new FileOperationException("Failed to upload file", error));
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.entity.Document;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentRepository;
+import com.alphadocuments.documentorganiserbackend.service.DownloadContent;
+import com.alphadocuments.documentorganiserbackend.service.LocalBlobCache;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.util.ChecksumInputStream;
+import com.alphadocuments.documentorganiserbackend.util.FileRegionInputStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of LocalBlobCache.
+ * <p>
+ * Entries are keyed by the content's SHA-256, so they can never go stale: a document whose content
+ * changes has a different checksum. A full read that misses streams from storage and tees the bytes
+ * into a temporary file, which becomes the cache entry once the checksum is verified. Hits, including
+ * range reads, are served from the file with {@link FileChannel#transferTo}. The least recently used
+ * entries are evicted once the cache exceeds {@code storage.blob-cache.max-size-mb}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LocalBlobCacheImpl implements LocalBlobCache {
+
+    private static final Pattern CHECKSUM = Pattern.compile("[0-9a-f]{64}");
+    private static final String TEMP_DIRECTORY = "tmp";
+
+    private final StorageService storageService;
+    private final StorageProperties storageProperties;
+    private final DocumentRepository documentRepository;
+    private final MeterRegistry meterRegistry;
+
+    // Checksum -> size, access-ordered so iteration starts at the least recently used entry; guarded by itself
+    private final Map<String, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+    // Checksums being written by a read-through, so concurrent misses only fill once
+    private final Set<String> filling = ConcurrentHashMap.newKeySet();
+    private long cachedBytes;
+    private volatile Path directory;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    @PostConstruct
+    void initialize() {
+        hits = meterRegistry.counter("storage.blob.cache", "result", "hit");
+        misses = meterRegistry.counter("storage.blob.cache", "result", "miss");
+        evictions = meterRegistry.counter("storage.blob.cache.evictions");
+        meterRegistry.gauge("storage.blob.cache.bytes", this, LocalBlobCacheImpl::cachedBytes);
+
+        StorageProperties.BlobCache settings = storageProperties.getBlobCache();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        Path root = Path.of(settings.getDirectory());
+        try {
+            Files.createDirectories(root.resolve(TEMP_DIRECTORY));
+            loadIndex(root);
+            directory = root;
+            evictOverBudget();
+            log.info("Blob cache at {} holds {} blobs ({} bytes)", root, index.size(), cachedBytes);
+        } catch (IOException e) {
+            log.warn("Blob cache directory {} is unusable; serving every read from storage", root, e);
+        }
+    }
+
+    @Override
+    public DownloadContent.RangeReader reader(String storageKey, String checksum, long size) {
+        return (start, end) -> open(storageKey, checksum, size, start, end);
+    }
+
+    @Override
+    public void warm(String storageKey, String checksum, long size) {
+        if (!isCacheable(checksum, size) || lookup(checksum) != null || !filling.add(checksum)) {
+            return;
+        }
+        try (InputStream in = fill(storageKey, checksum, size)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch (Exception e) {
+            log.warn("Failed to warm blob cache with {}", storageKey, e);
+        }
+    }
+
+    /**
+     * Warm the cache with the most downloaded documents once the application is up.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmMostDownloaded() {
+        int count = storageProperties.getBlobCache().getWarmTopDocuments();
+        if (directory == null || count <= 0) {
+            return;
+        }
+        List<Document> documents = documentRepository.findMostDownloaded(PageRequest.of(0, count));
+        for (Document document : documents) {
+            warm(document.getStorageKey(), document.getChecksum(), document.getFileSize());
+        }
+        log.info("Blob cache warmed from the {} most downloaded documents", documents.size());
+    }
+
+    private InputStream open(String storageKey, String checksum, long size, long start, long end) {
+        boolean whole = start == 0 && end == size - 1;
+        if (!isCacheable(checksum, size)) {
+            return readFromStorage(storageKey, whole, start, end);
+        }
+
+        Path file = lookup(checksum);
+        if (file != null) {
+            try {
+                InputStream in = new FileRegionInputStream(FileChannel.open(file, StandardOpenOption.READ),
+                        start, end - start + 1);
+                hits.increment();
+                return in;
+            } catch (NoSuchFileException e) {
+                // Evicted since the lookup
+            } catch (IOException e) {
+                log.warn("Failed to read cached blob {}; reading from storage", file, e);
+            }
+        }
+
+        misses.increment();
+        // Only whole reads fill the cache; ranges are served from it once the blob is there
+        if (whole && filling.add(checksum)) {
+            return fill(storageKey, checksum, size);
+        }
+        return readFromStorage(storageKey, whole, start, end);
+    }
+
+    private InputStream readFromStorage(String storageKey, boolean whole, long start, long end) {
+        return whole ? storageService.downloadFile(storageKey) : storageService.downloadFileRange(storageKey, start, end);
+    }
+
+    /**
+     * Stream the blob from storage while copying it into a temporary file. The caller must own the
+     * checksum's slot in {@link #filling}; it is released when the returned stream is closed.
+     */
+    private InputStream fill(String storageKey, String checksum, long size) {
+        InputStream source;
+        try {
+            source = storageService.downloadFile(storageKey);
+        } catch (RuntimeException e) {
+            filling.remove(checksum);
+            throw e;
+        }
+        try {
+            Path temp = directory.resolve(TEMP_DIRECTORY).resolve(UUID.randomUUID().toString());
+            return new FillingInputStream(source, temp, checksum, size);
+        } catch (IOException e) {
+            filling.remove(checksum);
+            log.warn("Failed to start caching blob {}", storageKey, e);
+            return source;
+        }
+    }
+
+    @Override
+    public boolean isCacheable(String checksum, long size) {
+        return directory != null && checksum != null && CHECKSUM.matcher(checksum).matches()
+                && size > 0 && size <= storageProperties.getBlobCache().getMaxBlobBytes();
+    }
+
+    private Path lookup(String checksum) {
+        synchronized (index) {
+            return index.get(checksum) != null ? pathFor(directory, checksum) : null;
+        }
+    }
+
+    private void commit(Path temp, String checksum, long size) throws IOException {
+        Path target = pathFor(directory, checksum);
+        Files.createDirectories(target.getParent());
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        synchronized (index) {
+            if (index.put(checksum, size) == null) {
+                cachedBytes += size;
+            }
+        }
+        evictOverBudget();
+    }
+
+    private void evictOverBudget() {
+        long budget = storageProperties.getBlobCache().getMaxSizeBytes();
+        List<String> evicted = new ArrayList<>();
+        synchronized (index) {
+            var eldest = index.entrySet().iterator();
+            while (cachedBytes > budget && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                cachedBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        // Readers that already opened an evicted file keep reading it; the space is freed when they close
+        for (String checksum : evicted) {
+            try {
+                Files.deleteIfExists(pathFor(directory, checksum));
+            } catch (IOException e) {
+                log.warn("Failed to delete evicted blob {}", checksum, e);
+            }
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Rebuild the index from the files left by a previous run, oldest first so they are evicted first.
+     */
+    private void loadIndex(Path root) throws IOException {
+        try (Stream<Path> temps = Files.list(root.resolve(TEMP_DIRECTORY))) {
+            for (Path temp : temps.toList()) {
+                Files.deleteIfExists(temp);
+            }
+        }
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            List<Path> cached = files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> CHECKSUM.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparing(LocalBlobCacheImpl::lastModified))
+                    .toList();
+            synchronized (index) {
+                for (Path file : cached) {
+                    long size = Files.size(file);
+                    index.put(file.getFileName().toString(), size);
+                    cachedBytes += size;
+                }
+            }
+        }
+    }
+
+    private long cachedBytes() {
+        synchronized (index) {
+            return cachedBytes;
+        }
+    }
+
+    private static Path pathFor(Path root, String checksum) {
+        return root.resolve(checksum.substring(0, 2)).resolve(checksum);
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Passes a storage stream through while writing it to a temporary file. If the whole blob was read
+     * and matches its checksum the file becomes a cache entry on close; otherwise it is discarded.
+     * Failing to write the file never fails the read.
+     */
+    private final class FillingInputStream extends InputStream {
+
+        private final ChecksumInputStream source;
+        private final Path temp;
+        private final String checksum;
+        private final long size;
+        private OutputStream copy;
+
+        private FillingInputStream(InputStream source, Path temp, String checksum, long size) throws IOException {
+            this.source = new ChecksumInputStream(source);
+            this.temp = temp;
+            this.checksum = checksum;
+            this.size = size;
+            this.copy = Files.newOutputStream(temp);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = source.read(buffer, offset, length);
+            if (n > 0 && copy != null) {
+                try {
+                    copy.write(buffer, offset, n);
+                } catch (IOException e) {
+                    log.warn("Failed to write blob {} to the cache", checksum, e);
+                    abandon();
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                source.close();
+            } finally {
+                try {
+                    if (copy != null) {
+                        copy.close();
+                        copy = null;
+                        if (source.getBytesRead() == size && source.getChecksum().equals(checksum)) {
+                            commit(temp, checksum, size);
+                        } else {
+                            Files.deleteIfExists(temp);
+                        }
+                    }
+                } catch (IOException e) {
+                    log.warn("Failed to add blob {} to the cache", checksum, e);
+                    Files.deleteIfExists(temp);
+                } finally {
+                    filling.remove(checksum);
+                }
+            }
+        }
+
+        private void abandon() {
+            try {
+                copy.close();
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.debug("Failed to discard partial cache file {}", temp, e);
+            }
+            copy = null;
+        }
+    }
+}
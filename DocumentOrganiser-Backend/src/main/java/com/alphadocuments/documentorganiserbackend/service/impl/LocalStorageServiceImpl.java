@@ -0,0 +1,616 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.entity.enums.StorageTier;
+import com.alphadocuments.documentorganiserbackend.exception.FileOperationException;
+import com.alphadocuments.documentorganiserbackend.exception.ValidationException;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.util.ChecksumInputStream;
+import com.alphadocuments.documentorganiserbackend.util.FileRegionInputStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Implementation of StorageService on the local filesystem, selected with {@code storage.type=local}.
+ * <p>
+ * Objects are stored under {@code objects/<aa>/<bb>/<sha256 of key>}, so no directory grows past a few
+ * thousand entries whatever the key layout, with a {@code .meta} file beside each holding its key,
+ * content type and SHA-256. Every write goes to a file under {@code tmp/} first and is renamed into
+ * place, so readers see either the old object or the complete new one. Copies, downloads and multipart
+ * assembly move bytes with {@link FileChannel#transferTo}/{@link FileChannel#transferFrom}, and ranged
+ * reads use positional I/O on the object file.
+ * <p>
+ * Cold objects are gzip-compressed into {@code cold/}, laid out like {@code objects/}. Reading one
+ * decompresses it back into place first, so callers never see the difference.
+ * <p>
+ * There is no server to pre-sign URLs for, so direct uploads and redirect downloads are unavailable;
+ * downloads are proxied instead.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "local")
+public class LocalStorageServiceImpl implements StorageService {
+
+    private static final String META_SUFFIX = ".meta";
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+    private static final int GZIP_BUFFER = 64 * 1024;
+
+    private final StorageProperties storageProperties;
+    private final MeterRegistry meterRegistry;
+    private Path objectsRoot;
+    private Path coldRoot;
+    private Path uploadsRoot;
+    private Path tempRoot;
+
+    @PostConstruct
+    public void init() {
+        Path root = Paths.get(storageProperties.getLocal().getDirectory()).toAbsolutePath().normalize();
+        this.objectsRoot = root.resolve("objects");
+        this.coldRoot = root.resolve("cold");
+        this.uploadsRoot = root.resolve("uploads");
+        this.tempRoot = root.resolve("tmp");
+        initializeBucket();
+        log.info("Using local storage in {}", root);
+    }
+
+    @Override
+    public void initializeBucket() {
+        try {
+            Files.createDirectories(objectsRoot);
+            Files.createDirectories(coldRoot);
+            Files.createDirectories(uploadsRoot);
+            Files.createDirectories(tempRoot);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create local storage directory "
+                    + storageProperties.getLocal().getDirectory(), e);
+        }
+    }
+
+    @Override
+    public boolean supportsPresignedUrls() {
+        return false;
+    }
+
+    @Override
+    public String uploadFile(String key, InputStream inputStream, long contentLength, String contentType) {
+        long startNanos = System.nanoTime();
+        try {
+            Path temp = newTempFile();
+            String checksum;
+            try (ChecksumInputStream in = new ChecksumInputStream(inputStream)) {
+                long written = writeFrom(Channels.newChannel(in), temp);
+                if (written != contentLength) {
+                    Files.deleteIfExists(temp);
+                    throw new FileOperationException("Unexpected end of stream while uploading " + key);
+                }
+                checksum = in.getChecksum();
+            }
+            publish(temp, key, contentType, checksum);
+
+            meterRegistry.timer("storage.upload.duration", "mode", "local")
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            log.info("Uploaded file: {} ({} bytes, local)", key, contentLength);
+            return key;
+        } catch (FileOperationException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to upload file: {}", key, e);
+            throw new FileOperationException("Failed to upload file", e);
+        }
+    }
+
+    @Override
+    public InputStream downloadFile(String key) {
+        try {
+            FileChannel channel = FileChannel.open(readablePath(key), StandardOpenOption.READ);
+            return new FileRegionInputStream(channel, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            log.error("File not found: {}", key);
+            throw new FileOperationException("File not found: " + key);
+        } catch (IOException e) {
+            log.error("Failed to download file: {}", key, e);
+            throw new FileOperationException("Failed to download file", e);
+        }
+    }
+
+    @Override
+    public InputStream downloadFileRange(String key, long start, long end) {
+        try {
+            FileChannel channel = FileChannel.open(readablePath(key), StandardOpenOption.READ);
+            // Like a ranged GET, a range reaching past the end is cut short at the end
+            long length = Math.max(0, Math.min(end, channel.size() - 1) - start + 1);
+            return new FileRegionInputStream(channel, start, length);
+        } catch (NoSuchFileException e) {
+            log.error("File not found: {}", key);
+            throw new FileOperationException("File not found: " + key);
+        } catch (IOException e) {
+            log.error("Failed to download range {}-{} of file: {}", start, end, key, e);
+            throw new FileOperationException("Failed to download file", e);
+        }
+    }
+
+    @Override
+    public Optional<ObjectInfo> getObjectInfo(String key) {
+        Path path = objectPath(key);
+        try {
+            Properties meta = readMeta(path);
+            long size;
+            Instant lastModified;
+            if (Files.exists(path) || !Files.exists(coldPath(key))) {
+                size = Files.size(path);
+                lastModified = Files.getLastModifiedTime(path).toInstant();
+            } else {
+                // Cold: answered from what was recorded when it was compressed, without decompressing it
+                size = Long.parseLong(meta.getProperty("size"));
+                lastModified = Instant.ofEpochMilli(Long.parseLong(meta.getProperty("lastModified")));
+            }
+            String checksum = meta.getProperty("sha256");
+            return Optional.of(new ObjectInfo(size, meta.getProperty("contentType"),
+                    checksum != null ? "\"" + checksum + "\"" : null, checksum, lastModified));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.error("Failed to read metadata of file: {}", key, e);
+            throw new FileOperationException("Failed to read file metadata", e);
+        }
+    }
+
+    @Override
+    public void deleteFile(String key) {
+        Path path = objectPath(key);
+        try {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(coldPath(key));
+            Files.deleteIfExists(metaPath(path));
+            log.info("Deleted file: {}", key);
+        } catch (IOException e) {
+            log.error("Failed to delete file: {}", key, e);
+            throw new FileOperationException("Failed to delete file", e);
+        }
+    }
+
+    @Override
+    public List<String> deleteFiles(List<String> keys) {
+        List<String> failed = new ArrayList<>();
+        for (String key : keys) {
+            try {
+                deleteFile(key);
+            } catch (FileOperationException e) {
+                failed.add(key);
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public String copyFile(String sourceKey, String destinationKey) {
+        try {
+            Path source = readablePath(sourceKey);
+            Path temp = newTempFile();
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long size = in.size();
+                for (long position = 0; position < size; ) {
+                    position += in.transferTo(position, size - position, out);
+                }
+                force(out);
+            }
+            Properties meta = readMeta(source);
+            publish(temp, destinationKey, meta.getProperty("contentType"), meta.getProperty("sha256"));
+            log.info("Copied file from {} to {}", sourceKey, destinationKey);
+            return destinationKey;
+        } catch (NoSuchFileException e) {
+            throw new FileOperationException("File not found: " + sourceKey);
+        } catch (IOException e) {
+            log.error("Failed to copy file from {} to {}", sourceKey, destinationKey, e);
+            throw new FileOperationException("Failed to copy file", e);
+        }
+    }
+
+    @Override
+    public boolean fileExists(String key) {
+        return Files.isRegularFile(objectPath(key)) || Files.isRegularFile(coldPath(key));
+    }
+
+    @Override
+    public String generatePresignedDownloadUrl(String key, Duration expiration) {
+        throw presignedUrlsUnavailable();
+    }
+
+    @Override
+    public String generatePresignedDownloadUrl(String key, Duration expiration, String contentDisposition,
+                                               String contentType) {
+        throw presignedUrlsUnavailable();
+    }
+
+    @Override
+    public String generatePresignedUploadUrl(String key, String contentType, Duration expiration) {
+        throw presignedUrlsUnavailable();
+    }
+
+    @Override
+    public PresignedRequest generatePresignedUploadUrl(String key, String contentType, long contentLength,
+                                                       String checksumSha256, Duration expiration) {
+        throw presignedUrlsUnavailable();
+    }
+
+    @Override
+    public String generatePresignedUploadPartUrl(String key, String uploadId, int partNumber, Duration expiration) {
+        throw presignedUrlsUnavailable();
+    }
+
+    // ── Multipart uploads ────────────────────────────────────────────────
+    // Each upload is a directory under uploads/ whose parts are files named "<part number>-<SHA-256>",
+    // so listing the directory gives the parts and their ETags without any other bookkeeping.
+
+    @Override
+    public String initiateMultipartUpload(String key, String contentType) {
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Path directory = Files.createDirectories(uploadsRoot.resolve(uploadId));
+            Properties meta = new Properties();
+            meta.setProperty("key", key);
+            if (contentType != null) {
+                meta.setProperty("contentType", contentType);
+            }
+            writeProperties(meta, directory.resolve("upload" + META_SUFFIX));
+            return uploadId;
+        } catch (IOException e) {
+            log.error("Failed to initiate multipart upload: {}", key, e);
+            throw new FileOperationException("Failed to initiate upload", e);
+        }
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, InputStream inputStream, long contentLength) {
+        try {
+            Path directory = uploadDirectory(key, uploadId);
+            Path temp = newTempFile();
+            String eTag;
+            try (ChecksumInputStream in = new ChecksumInputStream(inputStream)) {
+                if (writeFrom(Channels.newChannel(in), temp) != contentLength) {
+                    Files.deleteIfExists(temp);
+                    throw new FileOperationException("Unexpected end of stream while uploading part " + partNumber);
+                }
+                eTag = in.getChecksum();
+            }
+            // A re-sent part replaces the earlier one
+            for (Path existing : partFiles(directory)) {
+                if (partNumber(existing) == partNumber) {
+                    Files.deleteIfExists(existing);
+                }
+            }
+            move(temp, directory.resolve(partNumber + "-" + eTag));
+            return eTag;
+        } catch (FileOperationException e) {
+            throw e;
+        } catch (IOException e) {
+            log.error("Failed to upload part {} of {}", partNumber, key, e);
+            throw new FileOperationException("Failed to upload part", e);
+        }
+    }
+
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, List<UploadedPart> parts) {
+        try {
+            Path directory = uploadDirectory(key, uploadId);
+            Path temp = newTempFile();
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                for (UploadedPart part : parts.stream().sorted(Comparator.comparingInt(UploadedPart::partNumber)).toList()) {
+                    Path partFile = directory.resolve(part.partNumber() + "-" + part.eTag());
+                    try (FileChannel in = FileChannel.open(partFile, StandardOpenOption.READ)) {
+                        long size = in.size();
+                        for (long position = 0; position < size; ) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    } catch (NoSuchFileException e) {
+                        Files.deleteIfExists(temp);
+                        throw new FileOperationException("Part " + part.partNumber() + " of upload " + uploadId
+                                + " is missing or has a different ETag");
+                    }
+                }
+                force(out);
+            }
+            Properties meta = readProperties(directory.resolve("upload" + META_SUFFIX));
+            // Like S3, an object assembled from parts has no whole-object SHA-256
+            publish(temp, key, meta.getProperty("contentType"), null);
+            deleteDirectory(directory);
+            log.info("Completed multipart upload {} for {} ({} parts)", uploadId, key, parts.size());
+        } catch (FileOperationException e) {
+            throw e;
+        } catch (IOException e) {
+            log.error("Failed to complete multipart upload {} for {}", uploadId, key, e);
+            throw new FileOperationException("Failed to complete upload", e);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        try {
+            deleteDirectory(uploadsRoot.resolve(uploadId));
+            meterRegistry.counter("storage.upload.aborted").increment();
+            log.info("Aborted multipart upload {} for {}", uploadId, key);
+        } catch (IOException e) {
+            log.warn("Failed to abort multipart upload {} for {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public List<UploadedPart> listParts(String key, String uploadId) {
+        try {
+            List<UploadedPart> parts = new ArrayList<>();
+            for (Path part : partFiles(uploadDirectory(key, uploadId))) {
+                String name = part.getFileName().toString();
+                parts.add(new UploadedPart(partNumber(part), name.substring(name.indexOf('-') + 1)));
+            }
+            parts.sort(Comparator.comparingInt(UploadedPart::partNumber));
+            return parts;
+        } catch (IOException e) {
+            log.error("Failed to list parts of multipart upload {} for {}", uploadId, key, e);
+            throw new FileOperationException("Failed to list uploaded parts", e);
+        }
+    }
+
+    /**
+     * Path of the object stored under a key, whether or not it exists.
+     */
+    Path objectPath(String key) {
+        String hash = sha256(key);
+        return objectsRoot.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    /**
+     * Move a fully written temporary file into place under the key, followed by its metadata.
+     */
+    void publish(Path temp, String key, String contentType, String checksum) throws IOException {
+        Path target = objectPath(key);
+        Files.createDirectories(target.getParent());
+
+        Properties meta = new Properties();
+        meta.setProperty("key", key);
+        if (contentType != null) {
+            meta.setProperty("contentType", contentType);
+        }
+        if (checksum != null) {
+            meta.setProperty("sha256", checksum);
+        }
+        move(temp, target);
+        writeProperties(meta, metaPath(target));
+        Files.deleteIfExists(coldPath(key));
+    }
+
+    // ── Tiering ──────────────────────────────────────────────────────────
+
+    /**
+     * Move an object between objects/ and its compressed copy in cold/. The new copy is complete
+     * before the old one is removed, so a reader always finds one of them.
+     */
+    void changeTier(String key, StorageTier tier) {
+        try {
+            if (tier == StorageTier.STANDARD) {
+                readablePath(key);
+                return;
+            }
+            Path hot = objectPath(key);
+            if (!Files.exists(hot)) {
+                if (!Files.exists(coldPath(key))) {
+                    throw new FileOperationException("File not found: " + key);
+                }
+                return;
+            }
+
+            Path temp = newTempFile();
+            try (InputStream in = Files.newInputStream(hot);
+                 GZIPOutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), GZIP_BUFFER)) {
+                in.transferTo(out);
+            }
+            if (storageProperties.getLocal().isFsync()) {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+
+            // Keep what HEAD needs so it does not have to decompress the object
+            Properties meta = readMeta(hot);
+            meta.setProperty("size", Long.toString(Files.size(hot)));
+            meta.setProperty("lastModified", Long.toString(Files.getLastModifiedTime(hot).toMillis()));
+            writeProperties(meta, metaPath(hot));
+
+            Path cold = coldPath(key);
+            Files.createDirectories(cold.getParent());
+            move(temp, cold);
+            Files.delete(hot);
+            log.info("Compressed file {} into cold storage", key);
+        } catch (NoSuchFileException e) {
+            throw new FileOperationException("File not found: " + key);
+        } catch (IOException e) {
+            log.error("Failed to move file {} to {} storage", key, tier, e);
+            throw new FileOperationException("Failed to change storage tier", e);
+        }
+    }
+
+    /**
+     * Path to read an object from, decompressing it out of cold storage first if that is where it is.
+     * The path may not exist if there is no such object.
+     */
+    Path readablePath(String key) {
+        Path hot = objectPath(key);
+        Path cold = coldPath(key);
+        if (Files.exists(hot) || !Files.exists(cold)) {
+            return hot;
+        }
+        try {
+            Path temp = newTempFile();
+            try (GZIPInputStream in = new GZIPInputStream(Files.newInputStream(cold), GZIP_BUFFER)) {
+                writeFrom(Channels.newChannel(in), temp);
+            }
+            String lastModified = readMeta(hot).getProperty("lastModified");
+            if (lastModified != null) {
+                Files.setLastModifiedTime(temp, FileTime.fromMillis(Long.parseLong(lastModified)));
+            }
+            move(temp, hot);
+            Files.deleteIfExists(cold);
+            log.info("Restored file {} from cold storage", key);
+        } catch (NoSuchFileException e) {
+            // Another reader restored it first
+        } catch (IOException e) {
+            log.error("Failed to restore file {} from cold storage", key, e);
+            throw new FileOperationException("Failed to restore file from cold storage", e);
+        }
+        return hot;
+    }
+
+    private Path coldPath(String key) {
+        Path hot = objectPath(key);
+        return coldRoot.resolve(objectsRoot.relativize(hot.getParent())).resolve(hot.getFileName() + ".gz");
+    }
+
+    Path newTempFile() throws IOException {
+        return Files.createTempFile(tempRoot, "upload-", ".tmp");
+    }
+
+    /**
+     * Write everything the channel produces to the file, forcing it to disk if configured.
+     * @return bytes written
+     */
+    long writeFrom(ReadableByteChannel source, Path file) throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            long transferred;
+            // A channel over a blocking stream only returns 0 at its end
+            while ((transferred = out.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                position += transferred;
+            }
+            force(out);
+            return position;
+        }
+    }
+
+    private void force(FileChannel channel) throws IOException {
+        if (storageProperties.getLocal().isFsync()) {
+            channel.force(true);
+        }
+    }
+
+    private Path uploadDirectory(String key, String uploadId) throws IOException {
+        Path directory = uploadsRoot.resolve(uploadId).normalize();
+        if (!directory.getParent().equals(uploadsRoot) || !Files.isDirectory(directory)) {
+            throw new FileOperationException("Multipart upload " + uploadId + " for " + key + " does not exist");
+        }
+        return directory;
+    }
+
+    private static List<Path> partFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> !file.getFileName().toString().endsWith(META_SUFFIX)).toList();
+        }
+    }
+
+    private static int partNumber(Path part) {
+        String name = part.getFileName().toString();
+        return Integer.parseInt(name.substring(0, name.indexOf('-')));
+    }
+
+    private static Path metaPath(Path object) {
+        return object.resolveSibling(object.getFileName() + META_SUFFIX);
+    }
+
+    private static Properties readMeta(Path object) throws IOException {
+        try {
+            return readProperties(metaPath(object));
+        } catch (NoSuchFileException e) {
+            // Written just after the object; absent only if the process stopped in between
+            return new Properties();
+        }
+    }
+
+    private static Properties readProperties(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        return properties;
+    }
+
+    private void writeProperties(Properties properties, Path file) throws IOException {
+        Path temp = newTempFile();
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(new OutputStreamWriter(out, StandardCharsets.UTF_8), null);
+        }
+        move(temp, file);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // tmp/ is inside the storage directory, so this only happens on unusual filesystems
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static ValidationException presignedUrlsUnavailable() {
+        return new ValidationException("Direct storage URLs are not available with local storage");
+    }
+}
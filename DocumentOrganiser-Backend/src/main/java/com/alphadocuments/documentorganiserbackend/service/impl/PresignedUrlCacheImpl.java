@@ -0,0 +1,99 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.service.PresignedUrlCache;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Implementation of PresignedUrlCache as a bounded in-memory map. A URL is reused until
+ * {@code storage.presigned-urls.refresh-margin-seconds} before it expires, so every URL returned
+ * stays valid for at least that long; least recently used entries are evicted beyond
+ * {@code storage.presigned-urls.cache-max-entries}.
+ */
+@Service
+@RequiredArgsConstructor
+public class PresignedUrlCacheImpl implements PresignedUrlCache {
+
+    private final StorageService storageService;
+    private final StorageProperties storageProperties;
+    private final MeterRegistry meterRegistry;
+
+    // Access-ordered, so iteration starts at the least recently used entry; guarded by itself
+    private final Map<CacheKey, SignedUrl> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void registerMetrics() {
+        hits = meterRegistry.counter("storage.presigned.cache", "result", "hit");
+        misses = meterRegistry.counter("storage.presigned.cache", "result", "miss");
+        meterRegistry.gauge("storage.presigned.cache.size", this, PresignedUrlCacheImpl::size);
+        meterRegistry.gauge("storage.presigned.cache.hit.ratio", this, cache -> {
+            double total = cache.hits.count() + cache.misses.count();
+            return total == 0 ? 0 : cache.hits.count() / total;
+        });
+    }
+
+    @Override
+    public String getDownloadUrl(String storageKey, String contentDisposition, String contentType) {
+        StorageProperties.PresignedUrls settings = storageProperties.getPresignedUrls();
+        Duration expiry = Duration.ofSeconds(settings.getExpirySeconds());
+        if (!settings.isCacheEnabled()) {
+            return storageService.generatePresignedDownloadUrl(storageKey, expiry, contentDisposition, contentType);
+        }
+
+        CacheKey key = new CacheKey(storageKey, contentDisposition, contentType);
+        Instant now = Instant.now();
+        synchronized (entries) {
+            SignedUrl cached = entries.get(key);
+            if (cached != null && now.isBefore(cached.reusableUntil())) {
+                hits.increment();
+                return cached.url();
+            }
+        }
+
+        // Sign outside the lock; a concurrent miss on the same key just signs twice
+        misses.increment();
+        String url = storageService.generatePresignedDownloadUrl(storageKey, expiry, contentDisposition, contentType);
+        Instant reusableUntil = now.plus(expiry).minusSeconds(settings.getRefreshMarginSeconds());
+        synchronized (entries) {
+            entries.put(key, new SignedUrl(url, reusableUntil));
+            var eldest = entries.entrySet().iterator();
+            while (entries.size() > settings.getCacheMaxEntries() && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return url;
+    }
+
+    @Override
+    public void invalidate(String storageKey) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.storageKey().equals(storageKey));
+        }
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record CacheKey(String storageKey, String contentDisposition, String contentType) {
+    }
+
+    private record SignedUrl(String url, Instant reusableUntil) {
+    }
+}
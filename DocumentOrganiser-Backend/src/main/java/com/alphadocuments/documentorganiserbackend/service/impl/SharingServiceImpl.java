@@ -14,21 +14,26 @@ import com.alphadocuments.documentorganiserbackend.exception.ResourceNotFoundExc
 import com.alphadocuments.documentorganiserbackend.exception.UnauthorizedException;
 import com.alphadocuments.documentorganiserbackend.exception.ValidationException;
 import com.alphadocuments.documentorganiserbackend.repository.*;
+import com.alphadocuments.documentorganiserbackend.service.AccessCountAggregator;
+import com.alphadocuments.documentorganiserbackend.service.ArchiveService;
+import com.alphadocuments.documentorganiserbackend.service.AsyncStorageService;
+import com.alphadocuments.documentorganiserbackend.service.DownloadContent;
+import com.alphadocuments.documentorganiserbackend.service.FolderArchive;
+import com.alphadocuments.documentorganiserbackend.service.LocalBlobCache;
 import com.alphadocuments.documentorganiserbackend.service.NotificationService;
 import com.alphadocuments.documentorganiserbackend.service.SharingService;
 import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.service.StorageTieringService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -49,8 +54,13 @@ public class SharingServiceImpl implements SharingService {
     private final FolderRepository folderRepository;
     private final UserRepository userRepository;
     private final StorageService storageService;
+    private final AsyncStorageService asyncStorageService;
+    private final LocalBlobCache localBlobCache;
+    private final ArchiveService archiveService;
     private final NotificationService notificationService;
     private final PasswordEncoder passwordEncoder;
+    private final AccessCountAggregator accessCountAggregator;
+    private final StorageTieringService storageTieringService;
 
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
@@ -365,8 +375,7 @@ public class SharingServiceImpl implements SharingService {
             throw new ValidationException("This link is not for a document");
         }
 
-        // Increment access count
-        shareLinkRepository.incrementAccessCount(shareLink.getId());
+        recordAccess(shareLink);
 
         Document document = shareLink.getDocument();
         return DocumentResponse.builder()
@@ -383,29 +392,7 @@ public class SharingServiceImpl implements SharingService {
 
     @Override
     @Transactional(readOnly = true)
-    public DocumentResponse getDownloadMetadata(String token, String password) {
-        ShareLink shareLink = validateAndGetShareLink(token, password);
-
-        if (shareLink.getDocument() == null) {
-            throw new ValidationException("This link is not for a document");
-        }
-
-        Document document = shareLink.getDocument();
-        return DocumentResponse.builder()
-                .id(document.getId())
-                .name(document.getName())
-                .originalName(document.getOriginalName())
-                .fileSize(document.getFileSize())
-                .fileType(document.getFileType())
-                .mimeType(document.getMimeType())
-                .category(document.getCategory())
-                .createdAt(document.getCreatedAt())
-                .build();
-    }
-
-    @Override
-    @Transactional
-    public Resource downloadDocumentByShareLink(String token, String password) {
+    public DownloadContent downloadDocumentByShareLink(String token, String password) {
         ShareLink shareLink = validateAndGetShareLink(token, password);
 
         if (shareLink.getDocument() == null) {
@@ -418,8 +405,9 @@ public class SharingServiceImpl implements SharingService {
         // cause a double-increment for every download.
 
         Document document = shareLink.getDocument();
-        InputStream inputStream = storageService.downloadFile(document.getStorageKey());
-        return new InputStreamResource(inputStream);
+        return DownloadContent.fromStorage(storageService, asyncStorageService, localBlobCache,
+                document.getStorageKey(), document.getOriginalName(), document.getMimeType(), document.getFileSize(),
+                document.getChecksum(), document.getContentUpdatedAt());
     }
 
     @Override
@@ -429,6 +417,18 @@ public class SharingServiceImpl implements SharingService {
         return shareLink.getDocument() != null ? "DOCUMENT" : "FOLDER";
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void recordDownloadByShareLink(String token) {
+        // The download just validated the link; only its document's last access time and tier are updated
+        shareLinkRepository.findByToken(token)
+                .map(ShareLink::getDocument)
+                .ifPresent(document -> {
+                    storageTieringService.recordAccess(document);
+                    accessCountAggregator.recordDocumentAccess(document.getId());
+                });
+    }
+
     @Override
     @Transactional
     public FolderResponse getFolderByShareLink(String token, String password) {
@@ -438,8 +438,7 @@ public class SharingServiceImpl implements SharingService {
             throw new ValidationException("This link is not for a folder");
         }
 
-        // Increment access count
-        shareLinkRepository.incrementAccessCount(shareLink.getId());
+        recordAccess(shareLink);
 
         Folder folder = shareLink.getFolder();
         return FolderResponse.builder()
@@ -481,6 +480,22 @@ public class SharingServiceImpl implements SharingService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public FolderArchive getFolderArchiveByShareLink(String token, String password) {
+        ShareLink shareLink = validateAndGetShareLink(token, password);
+
+        if (shareLink.getFolder() == null) {
+            throw new ValidationException("This link is not for a folder");
+        }
+        if (shareLink.getFolder().getIsDeleted()) {
+            throw new ResourceNotFoundException("Folder", shareLink.getFolder().getId().toString());
+        }
+
+        // Like document downloads, not counted as an access; GET /{token}/folder already is
+        return archiveService.collectFolder(shareLink.getFolder());
+    }
+
     private ShareLink validateAndGetShareLink(String token, String password) {
         ShareLink shareLink = shareLinkRepository.findByToken(token)
                 .orElseThrow(() -> new ResourceNotFoundException("Share link", token));
@@ -498,6 +513,15 @@ public class SharingServiceImpl implements SharingService {
         return shareLink;
     }
 
+    private void recordAccess(ShareLink shareLink) {
+        if (shareLink.getMaxAccessCount() != null) {
+            // The access limit is checked against the stored count, so limited links are counted straight away
+            shareLinkRepository.incrementAccessCount(shareLink.getId(), Instant.now());
+        } else {
+            accessCountAggregator.recordShareLinkAccess(shareLink.getId());
+        }
+    }
+
     private SharedItemResponse mapToSharedItemResponse(SharedDocument sd, String itemType) {
         return SharedItemResponse.builder()
                 .id(sd.getId())
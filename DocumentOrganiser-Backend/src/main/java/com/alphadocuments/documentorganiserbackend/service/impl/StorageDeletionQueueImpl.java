@@ -0,0 +1,123 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.TrashPurgeProperties;
+import com.alphadocuments.documentorganiserbackend.entity.StorageDeletion;
+import com.alphadocuments.documentorganiserbackend.repository.StorageDeletionRepository;
+import com.alphadocuments.documentorganiserbackend.service.PresignedUrlCache;
+import com.alphadocuments.documentorganiserbackend.service.StorageDeletionQueue;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementation of StorageDeletionQueue.
+ * <p>
+ * Deleting objects one request at a time, after commit, made purging large trashes slow and lost
+ * the delete if the process stopped in between. Keys are instead queued in the caller's transaction
+ * and drained every {@code trash-purge.delete-interval-ms} in batches sent as single multi-object delete
+ * requests. Each batch is locked with SKIP LOCKED, so several instances can drain the queue at once;
+ * keys that fail are retried with backoff.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageDeletionQueueImpl implements StorageDeletionQueue {
+
+    private static final Duration MIN_RETRY_DELAY = Duration.ofSeconds(30);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+
+    private final StorageDeletionRepository storageDeletionRepository;
+    private final StorageService storageService;
+    private final PresignedUrlCache presignedUrlCache;
+    private final TrashPurgeProperties trashPurgeProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    @Transactional
+    public void enqueue(Collection<String> storageKeys) {
+        Instant now = Instant.now();
+        storageDeletionRepository.saveAll(storageKeys.stream()
+                .map(key -> StorageDeletion.builder().storageKey(key).nextAttemptAt(now).build())
+                .toList());
+        // Nothing should hand out links to an object that is about to go
+        storageKeys.forEach(presignedUrlCache::invalidate);
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(String storageKey) {
+        enqueue(List.of(storageKey));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${trash-purge.delete-interval-ms:10000}", initialDelay = 10_000)
+    public void drain() {
+        int batchSize = trashPurgeProperties.getDeleteBatchSize();
+        try {
+            int handled;
+            do {
+                handled = drainBatch(batchSize);
+            } while (handled == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Failed to drain storage deletion queue", e);
+        }
+    }
+
+    /**
+     * Delete one batch of due keys. Rows stay locked while storage is called, so no other instance
+     * sends the same keys; deleted rows are removed and failed ones rescheduled in the same transaction.
+     * @return number of queued rows handled
+     */
+    private int drainBatch(int batchSize) {
+        Integer handled = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<StorageDeletion> due = storageDeletionRepository.lockDue(now, batchSize);
+            if (due.isEmpty()) {
+                return 0;
+            }
+
+            Set<String> failed = new HashSet<>(storageService.deleteFiles(
+                    due.stream().map(StorageDeletion::getStorageKey).distinct().toList()));
+            int deleted = 0;
+            int dropped = 0;
+            for (StorageDeletion deletion : due) {
+                if (!failed.contains(deletion.getStorageKey())) {
+                    storageDeletionRepository.delete(deletion);
+                    deleted++;
+                } else if (deletion.getAttempts() + 1 >= trashPurgeProperties.getMaxDeleteAttempts()) {
+                    log.error("Giving up deleting storage object {} after {} attempts; it must be removed by hand",
+                            deletion.getStorageKey(), deletion.getAttempts() + 1);
+                    storageDeletionRepository.delete(deletion);
+                    dropped++;
+                } else {
+                    deletion.setAttempts(deletion.getAttempts() + 1);
+                    deletion.setNextAttemptAt(now.plus(retryDelay(deletion.getAttempts())));
+                }
+            }
+
+            meterRegistry.counter("storage.deletions", "outcome", "deleted").increment(deleted);
+            meterRegistry.counter("storage.deletions", "outcome", "retried").increment(due.size() - deleted - dropped);
+            meterRegistry.counter("storage.deletions", "outcome", "dropped").increment(dropped);
+            return due.size();
+        });
+        return handled != null ? handled : 0;
+    }
+
+    private static Duration retryDelay(int attempts) {
+        Duration delay = MIN_RETRY_DELAY.multipliedBy(1L << Math.min(attempts - 1, 16));
+        return delay.compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY : delay;
+    }
+}
@@ -3,26 +3,46 @@ package com.alphadocuments.documentorganiserbackend.service.impl;
 import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
 import com.alphadocuments.documentorganiserbackend.exception.FileOperationException;
 import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URI;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of StorageService using AWS S3 / MinIO.
@@ -30,15 +50,25 @@ import java.util.Locale;
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@ConditionalOnExpression("'${storage.type:minio}' != 'local'")
 public class StorageServiceImpl implements StorageService {
 
+    private static final int MAX_KEYS_PER_DELETE = 1000; // S3 DeleteObjects limit
+    private static final long MB = 1024 * 1024;
+
     private final StorageProperties storageProperties;
+    private final Executor storageTransferExecutor;
+    private final MeterRegistry meterRegistry;
     private S3Client s3Client;
     private S3Presigner s3Presigner;
+    // Megabytes of multipart part data that may be held in memory, shared by all uploads
+    private Semaphore bufferedPartMb;
 
     @PostConstruct
     public void init() {
-        AwsCredentialsProvider credentialsProvider = resolveCredentialsProvider();
+        bufferedPartMb = new Semaphore(Math.max(1, storageProperties.getMultipart().getMaxBufferedMb()), true);
+
+        AwsCredentialsProvider credentialsProvider = resolveCredentialsProvider(storageProperties);
 
         var clientBuilder = S3Client.builder()
                 .credentialsProvider(credentialsProvider)
@@ -61,7 +91,10 @@ public class StorageServiceImpl implements StorageService {
         initializeBucket();
     }
 
-    private AwsCredentialsProvider resolveCredentialsProvider() {
+    /**
+     * Credentials for the configured storage; shared with the async client so both authenticate the same way.
+     */
+    static AwsCredentialsProvider resolveCredentialsProvider(StorageProperties storageProperties) {
         String accessKey = normalize(storageProperties.getAccessKey());
         String secretKey = normalize(storageProperties.getSecretKey());
         boolean hasAccessKey = accessKey != null;
@@ -90,7 +123,7 @@ public class StorageServiceImpl implements StorageService {
         return DefaultCredentialsProvider.create();
     }
 
-    private String normalize(String value) {
+    private static String normalize(String value) {
         if (value == null) {
             return null;
         }
@@ -110,23 +143,298 @@ public class StorageServiceImpl implements StorageService {
 
     @Override
     public String uploadFile(String key, InputStream inputStream, long contentLength, String contentType) {
+        StorageProperties.Multipart multipart = storageProperties.getMultipart();
+        boolean useMultipart = multipart.isEnabled() && contentLength >= multipart.getThresholdBytes();
+        long startNanos = System.nanoTime();
+        try {
+            if (useMultipart) {
+                uploadMultipart(key, inputStream, contentLength, contentType);
+            } else {
+                PutObjectRequest request = PutObjectRequest.builder()
+                        .bucket(storageProperties.getBucketName())
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength(contentLength)
+                        .build();
+
+                s3Client.putObject(request, RequestBody.fromInputStream(inputStream, contentLength));
+            }
+            recordUploadMetrics(key, contentLength, System.nanoTime() - startNanos, useMultipart ? "multipart" : "single");
+            return key;
+        } catch (FileOperationException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to upload file: {}", key, e);
+            throw new FileOperationException("Failed to upload file", e);
+        }
+    }
+
+    /**
+     * Upload a large stream as S3 multipart upload. Parts are read sequentially from the stream
+     * and sent in parallel on the transfer executor. The next part is only read once one of the
+     * upload's {@code concurrency} slots is free and {@code max-buffered-mb} has room for it, so
+     * buffered part data is bounded per upload and across all concurrent uploads. Failed parts are
+     * retried individually; if the upload still fails, it is aborted so no orphaned parts are left
+     * in the bucket.
+     */
+    private void uploadMultipart(String key, InputStream inputStream, long contentLength, String contentType) {
+        StorageProperties.Multipart settings = storageProperties.getMultipart();
+        // S3 allows at most 10,000 parts per upload
+        long partSize = Math.max(settings.getPartSizeBytes(), (contentLength + 9_999) / 10_000);
+
+        String uploadId = initiateMultipartUpload(key, contentType);
+
+        Semaphore inFlight = new Semaphore(Math.max(1, settings.getConcurrency()));
+        List<CompletableFuture<UploadedPart>> futures = new ArrayList<>();
+        try {
+            long remaining = contentLength;
+            int partNumber = 1;
+            while (remaining > 0) {
+                // Wait for a free slot before reading, so no more than concurrency parts are held in memory
+                inFlight.acquire();
+                // Stop reading as soon as one part has failed for good
+                futures.stream().filter(CompletableFuture::isCompletedExceptionally).findFirst()
+                        .ifPresent(CompletableFuture::join);
+
+                int size = (int) Math.min(partSize, remaining);
+                // A part larger than the whole budget takes all of it rather than waiting forever
+                int permits = (int) Math.min((size + MB - 1) / MB, Math.max(1, settings.getMaxBufferedMb()));
+                bufferedPartMb.acquire(permits);
+                byte[] data;
+                try {
+                    data = inputStream.readNBytes(size);
+                    if (data.length != size) {
+                        throw new FileOperationException("Unexpected end of stream while uploading " + key);
+                    }
+                } catch (Exception e) {
+                    bufferedPartMb.release(permits);
+                    throw e;
+                }
+
+                int currentPart = partNumber;
+                futures.add(CompletableFuture
+                        .supplyAsync(() -> uploadPartWithRetry(key, uploadId, currentPart, data), storageTransferExecutor)
+                        .whenComplete((part, error) -> {
+                            bufferedPartMb.release(permits);
+                            inFlight.release();
+                        }));
+
+                remaining -= size;
+                partNumber++;
+            }
+
+            List<UploadedPart> parts = futures.stream().map(CompletableFuture::join).toList();
+            completeMultipartUpload(key, uploadId, parts);
+        } catch (Exception e) {
+            futures.forEach(future -> future.cancel(true));
+            abortMultipartUpload(key, uploadId);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("Multipart upload failed for {}", key, e);
+            throw new FileOperationException("Failed to upload file", e instanceof CompletionException ? e.getCause() : e);
+        }
+    }
+
+    private UploadedPart uploadPartWithRetry(String key, String uploadId, int partNumber, byte[] data) {
+        int maxAttempts = 1 + Math.max(0, storageProperties.getMultipart().getMaxPartRetries());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                String eTag = sendPart(key, uploadId, partNumber, RequestBody.fromContentProvider(
+                        () -> new ByteArrayInputStream(data), data.length, "application/octet-stream"), data.length);
+                return new UploadedPart(partNumber, eTag);
+            } catch (SdkException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                meterRegistry.counter("storage.upload.part.retries").increment();
+                log.warn("Retrying part {} of {} (attempt {}/{}): {}", partNumber, key, attempt + 1, maxAttempts, e.getMessage());
+                try {
+                    Thread.sleep(200L * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private String sendPart(String key, String uploadId, int partNumber, RequestBody body, long contentLength) {
+        UploadPartRequest request = UploadPartRequest.builder()
+                .bucket(storageProperties.getBucketName())
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength(contentLength)
+                .build();
+
+        return s3Client.uploadPart(request, body).eTag();
+    }
+
+    @Override
+    public PresignedRequest generatePresignedUploadUrl(String key, String contentType, long contentLength,
+                                                       String checksumSha256, Duration expiration) {
         try {
-            PutObjectRequest request = PutObjectRequest.builder()
+            PutObjectRequest.Builder putObjectRequest = PutObjectRequest.builder()
                     .bucket(storageProperties.getBucketName())
                     .key(key)
                     .contentType(contentType)
-                    .contentLength(contentLength)
+                    .contentLength(contentLength);
+            if (checksumSha256 != null) {
+                putObjectRequest.checksumSHA256(Base64.getEncoder().encodeToString(HexFormat.of().parseHex(checksumSha256)));
+            }
+
+            PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
+                    .signatureDuration(expiration)
+                    .putObjectRequest(putObjectRequest.build())
                     .build();
 
-            s3Client.putObject(request, RequestBody.fromInputStream(inputStream, contentLength));
-            log.info("Uploaded file: {}", key);
-            return key;
+            PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(presignRequest);
+
+            // The host header is set by the HTTP client; everything else must be sent as signed
+            Map<String, String> headers = new LinkedHashMap<>();
+            presigned.signedHeaders().forEach((name, values) -> {
+                if (!name.equalsIgnoreCase("host")) {
+                    headers.put(name, String.join(",", values));
+                }
+            });
+            return new PresignedRequest(presigned.url().toString(), headers);
         } catch (Exception e) {
-            log.error("Failed to upload file: {}", key, e);
-            throw new FileOperationException("Failed to upload file", e);
+            log.error("Failed to generate presigned upload URL: {}", key, e);
+            throw new FileOperationException("Failed to generate upload URL", e);
+        }
+    }
+
+    @Override
+    public String generatePresignedUploadPartUrl(String key, String uploadId, int partNumber, Duration expiration) {
+        try {
+            UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                    .bucket(storageProperties.getBucketName())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .partNumber(partNumber)
+                    .build();
+
+            UploadPartPresignRequest presignRequest = UploadPartPresignRequest.builder()
+                    .signatureDuration(expiration)
+                    .uploadPartRequest(uploadPartRequest)
+                    .build();
+
+            return s3Presigner.presignUploadPart(presignRequest).url().toString();
+        } catch (Exception e) {
+            log.error("Failed to generate presigned URL for part {} of {}", partNumber, key, e);
+            throw new FileOperationException("Failed to generate upload URL", e);
         }
     }
 
+    @Override
+    public String initiateMultipartUpload(String key, String contentType) {
+        try {
+            CreateMultipartUploadRequest request = CreateMultipartUploadRequest.builder()
+                    .bucket(storageProperties.getBucketName())
+                    .key(key)
+                    .contentType(contentType)
+                    .build();
+
+            return s3Client.createMultipartUpload(request).uploadId();
+        } catch (Exception e) {
+            log.error("Failed to initiate multipart upload: {}", key, e);
+            throw new FileOperationException("Failed to initiate upload", e);
+        }
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, InputStream inputStream, long contentLength) {
+        try {
+            return sendPart(key, uploadId, partNumber, RequestBody.fromInputStream(inputStream, contentLength), contentLength);
+        } catch (Exception e) {
+            log.error("Failed to upload part {} of {}", partNumber, key, e);
+            throw new FileOperationException("Failed to upload part", e);
+        }
+    }
+
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, List<UploadedPart> parts) {
+        try {
+            List<CompletedPart> completedParts = parts.stream()
+                    .sorted(Comparator.comparingInt(UploadedPart::partNumber))
+                    .map(part -> CompletedPart.builder().partNumber(part.partNumber()).eTag(part.eTag()).build())
+                    .toList();
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(storageProperties.getBucketName())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+            log.info("Completed multipart upload {} for {} ({} parts)", uploadId, key, parts.size());
+        } catch (Exception e) {
+            log.error("Failed to complete multipart upload {} for {}", uploadId, key, e);
+            throw new FileOperationException("Failed to complete upload", e);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(storageProperties.getBucketName())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+            meterRegistry.counter("storage.upload.aborted").increment();
+            log.info("Aborted multipart upload {} for {}", uploadId, key);
+        } catch (Exception e) {
+            log.warn("Failed to abort multipart upload {} for {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public List<UploadedPart> listParts(String key, String uploadId) {
+        try {
+            ListPartsRequest request = ListPartsRequest.builder()
+                    .bucket(storageProperties.getBucketName())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build();
+
+            List<UploadedPart> parts = new ArrayList<>();
+            s3Client.listPartsPaginator(request).parts()
+                    .forEach(part -> parts.add(new UploadedPart(part.partNumber(), part.eTag())));
+            parts.sort(Comparator.comparingInt(UploadedPart::partNumber));
+            return parts;
+        } catch (Exception e) {
+            log.error("Failed to list parts of multipart upload {} for {}", uploadId, key, e);
+            throw new FileOperationException("Failed to list uploaded parts", e);
+        }
+    }
+
+    /**
+     * Convert a base64 S3 SHA-256 checksum to hex. Composite multipart checksums ("...-N") are not
+     * whole-object hashes and are ignored.
+     */
+    private String toHexChecksum(String base64Checksum) {
+        if (base64Checksum == null || base64Checksum.contains("-")) {
+            return null;
+        }
+        return HexFormat.of().formatHex(Base64.getDecoder().decode(base64Checksum));
+    }
+
+    private void recordUploadMetrics(String key, long bytes, long elapsedNanos, String mode) {
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        double bytesPerSecond = bytes / seconds;
+
+        meterRegistry.timer("storage.upload.duration", "mode", mode).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("storage.upload.throughput")
+                .baseUnit("bytes_per_second")
+                .tag("mode", mode)
+                .register(meterRegistry)
+                .record(bytesPerSecond);
+
+        log.info("Uploaded file: {} ({} bytes, {}, {} MB/s)", key, bytes, mode,
+                String.format(Locale.ROOT, "%.2f", bytesPerSecond / (1024 * 1024)));
+    }
+
     @Override
     public InputStream downloadFile(String key) {
         try {
@@ -145,6 +453,49 @@ public class StorageServiceImpl implements StorageService {
         }
     }
 
+    @Override
+    public InputStream downloadFileRange(String key, long start, long end) {
+        try {
+            GetObjectRequest request = GetObjectRequest.builder()
+                    .bucket(storageProperties.getBucketName())
+                    .key(key)
+                    .range("bytes=" + start + "-" + end)
+                    .build();
+
+            return s3Client.getObject(request);
+        } catch (NoSuchKeyException e) {
+            log.error("File not found: {}", key);
+            throw new FileOperationException("File not found: " + key);
+        } catch (Exception e) {
+            log.error("Failed to download range {}-{} of file: {}", start, end, key, e);
+            throw new FileOperationException("Failed to download file", e);
+        }
+    }
+
+    @Override
+    public Optional<ObjectInfo> getObjectInfo(String key) {
+        try {
+            HeadObjectRequest request = HeadObjectRequest.builder()
+                    .bucket(storageProperties.getBucketName())
+                    .key(key)
+                    .checksumMode(ChecksumMode.ENABLED)
+                    .build();
+
+            HeadObjectResponse response = s3Client.headObject(request);
+            return Optional.of(new ObjectInfo(
+                    response.contentLength(),
+                    response.contentType(),
+                    response.eTag(),
+                    toHexChecksum(response.checksumSHA256()),
+                    response.lastModified()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (Exception e) {
+            log.error("Failed to read metadata of file: {}", key, e);
+            throw new FileOperationException("Failed to read file metadata", e);
+        }
+    }
+
     @Override
     public void deleteFile(String key) {
         try {
@@ -161,6 +512,34 @@ public class StorageServiceImpl implements StorageService {
         }
     }
 
+    @Override
+    public List<String> deleteFiles(List<String> keys) {
+        List<String> failed = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_DELETE) {
+            List<String> batch = keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_DELETE));
+            DeleteObjectsRequest request = DeleteObjectsRequest.builder()
+                    .bucket(storageProperties.getBucketName())
+                    .delete(Delete.builder()
+                            .objects(batch.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList())
+                            .quiet(true)
+                            .build())
+                    .build();
+            try {
+                // Quiet mode: the response only lists the keys that failed
+                DeleteObjectsResponse response = s3Client.deleteObjects(request);
+                for (S3Error error : response.errors()) {
+                    log.warn("Failed to delete file {}: {} {}", error.key(), error.code(), error.message());
+                    failed.add(error.key());
+                }
+                log.info("Deleted {} files", batch.size() - response.errors().size());
+            } catch (Exception e) {
+                log.error("Failed to delete {} files", batch.size(), e);
+                failed.addAll(batch);
+            }
+        }
+        return failed;
+    }
+
     @Override
     public String copyFile(String sourceKey, String destinationKey) {
         try {
@@ -200,10 +579,18 @@ public class StorageServiceImpl implements StorageService {
 
     @Override
     public String generatePresignedDownloadUrl(String key, Duration expiration) {
+        return generatePresignedDownloadUrl(key, expiration, null, null);
+    }
+
+    @Override
+    public String generatePresignedDownloadUrl(String key, Duration expiration, String contentDisposition,
+                                               String contentType) {
         try {
             GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                     .bucket(storageProperties.getBucketName())
                     .key(key)
+                    .responseContentDisposition(contentDisposition)
+                    .responseContentType(contentType)
                     .build();
 
             GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
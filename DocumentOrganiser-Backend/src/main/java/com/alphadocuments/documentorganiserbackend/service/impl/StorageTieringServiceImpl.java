@@ -0,0 +1,158 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.entity.Document;
+import com.alphadocuments.documentorganiserbackend.entity.enums.StorageTier;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentRepository;
+import com.alphadocuments.documentorganiserbackend.service.AsyncStorageService;
+import com.alphadocuments.documentorganiserbackend.service.StorageTieringService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of StorageTieringService.
+ * <p>
+ * Stored objects are shared between documents with the same content, so an object only goes cold once
+ * none of the documents using it has been read since the cutoff. The cold tier must be readable without
+ * a restore; a read is served from it directly while the object is moved back in the background.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageTieringServiceImpl implements StorageTieringService {
+
+    private final DocumentRepository documentRepository;
+    private final AsyncStorageService asyncStorageService;
+    private final StorageProperties storageProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor storageTieringExecutor;
+    private final MeterRegistry meterRegistry;
+
+    // Set while a run is in progress on the tiering executor, so runs do not overlap
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Objects being moved back to the standard tier, so a burst of reads copies each one once
+    private final Set<String> warming = ConcurrentHashMap.newKeySet();
+
+    @Override
+    @Scheduled(cron = "${storage.tiering.cron:0 0 4 * * ?}")
+    public void tierColdDocuments() {
+        if (!storageProperties.getTiering().isEnabled()) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.info("Previous storage tiering run still in progress; skipping this one");
+            return;
+        }
+        // The run waits on every page of copies, which must not hold the shared scheduler thread
+        try {
+            CompletableFuture.runAsync(this::moveColdObjects, storageTieringExecutor)
+                    .whenComplete((ignored, error) -> running.set(false));
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            log.warn("Storage tiering executor busy; skipping this run");
+        }
+    }
+
+    private void moveColdObjects() {
+        StorageProperties.Tiering tiering = storageProperties.getTiering();
+        Instant cutoff = Instant.now().minus(tiering.getColdAfterDays(), ChronoUnit.DAYS);
+        Instant accessedAt = Instant.EPOCH;
+        UUID documentId = new UUID(0L, 0L);
+        Set<String> seen = new HashSet<>();
+        int moved = 0;
+        int failed = 0;
+
+        try {
+            List<Document> page;
+            do {
+                page = documentRepository.findTieringPage(StorageTier.STANDARD, cutoff, accessedAt, documentId,
+                        PageRequest.of(0, tiering.getBatchSize()));
+                if (page.isEmpty()) {
+                    break;
+                }
+                Document last = page.get(page.size() - 1);
+                accessedAt = last.getLastAccessedAt() != null ? last.getLastAccessedAt() : last.getCreatedAt();
+                documentId = last.getId();
+
+                Map<String, CompletableFuture<Void>> moves = new LinkedHashMap<>();
+                for (Document document : page) {
+                    String key = document.getStorageKey();
+                    // Documents sharing content come back once each; the object is moved once
+                    if (seen.add(key)) {
+                        moves.put(key, asyncStorageService.changeTier(key, StorageTier.COLD));
+                    }
+                }
+
+                for (Map.Entry<String, CompletableFuture<Void>> move : moves.entrySet()) {
+                    try {
+                        move.getValue().join();
+                        transactionTemplate.executeWithoutResult(status ->
+                                documentRepository.updateStorageTier(move.getKey(), StorageTier.COLD, Instant.now()));
+                        moved++;
+                    } catch (RuntimeException e) {
+                        // Left in the standard tier and picked up again on the next run
+                        log.warn("Failed to move {} to cold storage: {}", move.getKey(), e.getMessage());
+                        failed++;
+                    }
+                }
+            } while (page.size() == tiering.getBatchSize());
+        } catch (RuntimeException e) {
+            log.error("Storage tiering run stopped early", e);
+        }
+
+        meterRegistry.counter("storage.tier.transitions", "tier", "cold", "outcome", "moved").increment(moved);
+        meterRegistry.counter("storage.tier.transitions", "tier", "cold", "outcome", "failed").increment(failed);
+        if (moved > 0 || failed > 0) {
+            log.info("Moved {} objects to cold storage, {} failed", moved, failed);
+        }
+    }
+
+    @Override
+    public void recordAccess(Document document) {
+        String key = document.getStorageKey();
+        if (key == null) {
+            return;
+        }
+        // Every document sharing the object is moved together, so the document's own tier is the object's
+        boolean cold = document.getStorageTier() == StorageTier.COLD;
+        meterRegistry.counter("storage.tier.reads", "tier", cold ? "cold" : "standard").increment();
+        if (!cold || !warming.add(key)) {
+            return;
+        }
+
+        asyncStorageService.changeTier(key, StorageTier.STANDARD)
+                .thenRun(() -> transactionTemplate.executeWithoutResult(status ->
+                        documentRepository.updateStorageTier(key, StorageTier.STANDARD, Instant.now())))
+                .whenComplete((ignored, error) -> {
+                    warming.remove(key);
+                    if (error != null) {
+                        log.warn("Failed to move {} back to standard storage: {}", key, error.getMessage());
+                        meterRegistry.counter("storage.tier.transitions", "tier", "standard", "outcome", "failed")
+                                .increment();
+                    } else {
+                        meterRegistry.counter("storage.tier.transitions", "tier", "standard", "outcome", "moved")
+                                .increment();
+                    }
+                });
+    }
+}
@@ -0,0 +1,310 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.AppProperties;
+import com.alphadocuments.documentorganiserbackend.config.ProcessingProperties;
+import com.alphadocuments.documentorganiserbackend.entity.Document;
+import com.alphadocuments.documentorganiserbackend.event.DocumentContentChangedEvent;
+import com.alphadocuments.documentorganiserbackend.exception.ResourceNotFoundException;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentRepository;
+import com.alphadocuments.documentorganiserbackend.service.StorageDeletionQueue;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.service.ThumbnailService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Implementation of ThumbnailService.
+ * Renders images (decoded with subsampling, so large photos never load at full resolution) and the
+ * first page of PDFs on a CPU-bounded pool, and stores each configured size as a JPEG under
+ * {@code thumbnails/<documentId>/<generation>/<size>.jpg}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ThumbnailServiceImpl implements ThumbnailService {
+
+    private static final String KEY_PREFIX = "thumbnails/";
+    private static final String PDF_MIME_TYPE = "application/pdf";
+
+    private final DocumentRepository documentRepository;
+    private final StorageService storageService;
+    private final StorageDeletionQueue storageDeletionQueue;
+    private final ProcessingProperties processingProperties;
+    private final AppProperties appProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor thumbnailExecutor;
+
+    // Documents queued or rendering, so repeated requests for a missing thumbnail queue it once
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Render after the upload commits, so workers never see a missing document.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContentChanged(DocumentContentChangedEvent event) {
+        submit(event.documentId());
+    }
+
+    @Override
+    public void submit(UUID documentId) {
+        if (!processingProperties.getThumbnails().isEnabled() || !inFlight.add(documentId)) {
+            return;
+        }
+        try {
+            thumbnailExecutor.execute(() -> {
+                try {
+                    generate(documentId);
+                } finally {
+                    inFlight.remove(documentId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(documentId);
+            log.info("Thumbnail queue is full; skipping document {} until its thumbnail is requested", documentId);
+        }
+    }
+
+    @Override
+    public Thumbnail getThumbnail(UUID userId, UUID documentId, int size) {
+        Document document = documentRepository.findByIdAndUserIdAndIsDeletedFalse(documentId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Document", documentId.toString()));
+
+        String thumbnailKey = document.getThumbnailKey();
+        if (thumbnailKey == null) {
+            // Documents uploaded before thumbnails existed, or dropped from a full queue
+            if (isSupported(document)) {
+                submit(documentId);
+            }
+            throw new ResourceNotFoundException("Thumbnail", documentId.toString());
+        }
+
+        int storedSize = closestSize(size);
+        String generation = generationOf(thumbnailKey);
+        return new Thumbnail(sizeKey(thumbnailKey, storedSize), generation, generation + "-" + storedSize,
+                document.getContentUpdatedAt());
+    }
+
+    @Override
+    public InputStream openThumbnail(Thumbnail thumbnail) {
+        return storageService.downloadFile(thumbnail.storageKey());
+    }
+
+    @Override
+    public String getThumbnailUrl(Document document) {
+        if (document.getThumbnailKey() == null) {
+            return null;
+        }
+        return appProperties.getBaseUrl() + "/documents/" + document.getId()
+                + "/thumbnail?v=" + generationOf(document.getThumbnailKey());
+    }
+
+    @Override
+    public void deleteThumbnails(String thumbnailKey) {
+        if (thumbnailKey == null) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        for (int size : processingProperties.getThumbnails().getSizes()) {
+            keys.add(sizeKey(thumbnailKey, size));
+        }
+        storageDeletionQueue.enqueue(keys);
+    }
+
+    private void generate(UUID documentId) {
+        Document document = documentRepository.findById(documentId).orElse(null);
+        if (document == null || Boolean.TRUE.equals(document.getIsDeleted()) || !isSupported(document)) {
+            return;
+        }
+
+        String storageKey = document.getStorageKey();
+        String thumbnailKey = KEY_PREFIX + documentId + "/" + UUID.randomUUID();
+        try {
+            BufferedImage source = render(storageKey, document.getMimeType());
+            if (source == null) {
+                return;
+            }
+            storeSizes(thumbnailKey, source);
+        } catch (Exception e) {
+            log.warn("Failed to render thumbnail for document {}: {}", documentId, e.getMessage());
+            deleteThumbnails(thumbnailKey);
+            return;
+        }
+
+        // Point the document at the new generation unless its content changed meanwhile
+        String previousKey = transactionTemplate.execute(status -> {
+            Document current = documentRepository.findById(documentId).orElse(null);
+            if (current == null || !storageKey.equals(current.getStorageKey())) {
+                return thumbnailKey;
+            }
+            documentRepository.updateThumbnailKey(documentId, thumbnailKey);
+            return current.getThumbnailKey();
+        });
+        deleteThumbnails(previousKey);
+        log.debug("Rendered thumbnails for document {}", documentId);
+    }
+
+    private BufferedImage render(String storageKey, String mimeType) throws IOException {
+        return PDF_MIME_TYPE.equals(mimeType) ? renderPdf(storageKey) : renderImage(storageKey);
+    }
+
+    /**
+     * Decode the image, skipping source pixels so the result is at most twice the largest thumbnail.
+     */
+    private BufferedImage renderImage(String storageKey) throws IOException {
+        try (InputStream content = storageService.downloadFile(storageKey);
+             ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > processingProperties.getThumbnails().getMaxPixels()) {
+                    log.info("Skipping thumbnail for {}: {}x{} exceeds the pixel limit", storageKey, width, height);
+                    return null;
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (largestSize() * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Render the first page at the scale of the largest thumbnail. PDFBox needs random access,
+     * so the file is spooled to a temporary file first.
+     */
+    private BufferedImage renderPdf(String storageKey) throws IOException {
+        Path tempFile = Files.createTempFile("thumbnail-", ".pdf");
+        try {
+            try (InputStream content = storageService.downloadFile(storageKey)) {
+                Files.copy(content, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (PDDocument pdf = Loader.loadPDF(tempFile.toFile())) {
+                if (pdf.getNumberOfPages() == 0) {
+                    return null;
+                }
+                PDRectangle page = pdf.getPage(0).getCropBox();
+                float scale = largestSize() / Math.max(page.getWidth(), page.getHeight());
+                return new PDFRenderer(pdf).renderImage(0, scale, ImageType.RGB);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Scale down from the largest size to the smallest, each step starting from the previous result.
+     */
+    private void storeSizes(String thumbnailKey, BufferedImage source) throws IOException {
+        List<Integer> sizes = processingProperties.getThumbnails().getSizes().stream()
+                .sorted(Comparator.reverseOrder())
+                .toList();
+
+        BufferedImage image = source;
+        for (int size : sizes) {
+            image = scale(image, size);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", output);
+            byte[] bytes = output.toByteArray();
+            storageService.uploadFile(sizeKey(thumbnailKey, size), new ByteArrayInputStream(bytes),
+                    bytes.length, "image/jpeg");
+        }
+    }
+
+    /**
+     * Fit the image within a square of the given size onto a white background (JPEG has no alpha).
+     */
+    private BufferedImage scale(BufferedImage source, int maxSize) {
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private boolean isSupported(Document document) {
+        String mimeType = document.getMimeType();
+        if (mimeType == null
+                || document.getFileSize() > processingProperties.getThumbnails().getMaxSourceSizeBytes()) {
+            return false;
+        }
+        return PDF_MIME_TYPE.equals(mimeType) || ImageIO.getImageReadersByMIMEType(mimeType).hasNext();
+    }
+
+    /**
+     * The smallest stored size that is at least the requested one, or the largest stored size.
+     */
+    private int closestSize(int requested) {
+        return processingProperties.getThumbnails().getSizes().stream()
+                .filter(size -> size >= requested)
+                .min(Integer::compare)
+                .orElse(largestSize());
+    }
+
+    private int largestSize() {
+        return processingProperties.getThumbnails().getSizes().stream()
+                .max(Integer::compare)
+                .orElseThrow();
+    }
+
+    private String sizeKey(String thumbnailKey, int size) {
+        return thumbnailKey + "/" + size + ".jpg";
+    }
+
+    private String generationOf(String thumbnailKey) {
+        return thumbnailKey.substring(thumbnailKey.lastIndexOf('/') + 1);
+    }
+}
@@ -1,17 +1,23 @@
 package com.alphadocuments.documentorganiserbackend.service.impl;
 
+import com.alphadocuments.documentorganiserbackend.config.TrashPurgeProperties;
 import com.alphadocuments.documentorganiserbackend.dto.response.TrashItemResponse;
 import com.alphadocuments.documentorganiserbackend.entity.DeletedItem;
 import com.alphadocuments.documentorganiserbackend.entity.Document;
+import com.alphadocuments.documentorganiserbackend.entity.DocumentVersion;
+import com.alphadocuments.documentorganiserbackend.entity.DocumentVersionChunk;
 import com.alphadocuments.documentorganiserbackend.entity.Folder;
 import com.alphadocuments.documentorganiserbackend.exception.ForbiddenException;
 import com.alphadocuments.documentorganiserbackend.exception.ResourceNotFoundException;
 import com.alphadocuments.documentorganiserbackend.repository.DeletedItemRepository;
 import com.alphadocuments.documentorganiserbackend.repository.DocumentRepository;
 import com.alphadocuments.documentorganiserbackend.repository.FolderRepository;
-import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.repository.UserRepository;
+import com.alphadocuments.documentorganiserbackend.service.BlobStoreService;
+import com.alphadocuments.documentorganiserbackend.service.ChunkStoreService;
+import com.alphadocuments.documentorganiserbackend.service.ThumbnailService;
 import com.alphadocuments.documentorganiserbackend.service.TrashService;
-import com.alphadocuments.documentorganiserbackend.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -19,14 +25,31 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Implementation of TrashService.
+ * <p>
+ * Expired items are purged by workers that each lock a chunk of due items with SKIP LOCKED, purge
+ * them and commit, then take the next chunk. A chunk's document deletes, storage usage decrements and
+ * removal of its trash rows commit together, so a crash part-way leaves the chunk's items in the trash
+ * to be purged again without anything having been released twice. Storage objects are queued on the
+ * {@link com.alphadocuments.documentorganiserbackend.service.StorageDeletionQueue} in the same
+ * transaction and deleted in batches after commit. Chunks start no faster than
+ * {@code trash-purge.max-chunks-per-second} across all workers.
  */
 @Slf4j
 @Service
@@ -36,11 +59,23 @@ public class TrashServiceImpl implements TrashService {
     private final DeletedItemRepository deletedItemRepository;
     private final DocumentRepository documentRepository;
     private final FolderRepository folderRepository;
-    private final StorageService storageService;
-    private final UserService userService;
+    private final BlobStoreService blobStoreService;
+    private final ChunkStoreService chunkStoreService;
+    private final ThumbnailService thumbnailService;
+    private final UserRepository userRepository;
+    private final TrashPurgeProperties trashPurgeProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor trashPurgeExecutor;
+    private final MeterRegistry meterRegistry;
 
     private static final int TRASH_RETENTION_DAYS = 30;
 
+    // Set while a scheduled sweep's workers are running, so sweeps do not overlap
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final Object pacingLock = new Object();
+    private long nextChunkAtNanos = System.nanoTime();
+
     @Override
     @Transactional(readOnly = true)
     public Page<TrashItemResponse> getTrashItems(UUID userId, Pageable pageable) {
@@ -78,62 +113,165 @@ public class TrashServiceImpl implements TrashService {
         DeletedItem deletedItem = deletedItemRepository.findByIdAndUserId(trashItemId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Trash item", trashItemId.toString()));
 
-        permanentlyDeleteItem(deletedItem);
+        Map<UUID, Long> freedBytes = new TreeMap<>();
+        permanentlyDeleteItem(deletedItem, freedBytes);
         deletedItemRepository.delete(deletedItem);
+        releaseStorage(freedBytes);
 
         log.info("Permanently deleted {} {} for user {}", deletedItem.getItemType(), deletedItem.getItemId(), userId);
     }
 
     @Override
-    @Transactional
     public void emptyTrash(UUID userId) {
-        Page<DeletedItem> trashItems = deletedItemRepository.findByUserIdOrderByDeletedAtDesc(
-                userId, Pageable.unpaged());
-
-        for (DeletedItem item : trashItems) {
-            permanentlyDeleteItem(item);
-        }
-
-        deletedItemRepository.deleteAllByUserId(userId);
-        log.info("Emptied trash for user {}", userId);
+        // Everything becomes due at once; if the purge below is cut short, the next sweep finishes it
+        Integer expired = transactionTemplate.execute(status ->
+                deletedItemRepository.expireAllByUserId(userId, Instant.now()));
+        log.info("Emptying trash for user {} ({} items)", userId, expired);
+        purge(userId);
     }
 
     @Override
-    @Transactional
-    @Scheduled(cron = "0 0 3 * * ?") // Run daily at 3 AM
+    @Scheduled(fixedDelayString = "${trash-purge.sweep-interval-ms:900000}", initialDelay = 60_000)
     public void cleanupExpiredItems() {
+        if (!sweeping.compareAndSet(false, true)) {
+            log.info("Previous expired trash items cleanup still running; skipping this one");
+            return;
+        }
         log.info("Starting expired trash items cleanup");
+        long started = System.nanoTime();
+        // Not joined: the shared scheduler thread must stay free for the other jobs while the workers run
+        try {
+            purge(null).whenComplete((processed, error) -> {
+                sweeping.set(false);
+                log.info("Completed expired trash items cleanup. Processed {} items in {} ms", processed,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            });
+        } catch (RuntimeException e) {
+            sweeping.set(false);
+            throw e;
+        }
+    }
 
-        List<DeletedItem> expiredItems = deletedItemRepository.findByExpiresAtBefore(Instant.now());
-
-        for (DeletedItem item : expiredItems) {
+    /**
+     * Start the purge workers for items due now, all users' or one user's.
+     * @return completes with the number of items processed once every worker has run out of items
+     */
+    private CompletableFuture<Integer> purge(UUID userId) {
+        Instant cutoff = Instant.now();
+        List<CompletableFuture<Integer>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, trashPurgeProperties.getConcurrency()); i++) {
             try {
-                permanentlyDeleteItem(item);
-                deletedItemRepository.delete(item);
-                log.info("Cleaned up expired item: {} {}", item.getItemType(), item.getItemId());
-            } catch (Exception e) {
-                log.error("Failed to cleanup expired item: {} {}", item.getItemType(), item.getItemId(), e);
+                workers.add(CompletableFuture.supplyAsync(() -> purgeChunks(userId, cutoff), trashPurgeExecutor));
+            } catch (RejectedExecutionException e) {
+                log.info("Trash purge busy; remaining items are left for the next sweep");
+                break;
             }
         }
+        return CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new))
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        log.error("Trash purge worker failed", error);
+                    }
+                    return workers.stream().filter(w -> !w.isCompletedExceptionally()).mapToInt(CompletableFuture::join).sum();
+                });
+    }
 
-        log.info("Completed expired trash items cleanup. Processed {} items", expiredItems.size());
+    /**
+     * Purge chunks until a chunk comes back short, meaning no due items are left that other workers
+     * have not taken.
+     */
+    private int purgeChunks(UUID userId, Instant cutoff) {
+        int chunkSize = trashPurgeProperties.getChunkSize();
+        int processed = 0;
+        int claimed;
+        do {
+            if (!awaitChunkSlot()) {
+                break;
+            }
+            claimed = purgeChunk(userId, cutoff, chunkSize);
+            processed += claimed;
+        } while (claimed == chunkSize);
+        return processed;
     }
 
-    private void permanentlyDeleteItem(DeletedItem deletedItem) {
-        if ("DOCUMENT".equals(deletedItem.getItemType())) {
-            documentRepository.findById(deletedItem.getItemId()).ifPresent(document -> {
-                // Delete from storage
-                try {
-                    storageService.deleteFile(document.getStorageKey());
-                    if (document.getThumbnailKey() != null) {
-                        storageService.deleteFile(document.getThumbnailKey());
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to delete file from storage: {}", document.getStorageKey(), e);
+    /**
+     * Purge one chunk in one transaction. If it fails, the chunk is rolled back and its items are
+     * purged one at a time, so a single bad item only holds back itself.
+     * @return number of items claimed
+     */
+    private int purgeChunk(UUID userId, Instant cutoff, int chunkSize) {
+        List<UUID> claimed = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<DeletedItem> items = userId == null
+                        ? deletedItemRepository.lockExpired(cutoff, chunkSize)
+                        : deletedItemRepository.lockExpiredForUser(userId, cutoff, chunkSize);
+                items.forEach(item -> claimed.add(item.getId()));
+
+                Map<UUID, Long> freedBytes = new TreeMap<>();
+                for (DeletedItem item : items) {
+                    permanentlyDeleteItem(item, freedBytes);
+                    deletedItemRepository.delete(item);
                 }
+                releaseStorage(freedBytes);
+            });
+            meterRegistry.counter("trash.purge.items", "outcome", "purged").increment(claimed.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to purge a chunk of {} trash items; purging them one at a time", claimed.size(), e);
+            claimed.forEach(this::purgeItem);
+        }
+        return claimed.size();
+    }
+
+    private void purgeItem(UUID deletedItemId) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    // Empty if another worker has purged or locked it since the chunk rolled back
+                    deletedItemRepository.lockById(deletedItemId).ifPresent(item -> {
+                        Map<UUID, Long> freedBytes = new TreeMap<>();
+                        permanentlyDeleteItem(item, freedBytes);
+                        deletedItemRepository.delete(item);
+                        releaseStorage(freedBytes);
+                    }));
+            meterRegistry.counter("trash.purge.items", "outcome", "purged").increment();
+        } catch (RuntimeException e) {
+            log.error("Failed to purge trash item {}; retrying in {} minutes", deletedItemId,
+                    trashPurgeProperties.getRetryDelayMinutes(), e);
+            meterRegistry.counter("trash.purge.items", "outcome", "failed").increment();
+            // Out of this run's reach, so workers do not keep picking it up
+            transactionTemplate.executeWithoutResult(status -> deletedItemRepository.postpone(deletedItemId,
+                    Instant.now().plus(trashPurgeProperties.getRetryDelayMinutes(), ChronoUnit.MINUTES)));
+        }
+    }
+
+    /**
+     * Wait for this worker's turn to start a chunk, spacing chunk starts across all workers.
+     * @return false if the worker was interrupted and should stop
+     */
+    private boolean awaitChunkSlot() {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / trashPurgeProperties.getMaxChunksPerSecond());
+        long waitNanos;
+        synchronized (pacingLock) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextChunkAtNanos);
+            nextChunkAtNanos = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
 
-                // Update user storage
-                userService.updateStorageUsed(document.getUser().getId(), -document.getFileSize());
+    private void permanentlyDeleteItem(DeletedItem deletedItem, Map<UUID, Long> freedBytes) {
+        if ("DOCUMENT".equals(deletedItem.getItemType())) {
+            documentRepository.findById(deletedItem.getItemId()).ifPresent(document -> {
+                // Release the content; storage is freed once nothing else shares it
+                releaseContent(document);
+                freedBytes.merge(document.getUser().getId(), document.getFileSize(), Long::sum);
 
                 // Delete from database
                 documentRepository.delete(document);
@@ -141,30 +279,48 @@ public class TrashServiceImpl implements TrashService {
         } else if ("FOLDER".equals(deletedItem.getItemType())) {
             folderRepository.findById(deletedItem.getItemId()).ifPresent(folder -> {
                 // Permanently delete all documents in folder and subfolders
-                deleteAllDocumentsInFolder(folder);
+                deleteAllDocumentsInFolder(folder, freedBytes);
                 folderRepository.delete(folder);
             });
         }
     }
 
-    private void deleteAllDocumentsInFolder(Folder folder) {
+    private void deleteAllDocumentsInFolder(Folder folder, Map<UUID, Long> freedBytes) {
         // Delete documents in this folder
         for (Document document : folder.getDocuments()) {
-            try {
-                storageService.deleteFile(document.getStorageKey());
-                if (document.getThumbnailKey() != null) {
-                    storageService.deleteFile(document.getThumbnailKey());
-                }
-                userService.updateStorageUsed(document.getUser().getId(), -document.getFileSize());
-            } catch (Exception e) {
-                log.warn("Failed to delete file: {}", document.getStorageKey(), e);
-            }
+            releaseContent(document);
+            freedBytes.merge(document.getUser().getId(), document.getFileSize(), Long::sum);
         }
 
         // Recursively delete in subfolders
         for (Folder subFolder : folder.getSubFolders()) {
-            deleteAllDocumentsInFolder(subFolder);
+            deleteAllDocumentsInFolder(subFolder, freedBytes);
+        }
+    }
+
+    /**
+     * Subtract the freed bytes from each user's usage, in user id order so concurrent chunks cannot deadlock.
+     */
+    private void releaseStorage(Map<UUID, Long> freedBytes) {
+        freedBytes.forEach(userRepository::releaseStorage);
+    }
+
+    /**
+     * Drop the blob references held by a document and its versions, and delete its thumbnail.
+     */
+    private void releaseContent(Document document) {
+        blobStoreService.release(document.getStorageKey());
+        for (DocumentVersion version : document.getVersions()) {
+            if (Boolean.TRUE.equals(version.getChunked())) {
+                chunkStoreService.releaseChunks(version.getChunks().stream()
+                        .map(DocumentVersionChunk::getStorageKey)
+                        .toList());
+            } else {
+                blobStoreService.release(version.getStorageKey());
+            }
         }
+
+        thumbnailService.deleteThumbnails(document.getThumbnailKey());
     }
 
     private TrashItemResponse mapToTrashItemResponse(DeletedItem item) {
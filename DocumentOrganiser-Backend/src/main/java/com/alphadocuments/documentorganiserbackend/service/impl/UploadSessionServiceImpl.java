@@ -0,0 +1,616 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.dto.request.CreateUploadSessionRequest;
+import com.alphadocuments.documentorganiserbackend.dto.response.DirectUploadResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.DocumentResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.InstantUploadResponse;
+import com.alphadocuments.documentorganiserbackend.dto.response.UploadSessionResponse;
+import com.alphadocuments.documentorganiserbackend.entity.UploadSession;
+import com.alphadocuments.documentorganiserbackend.entity.UploadSessionChunk;
+import com.alphadocuments.documentorganiserbackend.entity.enums.UploadSessionStatus;
+import com.alphadocuments.documentorganiserbackend.entity.enums.UploadType;
+import com.alphadocuments.documentorganiserbackend.exception.FileOperationException;
+import com.alphadocuments.documentorganiserbackend.exception.ResourceNotFoundException;
+import com.alphadocuments.documentorganiserbackend.exception.ValidationException;
+import com.alphadocuments.documentorganiserbackend.repository.UploadSessionChunkRepository;
+import com.alphadocuments.documentorganiserbackend.repository.UploadSessionRepository;
+import com.alphadocuments.documentorganiserbackend.repository.UserRepository;
+import com.alphadocuments.documentorganiserbackend.service.DocumentService;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.service.StorageService.UploadedPart;
+import com.alphadocuments.documentorganiserbackend.service.StoredContent;
+import com.alphadocuments.documentorganiserbackend.service.UploadSessionService;
+import com.alphadocuments.documentorganiserbackend.util.FileInspection;
+import com.alphadocuments.documentorganiserbackend.util.FileInspector;
+import com.alphadocuments.documentorganiserbackend.util.FileSecurityValidator;
+import com.alphadocuments.documentorganiserbackend.util.FileTypeUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of UploadSessionService.
+ * For chunked sessions each chunk is uploaded straight to storage as one part of an S3 multipart
+ * upload, so a client on a flaky connection only has to re-send the chunks that did not arrive.
+ * Direct sessions hand the client pre-signed URLs and only verify the result, so the file bytes
+ * never pass through the API. Uploads assembled from parts are registered without a checksum; content processing
+ * hashes them in the background and checks the checksum the client declared.
+ * <p>
+ * Completion runs in short transactions of its own: the session is claimed and the target re-checked
+ * first, then the upload is assembled and verified outside any transaction, and finally the document
+ * is registered. A failure before the upload is assembled hands the session back to the client.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadSessionServiceImpl implements UploadSessionService {
+
+    // S3 allows at most 10,000 parts per multipart upload
+    private static final int MAX_CHUNKS = 10_000;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UploadSessionChunkRepository uploadSessionChunkRepository;
+    private final UserRepository userRepository;
+    private final DocumentService documentService;
+    private final StorageService storageService;
+    private final StorageProperties storageProperties;
+    private final FileTypeUtil fileTypeUtil;
+    private final FileSecurityValidator fileSecurityValidator;
+    private final FileInspector fileInspector;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    @Transactional
+    public UploadSessionResponse createSession(UUID userId, CreateUploadSessionRequest request) {
+        fileSecurityValidator.validateFileName(request.getFileName(), request.getFileSize());
+
+        // Fail fast on quota, folder and name conflicts rather than after the whole file is sent
+        documentService.validateUploadTarget(userId, request.getWorkspaceId(), request.getFolderId(),
+                request.getFileName(), request.getFileSize(), request.getConflictResolution());
+
+        long chunkSize = storageProperties.getUploadSessions().getChunkSizeBytes();
+        long totalChunks = (request.getFileSize() + chunkSize - 1) / chunkSize;
+        if (totalChunks > MAX_CHUNKS) {
+            throw new ValidationException("File is too large for a resumable upload");
+        }
+
+        String contentType = request.getContentType() != null ? request.getContentType() : "application/octet-stream";
+        String storageKey = documentService.generateStorageKey(userId, request.getFileName());
+        String uploadId = storageService.initiateMultipartUpload(storageKey, contentType);
+
+        UploadSession session = UploadSession.builder()
+                .user(userRepository.getReferenceById(userId))
+                .workspaceId(request.getWorkspaceId())
+                .folderId(request.getFolderId())
+                .fileName(request.getFileName())
+                .contentType(request.getContentType())
+                .fileSize(request.getFileSize())
+                .chunkSize(chunkSize)
+                .totalChunks((int) totalChunks)
+                .conflictResolution(request.getConflictResolution())
+                .expectedChecksum(request.getChecksum() != null ? request.getChecksum().toLowerCase() : null)
+                .storageKey(storageKey)
+                .storageUploadId(uploadId)
+                .status(UploadSessionStatus.ACTIVE)
+                .expiresAt(nextExpiry())
+                .build();
+
+        session = uploadSessionRepository.save(session);
+
+        log.info("Created upload session {} for '{}' ({} bytes, {} chunks) for user {}",
+                session.getId(), session.getFileName(), session.getFileSize(), totalChunks, userId);
+        return mapToResponse(session, List.of());
+    }
+
+    @Override
+    @Transactional
+    public UploadSessionResponse uploadChunk(UUID userId, UUID sessionId, int chunkIndex,
+                                             InputStream content, long contentLength) {
+        UploadSession session = getSessionForUser(userId, sessionId);
+        requireType(session, UploadType.CHUNKED);
+        requireActive(session);
+
+        if (chunkIndex < 0 || chunkIndex >= session.getTotalChunks()) {
+            throw new ValidationException("chunkIndex", "must be between 0 and " + (session.getTotalChunks() - 1));
+        }
+
+        long expectedLength = session.getChunkLength(chunkIndex);
+        if (contentLength != expectedLength) {
+            throw new ValidationException("Chunk " + chunkIndex + " must be " + expectedLength
+                    + " bytes but Content-Length was " + contentLength);
+        }
+
+        // The session entity is left untouched: a flush would overwrite columns updated by concurrent chunks
+        Instant expiresAt;
+        try {
+            InputStream body = content;
+            if (chunkIndex == 0) {
+                // The first chunk carries the magic bytes; reject blocked types before storing anything
+                body = fileInspector.buffer(content);
+                FileInspection inspection = fileInspector.inspect(session.getFileName(), session.getContentType(), body);
+                fileSecurityValidator.validateContent(inspection);
+                uploadSessionRepository.updateDetectedMimeType(sessionId, inspection.detectedMimeType());
+            }
+
+            String eTag = storageService.uploadPart(session.getStorageKey(), session.getStorageUploadId(),
+                    chunkIndex + 1, body, expectedLength);
+
+            // Re-sent chunks replace the earlier part, so just record the latest ETag
+            UploadSessionChunk chunk = uploadSessionChunkRepository
+                    .findBySessionIdAndChunkIndex(sessionId, chunkIndex)
+                    .orElseGet(() -> UploadSessionChunk.builder()
+                            .session(session)
+                            .chunkIndex(chunkIndex)
+                            .build());
+            chunk.setChunkSize(expectedLength);
+            chunk.setETag(eTag);
+            uploadSessionChunkRepository.save(chunk);
+
+            expiresAt = nextExpiry();
+            uploadSessionRepository.extendExpiry(sessionId, expiresAt);
+        } catch (IOException e) {
+            log.error("Failed to read chunk {} of upload session {}", chunkIndex, sessionId, e);
+            throw new FileOperationException("Failed to read chunk", e);
+        }
+
+        log.debug("Stored chunk {} of upload session {}", chunkIndex, sessionId);
+        UploadSessionResponse response = mapToResponse(session,
+                uploadSessionChunkRepository.findBySessionIdOrderByChunkIndexAsc(sessionId));
+        response.setExpiresAt(expiresAt);
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UploadSessionResponse getSession(UUID userId, UUID sessionId) {
+        UploadSession session = getSessionForUser(userId, sessionId);
+        return mapToResponse(session, uploadSessionChunkRepository.findBySessionIdOrderByChunkIndexAsc(sessionId));
+    }
+
+    @Override
+    public DocumentResponse completeSession(UUID userId, UUID sessionId, String conflictResolution) {
+        List<UploadedPart> parts = new ArrayList<>();
+        UploadSession session = transactionTemplate.execute(status -> {
+            UploadSession claimed = getSessionForUser(userId, sessionId);
+            requireType(claimed, UploadType.CHUNKED);
+            requireActive(claimed);
+
+            List<UploadSessionChunk> chunks = uploadSessionChunkRepository.findBySessionIdOrderByChunkIndexAsc(sessionId);
+            if (chunks.size() != claimed.getTotalChunks()) {
+                throw new ValidationException("Upload is incomplete: received " + chunks.size()
+                        + " of " + claimed.getTotalChunks() + " chunks");
+            }
+            chunks.forEach(chunk -> parts.add(new UploadedPart(chunk.getChunkIndex() + 1, chunk.getETag())));
+
+            beginCompletion(userId, claimed, resolution(claimed, conflictResolution));
+            return claimed;
+        });
+        String resolution = resolution(session, conflictResolution);
+
+        assemble(session, parts);
+
+        return finishCompletion(session, () -> {
+            // Part ETags cannot be combined into a whole-file SHA-256, and reading the object back here would
+            // hold the request while the whole file passes through the API again. It is registered without one;
+            // content processing hashes it in the background and checks the declared value
+            String mimeType = session.getDetectedMimeType() != null
+                    ? fileTypeUtil.resolveMimeType(session.getContentType(), session.getDetectedMimeType())
+                    : fileTypeUtil.detectMimeType(session.getFileName());
+
+            return registerDocument(userId, session, mimeType, null, resolution);
+        });
+    }
+
+    @Override
+    @Transactional
+    public DirectUploadResponse initiateDirectUpload(UUID userId, CreateUploadSessionRequest request) {
+        fileSecurityValidator.validateFileName(request.getFileName(), request.getFileSize());
+
+        // Reserve the quota now: the bytes never pass through the API, so this is the only gate
+        documentService.validateUploadTarget(userId, request.getWorkspaceId(), request.getFolderId(),
+                request.getFileName(), request.getFileSize(), request.getConflictResolution());
+
+        long fileSize = request.getFileSize();
+        String contentType = request.getContentType() != null ? request.getContentType() : "application/octet-stream";
+        String storageKey = documentService.generateStorageKey(userId, request.getFileName());
+        String expectedChecksum = request.getChecksum() != null ? request.getChecksum().toLowerCase() : null;
+
+        StorageProperties.Multipart multipartSettings = storageProperties.getMultipart();
+        boolean multipart = multipartSettings.isEnabled() && fileSize >= multipartSettings.getThresholdBytes();
+        long partSize = multipart ? multipartSettings.getPartSizeBytes() : fileSize;
+        int totalParts = (int) ((fileSize + partSize - 1) / partSize);
+        String uploadId = multipart ? storageService.initiateMultipartUpload(storageKey, contentType) : null;
+
+        UploadSession session = UploadSession.builder()
+                .user(userRepository.getReferenceById(userId))
+                .workspaceId(request.getWorkspaceId())
+                .folderId(request.getFolderId())
+                .fileName(request.getFileName())
+                .contentType(request.getContentType())
+                .fileSize(fileSize)
+                .chunkSize(partSize)
+                .totalChunks(totalParts)
+                .conflictResolution(request.getConflictResolution())
+                .expectedChecksum(expectedChecksum)
+                .storageKey(storageKey)
+                .storageUploadId(uploadId)
+                .uploadType(UploadType.DIRECT)
+                .status(UploadSessionStatus.ACTIVE)
+                .expiresAt(nextExpiry())
+                .build();
+
+        session = uploadSessionRepository.save(session);
+
+        Duration urlExpiry = Duration.ofMinutes(storageProperties.getUploadSessions().getDirectUrlExpiryMinutes());
+        DirectUploadResponse.DirectUploadResponseBuilder response = DirectUploadResponse.builder()
+                .id(session.getId())
+                .fileSize(fileSize)
+                .partSize(partSize)
+                .urlExpiresAt(Instant.now().plus(urlExpiry))
+                .expiresAt(session.getExpiresAt());
+
+        if (multipart) {
+            List<DirectUploadResponse.PresignedPart> parts = new ArrayList<>(totalParts);
+            for (int i = 0; i < totalParts; i++) {
+                parts.add(new DirectUploadResponse.PresignedPart(i + 1,
+                        storageService.generatePresignedUploadPartUrl(storageKey, uploadId, i + 1, urlExpiry),
+                        i * partSize, session.getChunkLength(i)));
+            }
+            response.parts(parts);
+        } else {
+            StorageService.PresignedRequest put = storageService.generatePresignedUploadUrl(
+                    storageKey, contentType, fileSize, expectedChecksum, urlExpiry);
+            response.uploadUrl(put.url()).headers(put.signedHeaders());
+        }
+
+        log.info("Initiated direct upload {} for '{}' ({} bytes, {} part(s)) for user {}",
+                session.getId(), session.getFileName(), fileSize, totalParts, userId);
+        return response.build();
+    }
+
+    @Override
+    @Transactional
+    public InstantUploadResponse initiateInstantUpload(UUID userId, CreateUploadSessionRequest request) {
+        if (request.getChecksum() == null) {
+            throw new ValidationException("Checksum is required");
+        }
+        fileSecurityValidator.validateFileName(request.getFileName(), request.getFileSize());
+
+        return documentService.createDocumentFromExistingContent(userId, request.getWorkspaceId(),
+                        request.getFolderId(), request.getFileName(), request.getFileSize(),
+                        request.getChecksum().toLowerCase(), request.getConflictResolution())
+                .map(document -> InstantUploadResponse.builder()
+                        .contentReused(true)
+                        .document(document)
+                        .build())
+                .orElseGet(() -> InstantUploadResponse.builder()
+                        .contentReused(false)
+                        .upload(initiateDirectUpload(userId, request))
+                        .build());
+    }
+
+    @Override
+    public DocumentResponse completeDirectUpload(UUID userId, UUID sessionId, String conflictResolution) {
+        List<UploadedPart> parts = new ArrayList<>();
+        UploadSession session = transactionTemplate.execute(status -> {
+            UploadSession claimed = getSessionForUser(userId, sessionId);
+            requireType(claimed, UploadType.DIRECT);
+            requireActive(claimed);
+
+            // Nothing changes state until the upload is known to be finished, so the client can simply retry
+            String key = claimed.getStorageKey();
+            if (claimed.getStorageUploadId() != null) {
+                parts.addAll(storageService.listParts(key, claimed.getStorageUploadId()));
+                if (parts.size() != claimed.getTotalChunks()) {
+                    throw new ValidationException("Upload is incomplete: storage has " + parts.size()
+                            + " of " + claimed.getTotalChunks() + " parts");
+                }
+            } else if (!storageService.fileExists(key)) {
+                throw new ValidationException("File has not been uploaded yet");
+            }
+
+            beginCompletion(userId, claimed, resolution(claimed, conflictResolution));
+            return claimed;
+        });
+        String resolution = resolution(session, conflictResolution);
+
+        if (session.getStorageUploadId() != null) {
+            assemble(session, parts);
+        }
+
+        return finishCompletion(session, () -> verifyDirectUpload(userId, session, resolution));
+    }
+
+    /**
+     * Check the assembled object of a direct upload against what the client declared, then register it.
+     */
+    private DocumentResponse verifyDirectUpload(UUID userId, UploadSession session, String resolution) {
+        UUID sessionId = session.getId();
+        String storageKey = session.getStorageKey();
+
+        StorageService.ObjectInfo info = storageService.getObjectInfo(storageKey)
+                .orElseThrow(() -> new FileOperationException("Uploaded file is missing from storage"));
+        if (info.contentLength() != session.getFileSize()) {
+            throw failSession(session, "Uploaded file is " + info.contentLength()
+                    + " bytes but " + session.getFileSize() + " were declared");
+        }
+
+        // Only the header is fetched to check the real content type
+        FileInspection inspection;
+        long headerEnd = Math.min(session.getFileSize(), FileInspector.HEADER_SIZE) - 1;
+        try (InputStream header = storageService.downloadFileRange(storageKey, 0, headerEnd)) {
+            inspection = fileInspector.inspect(session.getFileName(), session.getContentType(), header.readAllBytes());
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to inspect uploaded file", e);
+        }
+        try {
+            fileSecurityValidator.validateContent(inspection);
+        } catch (ValidationException e) {
+            throw failSession(session, e.getMessage());
+        }
+
+        // A signed single PUT gets its SHA-256 verified by storage. Storage has no whole-object SHA-256 for a
+        // multipart upload, and reading it back here would pull the whole file through the API, so it is
+        // registered without one; content processing hashes it in the background and checks the declared value
+        String checksum = info.checksumSha256();
+        if (checksum != null && session.getExpectedChecksum() != null && !session.getExpectedChecksum().equals(checksum)) {
+            log.warn("Checksum mismatch for direct upload {}: expected {}, got {}",
+                    sessionId, session.getExpectedChecksum(), checksum);
+            throw failSession(session, "Checksum mismatch: the uploaded file is corrupt, please upload it again");
+        }
+
+        return registerDocument(userId, session, inspection.mimeType(), checksum, resolution);
+    }
+
+    @Override
+    @Transactional
+    public void abortSession(UUID userId, UUID sessionId) {
+        UploadSession session = getSessionForUser(userId, sessionId);
+
+        switch (session.getStatus()) {
+            case ACTIVE -> {
+                discardUpload(session);
+                session.setStatus(UploadSessionStatus.ABORTED);
+                uploadSessionRepository.save(session);
+                uploadSessionChunkRepository.deleteBySessionId(sessionId);
+                log.info("Aborted upload session {} for user {}", sessionId, userId);
+            }
+            case COMPLETING, COMPLETED -> throw new ValidationException("Upload session is already "
+                    + session.getStatus().name().toLowerCase());
+            default -> {
+                // Already aborted, expired or failed - nothing left to clean up
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "0 30 * * * ?") // Run hourly
+    public void cleanupExpiredSessions() {
+        List<UploadSession> expiredSessions = uploadSessionRepository.findTop100ByStatusInAndExpiresAtBefore(
+                List.of(UploadSessionStatus.ACTIVE), Instant.now());
+
+        for (UploadSession session : expiredSessions) {
+            try {
+                discardUpload(session);
+                session.setStatus(UploadSessionStatus.EXPIRED);
+                uploadSessionRepository.save(session);
+                uploadSessionChunkRepository.deleteBySessionId(session.getId());
+            } catch (Exception e) {
+                log.error("Failed to clean up expired upload session {}", session.getId(), e);
+            }
+        }
+
+        if (!expiredSessions.isEmpty()) {
+            log.info("Cleaned up {} expired upload sessions", expiredSessions.size());
+        }
+    }
+
+    private UploadSession getSessionForUser(UUID userId, UUID sessionId) {
+        return uploadSessionRepository.findByIdAndUserId(sessionId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload session", sessionId.toString()));
+    }
+
+    private void requireType(UploadSession session, UploadType uploadType) {
+        if (session.getUploadType() != uploadType) {
+            throw new ValidationException(session.getUploadType() == UploadType.DIRECT
+                    ? "Direct uploads are sent to storage and completed via /uploads/direct"
+                    : "Chunked uploads are completed via /uploads/sessions");
+        }
+    }
+
+    private void requireActive(UploadSession session) {
+        if (session.getStatus() != UploadSessionStatus.ACTIVE) {
+            throw new ValidationException("Upload session is " + session.getStatus().name().toLowerCase());
+        }
+        if (session.isExpired()) {
+            throw new ValidationException("Upload session has expired");
+        }
+    }
+
+    /**
+     * Claim the session for completion, then re-check the target. A completing session keeps its size
+     * reserved, so the quota check asks for nothing beyond it; that only fails if the user is already over.
+     * Runs in the caller's claim transaction: any failure here rolls back, leaving the session active
+     * and the stored parts intact.
+     */
+    private void beginCompletion(UUID userId, UploadSession session, String conflictResolution) {
+        if (uploadSessionRepository.transitionStatus(session.getId(), UploadSessionStatus.ACTIVE,
+                UploadSessionStatus.COMPLETING) == 0) {
+            throw new ValidationException("Upload session is already being completed");
+        }
+
+        documentService.validateUploadTarget(userId, session.getWorkspaceId(), session.getFolderId(),
+                session.getFileName(), 0, conflictResolution);
+    }
+
+    /**
+     * Assemble the stored parts into the final object. If storage refuses, the parts are still there,
+     * so the session is handed back to the client to complete again.
+     */
+    private void assemble(UploadSession session, List<UploadedPart> parts) {
+        try {
+            storageService.completeMultipartUpload(session.getStorageKey(), session.getStorageUploadId(), parts);
+        } catch (RuntimeException e) {
+            releaseClaim(session);
+            throw e;
+        }
+    }
+
+    /**
+     * Verify and register a claimed session. Once a multipart upload is assembled its upload ID is gone
+     * and the parts cannot be sent again, so any failure fails the session; a single PUT object is still
+     * in place and can be verified again, so its claim is released instead.
+     */
+    private DocumentResponse finishCompletion(UploadSession session, Supplier<DocumentResponse> completion) {
+        try {
+            return completion.get();
+        } catch (RuntimeException e) {
+            if (session.getStatus() == UploadSessionStatus.FAILED) {
+                // Verification already failed the session
+                throw e;
+            }
+            if (session.getStorageUploadId() != null) {
+                failSession(session, e.getMessage());
+            } else {
+                releaseClaim(session);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Create the document for a verified upload and close the session, in one transaction. The session
+     * is closed first, so its reservation makes way for the document's size in the same quota check.
+     */
+    private DocumentResponse registerDocument(UUID userId, UploadSession session, String mimeType,
+                                              String checksum, String conflictResolution) {
+        DocumentResponse document = transactionTemplate.execute(status -> {
+            if (uploadSessionRepository.transitionStatus(session.getId(), UploadSessionStatus.COMPLETING,
+                    UploadSessionStatus.COMPLETED) == 0) {
+                throw new ValidationException("Upload session is no longer being completed");
+            }
+            DocumentResponse created = documentService.createDocumentFromStorage(userId, session.getWorkspaceId(),
+                    session.getFolderId(),
+                    new StoredContent(session.getFileName(), session.getStorageKey(), session.getFileSize(),
+                            mimeType, checksum),
+                    conflictResolution);
+
+            session.setStatus(UploadSessionStatus.COMPLETED);
+            session.setDocumentId(created.getId());
+            uploadSessionRepository.save(session);
+            uploadSessionChunkRepository.deleteBySessionId(session.getId());
+            return created;
+        });
+
+        log.info("Completed {} upload session {} as document {}",
+                session.getUploadType().name().toLowerCase(), session.getId(), document.getId());
+        return document;
+    }
+
+    /**
+     * Hand a claimed session back to the client, e.g. after a transient storage error.
+     */
+    private void releaseClaim(UploadSession session) {
+        transactionTemplate.executeWithoutResult(status -> uploadSessionRepository.transitionStatus(
+                session.getId(), UploadSessionStatus.COMPLETING, UploadSessionStatus.ACTIVE));
+    }
+
+    /**
+     * Mark a claimed session whose upload cannot be completed as failed and delete its object.
+     * The failed state is committed on its own; callers throw the returned exception.
+     * Does nothing beyond building the exception if the session is no longer being completed.
+     */
+    private ValidationException failSession(UploadSession session, String reason) {
+        Boolean failed = transactionTemplate.execute(status -> {
+            if (uploadSessionRepository.transitionStatus(session.getId(), UploadSessionStatus.COMPLETING,
+                    UploadSessionStatus.FAILED) == 0) {
+                return false;
+            }
+            uploadSessionChunkRepository.deleteBySessionId(session.getId());
+            return true;
+        });
+        if (Boolean.TRUE.equals(failed)) {
+            session.setStatus(UploadSessionStatus.FAILED);
+            storageService.deleteFile(session.getStorageKey());
+            log.warn("Upload session {} failed: {}", session.getId(), reason);
+        }
+        return new ValidationException(reason);
+    }
+
+    private static String resolution(UploadSession session, String conflictResolution) {
+        return conflictResolution != null ? conflictResolution : session.getConflictResolution();
+    }
+
+    /**
+     * Release whatever storage an unfinished session holds.
+     */
+    private void discardUpload(UploadSession session) {
+        if (session.getStorageUploadId() != null) {
+            storageService.abortMultipartUpload(session.getStorageKey(), session.getStorageUploadId());
+        } else {
+            // A single direct PUT may or may not have landed
+            storageService.deleteFile(session.getStorageKey());
+        }
+    }
+
+    private Instant nextExpiry() {
+        return Instant.now().plus(Duration.ofHours(storageProperties.getUploadSessions().getExpiryHours()));
+    }
+
+    private UploadSessionResponse mapToResponse(UploadSession session, List<UploadSessionChunk> chunks) {
+        boolean[] received = new boolean[session.getTotalChunks()];
+        long bytesReceived = 0;
+        List<Integer> receivedChunks = new ArrayList<>(chunks.size());
+        for (UploadSessionChunk chunk : chunks) {
+            received[chunk.getChunkIndex()] = true;
+            receivedChunks.add(chunk.getChunkIndex());
+            bytesReceived += chunk.getChunkSize();
+        }
+
+        // Merge runs of missing chunks into inclusive byte ranges
+        List<UploadSessionResponse.ByteRange> missingRanges = new ArrayList<>();
+        int runStart = -1;
+        for (int i = 0; i <= received.length; i++) {
+            boolean missing = i < received.length && !received[i];
+            if (missing && runStart < 0) {
+                runStart = i;
+            } else if (!missing && runStart >= 0) {
+                long start = runStart * session.getChunkSize();
+                long end = Math.min((long) i * session.getChunkSize(), session.getFileSize()) - 1;
+                missingRanges.add(new UploadSessionResponse.ByteRange(start, end));
+                runStart = -1;
+            }
+        }
+
+        long nextOffset = missingRanges.isEmpty() ? session.getFileSize() : missingRanges.get(0).getStart();
+
+        return UploadSessionResponse.builder()
+                .id(session.getId())
+                .fileName(session.getFileName())
+                .fileSize(session.getFileSize())
+                .chunkSize(session.getChunkSize())
+                .totalChunks(session.getTotalChunks())
+                .status(session.getStatus())
+                .receivedChunks(receivedChunks)
+                .missingRanges(missingRanges)
+                .bytesReceived(bytesReceived)
+                .nextOffset(nextOffset)
+                .expiresAt(session.getExpiresAt())
+                .documentId(session.getDocumentId())
+                .build();
+    }
+}
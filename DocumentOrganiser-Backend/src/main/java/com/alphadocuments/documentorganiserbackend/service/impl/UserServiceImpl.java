@@ -6,7 +6,9 @@ import com.alphadocuments.documentorganiserbackend.dto.response.UserResponse;
 import com.alphadocuments.documentorganiserbackend.dto.response.UserSettingsResponse;
 import com.alphadocuments.documentorganiserbackend.entity.User;
 import com.alphadocuments.documentorganiserbackend.entity.UserSettings;
+import com.alphadocuments.documentorganiserbackend.entity.enums.UploadSessionStatus;
 import com.alphadocuments.documentorganiserbackend.exception.ResourceNotFoundException;
+import com.alphadocuments.documentorganiserbackend.repository.UploadSessionRepository;
 import com.alphadocuments.documentorganiserbackend.repository.UserRepository;
 import com.alphadocuments.documentorganiserbackend.repository.UserSettingsRepository;
 import com.alphadocuments.documentorganiserbackend.service.UserService;
@@ -17,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -31,6 +34,7 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserSettingsRepository userSettingsRepository;
+    private final UploadSessionRepository uploadSessionRepository;
     private final FolderService folderService;
 
     @Override
@@ -220,7 +224,10 @@ public class UserServiceImpl implements UserService {
                 ? user.getUserSettings().getStorageLimitMb() * 1024 * 1024
                 : 100L * 1024 * 1024;
 
-        return limitBytes - user.getStorageUsedBytes();
+        // Upload sessions hold their size until the document is registered, or they fail or expire
+        long reservedBytes = uploadSessionRepository.sumFileSizeByUserIdAndStatusIn(
+                userId, List.of(UploadSessionStatus.ACTIVE, UploadSessionStatus.COMPLETING), Instant.now());
+        return limitBytes - user.getStorageUsedBytes() - reservedBytes;
     }
 
     @Override
@@ -0,0 +1,122 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.entity.DocumentVersion;
+import com.alphadocuments.documentorganiserbackend.entity.DocumentVersionChunk;
+import com.alphadocuments.documentorganiserbackend.event.DocumentVersionSupersededEvent;
+import com.alphadocuments.documentorganiserbackend.exception.FileOperationException;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentVersionRepository;
+import com.alphadocuments.documentorganiserbackend.service.BlobStoreService;
+import com.alphadocuments.documentorganiserbackend.service.ChunkStoreService;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.service.VersionChunkingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Implementation of VersionChunkingService.
+ * A superseded version keeps its whole object until it is converted here, after the upload that
+ * superseded it has committed. Only blocks that are not stored already are uploaded, so a small edit
+ * to a large file adds little. Each conversion runs in its own transaction; if it rolls back, the
+ * version stays whole and the chunk store removes the objects it uploaded.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VersionChunkingServiceImpl implements VersionChunkingService {
+
+    private static final Duration SWEEP_GRACE = Duration.ofMinutes(10);
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    private final DocumentVersionRepository documentVersionRepository;
+    private final ChunkStoreService chunkStoreService;
+    private final BlobStoreService blobStoreService;
+    private final StorageService storageService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor taskExecutor;
+
+    /**
+     * Queue chunking only after the upload commits, so the worker sees the superseded version row.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onVersionSuperseded(DocumentVersionSupersededEvent event) {
+        submit(event.versionId());
+    }
+
+    @Override
+    public void submit(UUID versionId) {
+        try {
+            taskExecutor.execute(() -> chunk(versionId));
+        } catch (RejectedExecutionException e) {
+            log.info("Chunking queue is full; version {} stays whole until the next sweep", versionId);
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "0 */10 * * * ?")
+    public void chunkStalledVersions() {
+        List<UUID> versionIds = documentVersionRepository.findIdsToChunk(
+                Instant.now().minus(SWEEP_GRACE), PageRequest.of(0, SWEEP_BATCH_SIZE));
+        if (!versionIds.isEmpty()) {
+            log.info("Re-queuing {} superseded versions for chunking", versionIds.size());
+            versionIds.forEach(this::submit);
+        }
+    }
+
+    private void chunk(UUID versionId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                DocumentVersion version = documentVersionRepository.findById(versionId).orElse(null);
+                // Gone, already chunked, or restored to be the current version again
+                if (version == null || Boolean.TRUE.equals(version.getChunked()) || version.getStorageKey() == null
+                        || Objects.equals(version.getVersionNumber(), version.getDocument().getVersion())) {
+                    return;
+                }
+
+                String wholeKey = version.getStorageKey();
+                List<ChunkStoreService.StoredChunk> chunks;
+                try (InputStream content = storageService.downloadFile(wholeKey)) {
+                    chunks = chunkStoreService.storeChunks(content);
+                } catch (IOException e) {
+                    throw new FileOperationException("Failed to read version " + versionId + " for chunking", e);
+                }
+
+                // Claiming the row makes a concurrent conversion of the same version roll back
+                if (documentVersionRepository.markChunked(versionId) == 0) {
+                    status.setRollbackOnly();
+                    return;
+                }
+                for (int i = 0; i < chunks.size(); i++) {
+                    version.getChunks().add(DocumentVersionChunk.builder()
+                            .version(version)
+                            .chunkIndex(i)
+                            .storageKey(chunks.get(i).storageKey())
+                            .chunkSize(chunks.get(i).size())
+                            .build());
+                }
+                version.setChunked(true);
+                version.setStorageKey(null);
+                documentVersionRepository.save(version);
+                blobStoreService.release(wholeKey);
+            });
+        } catch (RuntimeException e) {
+            // Left whole and picked up again by the next sweep
+            log.warn("Failed to chunk version {}: {}", versionId, e.getMessage());
+        }
+    }
+}
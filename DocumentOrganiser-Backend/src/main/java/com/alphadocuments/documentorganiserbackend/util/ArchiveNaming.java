@@ -0,0 +1,62 @@
+package com.alphadocuments.documentorganiserbackend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Naming and compression rules shared by the archive writers.
+ */
+public final class ArchiveNaming {
+
+    private static final Set<String> COMPRESSED_MIME_TYPES = Set.of(
+            "image/jpeg", "image/png", "image/gif", "image/webp", "image/heic", "image/avif",
+            "application/zip", "application/gzip", "application/x-gzip", "application/x-7z-compressed",
+            "application/x-rar-compressed", "application/vnd.rar", "application/x-bzip2", "application/x-xz",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+            "application/vnd.openxmlformats-officedocument.presentationml.presentation",
+            "application/epub+zip"
+    );
+
+    private ArchiveNaming() {
+    }
+
+    /**
+     * Whether content of this type is already compressed, so deflating it again only costs CPU.
+     */
+    public static boolean isCompressed(String mimeType) {
+        if (mimeType == null) {
+            return false;
+        }
+        String type = mimeType.toLowerCase(Locale.ROOT);
+        return COMPRESSED_MIME_TYPES.contains(type) || type.startsWith("video/") || type.startsWith("audio/");
+    }
+
+    /**
+     * Make the path safe to extract and unique within the archive, ignoring case, and record it as used.
+     * Duplicates become "name (1).ext", "name (2).ext", ... in the order they are added.
+     */
+    public static String uniquePath(String path, Set<String> usedPaths) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.replace('\\', '/').split("/")) {
+            String trimmed = segment.strip();
+            if (!trimmed.isEmpty() && !trimmed.equals(".") && !trimmed.equals("..")) {
+                segments.add(trimmed);
+            }
+        }
+        String safePath = segments.isEmpty() ? "unnamed" : String.join("/", segments);
+
+        String candidate = safePath;
+        int lastSlash = safePath.lastIndexOf('/');
+        int dot = safePath.lastIndexOf('.');
+        boolean hasExtension = dot > lastSlash + 1;
+        String base = hasExtension ? safePath.substring(0, dot) : safePath;
+        String extension = hasExtension ? safePath.substring(dot) : "";
+        for (int n = 1; !usedPaths.add(candidate.toLowerCase(Locale.ROOT)); n++) {
+            candidate = base + " (" + n + ")" + extension;
+        }
+        return candidate;
+    }
+}
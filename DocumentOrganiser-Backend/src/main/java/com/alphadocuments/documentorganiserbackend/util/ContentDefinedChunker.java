@@ -0,0 +1,96 @@
+package com.alphadocuments.documentorganiserbackend.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Splits a stream into content-defined chunks using a Gear rolling hash with normalised chunking (FastCDC).
+ * <p>
+ * A boundary is placed where the hash of the preceding bytes matches a mask, so boundaries follow the
+ * content rather than fixed offsets: an edit only changes the chunks around it, and the chunks before and
+ * after it come out identical to those of the previous version. Chunk sizes stay between the minimum and
+ * maximum and cluster around the average, which must be a power of two.
+ */
+public class ContentDefinedChunker {
+
+    // Fixed seed: boundaries, and with them deduplication across versions, depend on this table never changing
+    private static final long[] GEAR = new long[256];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x6d1c_4a3f_92e5_07b8L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final InputStream input;
+    private final int minSize;
+    private final int averageSize;
+    private final long strictMask;
+    private final long looseMask;
+    private final byte[] buffer;
+    private int filled;
+
+    public ContentDefinedChunker(InputStream input, int minSize, int averageSize, int maxSize) {
+        if (minSize <= 0 || minSize > averageSize || averageSize > maxSize || Integer.bitCount(averageSize) != 1) {
+            throw new IllegalArgumentException("Chunk sizes must satisfy 0 < min <= average <= max "
+                    + "with a power-of-two average");
+        }
+        this.input = input;
+        this.minSize = minSize;
+        this.averageSize = averageSize;
+        int bits = Integer.numberOfTrailingZeros(averageSize);
+        // Harder to match below the average size and easier above it, which narrows the size distribution
+        this.strictMask = topBits(bits + 2);
+        this.looseMask = topBits(Math.max(1, bits - 2));
+        this.buffer = new byte[maxSize];
+    }
+
+    /**
+     * Read the next chunk, or return null at the end of the stream.
+     */
+    public byte[] nextChunk() throws IOException {
+        filled += input.readNBytes(buffer, filled, buffer.length - filled);
+        if (filled == 0) {
+            return null;
+        }
+
+        int cut = findBoundary();
+        byte[] chunk = Arrays.copyOf(buffer, cut);
+        System.arraycopy(buffer, cut, buffer, 0, filled - cut);
+        filled -= cut;
+        return chunk;
+    }
+
+    private int findBoundary() {
+        if (filled <= minSize) {
+            return filled;
+        }
+
+        long hash = 0;
+        int normalEnd = Math.min(averageSize, filled);
+        int i = minSize;
+        for (; i < normalEnd; i++) {
+            hash = (hash << 1) + GEAR[buffer[i] & 0xff];
+            if ((hash & strictMask) == 0) {
+                return i + 1;
+            }
+        }
+        for (; i < filled; i++) {
+            hash = (hash << 1) + GEAR[buffer[i] & 0xff];
+            if ((hash & looseMask) == 0) {
+                return i + 1;
+            }
+        }
+        return filled;
+    }
+
+    /**
+     * The high bits of a Gear hash depend on the most bytes, so the masks test those.
+     */
+    private static long topBits(int count) {
+        return -1L << (64 - count);
+    }
+}
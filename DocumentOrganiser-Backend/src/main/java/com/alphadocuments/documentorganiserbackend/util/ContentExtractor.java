@@ -0,0 +1,105 @@
+package com.alphadocuments.documentorganiserbackend.util;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.exception.WriteLimitReachedException;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.PagedText;
+import org.apache.tika.metadata.TIFF;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.metadata.XMPDM;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.sax.BodyContentHandler;
+import org.springframework.stereotype.Component;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Extracts plain text and metadata from document content with the Tika parsers.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContentExtractor {
+
+    private static final int MAX_PROPERTIES = 100;
+    private static final int MAX_PROPERTY_LENGTH = 1000;
+    private static final int MAX_AUTHOR_LENGTH = 255;
+    private static final int MAX_TITLE_LENGTH = 512;
+
+    private final AutoDetectParser parser;
+
+    /**
+     * Parse the content. Text beyond {@code maxTextLength} characters is dropped rather than failing the parse.
+     */
+    public ExtractedContent extract(InputStream content, String mimeType, int maxTextLength)
+            throws IOException, TikaException {
+        Metadata metadata = new Metadata();
+        if (mimeType != null) {
+            metadata.set(Metadata.CONTENT_TYPE, mimeType);
+        }
+        BodyContentHandler handler = new BodyContentHandler(maxTextLength);
+
+        try {
+            parser.parse(content, handler, metadata, new ParseContext());
+        } catch (SAXException e) {
+            if (!WriteLimitReachedException.isWriteLimitReached(e)) {
+                throw new TikaException("Failed to read document content", e);
+            }
+        }
+
+        return new ExtractedContent(
+                clean(handler.toString(), maxTextLength),
+                metadata.getInt(PagedText.N_PAGES),
+                metadata.getInt(TIFF.IMAGE_WIDTH),
+                metadata.getInt(TIFF.IMAGE_LENGTH),
+                durationSeconds(metadata),
+                clean(metadata.get(TikaCoreProperties.CREATOR), MAX_AUTHOR_LENGTH),
+                clean(metadata.get(TikaCoreProperties.TITLE), MAX_TITLE_LENGTH),
+                properties(metadata));
+    }
+
+    private Long durationSeconds(Metadata metadata) {
+        String duration = metadata.get(XMPDM.DURATION);
+        if (duration == null) {
+            return null;
+        }
+        try {
+            return Math.round(Double.parseDouble(duration));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Map<String, Object> properties(Metadata metadata) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (String name : metadata.names()) {
+            if (properties.size() >= MAX_PROPERTIES) {
+                break;
+            }
+            String value = clean(metadata.get(name), MAX_PROPERTY_LENGTH);
+            if (value != null) {
+                properties.put(name, value);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Trim, drop NUL characters (PostgreSQL text cannot store them) and cap the length.
+     */
+    private String clean(String value, int maxLength) {
+        if (value == null) {
+            return null;
+        }
+        String cleaned = value.replace("\u0000", "").strip();
+        if (cleaned.isEmpty()) {
+            return null;
+        }
+        return cleaned.length() > maxLength ? cleaned.substring(0, maxLength) : cleaned;
+    }
+}
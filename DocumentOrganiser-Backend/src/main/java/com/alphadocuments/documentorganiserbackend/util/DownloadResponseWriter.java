@@ -0,0 +1,277 @@
+package com.alphadocuments.documentorganiserbackend.util;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.service.DownloadContent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes file downloads with conditional and HTTP range support.
+ * <p>
+ * Responses carry a strong ETag derived from the content's SHA-256 and a Last-Modified date.
+ * {@code If-None-Match} and {@code If-Modified-Since} are answered with 304 before storage is touched.
+ * <p>
+ * A {@code Range} header is answered with 206 and only the requested bytes: one range as a plain body,
+ * several as {@code multipart/byteranges}. Each range becomes a ranged read from storage, so seeking in
+ * a video or loading one page of a PDF does not fetch the whole object. {@code If-Range} falls back to
+ * the full content when the client's copy is out of date.
+ * <p>
+ * In redirect mode ({@code storage.downloads.mode=redirect}) the content is not streamed at all: after the
+ * caller's access checks the client gets a 302 to a short-lived pre-signed URL, and storage serves the bytes
+ * and any ranges itself.
+ * <p>
+ * In proxy mode, whole-file responses whose content has an async reader are streamed with non-blocking
+ * servlet I/O ({@code storage.async.enabled}): the request thread returns as soon as the download starts.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DownloadResponseWriter {
+
+    // More ranges than this, or ranges adding up to more than the file, are served as the full content
+    private static final int MAX_RANGES = 16;
+
+    private final MeterRegistry meterRegistry;
+    private final StorageProperties storageProperties;
+
+    /**
+     * Whether the request starts a download rather than continuing one (no range, or a range from byte 0).
+     * Used to count each download once however many range requests it takes.
+     */
+    public static boolean isInitialRequest(HttpServletRequest request) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        return range == null || range.replace(" ", "").startsWith("bytes=0-");
+    }
+
+    /**
+     * Write the content, or the requested ranges of it, to the response, or redirect to storage.
+     * @param source metric tag naming the endpoint serving the download
+     * @return false if the client's copy is current and 304 was sent instead of the content
+     */
+    public boolean write(HttpServletRequest request, HttpServletResponse response, DownloadContent content,
+                         String source) throws IOException {
+        long length = content.contentLength();
+        String eTag = content.checksum() != null ? "\"" + content.checksum() + "\"" : null;
+        long lastModified = content.lastModified() != null ? content.lastModified().toEpochMilli() : -1;
+
+        // Cacheable but always revalidated; also keeps Spring Security's default no-store off these responses
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+
+        // Sets ETag and Last-Modified, and the 304 status when a validator matches
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            meterRegistry.counter("download.not.modified", "source", source).increment();
+            return false;
+        }
+
+        String contentDisposition = ContentDisposition.attachment()
+                .filename(content.fileName(), StandardCharsets.UTF_8)
+                .build()
+                .toString();
+
+        StorageProperties.Downloads downloads = storageProperties.getDownloads();
+        if (downloads.getMode() == StorageProperties.Downloads.Mode.REDIRECT && content.urlSigner() != null) {
+            String url = content.urlSigner().sign(Duration.ofSeconds(downloads.getRedirectUrlExpirySeconds()),
+                    contentDisposition, content.mimeType());
+            // The target expires shortly, so the redirect itself must not be cached
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            response.setStatus(HttpStatus.FOUND.value());
+            response.setHeader(HttpHeaders.LOCATION, url);
+            meterRegistry.counter("download.redirects", "source", source).increment();
+            return true;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+
+        List<HttpRange> requested = requestedRanges(request, content, eTag);
+        if (requested.isEmpty()) {
+            writeFull(request, response, content);
+            return true;
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        long requestedBytes = 0;
+        for (HttpRange range : requested) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            // Ranges starting beyond the end of the file are unsatisfiable and skipped
+            if (start < length && start <= end) {
+                ranges.add(new long[]{start, end});
+                requestedBytes += end - start + 1;
+            }
+        }
+
+        if (ranges.isEmpty()) {
+            meterRegistry.counter("download.range.unsatisfiable", "source", source).increment();
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return true;
+        }
+        if (ranges.size() > MAX_RANGES || requestedBytes > length) {
+            writeFull(request, response, content);
+            return true;
+        }
+
+        if (ranges.size() == 1) {
+            writeSingleRange(request, response, content, ranges.get(0), source);
+        } else {
+            writeMultipleRanges(request, response, content, ranges, source);
+        }
+        return true;
+    }
+
+    /**
+     * Parse the Range header, returning no ranges when it is absent, malformed or not for bytes,
+     * or when If-Range says the client's copy is stale.
+     */
+    private List<HttpRange> requestedRanges(HttpServletRequest request, DownloadContent content, String eTag) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !rangeHeader.trim().startsWith("bytes=")) {
+            return List.of();
+        }
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRangeMatches(request, ifRange, eTag, content)) {
+            return List.of();
+        }
+
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring invalid Range header '{}'", rangeHeader);
+            return List.of();
+        }
+    }
+
+    /**
+     * If-Range carries either an entity tag, which must match exactly (weak tags never do),
+     * or a date, which must equal the content's last modification time.
+     */
+    private boolean ifRangeMatches(HttpServletRequest request, String ifRange, String eTag, DownloadContent content) {
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            return value.equals(eTag);
+        }
+        if (content.lastModified() == null) {
+            return false;
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return date / 1000 == content.lastModified().getEpochSecond();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void writeFull(HttpServletRequest request, HttpServletResponse response,
+                           DownloadContent content) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(content.mimeType());
+        response.setContentLengthLong(content.contentLength());
+        if (isHead(request) || content.contentLength() == 0) {
+            return;
+        }
+        StorageProperties.Async async = storageProperties.getAsync();
+        if (async.isEnabled() && content.asyncReader() != null && request.isAsyncSupported()) {
+            // The request thread is released here; storage and client I/O complete the response
+            AsyncContext asyncContext = request.startAsync();
+            asyncContext.setTimeout(Duration.ofMinutes(async.getResponseTimeoutMinutes()).toMillis());
+            NonBlockingResponseWriter.stream(asyncContext, response, content.asyncReader().open());
+            meterRegistry.counter("download.async.streams").increment();
+            return;
+        }
+        try (InputStream in = content.reader().open(0, content.contentLength() - 1)) {
+            in.transferTo(response.getOutputStream());
+        }
+    }
+
+    private void writeSingleRange(HttpServletRequest request, HttpServletResponse response, DownloadContent content,
+                                  long[] range, String source) throws IOException {
+        long rangeLength = range[1] - range[0] + 1;
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        response.setContentType(content.mimeType());
+        response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, content.contentLength()));
+        response.setContentLengthLong(rangeLength);
+        if (isHead(request)) {
+            return;
+        }
+        try (InputStream in = content.reader().open(range[0], range[1])) {
+            in.transferTo(response.getOutputStream());
+        }
+        recordRange(source, "single", rangeLength);
+    }
+
+    private void writeMultipleRanges(HttpServletRequest request, HttpServletResponse response, DownloadContent content,
+                                     List<long[]> ranges, String source) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long bodyLength = 0;
+        for (long[] range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + content.mimeType() + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, content.contentLength()) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            bodyLength += partHeader.length + range[1] - range[0] + 1;
+        }
+        byte[] closingBoundary = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        bodyLength += closingBoundary.length;
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(bodyLength);
+        if (isHead(request)) {
+            return;
+        }
+
+        ServletOutputStream out = response.getOutputStream();
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            out.write(partHeaders.get(i));
+            try (InputStream in = content.reader().open(range[0], range[1])) {
+                in.transferTo(out);
+            }
+            recordRange(source, "multipart", range[1] - range[0] + 1);
+        }
+        out.write(closingBoundary);
+    }
+
+    private void recordRange(String source, String type, long bytes) {
+        DistributionSummary.builder("download.range.bytes")
+                .baseUnit(BaseUnits.BYTES)
+                .tag("source", source)
+                .tag("type", type)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    private String contentRange(long[] range, long length) {
+        return "bytes " + range[0] + "-" + range[1] + "/" + length;
+    }
+
+    private boolean isHead(HttpServletRequest request) {
+        return "HEAD".equalsIgnoreCase(request.getMethod());
+    }
+}
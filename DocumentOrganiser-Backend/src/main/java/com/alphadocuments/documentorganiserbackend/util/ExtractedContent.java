@@ -0,0 +1,20 @@
+package com.alphadocuments.documentorganiserbackend.util;
+
+import java.util.Map;
+
+/**
+ * Text and metadata extracted from a document's content. Fields the format does not provide are null.
+ *
+ * @param text            plain text, truncated to the configured maximum length
+ * @param pageCount       number of pages of paged formats
+ * @param width           pixel width of images
+ * @param height          pixel height of images
+ * @param durationSeconds length of audio and video
+ * @param author          creator recorded in the file
+ * @param title           title recorded in the file
+ * @param properties      all other metadata reported by the parser
+ */
+public record ExtractedContent(String text, Integer pageCount, Integer width, Integer height,
+                               Long durationSeconds, String author, String title,
+                               Map<String, Object> properties) {
+}
@@ -0,0 +1,18 @@
+package com.alphadocuments.documentorganiserbackend.util;
+
+import com.alphadocuments.documentorganiserbackend.entity.enums.DocumentCategory;
+
+/**
+ * Result of inspecting an upload's name and leading bytes once.
+ *
+ * @param fileName         file name as supplied by the client
+ * @param extension        lower-case extension, empty if there is none
+ * @param claimedMimeType  MIME type declared by the client, may be null
+ * @param detectedMimeType MIME type detected from the magic bytes
+ * @param mimeType         MIME type to store, see {@link FileTypeUtil#resolveMimeType(String, String)}
+ * @param category         document category derived from the extension and MIME type
+ * @param blocked          whether the extension or detected type is not allowed
+ */
+public record FileInspection(String fileName, String extension, String claimedMimeType, String detectedMimeType,
+                             String mimeType, DocumentCategory category, boolean blocked) {
+}
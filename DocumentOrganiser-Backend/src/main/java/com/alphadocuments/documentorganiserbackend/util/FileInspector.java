@@ -0,0 +1,58 @@
+package com.alphadocuments.documentorganiserbackend.util;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.tika.Tika;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Inspects an upload once: the leading bytes are read a single time and the resulting
+ * {@link FileInspection} is shared by the security checks, type resolution and categorization.
+ */
+@Component
+@RequiredArgsConstructor
+public class FileInspector {
+
+    /**
+     * Number of leading bytes used for magic-byte detection.
+     */
+    public static final int HEADER_SIZE = 64 * 1024;
+
+    private final Tika tika;
+    private final FileTypeUtil fileTypeUtil;
+    private final FileSecurityValidator fileSecurityValidator;
+
+    /**
+     * Wrap a content stream so its header can be inspected and then re-read by the consumer.
+     */
+    public InputStream buffer(InputStream content) {
+        return new BufferedInputStream(content, HEADER_SIZE);
+    }
+
+    /**
+     * Inspect the header of a stream without consuming it. The stream must support mark/reset,
+     * e.g. one returned by {@link #buffer(InputStream)}.
+     */
+    public FileInspection inspect(String fileName, String claimedMimeType, InputStream content) throws IOException {
+        content.mark(HEADER_SIZE);
+        byte[] header = content.readNBytes(HEADER_SIZE);
+        content.reset();
+        return inspect(fileName, claimedMimeType, header);
+    }
+
+    /**
+     * Inspect an already read header.
+     */
+    public FileInspection inspect(String fileName, String claimedMimeType, byte[] header) {
+        String detectedMimeType = tika.detect(header);
+        String mimeType = fileTypeUtil.resolveMimeType(claimedMimeType, detectedMimeType);
+        String extension = fileTypeUtil.getFileExtension(fileName);
+
+        return new FileInspection(fileName, extension, claimedMimeType, detectedMimeType, mimeType,
+                fileTypeUtil.categorizeDocument(fileName, mimeType),
+                fileSecurityValidator.isBlocked(extension, detectedMimeType));
+    }
+}
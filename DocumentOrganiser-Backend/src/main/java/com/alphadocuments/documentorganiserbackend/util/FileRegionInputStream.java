@@ -0,0 +1,83 @@
+package com.alphadocuments.documentorganiserbackend.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reads a region of a file with positional reads, so the channel's own position is never moved.
+ * {@link #transferTo} hands the region to {@link FileChannel#transferTo}, avoiding a copy through a
+ * heap buffer. Closing the stream closes the channel.
+ */
+public final class FileRegionInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private long position;
+    private long remaining;
+
+    public FileRegionInputStream(FileChannel channel, long position, long length) {
+        this.channel = channel;
+        this.position = position;
+        this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int read = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, remaining)), position);
+        if (read < 0) {
+            throw new EOFException("File is shorter than expected");
+        }
+        position += read;
+        remaining -= read;
+        return read;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, remaining));
+        position += skipped;
+        remaining -= skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(remaining, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        // Not closed: that would close the target stream
+        WritableByteChannel target = Channels.newChannel(out);
+        long transferred = 0;
+        while (remaining > 0) {
+            long sent = channel.transferTo(position, remaining, target);
+            if (sent <= 0) {
+                throw new EOFException("File is shorter than expected");
+            }
+            position += sent;
+            remaining -= sent;
+            transferred += sent;
+        }
+        return transferred;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
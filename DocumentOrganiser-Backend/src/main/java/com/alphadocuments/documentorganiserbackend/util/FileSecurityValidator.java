@@ -1,27 +1,20 @@
 package com.alphadocuments.documentorganiserbackend.util;
 
 import com.alphadocuments.documentorganiserbackend.exception.ValidationException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.tika.Tika;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.Set;
 
 /**
  * Utility for validating uploaded files for security.
- * Uses Apache Tika for magic byte detection to prevent MIME type spoofing.
+ * Content is checked against the magic bytes detected by {@link FileInspector} to prevent MIME type spoofing.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class FileSecurityValidator {
 
-    private final Tika tika = new Tika();
-
     // Dangerous file types that should never be uploaded
     private static final Set<String> BLOCKED_MIME_TYPES = Set.of(
             "application/x-msdownload",      // .exe
@@ -57,21 +50,33 @@ public class FileSecurityValidator {
     private static final long MAX_FILE_SIZE = 100 * 1024 * 1024;
 
     /**
-     * Validates an uploaded file for security issues.
+     * Validates an uploaded file's name and size for security issues.
+     * Content is checked separately with {@link #validateContent(FileInspection)} so the
+     * upload stream only has to be read once.
      * @throws ValidationException if the file fails validation
      */
     public void validateFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new ValidationException("File is empty");
         }
+        validateFileName(file.getOriginalFilename(), file.getSize());
+    }
+
+    /**
+     * Validates a file name and declared size for uploads that do not arrive as a MultipartFile.
+     * @throws ValidationException if the file fails validation
+     */
+    public void validateFileName(String originalFilename, long size) {
+        if (size <= 0) {
+            throw new ValidationException("File is empty");
+        }
 
-        String originalFilename = file.getOriginalFilename();
         if (originalFilename == null || originalFilename.isBlank()) {
             throw new ValidationException("File name is required");
         }
 
         // Check file size
-        if (file.getSize() > MAX_FILE_SIZE) {
+        if (size > MAX_FILE_SIZE) {
             throw new ValidationException("File size exceeds maximum allowed (100MB)");
         }
 
@@ -82,32 +87,6 @@ public class FileSecurityValidator {
             throw new ValidationException("File type not allowed: " + extension);
         }
 
-        // Detect actual MIME type using magic bytes
-        String detectedMimeType;
-        try (InputStream is = file.getInputStream()) {
-            detectedMimeType = tika.detect(is);
-        } catch (IOException e) {
-            log.error("Failed to detect file type", e);
-            throw new ValidationException("Unable to validate file type");
-        }
-
-        // Check if detected MIME type is blocked
-        if (BLOCKED_MIME_TYPES.contains(detectedMimeType)) {
-            log.warn("Blocked file upload with detected MIME type: {} (claimed: {})",
-                    detectedMimeType, file.getContentType());
-            throw new ValidationException("File type not allowed");
-        }
-
-        // Check for MIME type mismatch (potential spoofing)
-        String claimedMimeType = file.getContentType();
-        if (claimedMimeType != null && !claimedMimeType.equals("application/octet-stream")) {
-            if (!areMimeTypesCompatible(claimedMimeType, detectedMimeType)) {
-                log.warn("MIME type mismatch detected. Claimed: {}, Detected: {}",
-                        claimedMimeType, detectedMimeType);
-                // Allow but log - some browsers send incorrect MIME types
-            }
-        }
-
         // Check for double extensions (e.g., file.pdf.exe)
         if (hasDoubleExtension(originalFilename)) {
             String secondExt = getSecondExtension(originalFilename);
@@ -131,12 +110,34 @@ public class FileSecurityValidator {
     }
 
     /**
-     * Get the detected MIME type using magic bytes.
+     * Validates the result of inspecting the file's magic bytes.
+     * @throws ValidationException if the detected type is not allowed
      */
-    public String getDetectedMimeType(MultipartFile file) throws IOException {
-        try (InputStream is = file.getInputStream()) {
-            return tika.detect(is);
+    public void validateContent(FileInspection inspection) {
+        String detectedMimeType = inspection.detectedMimeType();
+        String claimedMimeType = inspection.claimedMimeType();
+
+        if (inspection.blocked()) {
+            log.warn("Blocked file upload with detected MIME type: {} (claimed: {})",
+                    detectedMimeType, claimedMimeType);
+            throw new ValidationException("File type not allowed");
         }
+
+        // Check for MIME type mismatch (potential spoofing)
+        if (claimedMimeType != null && !claimedMimeType.equals("application/octet-stream")) {
+            if (!areMimeTypesCompatible(claimedMimeType, detectedMimeType)) {
+                log.warn("MIME type mismatch detected. Claimed: {}, Detected: {}",
+                        claimedMimeType, detectedMimeType);
+                // Allow but log - some browsers send incorrect MIME types
+            }
+        }
+    }
+
+    /**
+     * Whether a file with this extension and detected MIME type must never be stored.
+     */
+    public boolean isBlocked(String extension, String detectedMimeType) {
+        return BLOCKED_EXTENSIONS.contains(extension.toLowerCase()) || BLOCKED_MIME_TYPES.contains(detectedMimeType);
     }
 
     private String getExtension(String filename) {
@@ -1,12 +1,10 @@
 package com.alphadocuments.documentorganiserbackend.util;
 
 import com.alphadocuments.documentorganiserbackend.entity.enums.DocumentCategory;
+import lombok.RequiredArgsConstructor;
 import org.apache.tika.Tika;
 import org.springframework.stereotype.Component;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.Map;
 import java.util.Set;
 
@@ -14,9 +12,10 @@ import java.util.Set;
  * Utility class for file type detection and categorization.
  */
 @Component
+@RequiredArgsConstructor
 public class FileTypeUtil {
 
-    private final Tika tika = new Tika();
+    private final Tika tika;
 
     private static final Map<String, Set<String>> CATEGORY_EXTENSIONS = Map.of(
             "DOCUMENTS", Set.of("pdf", "doc", "docx", "txt", "rtf", "odt", "xps", "epub", "md"),
@@ -44,13 +43,6 @@ public class FileTypeUtil {
                     "application/x-tar", "application/gzip")
     );
 
-    /**
-     * Detect MIME type from input stream.
-     */
-    public String detectMimeType(InputStream inputStream) throws IOException {
-        return tika.detect(inputStream);
-    }
-
     /**
      * Detect MIME type from file name.
      */
@@ -59,14 +51,14 @@ public class FileTypeUtil {
     }
 
     /**
-     * Detect MIME type from MultipartFile.
+     * Resolve the MIME type to store: the client-declared type unless it is missing or generic,
+     * in which case the magic-byte detected type is used.
      */
-    public String detectMimeType(MultipartFile file) throws IOException {
-        String mimeType = file.getContentType();
-        if (mimeType == null || mimeType.equals("application/octet-stream")) {
-            mimeType = tika.detect(file.getInputStream());
+    public String resolveMimeType(String claimedMimeType, String detectedMimeType) {
+        if (claimedMimeType == null || claimedMimeType.equals("application/octet-stream")) {
+            return detectedMimeType;
         }
-        return mimeType;
+        return claimedMimeType;
     }
 
     /**
@@ -0,0 +1,195 @@
+package com.alphadocuments.documentorganiserbackend.util;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Copies a published body to an asynchronous servlet response using non-blocking I/O.
+ * <p>
+ * One buffer is requested at a time and written only while the output stream is ready, so a slow client
+ * holds back the storage download instead of a thread. Writes happen on whichever thread delivers the
+ * buffer or reports the stream writable; the state they share is guarded by this object's monitor, and
+ * upstream demand is signalled outside it so a synchronous publisher cannot recurse into a held lock.
+ */
+@Slf4j
+final class NonBlockingResponseWriter implements Subscriber<ByteBuffer>, WriteListener, AsyncListener {
+
+    private final AsyncContext asyncContext;
+    private final HttpServletResponse response;
+    private final ServletOutputStream out;
+
+    private Subscription subscription;
+    private ByteBuffer pending;
+    private boolean upstreamDone;
+    private boolean finished;
+
+    private NonBlockingResponseWriter(AsyncContext asyncContext, HttpServletResponse response) throws IOException {
+        this.asyncContext = asyncContext;
+        this.response = response;
+        this.out = response.getOutputStream();
+    }
+
+    /**
+     * Put the request into async mode and stream the body once it is available. Must be called on the
+     * request thread, which returns straight away.
+     */
+    static void stream(AsyncContext asyncContext, HttpServletResponse response,
+                       CompletableFuture<? extends Publisher<ByteBuffer>> body) throws IOException {
+        NonBlockingResponseWriter writer = new NonBlockingResponseWriter(asyncContext, response);
+        asyncContext.addListener(writer);
+        writer.out.setWriteListener(writer);
+        body.whenComplete((publisher, error) -> {
+            if (error != null) {
+                writer.abort(error);
+            } else {
+                publisher.subscribe(writer);
+            }
+        });
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        boolean cancel;
+        synchronized (this) {
+            this.subscription = subscription;
+            cancel = finished;
+        }
+        if (cancel) {
+            subscription.cancel();
+        } else {
+            subscription.request(1);
+        }
+    }
+
+    @Override
+    public void onNext(ByteBuffer buffer) {
+        synchronized (this) {
+            pending = buffer;
+        }
+        drain();
+    }
+
+    // Both the publisher's failure and the response stream's (Subscriber and WriteListener share the signature)
+    @Override
+    public void onError(Throwable error) {
+        abort(error);
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            upstreamDone = true;
+        }
+        drain();
+    }
+
+    @Override
+    public void onWritePossible() {
+        drain();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        abort(event.getThrowable());
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        abort(new IOException("Download timed out"));
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    /**
+     * Write the pending buffer if the stream is ready, then ask for the next one or complete the response.
+     * When the stream is not ready, the container calls {@link #onWritePossible()} once it is.
+     */
+    private void drain() {
+        boolean requestNext = false;
+        boolean complete = false;
+        try {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                if (pending != null && out.isReady()) {
+                    write(pending);
+                    pending = null;
+                    requestNext = !upstreamDone;
+                }
+                if (pending == null && upstreamDone && out.isReady()) {
+                    finished = true;
+                    complete = true;
+                }
+            }
+        } catch (IOException e) {
+            // Usually the client went away
+            log.debug("Streaming download stopped: {}", e.getMessage());
+            abort(e);
+            return;
+        }
+
+        if (requestNext) {
+            subscription.request(1);
+        }
+        if (complete) {
+            asyncContext.complete();
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Stop the download. Before anything was sent the client gets an error status; afterwards the
+     * response is cut short, which the declared Content-Length lets the client detect.
+     */
+    private void abort(Throwable error) {
+        Subscription toCancel;
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            toCancel = subscription;
+        }
+        if (toCancel != null) {
+            toCancel.cancel();
+        }
+        if (!response.isCommitted()) {
+            log.error("Failed to stream download", error);
+            response.reset();
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException e) {
+            // Already completed by the container, e.g. after a timeout
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.alphadocuments.documentorganiserbackend.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Streaming ZIP writer whose state can be saved after any entry and restored in another process.
+ * <p>
+ * {@link java.util.zip.ZipOutputStream} keeps the central directory to itself, so an archive it was
+ * writing cannot be continued after a restart. This writer returns each entry's central directory record
+ * as it is written; given the records and the byte offset reached, a new writer appends further entries
+ * and the final central directory to the same archive. Entries are limited to 4 GB each; the archive as
+ * a whole uses ZIP64 records when it outgrows the classic format.
+ */
+public class ResumableZipWriter {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final int FLAG_UTF8 = 0x0800;
+    private static final int VERSION_DEFAULT = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final long MAX_32 = 0xFFFFFFFFL;
+    private static final int MAX_16 = 0xFFFF;
+
+    private final CountingOutputStream out;
+    private final List<Entry> entries;
+
+    /**
+     * Central directory record of a written entry.
+     *
+     * @param name           entry path
+     * @param method         {@link java.util.zip.ZipEntry#STORED} or {@link java.util.zip.ZipEntry#DEFLATED}
+     * @param dosTime        modification time in MS-DOS format, date in the high 16 bits
+     * @param dataDescriptor whether the CRC and sizes follow the data instead of being in the local header
+     * @param offset         offset of the entry's local header in the archive
+     */
+    public record Entry(String name, int method, long crc, long compressedSize, long size,
+                        long dosTime, boolean dataDescriptor, long offset) {
+    }
+
+    /**
+     * Start a new archive.
+     */
+    public ResumableZipWriter(OutputStream target) {
+        this(target, 0, List.of());
+    }
+
+    /**
+     * Continue an archive whose first {@code offset} bytes, holding the given entries, were already written.
+     */
+    public ResumableZipWriter(OutputStream target, long offset, List<Entry> writtenEntries) {
+        this.out = new CountingOutputStream(target, offset);
+        this.entries = new ArrayList<>(writtenEntries);
+    }
+
+    /**
+     * Bytes of the archive written so far, including those written before a restore.
+     */
+    public long getOffset() {
+        return out.count;
+    }
+
+    /**
+     * Write content that is already in memory without compressing it.
+     */
+    public Entry writeStored(String name, Instant modified, byte[] content) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        Entry entry = new Entry(name, 0, crc.getValue(), content.length, content.length,
+                dosTime(modified), false, out.count);
+        writeLocalHeader(entry);
+        out.write(content);
+        entries.add(entry);
+        return entry;
+    }
+
+    /**
+     * Deflate streamed content, following it with a data descriptor since its CRC is only known at the end.
+     * @param level deflate level; {@link Deflater#NO_COMPRESSION} for content that is already compressed
+     */
+    public Entry writeDeflated(String name, Instant modified, InputStream content, int level) throws IOException {
+        long offset = out.count;
+        long time = dosTime(modified);
+        writeLocalHeader(new Entry(name, 8, 0, 0, 0, time, true, offset));
+
+        CRC32 crc = new CRC32();
+        long size = 0;
+        long dataStart = out.count;
+        Deflater deflater = new Deflater(level, true);
+        try {
+            // Finished rather than closed, since closing would close the archive
+            DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater, 64 * 1024);
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                deflated.write(buffer, 0, read);
+                size += read;
+            }
+            deflated.finish();
+        } finally {
+            deflater.end();
+        }
+        long compressedSize = out.count - dataStart;
+        if (size > MAX_32 || compressedSize > MAX_32) {
+            throw new IOException("Entry " + name + " exceeds 4 GB");
+        }
+
+        ByteBuffer descriptor = buffer(16);
+        descriptor.putInt(DATA_DESCRIPTOR_SIGNATURE);
+        descriptor.putInt((int) crc.getValue());
+        descriptor.putInt((int) compressedSize);
+        descriptor.putInt((int) size);
+        out.write(descriptor.array());
+
+        Entry entry = new Entry(name, 8, crc.getValue(), compressedSize, size, time, true, offset);
+        entries.add(entry);
+        return entry;
+    }
+
+    /**
+     * Write the central directory. The archive is complete once this returns; the target is not closed.
+     */
+    public void finish() throws IOException {
+        long directoryStart = out.count;
+        for (Entry entry : entries) {
+            writeCentralHeader(entry);
+        }
+        long directorySize = out.count - directoryStart;
+
+        boolean zip64 = entries.size() >= MAX_16 || directoryStart >= MAX_32 || directorySize >= MAX_32;
+        if (zip64) {
+            long zip64EndOffset = out.count;
+            ByteBuffer end64 = buffer(56);
+            end64.putInt(ZIP64_END_SIGNATURE);
+            end64.putLong(44);
+            end64.putShort((short) VERSION_ZIP64);
+            end64.putShort((short) VERSION_ZIP64);
+            end64.putInt(0);
+            end64.putInt(0);
+            end64.putLong(entries.size());
+            end64.putLong(entries.size());
+            end64.putLong(directorySize);
+            end64.putLong(directoryStart);
+            out.write(end64.array());
+
+            ByteBuffer locator = buffer(20);
+            locator.putInt(ZIP64_LOCATOR_SIGNATURE);
+            locator.putInt(0);
+            locator.putLong(zip64EndOffset);
+            locator.putInt(1);
+            out.write(locator.array());
+        }
+
+        ByteBuffer end = buffer(22);
+        end.putInt(END_SIGNATURE);
+        end.putShort((short) 0);
+        end.putShort((short) 0);
+        end.putShort((short) Math.min(entries.size(), MAX_16));
+        end.putShort((short) Math.min(entries.size(), MAX_16));
+        end.putInt((int) Math.min(directorySize, MAX_32));
+        end.putInt((int) Math.min(directoryStart, MAX_32));
+        end.putShort((short) 0);
+        out.write(end.array());
+        out.flush();
+    }
+
+    private void writeLocalHeader(Entry entry) throws IOException {
+        byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = buffer(30);
+        header.putInt(LOCAL_HEADER_SIGNATURE);
+        header.putShort((short) VERSION_DEFAULT);
+        header.putShort((short) (FLAG_UTF8 | (entry.dataDescriptor() ? FLAG_DATA_DESCRIPTOR : 0)));
+        header.putShort((short) entry.method());
+        header.putInt((int) entry.dosTime());
+        header.putInt((int) entry.crc());
+        header.putInt((int) entry.compressedSize());
+        header.putInt((int) entry.size());
+        header.putShort((short) name.length);
+        header.putShort((short) 0);
+        out.write(header.array());
+        out.write(name);
+    }
+
+    private void writeCentralHeader(Entry entry) throws IOException {
+        byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+        // Only the local header offset can outgrow 32 bits, since entries are limited to 4 GB
+        boolean zip64Offset = entry.offset() >= MAX_32;
+        ByteBuffer header = buffer(46);
+        header.putInt(CENTRAL_HEADER_SIGNATURE);
+        header.putShort((short) VERSION_ZIP64);
+        header.putShort((short) (zip64Offset ? VERSION_ZIP64 : VERSION_DEFAULT));
+        header.putShort((short) (FLAG_UTF8 | (entry.dataDescriptor() ? FLAG_DATA_DESCRIPTOR : 0)));
+        header.putShort((short) entry.method());
+        header.putInt((int) entry.dosTime());
+        header.putInt((int) entry.crc());
+        header.putInt((int) entry.compressedSize());
+        header.putInt((int) entry.size());
+        header.putShort((short) name.length);
+        header.putShort((short) (zip64Offset ? 12 : 0));
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putInt(0);
+        header.putInt((int) (zip64Offset ? MAX_32 : entry.offset()));
+        out.write(header.array());
+        out.write(name);
+        if (zip64Offset) {
+            ByteBuffer extra = buffer(12);
+            extra.putShort((short) 0x0001);
+            extra.putShort((short) 8);
+            extra.putLong(entry.offset());
+            out.write(extra.array());
+        }
+    }
+
+    private static ByteBuffer buffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long dosTime(Instant instant) {
+        LocalDateTime time = LocalDateTime.ofInstant(instant != null ? instant : Instant.now(), ZoneId.systemDefault());
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        long date = ((long) (time.getYear() - 1980) << 9) | ((long) time.getMonthValue() << 5) | time.getDayOfMonth();
+        long clock = ((long) time.getHour() << 11) | ((long) time.getMinute() << 5) | (time.getSecond() >> 1);
+        return (date << 16) | clock;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out, long count) {
+            super(out);
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+-- V11: Resumable upload sessions
+-- Chunks are uploaded as S3 multipart parts and assembled into a document on completion
+
+CREATE TABLE upload_sessions (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    workspace_id UUID REFERENCES workspaces(id) ON DELETE CASCADE,
+    folder_id UUID,
+    file_name VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255),
+    detected_mime_type VARCHAR(255),
+    file_size BIGINT NOT NULL,
+    chunk_size BIGINT NOT NULL,
+    total_chunks INTEGER NOT NULL,
+    conflict_resolution VARCHAR(20),
+    expected_checksum VARCHAR(64),
+    storage_key VARCHAR(255) NOT NULL,
+    storage_upload_id VARCHAR(1024) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',  -- ACTIVE, COMPLETING, COMPLETED, ABORTED, EXPIRED, FAILED
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    document_id UUID REFERENCES documents(id) ON DELETE SET NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_upload_sessions_user_id ON upload_sessions(user_id);
+
+-- Cleanup job scans for abandoned sessions
+CREATE INDEX idx_upload_sessions_status_expires ON upload_sessions(status, expires_at);
+
+CREATE TABLE upload_session_chunks (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    session_id UUID NOT NULL REFERENCES upload_sessions(id) ON DELETE CASCADE,
+    chunk_index INTEGER NOT NULL,
+    chunk_size BIGINT NOT NULL,
+    etag VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+
+    CONSTRAINT uk_upload_session_chunk UNIQUE (session_id, chunk_index)
+);
+
+CREATE INDEX idx_upload_session_chunks_session_id ON upload_session_chunks(session_id);
+
+COMMENT ON TABLE upload_sessions IS 'Resumable chunked uploads backed by S3 multipart uploads.';
+COMMENT ON COLUMN upload_sessions.storage_upload_id IS 'S3 multipart upload ID; aborted when the session expires.';
@@ -0,0 +1,12 @@
+-- V12: Direct-to-bucket uploads
+-- Direct uploads reuse upload_sessions to reserve quota until the client completes them
+
+ALTER TABLE upload_sessions ADD COLUMN upload_type VARCHAR(20) NOT NULL DEFAULT 'CHUNKED';  -- CHUNKED, DIRECT
+
+-- Single pre-signed PUTs have no multipart upload
+ALTER TABLE upload_sessions ALTER COLUMN storage_upload_id DROP NOT NULL;
+
+-- Quota reservation sums the active sessions of a user
+CREATE INDEX idx_upload_sessions_user_status ON upload_sessions(user_id, status);
+
+COMMENT ON COLUMN upload_sessions.upload_type IS 'CHUNKED uploads are proxied by the API; DIRECT uploads go straight to the bucket.';
@@ -0,0 +1,45 @@
+-- V13: Content-addressed blob storage
+-- Identical content is stored once and shared by documents, versions and copies.
+-- The stored object is deleted when the last reference to it goes away.
+
+CREATE TABLE storage_blobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    checksum VARCHAR(128),
+    storage_key VARCHAR(1024) NOT NULL UNIQUE,
+    file_size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+-- New uploads resolve to the blob with the same checksum
+CREATE UNIQUE INDEX idx_storage_blobs_checksum ON storage_blobs(checksum) WHERE checksum IS NOT NULL;
+
+-- Documents and copies now share storage keys
+ALTER TABLE documents DROP CONSTRAINT IF EXISTS documents_storage_key_key;
+CREATE INDEX idx_documents_storage_key ON documents(storage_key);
+
+-- Track every object already referenced by a document or version
+INSERT INTO storage_blobs (storage_key, file_size, ref_count)
+SELECT refs.storage_key, MAX(refs.file_size), COUNT(*)
+FROM (
+    SELECT storage_key, file_size FROM documents
+    UNION ALL
+    SELECT storage_key, file_size FROM document_versions
+) refs
+GROUP BY refs.storage_key;
+
+-- Existing uploads stored duplicate content under separate keys. One object per checksum
+-- becomes the shared blob; the others keep their references but take no new ones.
+UPDATE storage_blobs b
+SET checksum = canonical.checksum
+FROM (
+    SELECT DISTINCT ON (refs.checksum) refs.checksum, refs.storage_key
+    FROM (
+        SELECT storage_key, checksum, created_at FROM documents WHERE checksum IS NOT NULL
+        UNION ALL
+        SELECT storage_key, checksum, created_at FROM document_versions WHERE checksum IS NOT NULL
+    ) refs
+    ORDER BY refs.checksum, refs.created_at
+) canonical
+WHERE b.storage_key = canonical.storage_key;
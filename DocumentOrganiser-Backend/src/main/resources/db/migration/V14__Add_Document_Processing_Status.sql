@@ -0,0 +1,9 @@
+-- V14: Background content processing
+-- Text and metadata are extracted into document_metadata after upload; the status tracks progress.
+-- Existing documents keep a NULL status until their content is uploaded or restored again.
+
+ALTER TABLE documents ADD COLUMN processing_status VARCHAR(20);
+
+-- The sweep job picks up documents that were never queued or whose worker died
+CREATE INDEX idx_documents_processing_status ON documents(processing_status, updated_at)
+    WHERE processing_status IN ('PENDING', 'PROCESSING');
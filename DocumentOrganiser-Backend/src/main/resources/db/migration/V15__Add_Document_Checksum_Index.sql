@@ -0,0 +1,3 @@
+-- V15: Instant uploads look up existing content by SHA-256 within a user's or workspace's documents
+
+CREATE INDEX idx_documents_checksum ON documents(checksum) WHERE checksum IS NOT NULL;
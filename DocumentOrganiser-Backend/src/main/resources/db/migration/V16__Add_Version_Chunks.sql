@@ -0,0 +1,20 @@
+-- V16: Delta storage for document versions
+-- Superseded versions are stored as content-defined chunks. Each chunk is a storage blob, so
+-- blocks shared between versions are stored once and reference-counted.
+
+ALTER TABLE document_versions ALTER COLUMN storage_key DROP NOT NULL;
+ALTER TABLE document_versions ADD COLUMN mime_type VARCHAR(255);
+ALTER TABLE document_versions ADD COLUMN chunked BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE TABLE document_version_chunks (
+    id UUID PRIMARY KEY,
+    version_id UUID NOT NULL REFERENCES document_versions(id) ON DELETE CASCADE,
+    chunk_index INTEGER NOT NULL,
+    storage_key VARCHAR(1024) NOT NULL,
+    chunk_size BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    UNIQUE (version_id, chunk_index)
+);
+
+CREATE INDEX idx_document_version_chunks_version_id ON document_version_chunks(version_id);
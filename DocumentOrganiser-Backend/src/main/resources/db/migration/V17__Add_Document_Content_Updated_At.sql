@@ -0,0 +1,6 @@
+-- V17: When a document's content last changed, used as Last-Modified for downloads.
+-- updated_at also moves on renames, moves and download counting, so it cannot serve as a validator.
+
+ALTER TABLE documents ADD COLUMN content_updated_at TIMESTAMP WITH TIME ZONE;
+
+UPDATE documents SET content_updated_at = updated_at;
@@ -0,0 +1,55 @@
+-- V18: Background export jobs
+-- Archives are written to storage as multipart uploads and checkpointed so another instance can resume them
+
+CREATE TABLE export_jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED',  -- QUEUED, RUNNING, COMPLETED, FAILED, EXPIRED
+    total_entries BIGINT NOT NULL,
+    total_bytes BIGINT NOT NULL,
+    entries_written BIGINT NOT NULL DEFAULT 0,
+    bytes_processed BIGINT NOT NULL DEFAULT 0,
+    storage_key VARCHAR(1024),
+    storage_upload_id VARCHAR(1024),
+    uploaded_parts INTEGER NOT NULL DEFAULT 0,
+    archive_offset BIGINT NOT NULL DEFAULT 0,
+    cursor_created_at TIMESTAMP WITH TIME ZONE,
+    cursor_document_id UUID,
+    archive_size BIGINT,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    lease_id UUID,
+    heartbeat_at TIMESTAMP WITH TIME ZONE,
+    error_message VARCHAR(1000),
+    completed_at TIMESTAMP WITH TIME ZONE,
+    expires_at TIMESTAMP WITH TIME ZONE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_export_jobs_user_status ON export_jobs(user_id, status);
+
+-- The sweep looks for queued jobs and running jobs whose worker stopped sending heartbeats
+CREATE INDEX idx_export_jobs_status_heartbeat ON export_jobs(status, heartbeat_at);
+
+CREATE TABLE export_job_entries (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    job_id UUID NOT NULL REFERENCES export_jobs(id) ON DELETE CASCADE,
+    path VARCHAR(1024) NOT NULL,
+    method INTEGER NOT NULL,
+    crc BIGINT NOT NULL,
+    compressed_size BIGINT NOT NULL,
+    size BIGINT NOT NULL,
+    dos_time BIGINT NOT NULL,
+    data_descriptor BOOLEAN NOT NULL,
+    header_offset BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_export_job_entries_job_id ON export_job_entries(job_id);
+
+-- Export pages walk a user's documents in (created_at, id) order
+CREATE INDEX idx_documents_user_created_id ON documents(user_id, created_at, id) WHERE is_deleted = FALSE;
+
+-- At most one queued or running export per user
+CREATE UNIQUE INDEX uk_export_jobs_user_active ON export_jobs(user_id) WHERE status IN ('QUEUED', 'RUNNING');
@@ -0,0 +1,8 @@
+-- V19: Prefix indexes for folder subtree queries
+-- Folder downloads find a subtree with path LIKE '<folder path>/%'. A plain btree index cannot serve
+-- LIKE prefixes under a non-C collation, so these use text_pattern_ops.
+CREATE INDEX idx_folders_user_path_prefix ON folders(user_id, path text_pattern_ops)
+    WHERE is_deleted = FALSE AND workspace_id IS NULL;
+
+CREATE INDEX idx_folders_workspace_path_prefix ON folders(workspace_id, path text_pattern_ops)
+    WHERE is_deleted = FALSE AND workspace_id IS NOT NULL;
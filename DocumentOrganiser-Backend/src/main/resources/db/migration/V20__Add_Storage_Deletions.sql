@@ -0,0 +1,14 @@
+-- V20: Queue of storage objects to delete
+-- Written in the transaction that drops the last reference to an object and drained in batches,
+-- so a crash between the commit and the delete no longer leaves the object behind.
+
+CREATE TABLE storage_deletions (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    storage_key VARCHAR(1024) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_storage_deletions_next_attempt_at ON storage_deletions(next_attempt_at);
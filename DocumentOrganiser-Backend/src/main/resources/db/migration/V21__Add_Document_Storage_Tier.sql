@@ -0,0 +1,9 @@
+-- V21: Storage tiering
+-- Content not read for a while is moved to a cheaper storage class and moved back when it is read again.
+
+ALTER TABLE documents ADD COLUMN storage_tier VARCHAR(20) NOT NULL DEFAULT 'STANDARD';
+ALTER TABLE documents ADD COLUMN tier_changed_at TIMESTAMP WITH TIME ZONE;
+
+-- The tiering job walks standard-tier documents in (last access or upload time, id) order
+CREATE INDEX idx_documents_tiering ON documents ((COALESCE(last_accessed_at, created_at)), id)
+    WHERE storage_tier = 'STANDARD';
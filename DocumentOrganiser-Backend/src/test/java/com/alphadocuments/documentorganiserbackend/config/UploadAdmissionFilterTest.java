@@ -0,0 +1,170 @@
+package com.alphadocuments.documentorganiserbackend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadAdmissionFilterTest {
+
+    private static final int MB = 1024 * 1024;
+
+    private UploadAdmissionProperties properties;
+    private UploadAdmissionFilter filter;
+    private ExecutorService uploads;
+
+    @BeforeEach
+    void setUp() {
+        properties = new UploadAdmissionProperties();
+        properties.setQueueTimeoutMs(0);
+        filter = new UploadAdmissionFilter(properties, new SimpleMeterRegistry());
+        filter.registerGauges();
+        uploads = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploads.shutdownNow();
+    }
+
+    @Test
+    void onlyFiltersRequestsThatCarryFileContent() {
+        assertThat(filter.shouldNotFilter(request("POST", "/api/v1/documents", "10.0.0.1", 0))).isFalse();
+        assertThat(filter.shouldNotFilter(request("POST", "/api/v1/documents/batch", "10.0.0.1", 0))).isFalse();
+        assertThat(filter.shouldNotFilter(request("PUT", "/api/v1/uploads/sessions/abc/chunks/3", "10.0.0.1", 0))).isFalse();
+        assertThat(filter.shouldNotFilter(request("GET", "/api/v1/documents", "10.0.0.1", 0))).isTrue();
+        assertThat(filter.shouldNotFilter(request("PUT", "/api/v1/documents/abc", "10.0.0.1", 0))).isTrue();
+
+        properties.setEnabled(false);
+        assertThat(filter.shouldNotFilter(request("POST", "/api/v1/documents", "10.0.0.1", 0))).isTrue();
+    }
+
+    @Test
+    void rejectsUploadsBeyondPerUserLimit() throws Exception {
+        properties.setMaxConcurrentUploadsPerUser(1);
+        CountDownLatch finish = startUpload("10.0.0.1", 10);
+
+        MockHttpServletResponse rejected = upload("10.0.0.1", 10);
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo(String.valueOf(properties.getRetryAfterSeconds()));
+        assertThat(rejected.getContentAsString()).contains("UPLOAD_CAPACITY_EXCEEDED");
+
+        // Another user is not affected
+        assertThat(upload("10.0.0.2", 10).getStatus()).isEqualTo(200);
+
+        finish.countDown();
+        awaitIdle("10.0.0.1");
+    }
+
+    @Test
+    void rejectsUploadsBeyondGlobalLimit() throws Exception {
+        properties.setMaxConcurrentUploads(1);
+        CountDownLatch finish = startUpload("10.0.0.1", 10);
+
+        assertThat(upload("10.0.0.2", 10).getStatus()).isEqualTo(503);
+
+        finish.countDown();
+        awaitIdle("10.0.0.2");
+    }
+
+    @Test
+    void admitsOversizedUploadOnlyWhileByteBudgetIsIdle() throws Exception {
+        properties.setMaxInFlightMbPerUser(1);
+        // Larger than the whole budget, but nothing else holds it
+        CountDownLatch finish = startUpload("10.0.0.1", 2 * MB);
+
+        assertThat(upload("10.0.0.1", 10).getStatus()).isEqualTo(503);
+
+        finish.countDown();
+        awaitIdle("10.0.0.1");
+    }
+
+    @Test
+    void queuedUploadIsAdmittedWhenCapacityIsReleased() throws Exception {
+        properties.setMaxConcurrentUploadsPerUser(1);
+        properties.setQueueTimeoutMs(10_000);
+        CountDownLatch finish = startUpload("10.0.0.1", 10);
+
+        Future<MockHttpServletResponse> queued = uploads.submit(() -> upload("10.0.0.1", 10));
+        Thread.sleep(100);
+        assertThat(queued.isDone()).isFalse();
+
+        finish.countDown();
+        assertThat(queued.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFull() throws Exception {
+        properties.setMaxConcurrentUploadsPerUser(1);
+        properties.setQueueTimeoutMs(10_000);
+        properties.setMaxQueueDepth(0);
+        CountDownLatch finish = startUpload("10.0.0.1", 10);
+
+        long started = System.nanoTime();
+        assertThat(upload("10.0.0.1", 10).getStatus()).isEqualTo(503);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(5_000);
+
+        finish.countDown();
+        awaitIdle("10.0.0.1");
+    }
+
+    /**
+     * Start an upload that holds its admission until the returned latch is released.
+     */
+    private CountDownLatch startUpload(String remoteAddr, int bytes) throws Exception {
+        CountDownLatch admitted = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        FilterChain chain = (request, response) -> {
+            admitted.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        uploads.submit(() -> {
+            filter.doFilter(request("POST", "/api/v1/documents", remoteAddr, bytes), new MockHttpServletResponse(), chain);
+            return null;
+        });
+        assertThat(admitted.await(5, TimeUnit.SECONDS)).isTrue();
+        return finish;
+    }
+
+    private MockHttpServletResponse upload(String remoteAddr, int bytes) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "/api/v1/documents", remoteAddr, bytes), response, new MockFilterChain());
+        return response;
+    }
+
+    /**
+     * Wait until a released upload has given its capacity back, by retrying until one is admitted.
+     */
+    private void awaitIdle(String remoteAddr) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (upload(remoteAddr, 10).getStatus() != 200) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String remoteAddr, int bytes) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setContextPath("/api/v1");
+        request.setRemoteAddr(remoteAddr);
+        request.setContent(new byte[bytes]);
+        return request;
+    }
+}
@@ -0,0 +1,154 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.AccessCounterProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AccessCountAggregatorImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private AccessCountAggregatorImpl aggregator;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        aggregator = new AccessCountAggregatorImpl(jdbcTemplate, new AccessCounterProperties(),
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry());
+        aggregator.initialize();
+    }
+
+    @Test
+    void mergesAccessesToSameRowIntoOneUpdate() {
+        UUID documentId = UUID.randomUUID();
+        Instant before = Instant.now();
+        aggregator.recordDocumentDownload(documentId);
+        aggregator.recordDocumentDownload(documentId);
+        aggregator.recordDocumentDownload(documentId);
+        Instant after = Instant.now();
+
+        aggregator.flush();
+
+        List<Object[]> rows = flushedRows("documents");
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)[0]).isEqualTo(3L);
+        assertThat(((OffsetDateTime) rows.get(0)[1]).toInstant()).isBetween(before, after);
+        assertThat(rows.get(0)[3]).isEqualTo(documentId);
+    }
+
+    @Test
+    void accessWithoutDownloadOnlyMovesLastAccessTime() {
+        UUID previewed = new UUID(0, 1);
+        UUID downloaded = new UUID(0, 2);
+        aggregator.recordDocumentAccess(previewed);
+        aggregator.recordDocumentAccess(downloaded);
+        aggregator.recordDocumentDownload(downloaded);
+
+        aggregator.flush();
+
+        List<Object[]> rows = flushedRows("documents");
+        assertThat(rows.get(0)[0]).isEqualTo(0L);
+        assertThat(rows.get(0)[3]).isEqualTo(previewed);
+        assertThat(rows.get(1)[0]).isEqualTo(1L);
+        assertThat(rows.get(1)[3]).isEqualTo(downloaded);
+    }
+
+    @Test
+    void writesEachTableAsOneBatchInIdOrder() {
+        UUID first = new UUID(0, 1);
+        UUID second = new UUID(0, 2);
+        UUID shareLinkId = UUID.randomUUID();
+        aggregator.recordDocumentDownload(second);
+        aggregator.recordDocumentDownload(first);
+        aggregator.recordShareLinkAccess(shareLinkId);
+        aggregator.recordShareLinkAccess(shareLinkId);
+
+        aggregator.flush();
+
+        List<Object[]> documents = flushedRows("documents");
+        assertThat(documents).extracting(row -> row[3]).containsExactly(first, second);
+        List<Object[]> shareLinks = flushedRows("share_links");
+        assertThat(shareLinks).hasSize(1);
+        assertThat(shareLinks.get(0)[0]).isEqualTo(2L);
+        verify(transactionManager, times(2)).getTransaction(any());
+    }
+
+    @Test
+    void flushDrainsPendingCounts() {
+        aggregator.recordDocumentDownload(UUID.randomUUID());
+
+        aggregator.flush();
+        aggregator.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void emptyFlushDoesNotOpenTransaction() {
+        aggregator.flush();
+
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void failedFlushKeepsCountsAndMergesNewAccesses() {
+        UUID documentId = UUID.randomUUID();
+        aggregator.recordDocumentDownload(documentId);
+        aggregator.recordDocumentDownload(documentId);
+        doThrow(new IllegalStateException("database unavailable"))
+                .doReturn(new int[]{1})
+                .when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        aggregator.flush();
+        aggregator.recordDocumentDownload(documentId);
+        aggregator.flush();
+
+        ArgumentCaptor<List<Object[]>> rows = rowsCaptor();
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("UPDATE documents"), rows.capture());
+        assertThat(rows.getAllValues().get(0).get(0)[0]).isEqualTo(2L);
+        assertThat(rows.getAllValues().get(1).get(0)[0]).isEqualTo(3L);
+    }
+
+    @Test
+    void pendingCountsAreFlushedOnShutdown() {
+        UUID shareLinkId = UUID.randomUUID();
+        aggregator.recordShareLinkAccess(shareLinkId);
+
+        aggregator.flushOnShutdown();
+
+        assertThat(flushedRows("share_links").get(0)[3]).isEqualTo(shareLinkId);
+    }
+
+    private List<Object[]> flushedRows(String table) {
+        ArgumentCaptor<List<Object[]>> rows = rowsCaptor();
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE " + table + " "), rows.capture());
+        return rows.getValue();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArgumentCaptor<List<Object[]>> rowsCaptor() {
+        return ArgumentCaptor.forClass((Class) List.class);
+    }
+}
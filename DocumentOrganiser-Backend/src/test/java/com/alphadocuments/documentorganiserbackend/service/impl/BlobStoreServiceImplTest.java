@@ -0,0 +1,139 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.exception.FileOperationException;
+import com.alphadocuments.documentorganiserbackend.repository.StorageBlobRepository;
+import com.alphadocuments.documentorganiserbackend.service.StorageDeletionQueue;
+import com.alphadocuments.documentorganiserbackend.service.StoredContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BlobStoreServiceImplTest {
+
+    private static final String CHECKSUM = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    private StorageBlobRepository storageBlobRepository;
+    private StorageDeletionQueue storageDeletionQueue;
+    private PlatformTransactionManager transactionManager;
+    private BlobStoreServiceImpl blobStoreService;
+
+    @BeforeEach
+    void setUp() {
+        storageBlobRepository = mock(StorageBlobRepository.class);
+        storageDeletionQueue = mock(StorageDeletionQueue.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        blobStoreService = new BlobStoreServiceImpl(storageBlobRepository, storageDeletionQueue,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void registerKeepsNewObjectWhenContentIsNew() {
+        StoredContent content = new StoredContent("a.txt", "new-key", 5, "text/plain", CHECKSUM);
+        when(storageBlobRepository.addReference(CHECKSUM, "new-key", 5)).thenReturn("new-key");
+
+        assertThat(blobStoreService.register(content)).isEqualTo("new-key");
+        verify(storageDeletionQueue, never()).enqueue(anyString());
+    }
+
+    @Test
+    void registerDeduplicatesOntoExistingBlobAndDropsNewObject() {
+        StoredContent content = new StoredContent("a.txt", "new-key", 5, "text/plain", CHECKSUM);
+        when(storageBlobRepository.addReference(CHECKSUM, "new-key", 5)).thenReturn("existing-key");
+
+        assertThat(blobStoreService.register(content)).isEqualTo("existing-key");
+        verify(storageDeletionQueue).enqueue("new-key");
+    }
+
+    @Test
+    void redundantUploadIsQueuedInOwnTransactionAfterCallerRollsBack() {
+        StoredContent content = new StoredContent("a.txt", "new-key", 5, "text/plain", CHECKSUM);
+        when(storageBlobRepository.addReference(CHECKSUM, "new-key", 5)).thenReturn("existing-key");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            blobStoreService.register(content);
+            verify(storageDeletionQueue, never()).enqueue(anyString());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(storageDeletionQueue).enqueue("new-key");
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    }
+
+    @Test
+    void retainFailsForUntrackedKey() {
+        when(storageBlobRepository.incrementReferences("missing")).thenReturn(0);
+
+        assertThatThrownBy(() -> blobStoreService.retain("missing")).isInstanceOf(FileOperationException.class);
+    }
+
+    @Test
+    void retainAddsReference() {
+        when(storageBlobRepository.incrementReferences("key")).thenReturn(1);
+
+        blobStoreService.retain("key");
+
+        verify(storageBlobRepository).incrementReferences("key");
+    }
+
+    @Test
+    void releaseKeepsObjectWhileReferencesRemain() {
+        when(storageBlobRepository.removeReference("key")).thenReturn(Optional.of(1));
+
+        blobStoreService.release("key");
+
+        verify(storageBlobRepository, never()).deleteIfUnreferenced(anyString());
+        verify(storageDeletionQueue, never()).enqueue(anyString());
+    }
+
+    @Test
+    void releaseOfLastReferenceQueuesObjectForDeletion() {
+        when(storageBlobRepository.removeReference("key")).thenReturn(Optional.of(0));
+        when(storageBlobRepository.deleteIfUnreferenced("key")).thenReturn(1);
+
+        blobStoreService.release("key");
+
+        verify(storageDeletionQueue).enqueue("key");
+    }
+
+    @Test
+    void releaseKeepsObjectPickedUpAgainConcurrently() {
+        when(storageBlobRepository.removeReference("key")).thenReturn(Optional.of(0));
+        // A concurrent upload of the same content took a new reference before the row was deleted
+        when(storageBlobRepository.deleteIfUnreferenced("key")).thenReturn(0);
+
+        blobStoreService.release("key");
+
+        verify(storageDeletionQueue, never()).enqueue(anyString());
+    }
+
+    @Test
+    void releaseLeavesUntrackedObjectAlone() {
+        when(storageBlobRepository.removeReference("legacy")).thenReturn(Optional.empty());
+
+        blobStoreService.release("legacy");
+
+        verify(storageBlobRepository, never()).deleteIfUnreferenced(anyString());
+        verify(storageDeletionQueue, never()).enqueue(anyString());
+    }
+}
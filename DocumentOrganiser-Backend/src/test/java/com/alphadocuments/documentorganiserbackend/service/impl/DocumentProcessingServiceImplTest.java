@@ -0,0 +1,112 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.ProcessingProperties;
+import com.alphadocuments.documentorganiserbackend.entity.Document;
+import com.alphadocuments.documentorganiserbackend.entity.enums.ProcessingStatus;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentMetadataRepository;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentRepository;
+import com.alphadocuments.documentorganiserbackend.repository.UploadSessionRepository;
+import com.alphadocuments.documentorganiserbackend.service.BlobStoreService;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.util.ContentExtractor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentProcessingServiceImplTest {
+
+    private static final UUID DOCUMENT_ID = UUID.randomUUID();
+    private static final String KEY = "documents/user/file.bin";
+    private static final byte[] CONTENT = "hello".getBytes(StandardCharsets.UTF_8);
+    // SHA-256 of "hello"
+    private static final String CONTENT_SHA256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    private DocumentRepository documentRepository;
+    private UploadSessionRepository uploadSessionRepository;
+    private BlobStoreService blobStoreService;
+    private StorageService storageService;
+    private DocumentProcessingServiceImpl processingService;
+
+    @BeforeEach
+    void setUp() {
+        documentRepository = mock(DocumentRepository.class);
+        uploadSessionRepository = mock(UploadSessionRepository.class);
+        blobStoreService = mock(BlobStoreService.class);
+        storageService = mock(StorageService.class);
+
+        // Every test file is over the size limit, so only the checksum stage reads it
+        ProcessingProperties properties = new ProcessingProperties();
+        properties.setMaxFileSizeMb(0);
+        properties.setRetryBackoffMs(0);
+
+        processingService = new DocumentProcessingServiceImpl(documentRepository, mock(DocumentMetadataRepository.class),
+                uploadSessionRepository, blobStoreService, storageService, mock(ContentExtractor.class), properties,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), Runnable::run);
+        processingService.init();
+
+        when(documentRepository.transitionProcessingStatus(any(), any(), any())).thenReturn(1);
+        when(storageService.downloadFile(KEY)).thenReturn(new ByteArrayInputStream(CONTENT));
+    }
+
+    @Test
+    void recordsChecksumOfContentStoredWithoutOne() {
+        givenDocument(null);
+        when(uploadSessionRepository.findExpectedChecksumByDocumentId(DOCUMENT_ID)).thenReturn(Optional.empty());
+
+        processingService.submit(DOCUMENT_ID);
+
+        verify(documentRepository).recordChecksum(KEY, CONTENT_SHA256);
+        verify(blobStoreService).recordChecksum(KEY, CONTENT_SHA256);
+        verify(documentRepository).transitionProcessingStatus(DOCUMENT_ID, ProcessingStatus.PROCESSING,
+                ProcessingStatus.SKIPPED);
+    }
+
+    @Test
+    void failsDocumentWhoseContentDoesNotMatchDeclaredChecksum() {
+        givenDocument(null);
+        when(uploadSessionRepository.findExpectedChecksumByDocumentId(DOCUMENT_ID))
+                .thenReturn(Optional.of("0".repeat(64)));
+
+        processingService.submit(DOCUMENT_ID);
+
+        verify(documentRepository).transitionProcessingStatus(DOCUMENT_ID, ProcessingStatus.PROCESSING,
+                ProcessingStatus.FAILED);
+        verify(documentRepository, never()).transitionProcessingStatus(DOCUMENT_ID, ProcessingStatus.PROCESSING,
+                ProcessingStatus.SKIPPED);
+    }
+
+    @Test
+    void doesNotReadContentThatAlreadyHasChecksum() {
+        givenDocument(CONTENT_SHA256);
+
+        processingService.submit(DOCUMENT_ID);
+
+        verify(storageService, never()).downloadFile(anyString());
+        verify(documentRepository, never()).recordChecksum(anyString(), anyString());
+        verify(documentRepository).transitionProcessingStatus(DOCUMENT_ID, ProcessingStatus.PROCESSING,
+                ProcessingStatus.SKIPPED);
+    }
+
+    private void givenDocument(String checksum) {
+        Document document = Document.builder()
+                .storageKey(KEY)
+                .fileSize((long) CONTENT.length)
+                .checksum(checksum)
+                .build();
+        document.setId(DOCUMENT_ID);
+        when(documentRepository.findById(DOCUMENT_ID)).thenReturn(Optional.of(document));
+    }
+}
@@ -0,0 +1,114 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.entity.Folder;
+import com.alphadocuments.documentorganiserbackend.entity.User;
+import com.alphadocuments.documentorganiserbackend.entity.Workspace;
+import com.alphadocuments.documentorganiserbackend.exception.ForbiddenException;
+import com.alphadocuments.documentorganiserbackend.exception.ResourceNotFoundException;
+import com.alphadocuments.documentorganiserbackend.repository.DeletedItemRepository;
+import com.alphadocuments.documentorganiserbackend.repository.FolderRepository;
+import com.alphadocuments.documentorganiserbackend.repository.UserRepository;
+import com.alphadocuments.documentorganiserbackend.repository.WorkspaceMemberRepository;
+import com.alphadocuments.documentorganiserbackend.repository.WorkspaceRepository;
+import com.alphadocuments.documentorganiserbackend.service.ActivityService;
+import com.alphadocuments.documentorganiserbackend.service.ArchiveService;
+import com.alphadocuments.documentorganiserbackend.service.FolderArchive;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FolderServiceImplTest {
+
+    private static final UUID OWNER_ID = UUID.randomUUID();
+    private static final UUID MEMBER_ID = UUID.randomUUID();
+    private static final UUID FOLDER_ID = UUID.randomUUID();
+    private static final UUID WORKSPACE_ID = UUID.randomUUID();
+
+    private FolderRepository folderRepository;
+    private WorkspaceMemberRepository workspaceMemberRepository;
+    private ArchiveService archiveService;
+    private FolderServiceImpl folderService;
+    private final FolderArchive archive = new FolderArchive("Reports.zip", List.of(), 0);
+
+    @BeforeEach
+    void setUp() {
+        folderRepository = mock(FolderRepository.class);
+        workspaceMemberRepository = mock(WorkspaceMemberRepository.class);
+        archiveService = mock(ArchiveService.class);
+        folderService = new FolderServiceImpl(folderRepository, mock(UserRepository.class),
+                mock(DeletedItemRepository.class), mock(ActivityService.class), mock(WorkspaceRepository.class),
+                workspaceMemberRepository, archiveService);
+        when(archiveService.collectFolder(any())).thenReturn(archive);
+    }
+
+    @Test
+    void ownerCanDownloadPersonalFolder() {
+        givenFolder(null, false);
+
+        assertThat(folderService.getFolderArchive(OWNER_ID, FOLDER_ID)).isSameAs(archive);
+    }
+
+    @Test
+    void personalFolderOfAnotherUserIsNotFound() {
+        givenFolder(null, false);
+
+        assertThatThrownBy(() -> folderService.getFolderArchive(MEMBER_ID, FOLDER_ID))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(archiveService, never()).collectFolder(any());
+    }
+
+    @Test
+    void workspaceMemberCanDownloadWorkspaceFolder() {
+        givenFolder(WORKSPACE_ID, false);
+        when(workspaceMemberRepository.existsByWorkspaceIdAndUserId(WORKSPACE_ID, MEMBER_ID)).thenReturn(true);
+
+        assertThat(folderService.getFolderArchive(MEMBER_ID, FOLDER_ID)).isSameAs(archive);
+    }
+
+    @Test
+    void nonMemberCannotDownloadWorkspaceFolder() {
+        givenFolder(WORKSPACE_ID, false);
+        when(workspaceMemberRepository.existsByWorkspaceIdAndUserId(WORKSPACE_ID, MEMBER_ID)).thenReturn(false);
+
+        assertThatThrownBy(() -> folderService.getFolderArchive(MEMBER_ID, FOLDER_ID))
+                .isInstanceOf(ForbiddenException.class);
+        verify(archiveService, never()).collectFolder(any());
+    }
+
+    @Test
+    void deletedFolderIsNotFound() {
+        givenFolder(null, true);
+
+        assertThatThrownBy(() -> folderService.getFolderArchive(OWNER_ID, FOLDER_ID))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private void givenFolder(UUID workspaceId, boolean deleted) {
+        User owner = User.builder().build();
+        owner.setId(OWNER_ID);
+        Workspace workspace = null;
+        if (workspaceId != null) {
+            workspace = Workspace.builder().build();
+            workspace.setId(workspaceId);
+        }
+        Folder folder = Folder.builder()
+                .name("Reports")
+                .user(owner)
+                .workspace(workspace)
+                .isDeleted(deleted)
+                .build();
+        folder.setId(FOLDER_ID);
+        when(folderRepository.findById(FOLDER_ID)).thenReturn(Optional.of(folder));
+    }
+}
@@ -0,0 +1,168 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentRepository;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LocalBlobCacheImplTest {
+
+    // Three blobs do not fit in the 1 MB budget, two do
+    private static final int BLOB_SIZE = 400 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private StorageService storageService;
+    private StorageProperties storageProperties;
+    private LocalBlobCacheImpl cache;
+
+    private final Blob a = new Blob("documents/a", 1);
+    private final Blob b = new Blob("documents/b", 2);
+    private final Blob c = new Blob("documents/c", 3);
+
+    @BeforeEach
+    void setUp() {
+        storageService = mock(StorageService.class);
+        storageProperties = new StorageProperties();
+        storageProperties.getBlobCache().setEnabled(true);
+        storageProperties.getBlobCache().setDirectory(directory.toString());
+        storageProperties.getBlobCache().setMaxSizeMb(1);
+        for (Blob blob : new Blob[]{a, b, c}) {
+            when(storageService.downloadFile(blob.key)).thenAnswer(invocation -> new ByteArrayInputStream(blob.content));
+        }
+        cache = newCache();
+    }
+
+    @Test
+    void wholeReadMissFillsCacheAndLaterReadsHitIt() throws Exception {
+        assertThat(read(a, 0, BLOB_SIZE - 1)).isEqualTo(a.content);
+        assertThat(Files.exists(a.path())).isTrue();
+
+        assertThat(read(a, 0, BLOB_SIZE - 1)).isEqualTo(a.content);
+        assertThat(read(a, 100, 199)).isEqualTo(Arrays.copyOfRange(a.content, 100, 200));
+
+        verify(storageService, times(1)).downloadFile(a.key);
+        verify(storageService, never()).downloadFileRange(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void rangeReadMissDoesNotFillCache() throws Exception {
+        when(storageService.downloadFileRange(a.key, 0, 9))
+                .thenReturn(new ByteArrayInputStream(Arrays.copyOfRange(a.content, 0, 10)));
+
+        assertThat(read(a, 0, 9)).isEqualTo(Arrays.copyOfRange(a.content, 0, 10));
+
+        assertThat(Files.exists(a.path())).isFalse();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBlobOverBudget() throws Exception {
+        cache.warm(a.key, a.checksum, BLOB_SIZE);
+        cache.warm(b.key, b.checksum, BLOB_SIZE);
+        // Reading a makes b the least recently used
+        read(a, 0, 9);
+
+        cache.warm(c.key, c.checksum, BLOB_SIZE);
+
+        assertThat(Files.exists(a.path())).isTrue();
+        assertThat(Files.exists(b.path())).isFalse();
+        assertThat(Files.exists(c.path())).isTrue();
+
+        read(b, 0, BLOB_SIZE - 1);
+        verify(storageService, times(2)).downloadFile(b.key);
+    }
+
+    @Test
+    void contentNotMatchingChecksumIsNotCached() throws Exception {
+        byte[] corrupt = c.content;
+        when(storageService.downloadFile(a.key)).thenAnswer(invocation -> new ByteArrayInputStream(corrupt));
+
+        read(a, 0, BLOB_SIZE - 1);
+
+        assertThat(Files.exists(a.path())).isFalse();
+        try (var temps = Files.list(directory.resolve("tmp"))) {
+            assertThat(temps).isEmpty();
+        }
+    }
+
+    @Test
+    void indexIsRebuiltFromDiskOnRestart() throws Exception {
+        cache.warm(a.key, a.checksum, BLOB_SIZE);
+
+        LocalBlobCacheImpl restarted = newCache();
+
+        try (InputStream in = restarted.reader(a.key, a.checksum, BLOB_SIZE).open(0, BLOB_SIZE - 1)) {
+            assertThat(in.readAllBytes()).isEqualTo(a.content);
+        }
+        verify(storageService, times(1)).downloadFile(a.key);
+    }
+
+    @Test
+    void onlyEnabledCacheWithKnownChecksumAndSizeWithinLimitIsUsed() {
+        assertThat(cache.isCacheable(a.checksum, BLOB_SIZE)).isTrue();
+        assertThat(cache.isCacheable(null, BLOB_SIZE)).isFalse();
+        assertThat(cache.isCacheable("not-a-checksum", BLOB_SIZE)).isFalse();
+        assertThat(cache.isCacheable(a.checksum, 0)).isFalse();
+        assertThat(cache.isCacheable(a.checksum, storageProperties.getBlobCache().getMaxBlobBytes() + 1)).isFalse();
+
+        storageProperties.getBlobCache().setEnabled(false);
+        assertThat(newCache().isCacheable(a.checksum, BLOB_SIZE)).isFalse();
+    }
+
+    private LocalBlobCacheImpl newCache() {
+        LocalBlobCacheImpl instance = new LocalBlobCacheImpl(storageService, storageProperties,
+                mock(DocumentRepository.class), new SimpleMeterRegistry());
+        instance.initialize();
+        return instance;
+    }
+
+    private byte[] read(Blob blob, long start, long end) throws Exception {
+        try (InputStream in = cache.reader(blob.key, blob.checksum, BLOB_SIZE).open(start, end)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private final class Blob {
+
+        private final String key;
+        private final byte[] content;
+        private final String checksum;
+
+        private Blob(String key, long seed) {
+            this.key = key;
+            this.content = new byte[BLOB_SIZE];
+            new Random(seed).nextBytes(content);
+            try {
+                this.checksum = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private Path path() {
+            return directory.resolve(checksum.substring(0, 2)).resolve(checksum);
+        }
+    }
+}
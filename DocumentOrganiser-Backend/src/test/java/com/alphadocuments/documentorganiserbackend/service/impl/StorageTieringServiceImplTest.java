@@ -0,0 +1,157 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.entity.Document;
+import com.alphadocuments.documentorganiserbackend.entity.enums.StorageTier;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentRepository;
+import com.alphadocuments.documentorganiserbackend.service.AsyncStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class StorageTieringServiceImplTest {
+
+    private DocumentRepository documentRepository;
+    private AsyncStorageService asyncStorageService;
+    private StorageProperties storageProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private StorageTieringServiceImpl tieringService;
+
+    @BeforeEach
+    void setUp() {
+        documentRepository = mock(DocumentRepository.class);
+        asyncStorageService = mock(AsyncStorageService.class);
+        storageProperties = new StorageProperties();
+        storageProperties.getTiering().setEnabled(true);
+        storageProperties.getTiering().setBatchSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        tieringService = newService(Runnable::run);
+        when(asyncStorageService.changeTier(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void movesEachColdObjectOnceAndPagesByLastDocument() {
+        Document first = document("shared", StorageTier.STANDARD);
+        Document second = document("shared", StorageTier.STANDARD);
+        Document third = document("single", StorageTier.STANDARD);
+        when(documentRepository.findTieringPage(eq(StorageTier.STANDARD), any(), any(), any(), any()))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+
+        tieringService.tierColdDocuments();
+
+        verify(asyncStorageService, times(1)).changeTier("shared", StorageTier.COLD);
+        verify(asyncStorageService).changeTier("single", StorageTier.COLD);
+        verify(documentRepository).updateStorageTier(eq("shared"), eq(StorageTier.COLD), any());
+        verify(documentRepository).updateStorageTier(eq("single"), eq(StorageTier.COLD), any());
+        verify(documentRepository).findTieringPage(eq(StorageTier.STANDARD), any(),
+                eq(second.getLastAccessedAt()), eq(second.getId()), any());
+    }
+
+    @Test
+    void failedMoveLeavesTierUnchanged() {
+        Document document = document("broken", StorageTier.STANDARD);
+        when(documentRepository.findTieringPage(eq(StorageTier.STANDARD), any(), any(), any(), any()))
+                .thenReturn(List.of(document));
+        when(asyncStorageService.changeTier("broken", StorageTier.COLD))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("storage unavailable")));
+
+        tieringService.tierColdDocuments();
+
+        verify(documentRepository, never()).updateStorageTier(any(), any(), any());
+        assertThat(meterRegistry.counter("storage.tier.transitions", "tier", "cold", "outcome", "failed").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void disabledTieringDoesNothing() {
+        storageProperties.getTiering().setEnabled(false);
+
+        tieringService.tierColdDocuments();
+
+        verifyNoInteractions(documentRepository, asyncStorageService);
+    }
+
+    @Test
+    void runDoesNotWaitOnSchedulerThreadAndSkipsWhileOneIsInProgress() {
+        List<Runnable> queued = new ArrayList<>();
+        StorageTieringServiceImpl deferred = newService(queued::add);
+        when(documentRepository.findTieringPage(eq(StorageTier.STANDARD), any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        deferred.tierColdDocuments();
+        deferred.tierColdDocuments();
+
+        assertThat(queued).hasSize(1);
+        verifyNoInteractions(documentRepository);
+
+        queued.remove(0).run();
+        deferred.tierColdDocuments();
+
+        assertThat(queued).hasSize(1);
+    }
+
+    @Test
+    void readOfStandardContentDoesNotQueryOrMoveIt() {
+        tieringService.recordAccess(document("hot", StorageTier.STANDARD));
+
+        verifyNoInteractions(documentRepository, asyncStorageService);
+        assertThat(meterRegistry.counter("storage.tier.reads", "tier", "standard").count()).isEqualTo(1);
+    }
+
+    @Test
+    void readOfColdContentMovesItBack() {
+        tieringService.recordAccess(document("cold", StorageTier.COLD));
+
+        verify(asyncStorageService).changeTier("cold", StorageTier.STANDARD);
+        verify(documentRepository).updateStorageTier(eq("cold"), eq(StorageTier.STANDARD), any());
+        assertThat(meterRegistry.counter("storage.tier.reads", "tier", "cold").count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentReadsOfColdContentMoveItBackOnce() {
+        CompletableFuture<Void> move = new CompletableFuture<>();
+        when(asyncStorageService.changeTier("cold", StorageTier.STANDARD)).thenReturn(move);
+
+        tieringService.recordAccess(document("cold", StorageTier.COLD));
+        tieringService.recordAccess(document("cold", StorageTier.COLD));
+        move.complete(null);
+
+        verify(asyncStorageService, times(1)).changeTier("cold", StorageTier.STANDARD);
+    }
+
+    private StorageTieringServiceImpl newService(Executor executor) {
+        return new StorageTieringServiceImpl(documentRepository, asyncStorageService, storageProperties,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), executor, meterRegistry);
+    }
+
+    private Document document(String storageKey, StorageTier tier) {
+        Document document = Document.builder()
+                .storageKey(storageKey)
+                .storageTier(tier)
+                .lastAccessedAt(Instant.now().minus(60, ChronoUnit.DAYS))
+                .build();
+        document.setId(UUID.randomUUID());
+        return document;
+    }
+}
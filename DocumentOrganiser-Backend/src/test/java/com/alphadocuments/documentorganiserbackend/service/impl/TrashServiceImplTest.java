@@ -0,0 +1,177 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.TrashPurgeProperties;
+import com.alphadocuments.documentorganiserbackend.entity.DeletedItem;
+import com.alphadocuments.documentorganiserbackend.entity.Document;
+import com.alphadocuments.documentorganiserbackend.entity.User;
+import com.alphadocuments.documentorganiserbackend.repository.DeletedItemRepository;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentRepository;
+import com.alphadocuments.documentorganiserbackend.repository.FolderRepository;
+import com.alphadocuments.documentorganiserbackend.repository.UserRepository;
+import com.alphadocuments.documentorganiserbackend.service.BlobStoreService;
+import com.alphadocuments.documentorganiserbackend.service.ChunkStoreService;
+import com.alphadocuments.documentorganiserbackend.service.ThumbnailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrashServiceImplTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private DeletedItemRepository deletedItemRepository;
+    private DocumentRepository documentRepository;
+    private BlobStoreService blobStoreService;
+    private UserRepository userRepository;
+    private TrashPurgeProperties properties;
+    private TrashServiceImpl trashService;
+
+    @BeforeEach
+    void setUp() {
+        deletedItemRepository = mock(DeletedItemRepository.class);
+        documentRepository = mock(DocumentRepository.class);
+        blobStoreService = mock(BlobStoreService.class);
+        userRepository = mock(UserRepository.class);
+
+        properties = new TrashPurgeProperties();
+        properties.setChunkSize(2);
+        properties.setConcurrency(1);
+        properties.setMaxChunksPerSecond(1000);
+
+        trashService = newService(Runnable::run);
+    }
+
+    @Test
+    void purgesChunksUntilOneComesBackShort() {
+        DeletedItem first = documentItem("a", 10);
+        DeletedItem second = documentItem("b", 20);
+        DeletedItem third = documentItem("c", 30);
+        when(deletedItemRepository.lockExpired(any(), eq(2)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+
+        trashService.cleanupExpiredItems();
+
+        verify(deletedItemRepository, times(2)).lockExpired(any(), eq(2));
+        verify(deletedItemRepository).delete(first);
+        verify(deletedItemRepository).delete(second);
+        verify(deletedItemRepository).delete(third);
+        verify(blobStoreService).release("a");
+        verify(blobStoreService).release("b");
+        verify(blobStoreService).release("c");
+        // Usage is released once per chunk and user: 10 + 20, then 30
+        verify(userRepository, times(2)).releaseStorage(USER_ID, 30L);
+    }
+
+    @Test
+    void failedChunkFallsBackToPurgingItemsOneAtATime() {
+        DeletedItem broken = documentItem("broken", 10);
+        DeletedItem healthy = documentItem("healthy", 20);
+        when(documentRepository.findById(broken.getItemId())).thenThrow(new IllegalStateException("row is corrupt"));
+        when(deletedItemRepository.lockExpired(any(), eq(2)))
+                .thenReturn(List.of(broken, healthy))
+                .thenReturn(List.of());
+        when(deletedItemRepository.lockById(broken.getId())).thenReturn(Optional.of(broken));
+        when(deletedItemRepository.lockById(healthy.getId())).thenReturn(Optional.of(healthy));
+
+        trashService.cleanupExpiredItems();
+
+        verify(deletedItemRepository).postpone(eq(broken.getId()), any());
+        verify(deletedItemRepository, never()).postpone(eq(healthy.getId()), any());
+        verify(userRepository).releaseStorage(USER_ID, 20L);
+    }
+
+    @Test
+    void emptyTrashPurgesOnlyThatUsersItems() {
+        when(deletedItemRepository.expireAllByUserId(eq(USER_ID), any())).thenReturn(1);
+        DeletedItem item = documentItem("a", 10);
+        when(deletedItemRepository.lockExpiredForUser(eq(USER_ID), any(), eq(2))).thenReturn(List.of(item));
+
+        trashService.emptyTrash(USER_ID);
+
+        verify(deletedItemRepository).delete(item);
+        verify(deletedItemRepository, never()).lockExpired(any(), anyInt());
+    }
+
+    @Test
+    void chunkStartsArePaced() {
+        properties.setChunkSize(1);
+        properties.setMaxChunksPerSecond(20);
+        DeletedItem first = documentItem("a", 1);
+        DeletedItem second = documentItem("b", 1);
+        when(deletedItemRepository.lockExpired(any(), eq(1)))
+                .thenReturn(List.of(first))
+                .thenReturn(List.of(second))
+                .thenReturn(List.of());
+
+        long started = System.nanoTime();
+        trashService.cleanupExpiredItems();
+
+        // Three chunk starts at 20 per second are at least two 50 ms intervals apart
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isGreaterThanOrEqualTo(90);
+    }
+
+    @Test
+    void sweepDoesNotWaitForWorkersAndSkipsWhileOneIsRunning() {
+        List<Runnable> queued = new ArrayList<>();
+        TrashServiceImpl deferred = newService(queued::add);
+        when(deletedItemRepository.lockExpired(any(), eq(2))).thenReturn(List.of());
+
+        deferred.cleanupExpiredItems();
+        deferred.cleanupExpiredItems();
+
+        assertThat(queued).hasSize(1);
+        verify(deletedItemRepository, never()).lockExpired(any(), anyInt());
+
+        queued.remove(0).run();
+        deferred.cleanupExpiredItems();
+
+        assertThat(queued).hasSize(1);
+    }
+
+    private TrashServiceImpl newService(Executor executor) {
+        return new TrashServiceImpl(deletedItemRepository, documentRepository, mock(FolderRepository.class),
+                blobStoreService, mock(ChunkStoreService.class), mock(ThumbnailService.class), userRepository,
+                properties, new TransactionTemplate(mock(PlatformTransactionManager.class)), executor,
+                new SimpleMeterRegistry());
+    }
+
+    private DeletedItem documentItem(String storageKey, long fileSize) {
+        User user = User.builder().build();
+        user.setId(USER_ID);
+        Document document = Document.builder()
+                .user(user)
+                .storageKey(storageKey)
+                .fileSize(fileSize)
+                .build();
+        document.setId(UUID.randomUUID());
+        when(documentRepository.findById(document.getId())).thenReturn(Optional.of(document));
+
+        DeletedItem item = DeletedItem.builder()
+                .user(user)
+                .itemType("DOCUMENT")
+                .itemId(document.getId())
+                .build();
+        item.setId(UUID.randomUUID());
+        return item;
+    }
+}
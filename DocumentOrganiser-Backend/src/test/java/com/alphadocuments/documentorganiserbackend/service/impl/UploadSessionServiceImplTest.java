@@ -0,0 +1,287 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.dto.response.DocumentResponse;
+import com.alphadocuments.documentorganiserbackend.entity.UploadSession;
+import com.alphadocuments.documentorganiserbackend.entity.UploadSessionChunk;
+import com.alphadocuments.documentorganiserbackend.entity.enums.UploadSessionStatus;
+import com.alphadocuments.documentorganiserbackend.entity.enums.UploadType;
+import com.alphadocuments.documentorganiserbackend.exception.DuplicateResourceException;
+import com.alphadocuments.documentorganiserbackend.exception.FileOperationException;
+import com.alphadocuments.documentorganiserbackend.exception.ValidationException;
+import com.alphadocuments.documentorganiserbackend.repository.UploadSessionChunkRepository;
+import com.alphadocuments.documentorganiserbackend.repository.UploadSessionRepository;
+import com.alphadocuments.documentorganiserbackend.repository.UserRepository;
+import com.alphadocuments.documentorganiserbackend.service.DocumentService;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import com.alphadocuments.documentorganiserbackend.service.StoredContent;
+import com.alphadocuments.documentorganiserbackend.util.FileInspection;
+import com.alphadocuments.documentorganiserbackend.util.FileInspector;
+import com.alphadocuments.documentorganiserbackend.util.FileSecurityValidator;
+import com.alphadocuments.documentorganiserbackend.util.FileTypeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadSessionServiceImplTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID SESSION_ID = UUID.randomUUID();
+    private static final String KEY = "documents/user/file.bin";
+    private static final String UPLOAD_ID = "upload-1";
+    private static final byte[] CONTENT = "hello".getBytes(StandardCharsets.UTF_8);
+    // SHA-256 of "hello"
+    private static final String CONTENT_SHA256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    private UploadSessionRepository uploadSessionRepository;
+    private UploadSessionChunkRepository uploadSessionChunkRepository;
+    private DocumentService documentService;
+    private StorageService storageService;
+    private FileTypeUtil fileTypeUtil;
+    private FileInspector fileInspector;
+    private PlatformTransactionManager transactionManager;
+    private UploadSessionServiceImpl uploadSessionService;
+
+    @BeforeEach
+    void setUp() {
+        uploadSessionRepository = mock(UploadSessionRepository.class);
+        uploadSessionChunkRepository = mock(UploadSessionChunkRepository.class);
+        documentService = mock(DocumentService.class);
+        storageService = mock(StorageService.class);
+        fileTypeUtil = mock(FileTypeUtil.class);
+        fileInspector = mock(FileInspector.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        uploadSessionService = new UploadSessionServiceImpl(uploadSessionRepository, uploadSessionChunkRepository,
+                mock(UserRepository.class), documentService, storageService, new StorageProperties(), fileTypeUtil,
+                mock(FileSecurityValidator.class), fileInspector, new TransactionTemplate(transactionManager));
+
+        when(uploadSessionRepository.transitionStatus(any(), any(), any())).thenReturn(1);
+    }
+
+    @Test
+    void completeSessionRegistersDocumentAndClosesSession() {
+        UploadSession session = chunkedSession(CONTENT_SHA256);
+        givenAllChunksReceived(session);
+        DocumentResponse document = DocumentResponse.builder().id(UUID.randomUUID()).build();
+        when(documentService.createDocumentFromStorage(eq(USER_ID), any(), any(), any(StoredContent.class), any()))
+                .thenReturn(document);
+
+        DocumentResponse result = uploadSessionService.completeSession(USER_ID, SESSION_ID, null);
+
+        assertThat(result).isSameAs(document);
+        assertThat(session.getStatus()).isEqualTo(UploadSessionStatus.COMPLETED);
+        assertThat(session.getDocumentId()).isEqualTo(document.getId());
+        verify(uploadSessionRepository).transitionStatus(SESSION_ID, UploadSessionStatus.ACTIVE,
+                UploadSessionStatus.COMPLETING);
+        verify(storageService).completeMultipartUpload(eq(KEY), eq(UPLOAD_ID), anyList());
+        verify(storageService, never()).deleteFile(anyString());
+    }
+
+    @Test
+    void completeSessionKeepsSizeReservedUntilDocumentIsRegistered() {
+        UploadSession session = chunkedSession(null);
+        givenAllChunksReceived(session);
+        when(documentService.createDocumentFromStorage(eq(USER_ID), any(), any(), any(StoredContent.class), any()))
+                .thenReturn(DocumentResponse.builder().id(UUID.randomUUID()).build());
+
+        uploadSessionService.completeSession(USER_ID, SESSION_ID, null);
+
+        // The completing session still holds its size, so the re-check asks for no more quota
+        verify(documentService).validateUploadTarget(eq(USER_ID), any(), any(), any(), eq(0L), any());
+        // Closed in the registering transaction before the document's size is checked and counted
+        InOrder order = inOrder(uploadSessionRepository, documentService);
+        order.verify(uploadSessionRepository).transitionStatus(SESSION_ID, UploadSessionStatus.COMPLETING,
+                UploadSessionStatus.COMPLETED);
+        order.verify(documentService).createDocumentFromStorage(eq(USER_ID), any(), any(), any(StoredContent.class),
+                any());
+    }
+
+    @Test
+    void completeSessionDoesNotReadAssembledObjectBack() {
+        UploadSession session = chunkedSession(CONTENT_SHA256);
+        givenAllChunksReceived(session);
+        when(documentService.createDocumentFromStorage(eq(USER_ID), any(), any(), any(StoredContent.class), any()))
+                .thenReturn(DocumentResponse.builder().id(UUID.randomUUID()).build());
+
+        uploadSessionService.completeSession(USER_ID, SESSION_ID, null);
+
+        ArgumentCaptor<StoredContent> content = ArgumentCaptor.forClass(StoredContent.class);
+        verify(documentService).createDocumentFromStorage(eq(USER_ID), any(), any(), content.capture(), any());
+        // Hashed and checked against the declared checksum by content processing in the background
+        assertThat(content.getValue().checksum()).isNull();
+        verify(storageService, never()).downloadFile(anyString());
+    }
+
+    @Test
+    void completeSessionRollsBackClaimWhenTargetIsNoLongerValid() {
+        UploadSession session = chunkedSession(null);
+        givenAllChunksReceived(session);
+        doThrow(new DuplicateResourceException("A file named 'file' already exists in this location"))
+                .when(documentService).validateUploadTarget(eq(USER_ID), any(), any(), any(), anyLong(), any());
+
+        assertThatThrownBy(() -> uploadSessionService.completeSession(USER_ID, SESSION_ID, null))
+                .isInstanceOf(DuplicateResourceException.class);
+
+        // The claim shares the rolled back transaction, so the session is still active
+        verify(transactionManager).rollback(any());
+        verify(storageService, never()).completeMultipartUpload(anyString(), anyString(), anyList());
+        verify(uploadSessionRepository, never()).transitionStatus(SESSION_ID, UploadSessionStatus.COMPLETING,
+                UploadSessionStatus.FAILED);
+    }
+
+    @Test
+    void completeSessionReleasesClaimWhenAssemblyFails() {
+        UploadSession session = chunkedSession(null);
+        givenAllChunksReceived(session);
+        doThrow(new FileOperationException("Failed to complete multipart upload"))
+                .when(storageService).completeMultipartUpload(eq(KEY), eq(UPLOAD_ID), anyList());
+
+        assertThatThrownBy(() -> uploadSessionService.completeSession(USER_ID, SESSION_ID, null))
+                .isInstanceOf(FileOperationException.class);
+
+        verify(uploadSessionRepository).transitionStatus(SESSION_ID, UploadSessionStatus.COMPLETING,
+                UploadSessionStatus.ACTIVE);
+        verify(storageService, never()).deleteFile(anyString());
+    }
+
+    @Test
+    void completeSessionFailsSessionWhenRegistrationFailsAfterAssembly() {
+        UploadSession session = chunkedSession(null);
+        givenAllChunksReceived(session);
+        when(documentService.createDocumentFromStorage(eq(USER_ID), any(), any(), any(StoredContent.class), any()))
+                .thenThrow(new DuplicateResourceException("A file named 'file' already exists in this location"));
+
+        assertThatThrownBy(() -> uploadSessionService.completeSession(USER_ID, SESSION_ID, null))
+                .isInstanceOf(DuplicateResourceException.class);
+
+        // The multipart upload ID is used up, so the session cannot go back to active
+        verify(uploadSessionRepository).transitionStatus(SESSION_ID, UploadSessionStatus.COMPLETING,
+                UploadSessionStatus.FAILED);
+        verify(uploadSessionRepository, never()).transitionStatus(SESSION_ID, UploadSessionStatus.COMPLETING,
+                UploadSessionStatus.ACTIVE);
+        verify(storageService).deleteFile(KEY);
+    }
+
+    @Test
+    void completeSessionRejectsSessionThatIsAlreadyBeingCompleted() {
+        UploadSession session = chunkedSession(null);
+        givenAllChunksReceived(session);
+        when(uploadSessionRepository.transitionStatus(SESSION_ID, UploadSessionStatus.ACTIVE,
+                UploadSessionStatus.COMPLETING)).thenReturn(0);
+
+        assertThatThrownBy(() -> uploadSessionService.completeSession(USER_ID, SESSION_ID, null))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("already being completed");
+
+        verify(storageService, never()).completeMultipartUpload(anyString(), anyString(), anyList());
+        verify(uploadSessionRepository, never()).transitionStatus(SESSION_ID, UploadSessionStatus.COMPLETING,
+                UploadSessionStatus.ACTIVE);
+    }
+
+    @Test
+    void completeSessionRejectsIncompleteUpload() {
+        UploadSession session = chunkedSession(null);
+        when(uploadSessionRepository.findByIdAndUserId(SESSION_ID, USER_ID)).thenReturn(Optional.of(session));
+        when(uploadSessionChunkRepository.findBySessionIdOrderByChunkIndexAsc(SESSION_ID)).thenReturn(List.of());
+
+        assertThatThrownBy(() -> uploadSessionService.completeSession(USER_ID, SESSION_ID, null))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("received 0 of 1 chunks");
+
+        verify(uploadSessionRepository, never()).transitionStatus(any(), any(), any());
+    }
+
+    @Test
+    void completeDirectUploadReleasesClaimOfSinglePutOnStorageError() {
+        UploadSession session = chunkedSession(null);
+        session.setUploadType(UploadType.DIRECT);
+        session.setStorageUploadId(null);
+        when(uploadSessionRepository.findByIdAndUserId(SESSION_ID, USER_ID)).thenReturn(Optional.of(session));
+        when(storageService.fileExists(KEY)).thenReturn(true);
+        when(storageService.getObjectInfo(KEY)).thenThrow(new FileOperationException("Failed to read object info"));
+
+        assertThatThrownBy(() -> uploadSessionService.completeDirectUpload(USER_ID, SESSION_ID, null))
+                .isInstanceOf(FileOperationException.class);
+
+        // The object is still in place, so the client can complete again
+        verify(uploadSessionRepository).transitionStatus(SESSION_ID, UploadSessionStatus.COMPLETING,
+                UploadSessionStatus.ACTIVE);
+        verify(storageService, never()).deleteFile(anyString());
+    }
+
+    @Test
+    void completeDirectUploadDoesNotReadMultipartObjectBack() {
+        UploadSession session = chunkedSession(CONTENT_SHA256);
+        session.setUploadType(UploadType.DIRECT);
+        when(uploadSessionRepository.findByIdAndUserId(SESSION_ID, USER_ID)).thenReturn(Optional.of(session));
+        when(storageService.listParts(KEY, UPLOAD_ID)).thenReturn(List.of(new StorageService.UploadedPart(1, "\"etag-1\"")));
+        // Storage reports no whole-object SHA-256 for a multipart upload
+        when(storageService.getObjectInfo(KEY)).thenReturn(Optional.of(new StorageService.ObjectInfo(
+                CONTENT.length, "application/octet-stream", "\"etag-1\"", null, Instant.now())));
+        when(storageService.downloadFileRange(KEY, 0, CONTENT.length - 1)).thenReturn(new ByteArrayInputStream(CONTENT));
+        when(fileInspector.inspect(any(), any(), any(byte[].class))).thenReturn(new FileInspection("file.bin", "bin",
+                null, "application/octet-stream", "application/octet-stream", null, false));
+        when(documentService.createDocumentFromStorage(eq(USER_ID), any(), any(), any(StoredContent.class), any()))
+                .thenReturn(DocumentResponse.builder().id(UUID.randomUUID()).build());
+
+        uploadSessionService.completeDirectUpload(USER_ID, SESSION_ID, null);
+
+        ArgumentCaptor<StoredContent> content = ArgumentCaptor.forClass(StoredContent.class);
+        verify(documentService).createDocumentFromStorage(eq(USER_ID), any(), any(), content.capture(), any());
+        // Left for content processing to hash in the background
+        assertThat(content.getValue().checksum()).isNull();
+        verify(storageService, never()).downloadFile(anyString());
+        assertThat(session.getStatus()).isEqualTo(UploadSessionStatus.COMPLETED);
+    }
+
+    private UploadSession chunkedSession(String expectedChecksum) {
+        UploadSession session = UploadSession.builder()
+                .fileName("file.bin")
+                .fileSize((long) CONTENT.length)
+                .chunkSize((long) CONTENT.length)
+                .totalChunks(1)
+                .expectedChecksum(expectedChecksum)
+                .storageKey(KEY)
+                .storageUploadId(UPLOAD_ID)
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+        session.setId(SESSION_ID);
+        return session;
+    }
+
+    private void givenAllChunksReceived(UploadSession session) {
+        UploadSessionChunk chunk = UploadSessionChunk.builder()
+                .session(session)
+                .chunkIndex(0)
+                .chunkSize((long) CONTENT.length)
+                .eTag("\"etag-1\"")
+                .build();
+        when(uploadSessionRepository.findByIdAndUserId(SESSION_ID, USER_ID)).thenReturn(Optional.of(session));
+        when(uploadSessionChunkRepository.findBySessionIdOrderByChunkIndexAsc(SESSION_ID)).thenReturn(List.of(chunk));
+    }
+}
@@ -0,0 +1,121 @@
+package com.alphadocuments.documentorganiserbackend.service.impl;
+
+import com.alphadocuments.documentorganiserbackend.entity.Document;
+import com.alphadocuments.documentorganiserbackend.entity.DocumentVersion;
+import com.alphadocuments.documentorganiserbackend.entity.DocumentVersionChunk;
+import com.alphadocuments.documentorganiserbackend.repository.DocumentVersionRepository;
+import com.alphadocuments.documentorganiserbackend.service.BlobStoreService;
+import com.alphadocuments.documentorganiserbackend.service.ChunkStoreService;
+import com.alphadocuments.documentorganiserbackend.service.StorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VersionChunkingServiceImplTest {
+
+    private static final UUID VERSION_ID = UUID.randomUUID();
+    private static final String WHOLE_KEY = "documents/user/report.pdf";
+
+    private DocumentVersionRepository documentVersionRepository;
+    private ChunkStoreService chunkStoreService;
+    private BlobStoreService blobStoreService;
+    private SimpleTransactionStatus transactionStatus;
+    private VersionChunkingServiceImpl chunkingService;
+
+    @BeforeEach
+    void setUp() {
+        documentVersionRepository = mock(DocumentVersionRepository.class);
+        chunkStoreService = mock(ChunkStoreService.class);
+        blobStoreService = mock(BlobStoreService.class);
+        StorageService storageService = mock(StorageService.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        transactionStatus = new SimpleTransactionStatus();
+
+        chunkingService = new VersionChunkingServiceImpl(documentVersionRepository, chunkStoreService, blobStoreService,
+                storageService, new TransactionTemplate(transactionManager), Runnable::run);
+
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        when(storageService.downloadFile(WHOLE_KEY)).thenReturn(new ByteArrayInputStream(new byte[10]));
+        when(chunkStoreService.storeChunks(any())).thenReturn(List.of(
+                new ChunkStoreService.StoredChunk("chunks/aa/a", 6),
+                new ChunkStoreService.StoredChunk("chunks/bb/b", 4)));
+    }
+
+    @Test
+    void chunksSupersededVersionAndReleasesWholeObject() {
+        DocumentVersion version = givenVersion(2, 3);
+        when(documentVersionRepository.markChunked(VERSION_ID)).thenReturn(1);
+
+        chunkingService.submit(VERSION_ID);
+
+        assertThat(version.getChunked()).isTrue();
+        assertThat(version.getStorageKey()).isNull();
+        assertThat(version.getChunks()).extracting(DocumentVersionChunk::getStorageKey)
+                .containsExactly("chunks/aa/a", "chunks/bb/b");
+        verify(documentVersionRepository).save(version);
+        verify(blobStoreService).release(WHOLE_KEY);
+    }
+
+    @Test
+    void leavesCurrentVersionWhole() {
+        // Restored to be the current version before the worker got to it
+        givenVersion(3, 3);
+
+        chunkingService.submit(VERSION_ID);
+
+        verify(chunkStoreService, never()).storeChunks(any());
+        verify(blobStoreService, never()).release(anyString());
+    }
+
+    @Test
+    void lostClaimRollsBackAndKeepsWholeObject() {
+        DocumentVersion version = givenVersion(2, 3);
+        when(documentVersionRepository.markChunked(VERSION_ID)).thenReturn(0);
+
+        chunkingService.submit(VERSION_ID);
+
+        assertThat(version.getChunks()).isEmpty();
+        assertThat(transactionStatus.isRollbackOnly()).isTrue();
+        verify(blobStoreService, never()).release(anyString());
+    }
+
+    @Test
+    void failureLeavesVersionForNextSweep() {
+        DocumentVersion version = givenVersion(2, 3);
+        when(chunkStoreService.storeChunks(any())).thenThrow(new IllegalStateException("storage unavailable"));
+
+        chunkingService.submit(VERSION_ID);
+
+        assertThat(version.getChunked()).isFalse();
+        assertThat(version.getStorageKey()).isEqualTo(WHOLE_KEY);
+        verify(documentVersionRepository, never()).markChunked(any());
+    }
+
+    private DocumentVersion givenVersion(int versionNumber, int currentVersion) {
+        Document document = Document.builder().version(currentVersion).build();
+        DocumentVersion version = DocumentVersion.builder()
+                .document(document)
+                .versionNumber(versionNumber)
+                .storageKey(WHOLE_KEY)
+                .fileSize(10L)
+                .build();
+        version.setId(VERSION_ID);
+        when(documentVersionRepository.findById(VERSION_ID)).thenReturn(Optional.of(version));
+        return version;
+    }
+}
@@ -0,0 +1,70 @@
+package com.alphadocuments.documentorganiserbackend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArchiveNamingTest {
+
+    @Test
+    void duplicatesAreNumberedIgnoringCase() {
+        Set<String> used = new HashSet<>();
+
+        assertThat(ArchiveNaming.uniquePath("Reports/a.txt", used)).isEqualTo("Reports/a.txt");
+        assertThat(ArchiveNaming.uniquePath("Reports/a.txt", used)).isEqualTo("Reports/a (1).txt");
+        assertThat(ArchiveNaming.uniquePath("reports/A.TXT", used)).isEqualTo("reports/A (2).TXT");
+        assertThat(ArchiveNaming.uniquePath("Other/a.txt", used)).isEqualTo("Other/a.txt");
+    }
+
+    @Test
+    void numberedNameDoesNotCollideWithExistingOne() {
+        Set<String> used = new HashSet<>();
+        ArchiveNaming.uniquePath("a (1).txt", used);
+        ArchiveNaming.uniquePath("a.txt", used);
+
+        assertThat(ArchiveNaming.uniquePath("a.txt", used)).isEqualTo("a (2).txt");
+    }
+
+    @Test
+    void pathsCannotEscapeArchive() {
+        Set<String> used = new HashSet<>();
+
+        assertThat(ArchiveNaming.uniquePath("../../etc/passwd", used)).isEqualTo("etc/passwd");
+        assertThat(ArchiveNaming.uniquePath("/absolute/file.pdf", used)).isEqualTo("absolute/file.pdf");
+        assertThat(ArchiveNaming.uniquePath("windows\\style\\doc.docx", used)).isEqualTo("windows/style/doc.docx");
+        assertThat(ArchiveNaming.uniquePath("a/./b//c.txt", used)).isEqualTo("a/b/c.txt");
+    }
+
+    @Test
+    void emptyPathGetsPlaceholderName() {
+        Set<String> used = new HashSet<>();
+
+        assertThat(ArchiveNaming.uniquePath(" / .. / . ", used)).isEqualTo("unnamed");
+        assertThat(ArchiveNaming.uniquePath("", used)).isEqualTo("unnamed (1)");
+    }
+
+    @Test
+    void onlyDotInFileNameStartsExtension() {
+        Set<String> used = new HashSet<>();
+        ArchiveNaming.uniquePath(".bashrc", used);
+        ArchiveNaming.uniquePath("v1.2/readme", used);
+
+        assertThat(ArchiveNaming.uniquePath(".bashrc", used)).isEqualTo(".bashrc (1)");
+        assertThat(ArchiveNaming.uniquePath("v1.2/readme", used)).isEqualTo("v1.2/readme (1)");
+    }
+
+    @Test
+    void recognisesAlreadyCompressedTypes() {
+        assertThat(ArchiveNaming.isCompressed("image/jpeg")).isTrue();
+        assertThat(ArchiveNaming.isCompressed("Application/ZIP")).isTrue();
+        assertThat(ArchiveNaming.isCompressed("video/mp4")).isTrue();
+        assertThat(ArchiveNaming.isCompressed("audio/mpeg")).isTrue();
+
+        assertThat(ArchiveNaming.isCompressed("text/plain")).isFalse();
+        assertThat(ArchiveNaming.isCompressed("application/pdf")).isFalse();
+        assertThat(ArchiveNaming.isCompressed(null)).isFalse();
+    }
+}
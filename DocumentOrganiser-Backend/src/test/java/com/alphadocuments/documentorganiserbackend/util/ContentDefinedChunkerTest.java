@@ -0,0 +1,125 @@
+package com.alphadocuments.documentorganiserbackend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContentDefinedChunkerTest {
+
+    private static final int MIN = 256;
+    private static final int AVERAGE = 1024;
+    private static final int MAX = 4096;
+
+    @Test
+    void emptyStreamHasNoChunks() throws IOException {
+        assertThat(chunk(new byte[0])).isEmpty();
+    }
+
+    @Test
+    void contentShorterThanMinimumIsOneChunk() throws IOException {
+        byte[] content = randomBytes(MIN - 1, 1);
+
+        List<byte[]> chunks = chunk(content);
+
+        assertThat(chunks).hasSize(1);
+        assertThat(chunks.get(0)).isEqualTo(content);
+    }
+
+    @Test
+    void chunksStayWithinBoundsAndReassembleToInput() throws IOException {
+        byte[] content = randomBytes(256 * 1024, 2);
+
+        List<byte[]> chunks = chunk(content);
+
+        assertThat(chunks.size()).isGreaterThan(content.length / MAX);
+        for (byte[] chunk : chunks.subList(0, chunks.size() - 1)) {
+            assertThat(chunk.length).isBetween(MIN + 1, MAX);
+        }
+        assertThat(chunks.get(chunks.size() - 1).length).isBetween(1, MAX);
+        assertThat(concat(chunks)).isEqualTo(content);
+    }
+
+    @Test
+    void uniformContentIsCutAtMaximum() throws IOException {
+        // Zeros never produce a boundary, so chunks are only cut when the maximum is reached
+        byte[] content = new byte[3 * MAX];
+
+        assertThat(sizes(chunk(content))).containsExactly(MAX, MAX, MAX);
+    }
+
+    @Test
+    void boundariesAreDeterministic() throws IOException {
+        byte[] content = randomBytes(64 * 1024, 3);
+
+        assertThat(sizes(chunk(content))).isEqualTo(sizes(chunk(content)));
+    }
+
+    @Test
+    void insertionOnlyChangesChunksAroundIt() throws IOException {
+        byte[] original = randomBytes(256 * 1024, 4);
+        int offset = original.length / 2;
+        byte[] edited = new byte[original.length + 10];
+        System.arraycopy(original, 0, edited, 0, offset);
+        System.arraycopy(randomBytes(10, 5), 0, edited, offset, 10);
+        System.arraycopy(original, offset, edited, offset + 10, original.length - offset);
+
+        List<byte[]> originalChunks = chunk(original);
+        Set<String> originalSet = new HashSet<>();
+        originalChunks.forEach(chunk -> originalSet.add(Arrays.toString(chunk)));
+        long changed = chunk(edited).stream().filter(chunk -> !originalSet.contains(Arrays.toString(chunk))).count();
+
+        // A shifted offset would change nearly every chunk; content-defined boundaries resynchronise
+        assertThat(changed).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void rejectsInvalidSizes() {
+        ByteArrayInputStream input = new ByteArrayInputStream(new byte[0]);
+
+        assertThatThrownBy(() -> new ContentDefinedChunker(input, 0, AVERAGE, MAX))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ContentDefinedChunker(input, MIN, 1000, MAX))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ContentDefinedChunker(input, MIN, AVERAGE, AVERAGE - 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ContentDefinedChunker(input, AVERAGE * 2, AVERAGE, MAX))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<byte[]> chunk(byte[] content) throws IOException {
+        ContentDefinedChunker chunker = new ContentDefinedChunker(new ByteArrayInputStream(content), MIN, AVERAGE, MAX);
+        List<byte[]> chunks = new ArrayList<>();
+        byte[] chunk;
+        while ((chunk = chunker.nextChunk()) != null) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private static List<Integer> sizes(List<byte[]> chunks) {
+        return chunks.stream().map(chunk -> chunk.length).toList();
+    }
+
+    private static byte[] concat(List<byte[]> chunks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        chunks.forEach(out::writeBytes);
+        return out.toByteArray();
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
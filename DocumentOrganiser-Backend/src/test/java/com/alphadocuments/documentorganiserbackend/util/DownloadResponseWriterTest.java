@@ -0,0 +1,277 @@
+package com.alphadocuments.documentorganiserbackend.util;
+
+import com.alphadocuments.documentorganiserbackend.config.StorageProperties;
+import com.alphadocuments.documentorganiserbackend.service.DownloadContent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DownloadResponseWriterTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final String CHECKSUM = "84d89877f0d4041efb6bf91a16f0248f2fd573e6af05c19f96bedb9f882f7882";
+    private static final Instant LAST_MODIFIED = Instant.parse("2024-05-17T10:15:30Z");
+
+    private DownloadResponseWriter writer;
+    private List<long[]> openedRanges;
+
+    @BeforeEach
+    void setUp() {
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.getDownloads().setMode(StorageProperties.Downloads.Mode.PROXY);
+        writer = new DownloadResponseWriter(new SimpleMeterRegistry(), storageProperties);
+        openedRanges = new ArrayList<>();
+    }
+
+    @Test
+    void servesFullContentWithoutRange() throws Exception {
+        MockHttpServletResponse response = download(request());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void servesSingleRangeWithOneRangedRead() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentLengthLong()).isEqualTo(4);
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+        assertThat(openedRanges).containsExactly(new long[]{2, 5});
+    }
+
+    @Test
+    void servesSuffixAndOpenEndedRanges() throws Exception {
+        MockHttpServletRequest suffix = request();
+        suffix.addHeader(HttpHeaders.RANGE, "bytes=-3");
+        assertThat(download(suffix).getContentAsString()).isEqualTo("789");
+
+        MockHttpServletRequest openEnded = request();
+        openEnded.addHeader(HttpHeaders.RANGE, "bytes=7-");
+        MockHttpServletResponse response = download(openEnded);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 7-9/10");
+        assertThat(response.getContentAsString()).isEqualTo("789");
+    }
+
+    @Test
+    void servesSeveralRangesAsMultipart() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,5-6");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+        String body = response.getContentAsString();
+        assertThat(body).contains("Content-Range: bytes 0-1/10\r\n\r\n01")
+                .contains("Content-Range: bytes 5-6/10\r\n\r\n56");
+        assertThat(response.getContentLengthLong()).isEqualTo(response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void answersRangeBeyondEndWith416() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-30");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+        assertThat(openedRanges).isEmpty();
+    }
+
+    @Test
+    void ignoresMalformedAndNonByteRanges() throws Exception {
+        MockHttpServletRequest malformed = request();
+        malformed.addHeader(HttpHeaders.RANGE, "bytes=abc");
+        assertThat(download(malformed).getStatus()).isEqualTo(200);
+
+        MockHttpServletRequest otherUnit = request();
+        otherUnit.addHeader(HttpHeaders.RANGE, "pages=1-2");
+        assertThat(download(otherUnit).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void servesFullContentWhenRangesAddUpToMoreThanFile() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9,0-9");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void ifRangeWithCurrentEntityTagServesRange() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"" + CHECKSUM + "\"");
+
+        assertThat(download(request).getStatus()).isEqualTo(206);
+    }
+
+    @Test
+    void ifRangeWithStaleOrWeakEntityTagServesFullContent() throws Exception {
+        MockHttpServletRequest stale = request();
+        stale.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"0000\"");
+        assertThat(download(stale).getStatus()).isEqualTo(200);
+
+        MockHttpServletRequest weak = request();
+        weak.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        weak.addHeader(HttpHeaders.IF_RANGE, "W/\"" + CHECKSUM + "\"");
+        assertThat(download(weak).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void ifRangeWithDateServesRangeOnlyWhenUnchanged() throws Exception {
+        MockHttpServletRequest current = request();
+        current.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        current.addHeader(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED));
+        assertThat(download(current).getStatus()).isEqualTo(206);
+
+        MockHttpServletRequest stale = request();
+        stale.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        stale.addHeader(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED.minusSeconds(60)));
+        assertThat(download(stale).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void headRequestWithRangeSendsHeadersOnly() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/download");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentLengthLong()).isEqualTo(4);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(openedRanges).isEmpty();
+    }
+
+    @Test
+    void fullResponseCarriesValidators() throws Exception {
+        MockHttpServletResponse response = download(request());
+
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + CHECKSUM + "\"");
+        assertThat(response.getDateHeader(HttpHeaders.LAST_MODIFIED)).isEqualTo(LAST_MODIFIED.toEpochMilli());
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("no-cache").contains("private");
+    }
+
+    @Test
+    void matchingEntityTagIsAnsweredWith304WithoutReadingContent() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + CHECKSUM + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean written = writer.write(request, response, content(), "test");
+
+        assertThat(written).isFalse();
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + CHECKSUM + "\"");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(openedRanges).isEmpty();
+    }
+
+    @Test
+    void notModifiedTakesPrecedenceOverRange() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + CHECKSUM + "\"");
+        request.addHeader(HttpHeaders.RANGE, "bytes=1024-");
+
+        assertThat(download(request).getStatus()).isEqualTo(304);
+        assertThat(openedRanges).isEmpty();
+    }
+
+    @Test
+    void changedEntityTagServesContent() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"0000\"");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void unchangedModificationDateIsAnsweredWith304() throws Exception {
+        MockHttpServletRequest unchanged = request();
+        unchanged.addHeader(HttpHeaders.IF_MODIFIED_SINCE, httpDate(LAST_MODIFIED));
+        assertThat(download(unchanged).getStatus()).isEqualTo(304);
+
+        MockHttpServletRequest older = request();
+        older.addHeader(HttpHeaders.IF_MODIFIED_SINCE, httpDate(LAST_MODIFIED.minusSeconds(60)));
+        assertThat(download(older).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void contentWithoutChecksumHasNoEntityTag() throws Exception {
+        DownloadContent unhashed = new DownloadContent("digits.txt", "text/plain", CONTENT.length, null,
+                LAST_MODIFIED, content().reader(), null, null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.write(request(), response, unhashed, "test");
+
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(response.getDateHeader(HttpHeaders.LAST_MODIFIED)).isEqualTo(LAST_MODIFIED.toEpochMilli());
+    }
+
+    @Test
+    void onlyRequestsFromFirstByteStartDownloads() {
+        MockHttpServletRequest plain = request();
+        assertThat(DownloadResponseWriter.isInitialRequest(plain)).isTrue();
+
+        MockHttpServletRequest fromStart = request();
+        fromStart.addHeader(HttpHeaders.RANGE, "bytes=0-1023");
+        assertThat(DownloadResponseWriter.isInitialRequest(fromStart)).isTrue();
+
+        MockHttpServletRequest followUp = request();
+        followUp.addHeader(HttpHeaders.RANGE, "bytes=1024-");
+        assertThat(DownloadResponseWriter.isInitialRequest(followUp)).isFalse();
+    }
+
+    private MockHttpServletResponse download(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(request, response, content(), "test");
+        return response;
+    }
+
+    private DownloadContent content() {
+        DownloadContent.RangeReader reader = (start, end) -> {
+            openedRanges.add(new long[]{start, end});
+            return new ByteArrayInputStream(Arrays.copyOfRange(CONTENT, (int) start, (int) end + 1));
+        };
+        return new DownloadContent("digits.txt", "text/plain", CONTENT.length, CHECKSUM, LAST_MODIFIED, reader,
+                null, null);
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/download");
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atZone(ZoneOffset.UTC));
+    }
+}